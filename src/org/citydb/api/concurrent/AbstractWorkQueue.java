@@ -0,0 +1,64 @@
+/*
+ * 3D City Database - The Open Source CityGML Database
+ * http://www.3dcitydb.org/
+ * 
+ * Copyright 2013 - 2016
+ * Chair of Geoinformatics
+ * Technical University of Munich, Germany
+ * https://www.gis.bgu.tum.de/
+ * 
+ * The 3D City Database is jointly developed with the following
+ * cooperation partners:
+ * 
+ * virtualcitySYSTEMS GmbH, Berlin <http://www.virtualcitysystems.de/>
+ * M.O.S.S. Computer Grafik Systeme GmbH, Taufkirchen <http://www.moss.de/>
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *     
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.citydb.api.concurrent;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Implementation of a WorkQueue. The public WorkQueue delegates to one 
+ * of the subclasses according to the requested WorkQueueType.
+ */
+abstract class AbstractWorkQueue<E> {
+	public abstract boolean offer(E work);
+	public abstract boolean offer(E work, long timeout, TimeUnit unit) throws InterruptedException;
+	public abstract void put(E work);
+	public abstract E poll();
+	public abstract E poll(long timeout, TimeUnit unit) throws InterruptedException;
+	public abstract E take() throws InterruptedException;
+	public abstract E peek();
+	public abstract boolean remove(E work);
+	public abstract int size();
+	public abstract int remainingCapacity();
+	public abstract boolean isEmpty();
+	public abstract void clear();
+	public abstract int drainTo(Collection<? super E> collection);
+	public abstract int drainTo(Collection<? super E> collection, int maxElements);
+
+	public void putAll(Collection<? extends E> batch) {
+		for (E work : batch)
+			put(work);
+	}
+
+	// waits until all work items have been taken or the calling thread is interrupted
+	abstract void awaitEmpty();
+
+	// blocks producers until endFlush() is called
+	abstract void beginFlush();
+	abstract void endFlush();
+}
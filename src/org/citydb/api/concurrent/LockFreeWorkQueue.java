@@ -0,0 +1,165 @@
+/*
+ * 3D City Database - The Open Source CityGML Database
+ * http://www.3dcitydb.org/
+ * 
+ * Copyright 2013 - 2016
+ * Chair of Geoinformatics
+ * Technical University of Munich, Germany
+ * https://www.gis.bgu.tum.de/
+ * 
+ * The 3D City Database is jointly developed with the following
+ * cooperation partners:
+ * 
+ * virtualcitySYSTEMS GmbH, Berlin <http://www.virtualcitysystems.de/>
+ * M.O.S.S. Computer Grafik Systeme GmbH, Taufkirchen <http://www.moss.de/>
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *     
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.citydb.api.concurrent;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/*
+ * Bounded multi-producer multi-consumer array queue. Every slot carries a
+ * sequence number that tells producers and consumers whether the slot may
+ * be written or read for the current lap, so offer and poll only need a
+ * single CAS on the tail or head position.
+ */
+final class LockFreeWorkQueue<E> extends ParkingWorkQueue<E> {
+	private static final Object REMOVED = new Object();
+
+	private final int capacity;
+	private final AtomicReferenceArray<Object> workItems;
+	private final AtomicLongArray sequences;
+	private final AtomicLong head = new AtomicLong();
+	private final AtomicLong tail = new AtomicLong();
+
+	LockFreeWorkQueue(int capacity) {
+		if (capacity <= 0)
+			throw new IllegalArgumentException();
+
+		this.capacity = capacity;
+		workItems = new AtomicReferenceArray<Object>(capacity);
+		sequences = new AtomicLongArray(capacity);
+		for (int i = 0; i < capacity; i++)
+			sequences.set(i, i);
+	}
+
+	@Override
+	boolean insert(E work) {
+		for (;;) {
+			long pos = tail.get();
+			int index = (int)(pos % capacity);
+			long diff = sequences.get(index) - pos;
+
+			if (diff == 0) {
+				if (tail.compareAndSet(pos, pos + 1)) {
+					workItems.set(index, work);
+					sequences.set(index, pos + 1);
+					consumers.signal();
+					return true;
+				}
+			} else if (diff < 0)
+				return false;
+		}
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	E extract() {
+		for (;;) {
+			long pos = head.get();
+			int index = (int)(pos % capacity);
+			long diff = sequences.get(index) - (pos + 1);
+
+			if (diff == 0) {
+				if (head.compareAndSet(pos, pos + 1)) {
+					Object work = workItems.getAndSet(index, null);
+					sequences.set(index, pos + capacity);
+					producers.signal();
+					if (isEmpty())
+						emptyWaiters.signalAll();
+
+					// skip work items that have been removed in the meantime
+					if (work != REMOVED)
+						return (E)work;
+				}
+			} else if (diff < 0)
+				return null;
+		}
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public E peek() {
+		long pos = head.get();
+		long end = tail.get();
+		for (; pos < end; pos++) {
+			int index = (int)(pos % capacity);
+			long diff = sequences.get(index) - (pos + 1);
+			if (diff < 0)
+				return null;
+
+			Object work = workItems.get(index);
+			if (diff == 0 && work != null && work != REMOVED)
+				return (E)work;
+		}
+
+		return null;
+	}
+
+	@Override
+	public boolean remove(E work) {
+		if (work == null)
+			return false;
+
+		long pos = head.get();
+		long end = tail.get();
+		for (; pos < end; pos++) {
+			int index = (int)(pos % capacity);
+			Object item = workItems.get(index);
+			if (item != null && item != REMOVED && work.equals(item)) {
+				// the slot is released once a consumer reaches it
+				if (workItems.compareAndSet(index, item, REMOVED))
+					return true;
+			}
+		}
+
+		return false;
+	}
+
+	@Override
+	public int size() {
+		for (;;) {
+			long currentTail = tail.get();
+			long currentHead = head.get();
+			if (tail.get() == currentTail) {
+				long size = currentTail - currentHead;
+				return (int)Math.max(0, Math.min(size, capacity));
+			}
+		}
+	}
+
+	@Override
+	public int remainingCapacity() {
+		return capacity - size();
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return size() == 0;
+	}
+
+}
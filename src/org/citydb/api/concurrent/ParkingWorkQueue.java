@@ -0,0 +1,340 @@
+/*
+ * 3D City Database - The Open Source CityGML Database
+ * http://www.3dcitydb.org/
+ * 
+ * Copyright 2013 - 2016
+ * Chair of Geoinformatics
+ * Technical University of Munich, Germany
+ * https://www.gis.bgu.tum.de/
+ * 
+ * The 3D City Database is jointly developed with the following
+ * cooperation partners:
+ * 
+ * virtualcitySYSTEMS GmbH, Berlin <http://www.virtualcitysystems.de/>
+ * M.O.S.S. Computer Grafik Systeme GmbH, Taufkirchen <http://www.moss.de/>
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *     
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.citydb.api.concurrent;
+
+import java.util.Collection;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/*
+ * Base class for work queues that do not guard their state with a lock.
+ * Subclasses only provide non-blocking insert and extract operations.
+ * Threads that have to wait for a work item, free capacity, an empty queue
+ * or the end of a flush are parked and registered in wait lists. Every
+ * state change is followed by a check of the corresponding wait list, and
+ * every waiter re-checks the state after registering, so wake-ups cannot
+ * be lost.
+ */
+abstract class ParkingWorkQueue<E> extends AbstractWorkQueue<E> {
+	private static final int SPINS = Runtime.getRuntime().availableProcessors() > 1 ? 64 : 0;
+
+	final WaitList consumers = new WaitList();
+	final WaitList producers = new WaitList();
+	final WaitList emptyWaiters = new WaitList();
+	private final WaitList flushWaiters = new WaitList();
+	private volatile boolean blockAndFlush;
+
+	// must signal a consumer after a successful insert
+	abstract boolean insert(E work);
+
+	// must signal a producer and, if the queue became empty, all empty waiters
+	abstract E extract();
+
+	// called before a thread blocks in take()
+	void registerConsumer() {
+		// nothing to do
+	}
+
+	final void awaitFlushed() {
+		if (!blockAndFlush)
+			return;
+
+		Thread current = Thread.currentThread();
+		boolean interrupted = false;
+		while (blockAndFlush) {
+			flushWaiters.add(current);
+			if (blockAndFlush)
+				LockSupport.park(this);
+
+			flushWaiters.remove(current);
+			interrupted |= Thread.interrupted();
+		}
+
+		if (interrupted)
+			current.interrupt();
+	}
+
+	@Override
+	public boolean offer(E work) {
+		if (work == null)
+			throw new NullPointerException();
+
+		awaitFlushed();
+		return insert(work);
+	}
+
+	@Override
+	public boolean offer(E work, long timeout, TimeUnit unit) throws InterruptedException {
+		if (work == null)
+			throw new NullPointerException();
+
+		if (Thread.interrupted())
+			throw new InterruptedException();
+
+		awaitFlushed();
+		if (insert(work))
+			return true;
+
+		long deadline = System.nanoTime() + unit.toNanos(timeout);
+		Thread current = Thread.currentThread();
+		for (;;) {
+			long nanos = deadline - System.nanoTime();
+			if (nanos <= 0)
+				return false;
+
+			producers.add(current);
+			if (insert(work)) {
+				producers.remove(current);
+				return true;
+			}
+
+			LockSupport.parkNanos(this, nanos);
+			producers.remove(current);
+
+			if (Thread.interrupted()) {
+				// pass on a wake-up we might have consumed
+				if (remainingCapacity() > 0)
+					producers.signal();
+				throw new InterruptedException();
+			}
+
+			if (insert(work))
+				return true;
+		}
+	}
+
+	@Override
+	public void put(E work) {
+		if (work == null)
+			throw new NullPointerException();
+
+		awaitFlushed();
+		if (insert(work))
+			return;
+
+		Thread current = Thread.currentThread();
+		boolean interrupted = false;
+		for (;;) {
+			producers.add(current);
+			if (insert(work)) {
+				producers.remove(current);
+				break;
+			}
+
+			LockSupport.park(this);
+			producers.remove(current);
+			interrupted |= Thread.interrupted();
+
+			if (insert(work))
+				break;
+		}
+
+		if (interrupted)
+			current.interrupt();
+	}
+
+	@Override
+	public E poll() {
+		return extract();
+	}
+
+	@Override
+	public E poll(long timeout, TimeUnit unit) throws InterruptedException {
+		if (Thread.interrupted())
+			throw new InterruptedException();
+
+		E work = spinAndExtract();
+		if (work != null)
+			return work;
+
+		long deadline = System.nanoTime() + unit.toNanos(timeout);
+		Thread current = Thread.currentThread();
+		for (;;) {
+			long nanos = deadline - System.nanoTime();
+			if (nanos <= 0)
+				return null;
+
+			consumers.add(current);
+			work = extract();
+			if (work != null) {
+				consumers.remove(current);
+				return passOn(work);
+			}
+
+			LockSupport.parkNanos(this, nanos);
+			consumers.remove(current);
+
+			if (Thread.interrupted()) {
+				// pass on a wake-up we might have consumed
+				if (!isEmpty())
+					consumers.signal();
+				throw new InterruptedException();
+			}
+
+			work = extract();
+			if (work != null)
+				return passOn(work);
+		}
+	}
+
+	@Override
+	public E take() throws InterruptedException {
+		if (Thread.interrupted())
+			throw new InterruptedException();
+
+		registerConsumer();
+		E work = spinAndExtract();
+		if (work != null)
+			return work;
+
+		Thread current = Thread.currentThread();
+		for (;;) {
+			consumers.add(current);
+			work = extract();
+			if (work != null) {
+				consumers.remove(current);
+				return passOn(work);
+			}
+
+			LockSupport.park(this);
+			consumers.remove(current);
+
+			if (Thread.interrupted()) {
+				// pass on a wake-up we might have consumed
+				if (!isEmpty())
+					consumers.signal();
+				throw new InterruptedException();
+			}
+
+			work = extract();
+			if (work != null)
+				return passOn(work);
+		}
+	}
+
+	private E spinAndExtract() {
+		// work items typically arrive in quick succession, so briefly
+		// spinning is cheaper than parking and unparking the thread
+		for (int i = 0; i < SPINS; i++) {
+			E work = extract();
+			if (work != null)
+				return work;
+		}
+
+		return null;
+	}
+
+	private E passOn(E work) {
+		// a wake-up may have been taken by a consumer that found
+		// other work, so wake up the next one if there is more
+		if (!isEmpty())
+			consumers.signal();
+
+		return work;
+	}
+
+	@Override
+	public void clear() {
+		while (extract() != null);
+	}
+
+	@Override
+	public int drainTo(Collection<? super E> collection) {
+		return drainTo(collection, Integer.MAX_VALUE);
+	}
+
+	@Override
+	public int drainTo(Collection<? super E> collection, int maxElements) {
+		if (collection == null)
+			throw new NullPointerException();
+
+		int n = 0;
+		while (n < maxElements) {
+			E work = extract();
+			if (work == null)
+				break;
+
+			collection.add(work);
+			++n;
+		}
+
+		return n;
+	}
+
+	@Override
+	void awaitEmpty() {
+		Thread current = Thread.currentThread();
+		while (!isEmpty()) {
+			emptyWaiters.add(current);
+			if (!isEmpty())
+				LockSupport.park(this);
+
+			emptyWaiters.remove(current);
+			if (Thread.interrupted())
+				return;
+		}
+	}
+
+	@Override
+	void beginFlush() {
+		blockAndFlush = true;
+	}
+
+	@Override
+	void endFlush() {
+		blockAndFlush = false;
+		flushWaiters.signalAll();
+	}
+
+	static final class WaitList {
+		private final ConcurrentLinkedQueue<Thread> threads = new ConcurrentLinkedQueue<Thread>();
+
+		void add(Thread thread) {
+			threads.add(thread);
+		}
+
+		void remove(Thread thread) {
+			threads.remove(thread);
+		}
+
+		void signal() {
+			if (!threads.isEmpty()) {
+				Thread thread = threads.poll();
+				if (thread != null)
+					LockSupport.unpark(thread);
+			}
+		}
+
+		void signalAll() {
+			Thread thread;
+			while ((thread = threads.poll()) != null)
+				LockSupport.unpark(thread);
+		}
+	}
+}
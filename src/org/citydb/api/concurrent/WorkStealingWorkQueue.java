@@ -0,0 +1,284 @@
+/*
+ * 3D City Database - The Open Source CityGML Database
+ * http://www.3dcitydb.org/
+ * 
+ * Copyright 2013 - 2016
+ * Chair of Geoinformatics
+ * Technical University of Munich, Germany
+ * https://www.gis.bgu.tum.de/
+ * 
+ * The 3D City Database is jointly developed with the following
+ * cooperation partners:
+ * 
+ * virtualcitySYSTEMS GmbH, Berlin <http://www.virtualcitysystems.de/>
+ * M.O.S.S. Computer Grafik Systeme GmbH, Taufkirchen <http://www.moss.de/>
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *     
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.citydb.api.concurrent;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+ * Bounded work queue with one local deque per consumer thread. Single work
+ * items are added to a shared queue, whereas batches are split into chunks
+ * that are handed to the local deques of the consumers in turn. A consumer
+ * first takes work from the head of its own deque, then from the shared
+ * queue, and finally steals from the tail of the deques of other consumers.
+ * The capacity is shared by all deques.
+ */
+final class WorkStealingWorkQueue<E> extends ParkingWorkQueue<E> {
+	private static final int MAX_CHUNK_SIZE = 32;
+
+	private final int capacity;
+	private final AtomicInteger count = new AtomicInteger();
+	private final AtomicInteger nextQueue = new AtomicInteger();
+
+	private final ConcurrentLinkedQueue<E> sharedQueue = new ConcurrentLinkedQueue<E>();
+	private final CopyOnWriteArrayList<LocalQueue<E>> localQueues = new CopyOnWriteArrayList<LocalQueue<E>>();
+	private final ThreadLocal<LocalQueue<E>> localQueue = new ThreadLocal<LocalQueue<E>>();
+
+	WorkStealingWorkQueue(int capacity) {
+		if (capacity <= 0)
+			throw new IllegalArgumentException();
+
+		this.capacity = capacity;
+	}
+
+	@Override
+	void registerConsumer() {
+		if (localQueue.get() == null) {
+			LocalQueue<E> queue = new LocalQueue<E>(Thread.currentThread());
+			localQueue.set(queue);
+			localQueues.add(queue);
+		}
+	}
+
+	private int reserve(int max) {
+		for (;;) {
+			int current = count.get();
+			int n = Math.min(max, capacity - current);
+			if (n <= 0)
+				return 0;
+
+			if (count.compareAndSet(current, current + n))
+				return n;
+		}
+	}
+
+	private void release(int n) {
+		if (count.addAndGet(-n) == 0)
+			emptyWaiters.signalAll();
+
+		producers.signal();
+	}
+
+	@Override
+	boolean insert(E work) {
+		if (reserve(1) == 0)
+			return false;
+
+		sharedQueue.add(work);
+		consumers.signal();
+		return true;
+	}
+
+	@Override
+	E extract() {
+		E work = null;
+
+		LocalQueue<E> own = localQueue.get();
+		if (own != null)
+			work = own.deque.pollFirst();
+
+		if (work == null)
+			work = sharedQueue.poll();
+
+		if (work == null)
+			work = steal(own);
+
+		if (work != null)
+			release(1);
+
+		return work;
+	}
+
+	private E steal(LocalQueue<E> own) {
+		Object[] queues = localQueues.toArray();
+		if (queues.length == 0)
+			return null;
+
+		int start = ThreadLocalRandom.current().nextInt(queues.length);
+		for (int i = 0; i < queues.length; i++) {
+			@SuppressWarnings("unchecked")
+			LocalQueue<E> queue = (LocalQueue<E>)queues[(start + i) % queues.length];
+			if (queue == own)
+				continue;
+
+			E work = queue.deque.pollLast();
+			if (work != null)
+				return work;
+
+			// forget about deques of terminated consumers
+			if (!queue.owner.isAlive() && queue.deque.isEmpty())
+				localQueues.remove(queue);
+		}
+
+		return null;
+	}
+
+	private LocalQueue<E> nextLocalQueue() {
+		Object[] queues = localQueues.toArray();
+		if (queues.length == 0)
+			return null;
+
+		int start = (nextQueue.getAndIncrement() & Integer.MAX_VALUE) % queues.length;
+		for (int i = 0; i < queues.length; i++) {
+			@SuppressWarnings("unchecked")
+			LocalQueue<E> queue = (LocalQueue<E>)queues[(start + i) % queues.length];
+			if (queue.owner.isAlive())
+				return queue;
+		}
+
+		return null;
+	}
+
+	@Override
+	public void putAll(Collection<? extends E> batch) {
+		if (batch == null)
+			throw new NullPointerException();
+
+		awaitFlushed();
+
+		// spread the batch over all consumers
+		int queues = Math.max(1, localQueues.size());
+		int chunkSize = Math.max(1, Math.min(MAX_CHUNK_SIZE, (batch.size() + queues - 1) / queues));
+		List<E> chunk = new ArrayList<E>(chunkSize);
+
+		Iterator<? extends E> iter = batch.iterator();
+		while (iter.hasNext()) {
+			int n = reserve(chunkSize);
+			if (n == 0) {
+				// the queue is full, so wait for free capacity
+				put(iter.next());
+				continue;
+			}
+
+			while (chunk.size() < n && iter.hasNext()) {
+				E work = iter.next();
+				if (work == null) {
+					release(n - chunk.size());
+					addChunk(chunk);
+					throw new NullPointerException();
+				}
+
+				chunk.add(work);
+			}
+
+			if (chunk.size() < n)
+				release(n - chunk.size());
+
+			addChunk(chunk);
+		}
+	}
+
+	private void addChunk(List<E> chunk) {
+		if (chunk.isEmpty())
+			return;
+
+		LocalQueue<E> queue = nextLocalQueue();
+		if (queue != null)
+			queue.deque.addAll(chunk);
+		else
+			sharedQueue.addAll(chunk);
+
+		chunk.clear();
+		consumers.signal();
+	}
+
+	@Override
+	public E peek() {
+		E work = null;
+
+		LocalQueue<E> own = localQueue.get();
+		if (own != null)
+			work = own.deque.peekFirst();
+
+		if (work == null)
+			work = sharedQueue.peek();
+
+		if (work == null) {
+			for (LocalQueue<E> queue : localQueues) {
+				work = queue.deque.peekLast();
+				if (work != null)
+					break;
+			}
+		}
+
+		return work;
+	}
+
+	@Override
+	public boolean remove(E work) {
+		if (work == null)
+			return false;
+
+		boolean removed = sharedQueue.remove(work);
+		if (!removed) {
+			for (LocalQueue<E> queue : localQueues) {
+				if (queue.deque.removeFirstOccurrence(work)) {
+					removed = true;
+					break;
+				}
+			}
+		}
+
+		if (removed)
+			release(1);
+
+		return removed;
+	}
+
+	@Override
+	public int size() {
+		return count.get();
+	}
+
+	@Override
+	public int remainingCapacity() {
+		return capacity - count.get();
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return count.get() == 0;
+	}
+
+	private static final class LocalQueue<E> {
+		private final Thread owner;
+		private final ConcurrentLinkedDeque<E> deque = new ConcurrentLinkedDeque<E>();
+
+		private LocalQueue(Thread owner) {
+			this.owner = owner;
+		}
+	}
+
+}
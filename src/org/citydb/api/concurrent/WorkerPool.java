@@ -65,6 +65,7 @@ public class WorkerPool<T> {
 	private volatile int maximumPoolSize;
 	private final int queueSize;
 	private final boolean daemon;
+	private final WorkQueueType queueType;
 	private int poolSize;
 	private byte poolSizeAdaptationFailure;
 	private byte threadNo;
@@ -72,6 +73,105 @@ public class WorkerPool<T> {
 
 	// WorkQueue
 	public static final class WorkQueue<E> {
+		private final AbstractWorkQueue<E> queue;
+
+		public WorkQueue(int capacity) {
+			this(capacity, false);
+		}
+
+		public WorkQueue(int capacity, boolean fair) {
+			this(new LockingWorkQueue<E>(capacity, fair));
+		}
+
+		private WorkQueue(AbstractWorkQueue<E> queue) {
+			this.queue = queue;
+		}
+
+		public static <E> WorkQueue<E> newWorkQueue(int capacity, boolean fair, WorkQueueType queueType) {
+			switch (queueType) {
+			case LOCK_FREE:
+				return new WorkQueue<E>(new LockFreeWorkQueue<E>(capacity));
+			case WORK_STEALING:
+				return new WorkQueue<E>(new WorkStealingWorkQueue<E>(capacity));
+			default:
+				return new WorkQueue<E>(capacity, fair);
+			}
+		}
+
+		public boolean offer(E work) {
+			return queue.offer(work);
+		}
+
+		public boolean offer(E work, long timeout, TimeUnit unit) throws InterruptedException {
+			return queue.offer(work, timeout, unit);
+		}
+
+		public void put(E work) {
+			queue.put(work);
+		}
+
+		public void putAll(Collection<? extends E> batch) {
+			queue.putAll(batch);
+		}
+
+		public E poll() {
+			return queue.poll();
+		}
+
+		public E poll(long timeout, TimeUnit unit) throws InterruptedException {
+			return queue.poll(timeout, unit);
+		}
+
+		public E take() throws InterruptedException {
+			return queue.take();
+		}
+
+		public E peek() {
+			return queue.peek();
+		}
+
+		public boolean remove(E work) {
+			return queue.remove(work);
+		}
+
+		public int size() {
+			return queue.size();
+		}
+
+		public int remainingCapacity() {
+			return queue.remainingCapacity();
+		}
+
+		public boolean isEmpty() {
+			return queue.isEmpty();
+		}
+
+		public void clear() {
+			queue.clear();
+		}
+
+		public int drainTo(Collection<? super E> collection) {
+			return queue.drainTo(collection);
+		}
+
+		public int drainTo(Collection<? super E> collection, int maxElements) {
+			return queue.drainTo(collection, maxElements);
+		}
+
+		void awaitEmpty() {
+			queue.awaitEmpty();
+		}
+
+		void beginFlush() {
+			queue.beginFlush();
+		}
+
+		void endFlush() {
+			queue.endFlush();
+		}
+	}
+
+	static final class LockingWorkQueue<E> extends AbstractWorkQueue<E> {
 		private final ReentrantLock lock;
 		private final Condition notEmpty;
 		private final Condition notFull;
@@ -84,12 +184,12 @@ public class WorkerPool<T> {
 		private int count;
 		private volatile boolean blockAndFlush;
 
-		public WorkQueue(int capacity) {
+		public LockingWorkQueue(int capacity) {
 			this(capacity, false);
 		}
 
 		@SuppressWarnings("unchecked")
-		public WorkQueue(int capacity, boolean fair) {
+		public LockingWorkQueue(int capacity, boolean fair) {
 			lock = new ReentrantLock(fair);
 			notEmpty = lock.newCondition();
 			notFull = lock.newCondition();
@@ -399,6 +499,58 @@ public class WorkerPool<T> {
 				lock.unlock();
 			}
 		}
+
+		public int drainTo(Collection<? super E> collection, int maxElements) {
+			if (collection == null)
+				throw new NullPointerException();
+
+			if (maxElements <= 0)
+				return 0;
+
+			final ReentrantLock lock = this.lock;
+			lock.lock();
+			try {
+				int n = 0;
+				int max = Math.min(count, maxElements);
+
+				while (n < max) {
+					collection.add(extract());
+					++n;
+				}
+
+				return n;
+			} finally {
+				lock.unlock();
+			}
+		}
+
+		void awaitEmpty() {
+			final ReentrantLock lock = this.lock;
+			lock.lock();
+			try {
+				while (count != 0)
+					empty.await();
+			} catch (InterruptedException ie) {
+				// re-try
+			} finally {
+				lock.unlock();
+			}
+		}
+
+		void beginFlush() {
+			blockAndFlush = true;
+		}
+
+		void endFlush() {
+			final ReentrantLock lock = this.lock;
+			lock.lock();
+			try {
+				blockAndFlush = false;
+				flushed.signalAll();
+			} finally {
+				lock.unlock();
+			}
+		}
 	}
 
 	// WorkerPool
@@ -409,7 +561,8 @@ public class WorkerPool<T> {
 			WorkerFactory<T> workerFactory,
 			int queueSize,
 			boolean fair,
-			boolean daemon) {
+			boolean daemon,
+			WorkQueueType queueType) {
 		if (corePoolSize <= 0)
 			throw new IllegalArgumentException("Core pool size must be greater than zero.");
 
@@ -429,12 +582,35 @@ public class WorkerPool<T> {
 
 		// setting up work queue and workers map
 		this.queueSize = queueSize;
-		workQueue = new WorkQueue<T>(queueSize, fair);
+		this.queueType = queueType;
+		workQueue = WorkQueue.newWorkQueue(queueSize, fair, queueType);
+
 		workers = new ConcurrentHashMap<Worker<T>, Object>(maximumPoolSize);
 
 		log = ObjectRegistry.getInstance().getLogController();
 	}
 
+	public WorkerPool(String poolName,
+			int corePoolSize,
+			int maximumPoolSize,
+			PoolSizeAdaptationStrategy adaptationStrategy,
+			WorkerFactory<T> workerFactory,
+			int queueSize,
+			boolean fair,
+			boolean daemon) {
+		this(poolName, corePoolSize, maximumPoolSize, adaptationStrategy, workerFactory, queueSize, fair, daemon, WorkQueueType.LOCKING);
+	}
+
+	public WorkerPool(String poolName,
+			int corePoolSize,
+			int maximumPoolSize,
+			PoolSizeAdaptationStrategy adaptationStrategy,
+			WorkerFactory<T> workerFactory,
+			int queueSize,
+			WorkQueueType queueType) {
+		this(poolName, corePoolSize, maximumPoolSize, adaptationStrategy, workerFactory, queueSize, false, true, queueType);
+	}
+
 	public WorkerPool(String poolName,
 			int corePoolSize,
 			int maximumPoolSize,
@@ -579,28 +755,46 @@ public class WorkerPool<T> {
 					if (runState == RUNNING)
 						workQueue.put(work);
 				}
-			}
+			} else
+				addIfBacklogged(0);
 		}
 	}
 
+	public void addWork(Collection<T> batch) {
+		if (batch == null)
+			throw new NullPointerException();
+
+		if (batch.isEmpty())
+			return;
+
+		if (poolSize < corePoolSize)
+			prestartCoreWorkers();
+
+		if (runState == RUNNING) {
+			addIfBacklogged(batch.size());
+			workQueue.putAll(batch);
+		}
+	}
+
+	private void addIfBacklogged(int pending) {
+		// with work stealing, additional workers are started as soon as the
+		// queue is half full instead of waiting for it to be full
+		if (queueType == WorkQueueType.WORK_STEALING
+				&& poolSize < maximumPoolSize
+				&& workQueue.size() + pending > queueSize / 2)
+			addIfUnderMaximumPoolSize(null);
+	}
+
 	public void addWorkAndWait(T work) {
 		if (work == null)
 			throw new NullPointerException();
 
 		ReentrantLock mainLock = this.mainLock;
-		ReentrantLock queueLock = workQueue.lock;
 		mainLock.lock();
 		try {
 			addWork(work);
-			queueLock.lock();
-			try {
-				while(!workQueue.isEmpty())
-					workQueue.empty.await();
-			} catch (InterruptedException ie) {
-				// re-try
-			}
+			workQueue.awaitEmpty();
 		} finally {
-			queueLock.unlock();
 			mainLock.unlock();
 		}
 	}
@@ -636,7 +830,6 @@ public class WorkerPool<T> {
 			return;
 
 		final ReentrantLock mainLock = this.mainLock;
-		final ReentrantLock queueLock = workQueue.lock;
 		mainLock.lock();
 		try {
 			if (runState < SHUTDOWN)
@@ -646,19 +839,11 @@ public class WorkerPool<T> {
 			if (poolSize == 0)
 				addWorker(null);
 
-			queueLock.lock();
-			try {
-				while (!workQueue.isEmpty())
-					workQueue.empty.await();
-
-			} catch (InterruptedException ie) {
-				// re-try
-			}
+			workQueue.awaitEmpty();
 
 			interruptWorkersIfIdle();
 			runState = TERMINATED;
 		} finally {
-			queueLock.unlock();
 			mainLock.unlock();
 		}
 	}
@@ -668,7 +853,6 @@ public class WorkerPool<T> {
 			return;
 
 		final ReentrantLock mainLock = this.mainLock;
-		final ReentrantLock queueLock = workQueue.lock;
 		mainLock.lock();
 		try {
 			if (runState < SHUTDOWN)
@@ -678,18 +862,10 @@ public class WorkerPool<T> {
 			if (poolSize == 0)
 				addWorker(null);
 
-			queueLock.lock();
-			try {
-				while (!workQueue.isEmpty())
-					workQueue.empty.await();
-
-			} catch (InterruptedException ie) {
-				// re-try
-			}
+			workQueue.awaitEmpty();
 
 			interruptWorkersIfIdle();
 		} finally {
-			queueLock.unlock();
 			mainLock.unlock();
 		}
 
@@ -731,33 +907,21 @@ public class WorkerPool<T> {
 			return;
 
 		final ReentrantLock mainLock = this.mainLock;
-		final ReentrantLock queueLock = workQueue.lock;
 		mainLock.lockInterruptibly();
 		try {		
+			workQueue.beginFlush();
 			try {
-				workQueue.blockAndFlush = true;
-
 				// make sure we really can join
 				if (poolSize == 0)
 					addWorker(null);
 
-				queueLock.lock();
-				try {
-					while (!workQueue.isEmpty())
-						workQueue.empty.await();
-
-				} catch (InterruptedException ie) {
-					// re-try
-				}
-
-				workQueue.blockAndFlush = false;
-				workQueue.flushed.signalAll();
-
-				interruptWorkersIfIdle();
+				workQueue.awaitEmpty();
 			} finally {
-				queueLock.unlock();
+				workQueue.endFlush();
 			}
 
+			interruptWorkersIfIdle();
+
 			try {
 				joinWorkerThreads();
 			} catch (InterruptedException ie) {
@@ -776,24 +940,14 @@ public class WorkerPool<T> {
 
 	public void awaitQueueEmpty() {
 		final ReentrantLock mainLock = this.mainLock;
-		final ReentrantLock queueLock = workQueue.lock;
 		mainLock.lock();
 		try {
 			// make sure we do not wait forever
 			if (poolSize == 0)
 				addWorker(null);
 
-			queueLock.lock();
-			try {
-				while (!workQueue.isEmpty())
-					workQueue.empty.await();
-
-			} catch (InterruptedException ie) {
-				// re-try
-			}
-
+			workQueue.awaitEmpty();
 		} finally {
-			queueLock.unlock();
 			mainLock.unlock();
 		}
 
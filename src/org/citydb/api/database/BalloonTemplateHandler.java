@@ -28,6 +28,7 @@
 package org.citydb.api.database;
 
 import java.sql.Connection;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.Set;
 
@@ -42,6 +43,8 @@ public interface BalloonTemplateHandler {
 	public String getBalloonContent(String gmlId, int lod, Connection connection) throws Exception;
 	public String getBalloonContent(long id, int lod, Connection connection) throws Exception;
 	public String getBalloonContent(String temporaryTemplate, long id, int lod, Connection connection) throws Exception;
+	public default void prefetch(Collection<Long> ids) {}
+	public default void close() {}
 	public Set<String> getSupportedAggregationFunctions();
 	public HashMap<String, Set<String>> getSupportedTablesAndColumns();		
 }
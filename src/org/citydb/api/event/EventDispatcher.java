@@ -30,16 +30,28 @@ package org.citydb.api.event;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map.Entry;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.concurrent.locks.ReentrantLock;
 
 import org.citydb.api.concurrent.SingleWorkerPool;
 
 public class EventDispatcher {
+	private static final long COUNTER_PUBLISH_INTERVAL = 250;
+
 	private SingleWorkerPool<Event> eventDispatcherThread;
 	private ConcurrentHashMap<Enum<?>, EventHandlerContainerQueue> containerQueueMap;
 	private ReentrantLock mainLock;
 
+	private ConcurrentHashMap<EventCounterType, EventCounter> counterMap;
+	private ScheduledExecutorService counterPublisher;
+	private ReentrantLock counterLock;
+
 	public EventDispatcher(int eventQueueSize) {
 		containerQueueMap = new ConcurrentHashMap<Enum<?>, EventHandlerContainerQueue>();
 		eventDispatcherThread = new SingleWorkerPool<Event>(
@@ -50,6 +62,25 @@ public class EventDispatcher {
 
 		eventDispatcherThread.prestartCoreWorkers();
 		mainLock = new ReentrantLock();
+
+		// counters are aggregated and published at a fixed rate so that
+		// frequent counter updates neither allocate events nor block on
+		// the event queue
+		counterMap = new ConcurrentHashMap<EventCounterType, EventCounter>();
+		counterLock = new ReentrantLock();
+		counterPublisher = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+			public Thread newThread(Runnable r) {
+				Thread thread = new Thread(r, "event_counter_publisher");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+
+		counterPublisher.scheduleAtFixedRate(new Runnable() {
+			public void run() {
+				publishCounters();
+			}
+		}, COUNTER_PUBLISH_INTERVAL, COUNTER_PUBLISH_INTERVAL, TimeUnit.MILLISECONDS);
 	}
 
 	public EventDispatcher() {
@@ -85,6 +116,50 @@ public class EventDispatcher {
 		eventDispatcherThread.addWork(event);
 	}
 
+	public void updateCounter(EventCounterType type, long delta) {
+		if (delta == 0)
+			return;
+
+		EventCounter counter = counterMap.get(type);
+		if (counter == null) {
+			EventCounter newCounter = new EventCounter();
+			counter = counterMap.putIfAbsent(type, newCounter);
+			if (counter == null)
+				counter = newCounter;
+		}
+
+		counter.value.add(delta);
+	}
+
+	public void resetCounters() {
+		final ReentrantLock lock = this.counterLock;
+		lock.lock();
+
+		try {
+			for (EventCounter counter : counterMap.values())
+				counter.reset();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	private void publishCounters() {
+		final ReentrantLock lock = this.counterLock;
+		lock.lock();
+
+		try {
+			for (Entry<EventCounterType, EventCounter> entry : counterMap.entrySet()) {
+				long delta = entry.getValue().drain();
+				if (delta != 0)
+					eventDispatcherThread.addWork(entry.getKey().createCounterEvent(delta, this));
+			}
+		} catch (Exception e) {
+			// do not stop the scheduled publication
+		} finally {
+			lock.unlock();
+		}
+	}
+
 	public Event triggerSyncEvent(Event event) {
 		final ReentrantLock lock = this.mainLock;
 		lock.lock();
@@ -125,22 +200,47 @@ public class EventDispatcher {
 	}
 
 	public void flushEvents() throws InterruptedException {
+		publishCounters();
 		eventDispatcherThread.join();
 	}
 	
 	public void shutdown() {
+		publishCounters();
+		counterPublisher.shutdown();
 		eventDispatcherThread.shutdown();
 		containerQueueMap.clear();
 	}
 	
 	public void shutdownNow() {
+		counterPublisher.shutdownNow();
 		eventDispatcherThread.shutdownNow();
 		containerQueueMap.clear();
 	}
 	
 	public void shutdownAndWait() throws InterruptedException {
+		publishCounters();
+		counterPublisher.shutdown();
 		eventDispatcherThread.shutdownAndWait();
 		containerQueueMap.clear();
 	}
+
+	private static final class EventCounter {
+		private final LongAdder value = new LongAdder();
+		private long published;
+
+		// the sum of a LongAdder is not an atomic snapshot, so the counter
+		// is never reset. Updates missed by one call are reported by the next.
+		private long drain() {
+			long total = value.sum();
+			long delta = total - published;
+			published = total;
+			return delta;
+		}
+
+		// discards deltas that have not been published yet
+		private void reset() {
+			published = value.sum();
+		}
+	}
 	
 }
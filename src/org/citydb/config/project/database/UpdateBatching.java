@@ -34,7 +34,8 @@ import javax.xml.bind.annotation.XmlType;
 @XmlType(name="UpdateBatchingType", propOrder={
 		"featureBatchValue",
 		"gmlIdCacheBatchValue",
-		"tempBatchValue"
+		"tempBatchValue",
+		"sequenceBatchValue"
 		})
 public class UpdateBatching {
 	@XmlElement(required=true, defaultValue="20")
@@ -46,6 +47,9 @@ public class UpdateBatching {
 	@XmlElement(required=true, defaultValue="1000")
 	@XmlSchemaType(name="positiveInteger")
 	private Integer tempBatchValue = 1000;
+	@XmlElement(required=true, defaultValue="1000")
+	@XmlSchemaType(name="positiveInteger")
+	private Integer sequenceBatchValue = 1000;
 	
 	public UpdateBatching() {
 	}
@@ -79,5 +83,15 @@ public class UpdateBatching {
 				tempBatchValue <= Database.MAX_BATCH_SIZE)
 			this.tempBatchValue = tempBatchValue;
 	}
+
+	public Integer getSequenceBatchValue() {
+		return sequenceBatchValue;
+	}
+
+	public void setSequenceBatchValue(Integer sequenceBatchValue) {
+		if (sequenceBatchValue != null && sequenceBatchValue > 0 && 
+				sequenceBatchValue <= Database.MAX_BATCH_SIZE)
+			this.sequenceBatchValue = sequenceBatchValue;
+	}
 	
 }
@@ -34,11 +34,17 @@ import org.citydb.config.project.resources.Resources;
 import org.citydb.config.project.resources.UIDCacheConfig;
 
 @XmlType(name="ImportResourcesType", propOrder={
-		"texImageCache"
+		"texImageCache",
+		"pipelineImportFiles",
+		"useMappedFileScanner"
 })
 public class ImportResources extends Resources {
 	@XmlElement(required=true)
 	private UIDCacheConfig texImageCache;
+	@XmlElement(required=true, defaultValue="false")
+	private Boolean pipelineImportFiles = false;
+	@XmlElement(required=true, defaultValue="false")
+	private Boolean useMappedFileScanner = false;
 	
 	public ImportResources() {
 		texImageCache = new UIDCacheConfig();
@@ -51,4 +57,34 @@ public class ImportResources extends Resources {
 	public void setTexImageCache(UIDCacheConfig texImageCache) {
 		this.texImageCache = texImageCache;
 	}
+
+	public boolean isSetPipelineImportFiles() {
+		if (pipelineImportFiles != null)
+			return pipelineImportFiles.booleanValue();
+
+		return false;
+	}
+
+	public Boolean getPipelineImportFiles() {
+		return pipelineImportFiles;
+	}
+
+	public void setPipelineImportFiles(Boolean pipelineImportFiles) {
+		this.pipelineImportFiles = pipelineImportFiles;
+	}
+
+	public boolean isSetUseMappedFileScanner() {
+		if (useMappedFileScanner != null)
+			return useMappedFileScanner.booleanValue();
+
+		return false;
+	}
+
+	public Boolean getUseMappedFileScanner() {
+		return useMappedFileScanner;
+	}
+
+	public void setUseMappedFileScanner(Boolean useMappedFileScanner) {
+		this.useMappedFileScanner = useMappedFileScanner;
+	}
 }
@@ -43,6 +43,7 @@ import org.citydb.config.project.general.Path;
 		"indexes",
 		"xmlValidation",
 		"importLog",
+		"bulkLoad",
 		"resources"
 })
 public class Importer {
@@ -56,6 +57,7 @@ public class Importer {
 	private Index indexes;
 	private XMLValidation xmlValidation;
 	private ImportLog importLog;
+	private ImportBulkLoad bulkLoad;
 	private ImportResources resources;
 
 	public Importer() {
@@ -69,6 +71,7 @@ public class Importer {
 		indexes = new Index();
 		xmlValidation = new XMLValidation();
 		importLog = new ImportLog();
+		bulkLoad = new ImportBulkLoad();
 		resources = new ImportResources();
 	}
 
@@ -162,6 +165,15 @@ public class Importer {
 			this.importLog = importLog;
 	}
 
+	public ImportBulkLoad getBulkLoad() {
+		return bulkLoad;
+	}
+
+	public void setBulkLoad(ImportBulkLoad bulkLoad) {
+		if (bulkLoad != null)
+			this.bulkLoad = bulkLoad;
+	}
+
 	public ImportResources getResources() {
 		return resources;
 	}
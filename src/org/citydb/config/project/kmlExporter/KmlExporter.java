@@ -27,13 +27,12 @@
  */
 package org.citydb.config.project.kmlExporter;
 
-import java.io.File;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Locale;
 
 import javax.xml.bind.annotation.XmlElement;
 import javax.xml.bind.annotation.XmlElementWrapper;
+import javax.xml.bind.annotation.XmlSchemaType;
 import javax.xml.bind.annotation.XmlType;
 
 import org.citydb.config.project.exporter.ExportFilterConfig;
@@ -85,6 +84,7 @@ import org.citydb.config.project.resources.Resources;
 		"showTileBorders",
 		"exportEmptyTiles",
 		"autoTileSideLength",
+		"concurrentTiles",
 		"oneFilePerObject",
 		"singleObjectRegionSize",
 		"viewRefreshMode",
@@ -93,9 +93,10 @@ import org.citydb.config.project.resources.Resources;
 		"writeJSONPFile",
 		"callbackNameJSONP",
 		"createGltfModel",
-		"pathOfGltfConverter",
 		"notCreateColladaFiles",
 		"embedTexturesInGltfFiles",
+		"exportGltfBinary",
+		"quantizeGltfVertices",
 		"appearanceTheme",
 		"altitudeMode",
 		"altitudeOffsetMode",
@@ -171,6 +172,8 @@ public class KmlExporter {
 	private boolean showTileBorders;
 	private boolean exportEmptyTiles;
 	private double autoTileSideLength;
+	@XmlSchemaType(name="positiveInteger")
+	private int concurrentTiles;
 	private boolean oneFilePerObject;
 	private double singleObjectRegionSize;
 	private String viewRefreshMode;
@@ -179,9 +182,10 @@ public class KmlExporter {
 	private boolean writeJSONPFile;
 	private String callbackNameJSONP;
 	private boolean createGltfModel;
-	private String pathOfGltfConverter;
 	private boolean notCreateColladaFiles;
 	private boolean embedTexturesInGltfFiles;
+	private boolean exportGltfBinary;
+	private boolean quantizeGltfVertices;
 	private boolean exportAsKmz;
 	private String appearanceTheme;
 	private AltitudeMode altitudeMode;
@@ -240,6 +244,7 @@ public class KmlExporter {
 		showTileBorders = false;
 		exportEmptyTiles = true;
 		autoTileSideLength = 125.0;
+		concurrentTiles = 2;
 		oneFilePerObject = false;
 		singleObjectRegionSize = 50.0;
 		viewRefreshMode = "onRegion";
@@ -250,15 +255,8 @@ public class KmlExporter {
 		createGltfModel = false;
 		notCreateColladaFiles = false;
 		embedTexturesInGltfFiles = false;
-
-		pathOfGltfConverter = "contribs" + File.separator + "collada2gltf";
-		String osName = System.getProperty("os.name").toLowerCase(Locale.ENGLISH);
-		if (osName.indexOf("windows") != -1)
-			pathOfGltfConverter += File.separator + "windows_v1.0_x64_draft" + File.separator + "collada2gltf.exe";
-		else if (osName.indexOf("mac") != -1)
-			pathOfGltfConverter += File.separator + "mac_v1.0_x64_draft" + File.separator + "collada2gltf";				
-		else if (osName.indexOf("nux") != -1)
-			pathOfGltfConverter += File.separator + "linux_v1.0_x64_draft" + File.separator + "collada2gltf";				
+		exportGltfBinary = false;
+		quantizeGltfVertices = false;
 
 		setAppearanceTheme(THEME_NONE);
 		setAltitudeMode(AltitudeMode.ABSOLUTE);
@@ -420,14 +418,6 @@ public class KmlExporter {
 		return createGltfModel;
 	}
 
-	public void setPathOfGltfConverter(String pathOfGltfConverter) {
-		this.pathOfGltfConverter = pathOfGltfConverter;
-	}
-
-	public String getPathOfGltfConverter() {
-		return pathOfGltfConverter;
-	}
-
 	public void setNotCreateColladaFiles(boolean notCreateColladaFiles) {
 		this.notCreateColladaFiles = notCreateColladaFiles;
 	}
@@ -444,6 +434,22 @@ public class KmlExporter {
 		return embedTexturesInGltfFiles;
 	}
 
+	public void setExportGltfBinary(boolean exportGltfBinary) {
+		this.exportGltfBinary = exportGltfBinary;
+	}
+
+	public boolean isExportGltfBinary() {
+		return exportGltfBinary;
+	}
+
+	public void setQuantizeGltfVertices(boolean quantizeGltfVertices) {
+		this.quantizeGltfVertices = quantizeGltfVertices;
+	}
+
+	public boolean isQuantizeGltfVertices() {
+		return quantizeGltfVertices;
+	}
+
 	public void setShowBoundingBox(boolean showBoundingBox) {
 		this.showBoundingBox = showBoundingBox;
 	}
@@ -516,6 +522,15 @@ public class KmlExporter {
 		return autoTileSideLength;
 	}
 
+	public int getConcurrentTiles() {
+		return concurrentTiles;
+	}
+
+	public void setConcurrentTiles(int concurrentTiles) {
+		if (concurrentTiles > 0)
+			this.concurrentTiles = concurrentTiles;
+	}
+
 	public void setWriteJSONFile(boolean writeJSONFile) {
 		this.writeJSONFile = writeJSONFile;
 	}
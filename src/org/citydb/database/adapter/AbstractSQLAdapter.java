@@ -29,6 +29,7 @@ package org.citydb.database.adapter;
 
 import java.io.IOException;
 import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.util.Properties;
 
@@ -60,6 +61,9 @@ public abstract class AbstractSQLAdapter {
 	public abstract String getPseudoTableName();
 	public abstract String getBoundingBoxPredicate(String attributeName, BoundingBox bbox, boolean overlap);
 	public abstract boolean spatialPredicateRequiresNoIndexHint();
+	public abstract boolean requiresSerializedConcurrentUpdates();
+	public abstract boolean supportsReleaseSavepoint();
+	public abstract boolean isDeadlock(SQLException e);
 	public abstract String getHierarchicalGeometryQuery();
 	public abstract String getNextSequenceValue(DBSequencerEnum sequence);
 	public abstract String getCurrentSequenceValue(DBSequencerEnum sequence);
@@ -72,6 +76,7 @@ public abstract class AbstractSQLAdapter {
 	
 	public abstract BlobImportAdapter getBlobImportAdapter(Connection connection, BlobType type) throws SQLException;
 	public abstract BlobExportAdapter getBlobExportAdapter(Connection connection, BlobType type);
+	public abstract PreparedStatement prepareBulkLoadStatement(Connection connection, String insertStatement) throws SQLException;
 	
 	protected String getSequenceName(DBSequencerEnum sequence) {
 		switch (sequence) {
@@ -28,6 +28,7 @@
 package org.citydb.database.adapter.h2;
 
 import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.SQLException;
 
 import org.citydb.api.geometry.BoundingBox;
@@ -153,6 +154,26 @@ public class SQLAdapter extends AbstractSQLAdapter {
 		return false;
 	}
 
+	@Override
+	public boolean requiresSerializedConcurrentUpdates() {
+		return false;
+	}
+
+	@Override
+	public boolean supportsReleaseSavepoint() {
+		return true;
+	}
+
+	@Override
+	public boolean isDeadlock(SQLException e) {
+		for (Throwable t : e) {
+			if (t instanceof SQLException && "40001".equals(((SQLException)t).getSQLState()))
+				return true;
+		}
+
+		return false;
+	}
+
 	@Override
 	public String getHierarchicalGeometryQuery() {
 		// not required for cache tables
@@ -195,4 +216,10 @@ public class SQLAdapter extends AbstractSQLAdapter {
 		return null;
 	}
 
+	@Override
+	public PreparedStatement prepareBulkLoadStatement(Connection connection, String insertStatement) throws SQLException {
+		// not required for cache tables
+		return null;
+	}
+
 }
@@ -28,6 +28,7 @@
 package org.citydb.database.adapter.oracle;
 
 import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.SQLException;
 
 import org.citydb.api.geometry.BoundingBox;
@@ -184,6 +185,28 @@ public class SQLAdapter extends AbstractSQLAdapter {
 		return true;
 	}
 
+	@Override
+	public boolean requiresSerializedConcurrentUpdates() {
+		// ordering row updates is not sufficient to avoid deadlocks on shared index blocks
+		return true;
+	}
+
+	@Override
+	public boolean supportsReleaseSavepoint() {
+		// savepoints are released implicitly when the transaction ends
+		return false;
+	}
+
+	@Override
+	public boolean isDeadlock(SQLException e) {
+		for (Throwable t : e) {
+			if (t instanceof SQLException && ((SQLException)t).getErrorCode() == 60)
+				return true;
+		}
+
+		return false;
+	}
+
 	@Override
 	public String getHierarchicalGeometryQuery() {
 		return "select sg.*, LEVEL from SURFACE_GEOMETRY sg start with sg.ID=? connect by prior sg.ID=sg.PARENT_ID";
@@ -199,4 +222,10 @@ public class SQLAdapter extends AbstractSQLAdapter {
 		return new BlobExportAdapterImpl(connection, type);
 	}
 
+	@Override
+	public PreparedStatement prepareBulkLoadStatement(Connection connection, String insertStatement) throws SQLException {
+		// there is no bulk load API for Oracle via JDBC, so we keep using batched inserts
+		return connection.prepareStatement(insertStatement);
+	}
+
 }
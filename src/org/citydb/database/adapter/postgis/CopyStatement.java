@@ -0,0 +1,392 @@
+/*
+ * 3D City Database - The Open Source CityGML Database
+ * http://www.3dcitydb.org/
+ *
+ * Copyright 2013 - 2016
+ * Chair of Geoinformatics
+ * Technical University of Munich, Germany
+ * https://www.gis.bgu.tum.de/
+ *
+ * The 3D City Database is jointly developed with the following
+ * cooperation partners:
+ *
+ * virtualcitySYSTEMS GmbH, Berlin <http://www.virtualcitysystems.de/>
+ * M.O.S.S. Computer Grafik Systeme GmbH, Taufkirchen <http://www.moss.de/>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.citydb.database.adapter.postgis;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+import org.postgresql.util.PGobject;
+
+/**
+ * Streams the rows of a simple insert statement into the database using
+ * PostgreSQL's COPY FROM STDIN instead of batched inserts.
+ *
+ * Rows are collected in COPY text format on addBatch() and sent with a single
+ * COPY command on executeBatch(). The insert statement may only contain
+ * parameters, literals, null and CURRENT_TIMESTAMP as values. Otherwise,
+ * a regular prepared statement is returned by {@link #prepareStatement(Connection, String)}.
+ */
+public class CopyStatement implements InvocationHandler {
+	private static final Pattern INSERT_PATTERN = Pattern.compile("^\\s*insert\\s+into\\s+(\\w+)\\s*\\(([^)]*)\\)\\s*values\\s*\\((.*)\\)\\s*$",
+			Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+	private static final Pattern NUMBER_PATTERN = Pattern.compile("^-?\\d+(\\.\\d+)?$");
+	private static final Object PARAMETER = new Object();
+	private static final Object CURRENT_TIMESTAMP = new Object();
+	private static final String NULL = "\\N";
+
+	private final Connection connection;
+	private final String copyStatement;
+	private final Object[] values;
+	private final int[] parameterIndexes;
+	private final String[] parameters;
+	private final boolean hasCurrentTimestamp;
+
+	private CopyManager copyManager;
+	private SimpleDateFormat timestampFormat;
+	private StringBuilder rows;
+	private String currentTimestamp;
+	private int rowCount;
+	private boolean isClosed;
+
+	private CopyStatement(Connection connection, String table, List<String> columns, Object[] values) {
+		this.connection = connection;
+		this.values = values;
+
+		StringBuilder stmt = new StringBuilder("copy ").append(table).append(" (");
+		for (int i = 0; i < columns.size(); i++) {
+			if (i > 0)
+				stmt.append(", ");
+			stmt.append(columns.get(i));
+		}
+
+		copyStatement = stmt.append(") from stdin").toString();
+
+		int nrOfParameters = 0;
+		boolean hasCurrentTimestamp = false;
+		for (Object value : values) {
+			if (value == PARAMETER)
+				nrOfParameters++;
+			else if (value == CURRENT_TIMESTAMP)
+				hasCurrentTimestamp = true;
+		}
+
+		parameterIndexes = new int[nrOfParameters];
+		for (int i = 0, j = 0; i < values.length; i++) {
+			if (values[i] == PARAMETER)
+				parameterIndexes[j++] = i;
+		}
+
+		parameters = new String[nrOfParameters];
+		this.hasCurrentTimestamp = hasCurrentTimestamp;
+		rows = new StringBuilder();
+	}
+
+	public static PreparedStatement prepareStatement(Connection connection, String insertStatement) throws SQLException {
+		Matcher matcher = INSERT_PATTERN.matcher(insertStatement);
+		if (matcher.matches()) {
+			List<String> columns = new ArrayList<String>();
+			for (String column : matcher.group(2).split(","))
+				columns.add(column.trim());
+
+			Object[] values = parseValues(matcher.group(3));
+			if (values != null && values.length == columns.size()) {
+				CopyStatement handler = new CopyStatement(connection, matcher.group(1), columns, values);
+				return (PreparedStatement)Proxy.newProxyInstance(CopyStatement.class.getClassLoader(), new Class<?>[]{PreparedStatement.class}, handler);
+			}
+		}
+
+		// the statement cannot be expressed as COPY command
+		return connection.prepareStatement(insertStatement);
+	}
+
+	private static Object[] parseValues(String valueList) {
+		List<String> tokens = new ArrayList<String>();
+		StringBuilder token = new StringBuilder();
+		boolean quoted = false;
+
+		for (int i = 0; i < valueList.length(); i++) {
+			char c = valueList.charAt(i);
+			if (c == '\'')
+				quoted = !quoted;
+			else if (c == ',' && !quoted) {
+				tokens.add(token.toString().trim());
+				token.setLength(0);
+				continue;
+			}
+
+			token.append(c);
+		}
+
+		tokens.add(token.toString().trim());
+
+		Object[] values = new Object[tokens.size()];
+		for (int i = 0; i < values.length; i++) {
+			String value = tokens.get(i);
+
+			if (value.equals("?"))
+				values[i] = PARAMETER;
+			else if (value.equalsIgnoreCase("null"))
+				values[i] = NULL;
+			else if (value.equalsIgnoreCase("CURRENT_TIMESTAMP"))
+				values[i] = CURRENT_TIMESTAMP;
+			else if (value.length() > 1 && value.startsWith("'") && value.endsWith("'"))
+				values[i] = escape(value.substring(1, value.length() - 1).replace("''", "'"));
+			else if (NUMBER_PATTERN.matcher(value).matches())
+				values[i] = value;
+			else
+				// function calls and other expressions are not supported
+				return null;
+		}
+
+		return values;
+	}
+
+	@Override
+	public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+		String name = method.getName();
+
+		switch (name) {
+		case "setNull":
+			setParameter((Integer)args[0], null);
+			return null;
+		case "setString":
+		case "setLong":
+		case "setInt":
+		case "setShort":
+		case "setDouble":
+		case "setFloat":
+		case "setBigDecimal":
+		case "setDate":
+			setParameter((Integer)args[0], args[1] != null ? args[1].toString() : null);
+			return null;
+		case "setBoolean":
+			setParameter((Integer)args[0], (Boolean)args[1] ? "t" : "f");
+			return null;
+		case "setTimestamp":
+			setParameter((Integer)args[0], args[1] != null ? formatTimestamp((Timestamp)args[1]) : null);
+			return null;
+		case "setBytes":
+			setParameter((Integer)args[0], args[1] != null ? formatBytes((byte[])args[1]) : null);
+			return null;
+		case "setObject":
+			setObject((Integer)args[0], args[1]);
+			return null;
+		case "clearParameters":
+			Arrays.fill(parameters, null);
+			return null;
+		case "addBatch":
+			if (args != null)
+				break;
+			addBatch();
+			return null;
+		case "executeBatch":
+			return executeBatch();
+		case "clearBatch":
+			clearBatch();
+			return null;
+		case "close":
+			clearBatch();
+			isClosed = true;
+			return null;
+		case "isClosed":
+			return isClosed;
+		case "getConnection":
+			return connection;
+		case "toString":
+			return copyStatement;
+		case "hashCode":
+			return System.identityHashCode(proxy);
+		case "equals":
+			return proxy == args[0];
+		}
+
+		throw new SQLFeatureNotSupportedException("The method " + name + " is not supported in bulk load mode.");
+	}
+
+	private void setParameter(int index, String value) throws SQLException {
+		checkClosed();
+		if (index < 1 || index > parameters.length)
+			throw new SQLException("The parameter index " + index + " is out of range.");
+
+		parameters[index - 1] = value != null ? escape(value) : NULL;
+	}
+
+	private void setObject(int index, Object value) throws SQLException {
+		if (value == null)
+			setParameter(index, null);
+		else if (value instanceof PGobject)
+			setParameter(index, ((PGobject)value).getValue());
+		else if (value instanceof Timestamp)
+			setParameter(index, formatTimestamp((Timestamp)value));
+		else if (value instanceof byte[])
+			setParameter(index, formatBytes((byte[])value));
+		else if (value instanceof Boolean)
+			setParameter(index, (Boolean)value ? "t" : "f");
+		else
+			setParameter(index, value.toString());
+	}
+
+	private void addBatch() throws SQLException {
+		checkClosed();
+
+		if (hasCurrentTimestamp && currentTimestamp == null)
+			currentTimestamp = escape(queryCurrentTimestamp());
+
+		for (int i = 0, j = 0; i < values.length; i++) {
+			if (i > 0)
+				rows.append('\t');
+
+			Object value = values[i];
+			if (value == PARAMETER) {
+				String parameter = parameters[j++];
+				if (parameter == null)
+					throw new SQLException("No value specified for parameter " + j + ".");
+
+				rows.append(parameter);
+			} else if (value == CURRENT_TIMESTAMP)
+				rows.append(currentTimestamp);
+			else
+				rows.append((String)value);
+		}
+
+		rows.append('\n');
+		rowCount++;
+	}
+
+	private int[] executeBatch() throws SQLException {
+		checkClosed();
+		if (rowCount == 0)
+			return new int[0];
+
+		try {
+			if (copyManager == null)
+				copyManager = connection.unwrap(PGConnection.class).getCopyAPI();
+
+			copyManager.copyIn(copyStatement, new StringReader(rows.toString()));
+
+			int[] result = new int[rowCount];
+			Arrays.fill(result, 1);
+			return result;
+		} catch (IOException e) {
+			throw new SQLException("Failed to stream rows to the database.", e);
+		} finally {
+			clearBatch();
+		}
+	}
+
+	private void clearBatch() {
+		rows.setLength(0);
+		rowCount = 0;
+		currentTimestamp = null;
+	}
+
+	private String queryCurrentTimestamp() throws SQLException {
+		// CURRENT_TIMESTAMP is evaluated by the database to match
+		// the semantics of the insert statement
+		Statement stmt = null;
+		ResultSet rs = null;
+
+		try {
+			stmt = connection.createStatement();
+			rs = stmt.executeQuery("select CURRENT_TIMESTAMP::text");
+			rs.next();
+			return rs.getString(1);
+		} finally {
+			if (rs != null)
+				rs.close();
+
+			if (stmt != null)
+				stmt.close();
+		}
+	}
+
+	private String formatTimestamp(Timestamp timestamp) {
+		if (timestampFormat == null)
+			timestampFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSSZ");
+
+		return timestampFormat.format(timestamp);
+	}
+
+	private String formatBytes(byte[] bytes) {
+		StringBuilder hex = new StringBuilder(bytes.length * 2 + 2).append("\\x");
+		for (byte b : bytes) {
+			hex.append(Character.forDigit((b >> 4) & 0xF, 16));
+			hex.append(Character.forDigit(b & 0xF, 16));
+		}
+
+		return hex.toString();
+	}
+
+	private void checkClosed() throws SQLException {
+		if (isClosed)
+			throw new SQLException("The statement has already been closed.");
+	}
+
+	private static String escape(String value) {
+		StringBuilder escaped = null;
+
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			String replacement = null;
+
+			switch (c) {
+			case '\\':
+				replacement = "\\\\";
+				break;
+			case '\n':
+				replacement = "\\n";
+				break;
+			case '\r':
+				replacement = "\\r";
+				break;
+			case '\t':
+				replacement = "\\t";
+				break;
+			}
+
+			if (replacement != null) {
+				if (escaped == null)
+					escaped = new StringBuilder(value.length() + 16).append(value, 0, i);
+
+				escaped.append(replacement);
+			} else if (escaped != null)
+				escaped.append(c);
+		}
+
+		return escaped != null ? escaped.toString() : value;
+	}
+
+}
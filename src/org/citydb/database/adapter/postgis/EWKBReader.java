@@ -0,0 +1,194 @@
+/*
+ * 3D City Database - The Open Source CityGML Database
+ * http://www.3dcitydb.org/
+ * 
+ * Copyright 2013 - 2016
+ * Chair of Geoinformatics
+ * Technical University of Munich, Germany
+ * https://www.gis.bgu.tum.de/
+ * 
+ * The 3D City Database is jointly developed with the following
+ * cooperation partners:
+ * 
+ * virtualcitySYSTEMS GmbH, Berlin <http://www.virtualcitysystems.de/>
+ * M.O.S.S. Computer Grafik Systeme GmbH, Taufkirchen <http://www.moss.de/>
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *     
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.citydb.database.adapter.postgis;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.citydb.api.geometry.GeometryObject;
+
+final class EWKBReader {
+	private byte[] data;
+	private int pos;
+	private boolean littleEndian;
+	private int dimension;
+	private boolean hasM;
+
+	GeometryObject read(byte[] ewkb) throws SQLException {
+		data = ewkb;
+		pos = 0;
+
+		try {
+			return readGeometry();
+		} catch (ArrayIndexOutOfBoundsException e) {
+			throw new SQLException("Failed to parse EWKB geometry: Unexpected end of data.");
+		} finally {
+			data = null;
+		}
+	}
+
+	GeometryObject readHexed(String hex) throws SQLException {
+		int length = hex.length() >> 1;
+		byte[] ewkb = new byte[length];
+
+		for (int i = 0, j = 0; i < length; i++) {
+			int high = Character.digit(hex.charAt(j++), 16);
+			int low = Character.digit(hex.charAt(j++), 16);
+			if (high < 0 || low < 0)
+				throw new SQLException("Failed to parse EWKB geometry: Invalid hex string.");
+
+			ewkb[i] = (byte)((high << 4) | low);
+		}
+
+		return read(ewkb);
+	}
+
+	private GeometryObject readGeometry() throws SQLException {
+		int type = readHeader();
+		int srid = 0;
+		if ((type & EWKBWriter.SRID_FLAG) != 0)
+			srid = readInt();
+
+		switch (type & 0x0FFFFFFF) {
+		case EWKBWriter.POINT:
+			return GeometryObject.createPoint(readCoordinates(1), dimension, srid);
+		case EWKBWriter.LINESTRING:
+			return GeometryObject.createCurve(readCoordinates(readInt()), dimension, srid);
+		case EWKBWriter.POLYGON:
+			return GeometryObject.createPolygon(readRings(), dimension, srid);
+		case EWKBWriter.MULTIPOINT: {
+			double[][] coordinates = new double[readInt()][];
+			for (int i = 0; i < coordinates.length; i++) {
+				readSubHeader(EWKBWriter.POINT);
+				coordinates[i] = readCoordinates(1);
+			}
+
+			return GeometryObject.createMultiPoint(coordinates, dimension, srid);
+		}
+		case EWKBWriter.MULTILINESTRING: {
+			double[][] coordinates = new double[readInt()][];
+			for (int i = 0; i < coordinates.length; i++) {
+				readSubHeader(EWKBWriter.LINESTRING);
+				coordinates[i] = readCoordinates(readInt());
+			}
+
+			return GeometryObject.createMultiCurve(coordinates, dimension, srid);
+		}
+		case EWKBWriter.MULTIPOLYGON:
+		case EWKBWriter.POLYHEDRALSURFACE: {
+			int collectionType = type & 0x0FFFFFFF;
+			int[] exteriorRings = new int[readInt()];
+			List<double[]> rings = new ArrayList<double[]>(exteriorRings.length);
+
+			for (int i = 0; i < exteriorRings.length; i++) {
+				readSubHeader(EWKBWriter.POLYGON);
+				exteriorRings[i] = rings.size();
+				for (double[] ring : readRings())
+					rings.add(ring);
+			}
+
+			double[][] coordinates = rings.toArray(new double[rings.size()][]);
+			return collectionType == EWKBWriter.MULTIPOLYGON ?
+					GeometryObject.createMultiPolygon(coordinates, exteriorRings, dimension, srid) :
+						GeometryObject.createSolid(coordinates, exteriorRings, srid);
+		}
+		default:
+			throw new SQLException("Cannot convert PostGIS geometry type '" + (type & 0x0FFFFFFF) + "' to internal representation: Unsupported type.");
+		}
+	}
+
+	private int readHeader() {
+		littleEndian = data[pos++] == 1;
+		int type = readInt();
+
+		// accept both the PostGIS flags and ISO type codes
+		int isoType = type & 0x0FFFFFFF;
+		boolean hasZ = (type & EWKBWriter.Z_FLAG) != 0 || (isoType / 1000) % 2 == 1;
+		hasM = (type & EWKBWriter.M_FLAG) != 0 || isoType / 1000 >= 2;
+		dimension = hasZ ? 3 : 2;
+
+		return (type & 0xF0000000) | (isoType % 1000);
+	}
+
+	private void readSubHeader(int expected) throws SQLException {
+		int type = readHeader();
+		if ((type & EWKBWriter.SRID_FLAG) != 0)
+			readInt();
+
+		if ((type & 0x0FFFFFFF) != expected)
+			throw new SQLException("Failed to parse EWKB geometry: Unexpected geometry type '" + (type & 0x0FFFFFFF) + "' in collection.");
+	}
+
+	private double[][] readRings() {
+		double[][] rings = new double[readInt()][];
+		for (int i = 0; i < rings.length; i++)
+			rings[i] = readCoordinates(readInt());
+
+		return rings;
+	}
+
+	private double[] readCoordinates(int numPoints) {
+		double[] coordinates = new double[numPoints * dimension];
+		for (int i = 0; i < coordinates.length; ) {
+			for (int j = 0; j < dimension; j++)
+				coordinates[i++] = readDouble();
+
+			// measures are not supported by the internal representation
+			if (hasM)
+				pos += 8;
+		}
+
+		return coordinates;
+	}
+
+	private int readInt() {
+		int b0 = data[pos++] & 0xFF;
+		int b1 = data[pos++] & 0xFF;
+		int b2 = data[pos++] & 0xFF;
+		int b3 = data[pos++] & 0xFF;
+
+		return littleEndian ? 
+				(b3 << 24) | (b2 << 16) | (b1 << 8) | b0 :
+					(b0 << 24) | (b1 << 16) | (b2 << 8) | b3;
+	}
+
+	private double readDouble() {
+		long bits = 0;
+		if (littleEndian) {
+			for (int i = 0; i < 8; i++)
+				bits |= (data[pos++] & 0xFFL) << (i << 3);
+		} else {
+			for (int i = 0; i < 8; i++)
+				bits = (bits << 8) | (data[pos++] & 0xFFL);
+		}
+
+		return Double.longBitsToDouble(bits);
+	}
+
+}
@@ -0,0 +1,214 @@
+/*
+ * 3D City Database - The Open Source CityGML Database
+ * http://www.3dcitydb.org/
+ * 
+ * Copyright 2013 - 2016
+ * Chair of Geoinformatics
+ * Technical University of Munich, Germany
+ * https://www.gis.bgu.tum.de/
+ * 
+ * The 3D City Database is jointly developed with the following
+ * cooperation partners:
+ * 
+ * virtualcitySYSTEMS GmbH, Berlin <http://www.virtualcitysystems.de/>
+ * M.O.S.S. Computer Grafik Systeme GmbH, Taufkirchen <http://www.moss.de/>
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *     
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.citydb.database.adapter.postgis;
+
+import org.citydb.api.geometry.ElementType;
+import org.citydb.api.geometry.GeometryObject;
+
+final class EWKBWriter {
+	private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+
+	// EWKB type codes and flags as used by PostGIS
+	static final int POINT = 1;
+	static final int LINESTRING = 2;
+	static final int POLYGON = 3;
+	static final int MULTIPOINT = 4;
+	static final int MULTILINESTRING = 5;
+	static final int MULTIPOLYGON = 6;
+	static final int POLYHEDRALSURFACE = 15;
+	static final int Z_FLAG = 0x80000000;
+	static final int M_FLAG = 0x40000000;
+	static final int SRID_FLAG = 0x20000000;
+
+	private byte[] buffer = new byte[1024];
+	private char[] hex = new char[2048];
+	private int pos;
+
+	String writeHexed(GeometryObject geomObj) {
+		if (!encode(geomObj))
+			return null;
+
+		if (hex.length < pos << 1)
+			hex = new char[buffer.length << 1];
+
+		for (int i = 0, j = 0; i < pos; i++) {
+			int b = buffer[i];
+			hex[j++] = HEX[(b >> 4) & 0x0F];
+			hex[j++] = HEX[b & 0x0F];
+		}
+
+		return new String(hex, 0, pos << 1);
+	}
+
+	private boolean encode(GeometryObject geomObj) {
+		double[][] coordinates = geomObj.getCoordinates();
+		int dimension = geomObj.getDimension();
+		int srid = geomObj.getSrid();
+		pos = 0;
+
+		switch (geomObj.getGeometryType()) {
+		case POINT:
+			writeHeader(POINT, dimension, srid);
+			writeCoordinates(coordinates[0]);
+			break;
+		case LINE_STRING:
+			writeHeader(LINESTRING, dimension, srid);
+			writeLineString(coordinates[0], dimension);
+			break;
+		case POLYGON:
+			writeHeader(POLYGON, dimension, srid);
+			writeRings(coordinates, 0, coordinates.length, dimension);
+			break;
+		case ENVELOPE:
+			writeHeader(POLYGON, dimension, srid);
+			writeInt(1);
+			writeLineString(getEnvelopeRing(coordinates[0], dimension), dimension);
+			break;
+		case MULTI_POINT:
+			writeHeader(MULTIPOINT, dimension, srid);
+			writeInt(coordinates.length);
+			for (double[] point : coordinates) {
+				writeHeader(POINT, dimension, 0);
+				writeCoordinates(point);
+			}
+
+			break;
+		case MULTI_LINE_STRING:
+			writeHeader(MULTILINESTRING, dimension, srid);
+			writeInt(coordinates.length);
+			for (double[] lineString : coordinates) {
+				writeHeader(LINESTRING, dimension, 0);
+				writeLineString(lineString, dimension);
+			}
+
+			break;
+		case MULTI_POLYGON:
+			writeHeader(MULTIPOLYGON, dimension, srid);
+			writePolygonCollection(geomObj, dimension);
+			break;
+		case SOLID:
+			writeHeader(POLYHEDRALSURFACE, dimension, srid);
+			writePolygonCollection(geomObj, dimension);
+			break;
+		case COMPOSITE_SOLID:
+			// CompositeSolids are not supported yet
+			return false;
+		}
+
+		return true;
+	}
+
+	private void writePolygonCollection(GeometryObject geomObj, int dimension) {
+		double[][] coordinates = geomObj.getCoordinates();
+
+		int numPolygons = 0;
+		for (int i = 0; i < geomObj.getNumElements(); i++)
+			if (geomObj.getElementType(i) == ElementType.EXTERIOR_LINEAR_RING)
+				numPolygons++;
+
+		writeInt(numPolygons);
+
+		for (int i = 0; i < coordinates.length; ) {
+			int end = i + 1;
+			while (end < coordinates.length && geomObj.getElementType(end) != ElementType.EXTERIOR_LINEAR_RING)
+				end++;
+
+			writeHeader(POLYGON, dimension, 0);
+			writeRings(coordinates, i, end, dimension);
+			i = end;
+		}
+	}
+
+	private void writeRings(double[][] coordinates, int from, int to, int dimension) {
+		writeInt(to - from);
+		for (int i = from; i < to; i++)
+			writeLineString(coordinates[i], dimension);
+	}
+
+	private void writeLineString(double[] coordinates, int dimension) {
+		writeInt(coordinates.length / dimension);
+		writeCoordinates(coordinates);
+	}
+
+	private void writeHeader(int type, int dimension, int srid) {
+		if (dimension == 3)
+			type |= Z_FLAG;
+		if (srid != 0)
+			type |= SRID_FLAG;
+
+		ensureCapacity(9);
+		buffer[pos++] = 1;
+		writeInt(type);
+		if (srid != 0)
+			writeInt(srid);
+	}
+
+	private void writeCoordinates(double[] coordinates) {
+		ensureCapacity(coordinates.length << 3);
+		for (double coordinate : coordinates) {
+			long bits = Double.doubleToLongBits(coordinate);
+			for (int i = 0; i < 8; i++, bits >>>= 8)
+				buffer[pos++] = (byte)bits;
+		}
+	}
+
+	private void writeInt(int value) {
+		ensureCapacity(4);
+		buffer[pos++] = (byte)value;
+		buffer[pos++] = (byte)(value >>> 8);
+		buffer[pos++] = (byte)(value >>> 16);
+		buffer[pos++] = (byte)(value >>> 24);
+	}
+
+	private void ensureCapacity(int length) {
+		if (pos + length > buffer.length) {
+			byte[] tmp = new byte[Math.max(buffer.length << 1, pos + length)];
+			System.arraycopy(buffer, 0, tmp, 0, pos);
+			buffer = tmp;
+		}
+	}
+
+	private double[] getEnvelopeRing(double[] envelope, int dimension) {
+		if (dimension == 3) {
+			return new double[]{
+					envelope[0], envelope[1], envelope[2],
+					envelope[3], envelope[1], envelope[2],
+					envelope[3], envelope[4], envelope[5],
+					envelope[0], envelope[4], envelope[5],
+					envelope[0], envelope[1], envelope[2]};
+		} else {
+			return new double[]{
+					envelope[0], envelope[1],
+					envelope[2], envelope[1],
+					envelope[2], envelope[3],
+					envelope[0], envelope[3],
+					envelope[0], envelope[1]};
+		}
+	}
+
+}
@@ -30,11 +30,9 @@ package org.citydb.database.adapter.postgis;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.sql.Types;
-import java.util.ArrayList;
-import java.util.List;
 
 import org.citydb.api.geometry.GeometryObject;
-import org.citydb.api.geometry.ElementType;
+import org.citydb.api.geometry.GeometryType;
 import org.citydb.database.adapter.AbstractGeometryConverterAdapter;
 import org.postgis.Geometry;
 import org.postgis.LineString;
@@ -45,8 +43,16 @@ import org.postgis.MultiPolygon;
 import org.postgis.PGgeometry;
 import org.postgis.Point;
 import org.postgis.Polygon;
+import org.postgresql.util.PGobject;
 
 public class GeometryConverterAdapter extends AbstractGeometryConverterAdapter {
+	// geometries are passed to the database as EWKB to avoid building, parsing
+	// and serializing EWKT strings. the buffers are reused per thread.
+	private final ThreadLocal<EWKBWriter> ewkbWriter = new ThreadLocal<EWKBWriter>() {
+		protected EWKBWriter initialValue() {
+			return new EWKBWriter();
+		}
+	};
 
 	protected GeometryConverterAdapter() {
 
@@ -67,6 +73,11 @@ public class GeometryConverterAdapter extends AbstractGeometryConverterAdapter {
 		GeometryObject envelope = null;
 		if (geomObj instanceof PGgeometry)
 			envelope = getEnvelope(((PGgeometry)geomObj).getGeometry());
+		else {
+			GeometryObject geometry = getBinaryGeometry(geomObj);
+			if (geometry != null)
+				envelope = geometry.toEnvelope();
+		}
 
 		return envelope;
 	}
@@ -103,6 +114,10 @@ public class GeometryConverterAdapter extends AbstractGeometryConverterAdapter {
 				return null;
 
 			point = getPoint((Point)geometry);
+		} else {
+			GeometryObject geometry = getBinaryGeometry(geomObj);
+			if (geometry != null && geometry.getGeometryType() == GeometryType.POINT)
+				point = geometry;
 		}
 
 		return point;
@@ -141,6 +156,14 @@ public class GeometryConverterAdapter extends AbstractGeometryConverterAdapter {
 
 				multiPoint = GeometryObject.createMultiPoint(coordiantes, pointObj.getDimension(), pointObj.getSrid());
 			}
+		} else {
+			GeometryObject geometry = getBinaryGeometry(geomObj);
+			if (geometry != null) {
+				if (geometry.getGeometryType() == GeometryType.MULTI_POINT)
+					multiPoint = geometry;
+				else if (geometry.getGeometryType() == GeometryType.POINT)
+					multiPoint = GeometryObject.createMultiPoint(geometry.getCoordinates(), geometry.getDimension(), geometry.getSrid());
+			}
 		}
 
 		return multiPoint;
@@ -182,6 +205,10 @@ public class GeometryConverterAdapter extends AbstractGeometryConverterAdapter {
 				return null;
 
 			curve = getCurve((LineString)geometry);
+		} else {
+			GeometryObject geometry = getBinaryGeometry(geomObj);
+			if (geometry != null && geometry.getGeometryType() == GeometryType.LINE_STRING)
+				curve = geometry;
 		}
 
 		return curve;
@@ -229,6 +256,14 @@ public class GeometryConverterAdapter extends AbstractGeometryConverterAdapter {
 
 				multiCurve = GeometryObject.createMultiPoint(coordiantes, lineStringObj.getDimension(), lineStringObj.getSrid());
 			}
+		} else {
+			GeometryObject geometry = getBinaryGeometry(geomObj);
+			if (geometry != null) {
+				if (geometry.getGeometryType() == GeometryType.MULTI_LINE_STRING)
+					multiCurve = geometry;
+				else if (geometry.getGeometryType() == GeometryType.LINE_STRING)
+					multiCurve = GeometryObject.createMultiCurve(geometry.getCoordinates(), geometry.getDimension(), geometry.getSrid());
+			}
 		}
 
 		return multiCurve;
@@ -270,6 +305,10 @@ public class GeometryConverterAdapter extends AbstractGeometryConverterAdapter {
 				return null;
 
 			polygon = getPolygon((Polygon)geometry);
+		} else {
+			GeometryObject geometry = getBinaryGeometry(geomObj);
+			if (geometry != null && geometry.getGeometryType() == GeometryType.POLYGON)
+				polygon = geometry;
 		}
 
 		return polygon;
@@ -322,6 +361,14 @@ public class GeometryConverterAdapter extends AbstractGeometryConverterAdapter {
 
 				multiPolygon = GeometryObject.createMultiPolygon(coordinates, exteriorRings, polygonObj.getDimension(), polygonObj.getSrid());
 			}
+		} else {
+			GeometryObject geometry = getBinaryGeometry(geomObj);
+			if (geometry != null) {
+				if (geometry.getGeometryType() == GeometryType.MULTI_POLYGON)
+					multiPolygon = geometry;
+				else if (geometry.getGeometryType() == GeometryType.POLYGON)
+					multiPolygon = GeometryObject.createMultiPolygon(geometry.getCoordinates(), new int[]{ 0 }, geometry.getDimension(), geometry.getSrid());
+			}
 		}
 
 		return multiPolygon;
@@ -386,204 +433,36 @@ public class GeometryConverterAdapter extends AbstractGeometryConverterAdapter {
 			}
 		}
 
+		return getBinaryGeometry(geomObj);
+	}
+
+	private GeometryObject getBinaryGeometry(Object geomObj) throws SQLException {
+		// geometries that are not mapped to PGgeometry by the driver or that are 
+		// selected as binary are parsed directly from their EWKB representation
+		if (geomObj instanceof byte[])
+			return new EWKBReader().read((byte[])geomObj);
+		else if (geomObj instanceof PGobject && "geometry".equals(((PGobject)geomObj).getType()) && ((PGobject)geomObj).getValue() != null)
+			return new EWKBReader().readHexed(((PGobject)geomObj).getValue());
+
 		return null;
 	}
 
 	@Override
 	public Object getDatabaseObject(GeometryObject geomObj, Connection connection) throws SQLException {
-		Object geometry = null;
-
-		switch (geomObj.getGeometryType()) {
-		case POLYGON:
-		case LINE_STRING:
-		case POINT:
-		case MULTI_LINE_STRING:
-		case MULTI_POINT:
-		case ENVELOPE:
-		case MULTI_POLYGON:
-			geometry = new PGgeometry(PGgeometry.geomFromString(convertToEWKT(geomObj)));
-			break;
-		case SOLID:
-			// the current PostGIS JDBC driver lacks support for geometry objects of type PolyhedralSurface
-			// thus, we return the EWKT only
-			// TODO: rework as soon as the JDBC driver supports PolyhedralSurface
-			geometry = convertToEWKT(geomObj);
-			break;
-		case COMPOSITE_SOLID:
+		if (geomObj.getGeometryType() == GeometryType.COMPOSITE_SOLID)
 			return null;
-		}
 
-		if (geometry == null)
+		// PolyhedralSurfaces are written as EWKB as well, so we do not 
+		// depend on their support by the PostGIS JDBC driver
+		String ewkb = ewkbWriter.get().writeHexed(geomObj);
+		if (ewkb == null)
 			throw new SQLException("Failed to convert geometry to internal database representation.");
 
-		return geometry;
-	}
-
-	private String convertToEWKT(GeometryObject geomObj) {
-		double[][] coordinates = geomObj.getCoordinates();
-		int dimension = geomObj.getDimension();
-
-		StringBuilder ewkt = new StringBuilder()
-		.append("SRID=").append(geomObj.getSrid()).append(";");
-
-		switch (geomObj.getGeometryType()) {
-		case POLYGON:
-			ewkt.append("POLYGON");
-			break;
-		case LINE_STRING:
-			ewkt.append("LINESTRING");
-			break;
-		case POINT:
-			ewkt.append("POINT");
-			break;
-		case MULTI_LINE_STRING:
-			ewkt.append("MULTILINESTRING");
-			break;
-		case MULTI_POINT:
-			ewkt.append("MULTIPOINT");
-			break;
-		case ENVELOPE:
-			ewkt.append("POLYGON");
-			coordinates = new double[1][5 * dimension];
-			int i = 0;
-
-			if (dimension == 3) {
-				coordinates[0][i++] = geomObj.getCoordinates()[0][0];
-				coordinates[0][i++] = geomObj.getCoordinates()[0][1];
-				coordinates[0][i++] = geomObj.getCoordinates()[0][2];
+		PGobject geometry = new PGobject();
+		geometry.setType("geometry");
+		geometry.setValue(ewkb);
 
-				coordinates[0][i++] = geomObj.getCoordinates()[0][3];
-				coordinates[0][i++] = geomObj.getCoordinates()[0][1];
-				coordinates[0][i++] = geomObj.getCoordinates()[0][2];
-
-				coordinates[0][i++] = geomObj.getCoordinates()[0][3];
-				coordinates[0][i++] = geomObj.getCoordinates()[0][4];
-				coordinates[0][i++] = geomObj.getCoordinates()[0][5];
-
-				coordinates[0][i++] = geomObj.getCoordinates()[0][0];
-				coordinates[0][i++] = geomObj.getCoordinates()[0][4];
-				coordinates[0][i++] = geomObj.getCoordinates()[0][5];
-
-				coordinates[0][i++] = geomObj.getCoordinates()[0][0];
-				coordinates[0][i++] = geomObj.getCoordinates()[0][1];
-				coordinates[0][i++] = geomObj.getCoordinates()[0][2];
-			} else {
-				coordinates[0][i++] = geomObj.getCoordinates()[0][0];
-				coordinates[0][i++] = geomObj.getCoordinates()[0][1];
-
-				coordinates[0][i++] = geomObj.getCoordinates()[0][2];
-				coordinates[0][i++] = geomObj.getCoordinates()[0][1];
-
-				coordinates[0][i++] = geomObj.getCoordinates()[0][2];
-				coordinates[0][i++] = geomObj.getCoordinates()[0][3];
-
-				coordinates[0][i++] = geomObj.getCoordinates()[0][0];
-				coordinates[0][i++] = geomObj.getCoordinates()[0][3];
-
-				coordinates[0][i++] = geomObj.getCoordinates()[0][0];
-				coordinates[0][i++] = geomObj.getCoordinates()[0][1];
-			}
-
-			break;
-		case MULTI_POLYGON:
-			// MultiPolyon is different due to its complex structure
-			ewkt.append("MULTIPOLYGON");
-			return convertPolygonCollectionToEWKT(geomObj, ewkt);
-		case SOLID:
-			// Solid is different due to its complex structure
-			ewkt.append("POLYHEDRALSURFACE");
-			return convertPolygonCollectionToEWKT(geomObj, ewkt);
-		case COMPOSITE_SOLID:
-			// CompositeSolids are not supported yet
-			return null;
-		}
-
-		switch (geomObj.getGeometryType()) {
-		case POLYGON:
-		case MULTI_POINT:
-		case MULTI_LINE_STRING:
-		case ENVELOPE:
-			ewkt.append("(");
-			break;
-		default:
-			break;
-		}
-
-		for (int i = 0; i < coordinates.length; i++) {
-			ewkt.append("(");
-
-			for (int j = 0; j < coordinates[i].length; j += dimension) {
-				for (int k = 0; k < dimension; k++) {
-					ewkt.append(coordinates[i][j + k]);
-					if (k < dimension - 1)
-						ewkt.append(" ");
-				}
-
-				if (j < coordinates[i].length - dimension)
-					ewkt.append(",");
-			}
-
-			ewkt.append(")");
-			if (i < coordinates.length - 1)
-				ewkt.append(",");
-		}
-
-		switch (geomObj.getGeometryType()) {
-		case POLYGON:
-		case MULTI_POINT:
-		case MULTI_LINE_STRING:
-		case ENVELOPE:
-			ewkt.append(")");
-			break;
-		default:
-			break;
-		}
-
-		return ewkt.toString();
-	}
-
-	private String convertPolygonCollectionToEWKT(GeometryObject geomObj, StringBuilder ewkt) {
-		double[][] coordinates = geomObj.getCoordinates();
-		int dimension = geomObj.getDimension();
-
-		List<Integer> exteriorRings = new ArrayList<Integer>();
-		for (int i = 0; i < geomObj.getNumElements(); i++)
-			if (geomObj.getElementType(i) == ElementType.EXTERIOR_LINEAR_RING)
-				exteriorRings.add(i);
-
-		exteriorRings.add(coordinates.length);
-		ewkt.append("(");
-
-		for (int i = 0; i < exteriorRings.size() - 1; i++) {
-			ewkt.append("(");
-
-			for (int j = exteriorRings.get(i); j < exteriorRings.get(i + 1); j++) {
-				ewkt.append("(");
-
-				for (int k = 0; k < coordinates[j].length; k += dimension) {
-					for (int l = 0; l < dimension; l++) {
-						ewkt.append(coordinates[j][k + l]);
-						if (l < dimension - 1)
-							ewkt.append(" ");
-					}
-
-					if (k < coordinates[j].length - dimension)
-						ewkt.append(",");
-				}
-
-				ewkt.append(")");
-				if (j < exteriorRings.get(i + 1) - 1)
-					ewkt.append(",");
-			}
-
-			ewkt.append(")");
-			if (i < exteriorRings.size() - 2)
-				ewkt.append(",");
-		}
-
-		ewkt.append(")");
-
-		return ewkt.toString();
+		return geometry;
 	}
 
 }
@@ -28,6 +28,7 @@
 package org.citydb.database.adapter.postgis;
 
 import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.SQLException;
 
 import org.citydb.api.geometry.BoundingBox;
@@ -181,16 +182,36 @@ public class SQLAdapter extends AbstractSQLAdapter {
 		return false;
 	}
 
+	@Override
+	public boolean requiresSerializedConcurrentUpdates() {
+		return false;
+	}
+
+	@Override
+	public boolean supportsReleaseSavepoint() {
+		return true;
+	}
+
+	@Override
+	public boolean isDeadlock(SQLException e) {
+		for (Throwable t : e) {
+			if (t instanceof SQLException && "40P01".equals(((SQLException)t).getSQLState()))
+				return true;
+		}
+
+		return false;
+	}
+
 	@Override
 	public String getHierarchicalGeometryQuery() {
-		// the current PostGIS JDBC driver lacks support for geometry objects of type PolyhedralSurface
-		// thus, we have to use the database function ST_AsEWKT to load such geometries
-		// TODO: rework as soon as the JDBC driver supports PolyhedralSurface
+		// solid geometries are PolyhedralSurfaces which cannot be parsed by the PGgeometry type
+		// of the PostGIS JDBC driver. thus, they are selected as EWKB using ST_AsEWKB and are
+		// either read by our EWKBReader or passed back to the database unchanged
 		StringBuilder query = new StringBuilder()
 		.append("WITH RECURSIVE geometry_rec (id, gmlid, parent_id, root_id, is_solid, is_composite, is_triangulated, is_xlink, is_reverse, geometry, implicit_geometry, solid_geometry, cityobject_id, level) ")
 		.append("AS (SELECT sg.id, sg.gmlid, sg.parent_id, sg.root_id, sg.is_solid, sg.is_composite, sg.is_triangulated, sg.is_xlink, sg.is_reverse, sg.geometry, sg.implicit_geometry, sg.solid_geometry, sg.cityobject_id, 1 AS level FROM surface_geometry sg WHERE sg.id=? UNION ALL ")
 		.append("SELECT sg.id, sg.gmlid, sg.parent_id, sg.root_id, sg.is_solid, sg.is_composite, sg.is_triangulated, sg.is_xlink, sg.is_reverse, sg.geometry, sg.implicit_geometry, sg.solid_geometry, sg.cityobject_id, g.level + 1 AS level FROM surface_geometry sg, geometry_rec g WHERE sg.parent_id=g.id) ")
-		.append("SELECT id, gmlid, parent_id, root_id, is_solid, is_composite, is_triangulated, is_xlink, is_reverse, geometry, implicit_geometry, ST_AsEWKT(solid_geometry) as solid_geometry, cityobject_id, level FROM geometry_rec");
+		.append("SELECT id, gmlid, parent_id, root_id, is_solid, is_composite, is_triangulated, is_xlink, is_reverse, geometry, implicit_geometry, ST_AsEWKB(solid_geometry) as solid_geometry, cityobject_id, level FROM geometry_rec");
 		
 		return query.toString();
 	}
@@ -205,4 +226,9 @@ public class SQLAdapter extends AbstractSQLAdapter {
 		return new BlobExportAdapterImpl(connection, type);
 	}
 
+	@Override
+	public PreparedStatement prepareBulkLoadStatement(Connection connection, String insertStatement) throws SQLException {
+		return CopyStatement.prepareStatement(connection, insertStatement);
+	}
+
 }
@@ -28,13 +28,13 @@
 package org.citydb.modules.citygml.common.database.uid;
 
 import java.sql.SQLException;
-import java.util.Iterator;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.concurrent.locks.Condition;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.citydb.log.Logger;
 import org.citygml4j.model.citygml.CityGMLClass;
@@ -42,16 +42,28 @@ import org.citygml4j.model.citygml.CityGMLClass;
 public class UIDCache {
 	private final Logger LOG = Logger.getInstance();
 	
-	private final ConcurrentHashMap<String, UIDCacheEntry> map;
 	private final UIDCachingModel cacheModel;
 	private final int capacity;
 	private final float drainFactor;
+	private final int concurrencyLevel;
+	private final boolean reverseLookup;
 
-	private final ReentrantLock mainLock = new ReentrantLock(true);
-	private final Condition drainingDone = mainLock.newCondition();
+	// new entries are put into the active store. once the capacity is reached, 
+	// the active store is frozen and written to the cache table in the background 
+	// while a fresh store takes new entries. lookups check the active store, the 
+	// frozen store and finally the cache table without waiting for the drain.
+	private volatile UIDCacheStore store;
+	private volatile UIDCacheStore frozenStore;
+	private volatile int generation;
+	private ExecutorService drainService;
+
+	// tells whether a key might have been written to the cache table
+	private final UIDCacheBloomFilter bloomFilter;
 
 	private final AtomicBoolean isDraining = new AtomicBoolean(false);
 	private final AtomicInteger entries = new AtomicInteger(0);
+	private final AtomicLong drainedEntries = new AtomicLong(0);
+	private final AtomicInteger drains = new AtomicInteger(0);
 	private volatile boolean backUp = false;
 
 	public UIDCache(
@@ -59,34 +71,41 @@ public class UIDCache {
 			int capacity,
 			float drainFactor,
 			int concurrencyLevel) {
+		this(cacheModel, capacity, drainFactor, concurrencyLevel, false);
+	}
+
+	public UIDCache(
+			UIDCachingModel cacheModel,
+			int capacity,
+			float drainFactor,
+			int concurrencyLevel,
+			boolean reverseLookup) {
 		this.cacheModel = cacheModel;
 		this.capacity = capacity;
 		this.drainFactor = drainFactor;
+		this.concurrencyLevel = concurrencyLevel;
+		this.reverseLookup = reverseLookup;
 
-		map = new ConcurrentHashMap<String, UIDCacheEntry>(capacity, .75f, concurrencyLevel);
+		store = new UIDCacheStore(capacity, concurrencyLevel, reverseLookup);
+		bloomFilter = new UIDCacheBloomFilter(capacity);
 	}
 
 	public void put(String key, long id, long rootId, boolean reverse, String mapping, CityGMLClass type) {
-		UIDCacheEntry entry = lookupMap(key);
-
-		if (entry == null) {
-			entry = getOrCreate(key, id, rootId, reverse, mapping, type);
-
-			if (!entry.getAndSetRegistered(true)) {
-				if (entries.incrementAndGet() >= capacity && isDraining.compareAndSet(false, true)) 
-					drainToDB();
-			}
+		int generation = this.generation;
+		if (lookupMemory(key) == null && putIfAbsent(key, id, rootId, reverse, mapping, type, generation)) {
+			if (entries.incrementAndGet() >= capacity && isDraining.compareAndSet(false, true)) 
+				drainToDB();
 		}
 	}
 
 	public boolean lookupAndPut(String key, long id, long rootId, boolean reverse, String mapping, CityGMLClass type) {
-		boolean lookup = lookupMap(key) != null;
+		int generation = this.generation;
+		boolean lookup = lookupMemory(key) != null;
 		if (!lookup && backUp)
 			lookup = lookupDB(key) != null;
 
 		if (!lookup) {		
-			UIDCacheEntry entry = getOrCreate(key, id, rootId, reverse, mapping, type);
-			if (!entry.getAndSetRegistered(true)) {
+			if (putIfAbsent(key, id, rootId, reverse, mapping, type, generation)) {
 				if (entries.incrementAndGet() >= capacity && isDraining.compareAndSet(false, true))
 					drainToDB();
 			} else
@@ -101,7 +120,7 @@ public class UIDCache {
 	}
 
 	public UIDCacheEntry get(String key) {
-		UIDCacheEntry entry = lookupMap(key);
+		UIDCacheEntry entry = lookupMemory(key);
 		if (entry == null && backUp)
 			entry = lookupDB(key);
 
@@ -109,7 +128,7 @@ public class UIDCache {
 	}
 
 	public String get(long id, CityGMLClass type) {
-		String key = lookupMap(id, type);
+		String key = lookupMemory(id, type);
 		if (key == null && backUp)
 			key = lookupDB(id, type);
 
@@ -117,86 +136,204 @@ public class UIDCache {
 	}
 	
 	public UIDCacheEntry getFromMemory(String key) {
-		return lookupMap(key);
+		return lookupMemory(key);
 	}
 
-	private UIDCacheEntry lookupMap(String key) {
-		UIDCacheEntry entry = map.get(key);
-		if (entry != null)
-			entry.getAndSetRequested(true);
+	public int size() {
+		UIDCacheStore frozen = frozenStore;
+		return store.size() + (frozen != null ? frozen.size() : 0);
+	}
 
-		return entry;
+	public long getMemoryUsage() {
+		UIDCacheStore frozen = frozenStore;
+		return store.getMemoryUsage() + (frozen != null ? frozen.getMemoryUsage() : 0);
+	}
+
+	public long getDrainedEntries() {
+		return drainedEntries.get();
 	}
 
-	private String lookupMap(long id, CityGMLClass type) {
-		Iterator<Map.Entry<String, UIDCacheEntry>> iter = map.entrySet().iterator();
-		while (iter.hasNext()) {
-			Map.Entry<String, UIDCacheEntry> entry = iter.next();
-			if (entry.getValue().getId() == id)
-				if (entry.getValue().getType().isInstance(type))
-					return entry.getKey();
+	private boolean putIfAbsent(String key, long id, long rootId, boolean reverse, String mapping, CityGMLClass type, int generation) {
+		for (;;) {
+			UIDCacheStore active = store;
+			if (active.putIfAbsent(key, id, rootId, reverse, mapping, type)) {
+				if (isPutConcurrently(key, id, active, generation)) {
+					active.remove(key, id);
+					return false;
+				}
+
+				return true;
+			}
+
+			// the store might have been frozen in the meantime
+			if (!active.isFrozen() || lookupMemory(key) != null)
+				return false;
+		}
+	}
+
+	private boolean isPutConcurrently(String key, long id, UIDCacheStore active, int generation) {
+		// another thread might have put the key into the previous 
+		// store after our lookup but before the store was frozen
+		UIDCacheStore frozen = frozenStore;
+		if (frozen != null && frozen != active && frozen.get(key, false) != null)
+			return true;
+
+		// the previous store might have been released in the meantime. its
+		// entries then either replaced ours in the active store or have been
+		// written to the cache table
+		if (generation != this.generation) {
+			UIDCacheEntry entry = active.get(key, false);
+			if (entry != null && entry.getId() != id)
+				return true;
+
+			entry = lookupDB(key);
+			if (entry != null && entry.getId() != id)
+				return true;
 		}
 
-		return null;
+		return false;
 	}
 
-	private UIDCacheEntry getOrCreate(String key, long id, long rootId, boolean reverse, String mapping, CityGMLClass type) {
-		UIDCacheEntry entry = map.get(key);
-		if (entry == null) {
-			UIDCacheEntry newEntry = new UIDCacheEntry(id, rootId, reverse, mapping, type);
-			entry = map.putIfAbsent(key, newEntry);
-			if (entry == null)
-				entry = newEntry;
+	private UIDCacheEntry lookupMemory(String key) {
+		for (;;) {
+			int generation = this.generation;
+
+			UIDCacheEntry entry = store.get(key, true);
+			if (entry != null)
+				return entry;
+
+			UIDCacheStore frozen = frozenStore;
+			if (frozen != null && (entry = frozen.get(key, true)) != null)
+				return entry;
+
+			// entries might have been moved from the frozen to 
+			// the active store while we were looking
+			if (generation == this.generation)
+				return null;
 		}
+	}
 
-		return entry;
+	private String lookupMemory(long id, CityGMLClass type) {
+		for (;;) {
+			int generation = this.generation;
+
+			String key = store.getKey(id, type);
+			if (key != null)
+				return key;
+
+			UIDCacheStore frozen = frozenStore;
+			if (frozen != null && (key = frozen.getKey(id, type)) != null)
+				return key;
+
+			if (generation == this.generation)
+				return null;
+		}
 	}
 
 	private void drainToDB() {
+		freeze();
+
+		synchronized (this) {
+			if (drainService == null) {
+				drainService = Executors.newFixedThreadPool(1, new ThreadFactory() {
+					public Thread newThread(Runnable r) {
+						Thread t = new Thread(r, "uid_cache_drain_" + cacheModel.getType());
+						t.setDaemon(true);
+						return t;
+					}
+				});
+			}
+
+			drainService.execute(new Runnable() {
+				public void run() {
+					UIDCacheStore frozen = frozenStore;
+					while (frozen != null) {
+						drainToDB(frozen);
+
+						// continue if the active store has filled up in the meantime
+						frozen = null;
+						if (entries.get() >= capacity) {
+							freeze();
+							frozen = frozenStore;
+						} else {
+							isDraining.set(false);
+							if (entries.get() >= capacity && isDraining.compareAndSet(false, true)) {
+								freeze();
+								frozen = frozenStore;
+							}
+						}
+					}
+				}
+			});
+		}
+	}
+
+	private void freeze() {
+		UIDCacheStore frozen = store;
+		frozenStore = frozen;
+		store = new UIDCacheStore(capacity, concurrencyLevel, reverseLookup);
+		entries.set(0);
+		frozen.freeze();
+		backUp = true;
+	}
+
+	private void drainToDB(UIDCacheStore frozen) {
 		try {
 			LOG.debug("Writing entries to " + cacheModel.getType() + " cache.");
-			backUp = true;
 			
+			// the frozen store may have grown beyond the capacity while the
+			// previous drain was running, so only keep the configured share
 			int drain = Math.round(capacity * drainFactor);
+			drain = Math.max(drain, frozen.size() - (capacity - drain));
+
 			try {
-				cacheModel.drainToDB(map, drain);
-				entries.set(map.size());
+				cacheModel.drainToDB(frozen, drain);
+				drainedEntries.addAndGet(frozen.getDrainedEntries());
+				drains.incrementAndGet();
 
 				LOG.debug("Entries written to " + cacheModel.getType() + " cache.");
-
 			} catch (SQLException sqlEx) {
 				LOG.error("SQL error while writing entries to " + cacheModel.getType() + " cache: " + sqlEx.getMessage());
 			}
 		} finally {
-			final ReentrantLock lock = this.mainLock;
-			lock.lock();
-
+			// drained keys must be known to the bloom filter before 
+			// they can only be found in the cache table
+			frozen.forEachDrainedKey(new UIDCacheStore.KeyHandler() {
+				public void handle(String key) {
+					bloomFilter.put(key);
+				}
+			});
+
+			// keep the remaining entries in memory
 			try {
-				isDraining.set(false);
-				drainingDone.signalAll();
-			} finally {
-				lock.unlock();
+				frozen.drain(Integer.MAX_VALUE, new UIDCacheStore.DrainHandler() {
+					public void drain(String key, UIDCacheEntry entry) {
+						// the key might have concurrently been put into the active 
+						// store. the entry of the frozen store is the one to keep
+						if (store.put(key, entry))
+							entries.incrementAndGet();
+						else
+							store.replace(key, entry);
+					}
+				});
+			} catch (SQLException e) {
+				//
 			}
+
+			++generation;
+			frozenStore = null;
+			LOG.debug(getStatistics());
 		}
 	}
 
 	private UIDCacheEntry lookupDB(String key) {
-		if (isDraining.get()) {
-			final ReentrantLock lock = this.mainLock;
-			lock.lock();
-			
-			try {
-				while (isDraining.get())
-					drainingDone.await();
-			} catch (InterruptedException ie) {
-				//
-			} finally {
-				lock.unlock();
-			}
-		}
+		if (!bloomFilter.mightContain(key))
+			return null;
 
 		try {			
-			return cacheModel.lookupDB(key);
+			UIDCacheEntry entry = cacheModel.lookupDB(key);
+			bloomFilter.recordLookup(entry != null);
+			return entry;
 		} catch (SQLException sqlEx) {
 			LOG.error("SQL error while querying the " + cacheModel.getType() + " cache: " + sqlEx.getMessage());
 			return null;
@@ -204,20 +341,6 @@ public class UIDCache {
 	}
 
 	private String lookupDB(long id, CityGMLClass type) {
-		if (isDraining.get()) {
-			final ReentrantLock lock = this.mainLock;
-			lock.lock();
-
-			try {
-				while (isDraining.get())
-					drainingDone.await();
-			} catch (InterruptedException ie) {
-				//
-			} finally {
-				lock.unlock();
-			}
-		}
-		
 		try {
 			return cacheModel.lookupDB(id, type);
 		} catch (SQLException sqlEx) {
@@ -225,8 +348,29 @@ public class UIDCache {
 			return null;
 		} 
 	}
+
+	public String getStatistics() {
+		return "gml:id cache '" + cacheModel.getType() + "': " 
+				+ size() + " entries in memory (" + (getMemoryUsage() / 1024) + " KB), "
+				+ drainedEntries.get() + " entries written to cache table in " + drains.get() + " drain(s), "
+				+ bloomFilter.getSavedLookups() + " cache table lookups saved by bloom filter ("
+				+ String.format("%.2f", bloomFilter.getFalsePositiveRate() * 100) + "% false positives, "
+				+ String.format("%.2f", bloomFilter.getExpectedFalsePositiveRate() * 100) + "% expected).";
+	}
 	
 	public void shutdown() throws SQLException {
+		synchronized (this) {
+			if (drainService != null) {
+				drainService.shutdown();
+				try {
+					drainService.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+				} catch (InterruptedException e) {
+					//
+				}
+			}
+		}
+
+		LOG.debug(getStatistics());
 		cacheModel.close();
 	}
 }
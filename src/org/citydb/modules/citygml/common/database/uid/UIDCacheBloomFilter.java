@@ -0,0 +1,176 @@
+/*
+ * 3D City Database - The Open Source CityGML Database
+ * http://www.3dcitydb.org/
+ * 
+ * Copyright 2013 - 2016
+ * Chair of Geoinformatics
+ * Technical University of Munich, Germany
+ * https://www.gis.bgu.tum.de/
+ * 
+ * The 3D City Database is jointly developed with the following
+ * cooperation partners:
+ * 
+ * virtualcitySYSTEMS GmbH, Berlin <http://www.virtualcitysystems.de/>
+ * M.O.S.S. Computer Grafik Systeme GmbH, Taufkirchen <http://www.moss.de/>
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *     
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.citydb.modules.citygml.common.database.uid;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+public class UIDCacheBloomFilter {
+	// keys written to a cache table are added to this filter so that lookups 
+	// of keys which have never been drained can skip the database round-trip. 
+	// the filter grows by adding further slices whenever the current slice 
+	// has reached its expected number of insertions. every new slice doubles 
+	// the capacity and uses more bits per entry to keep the overall false 
+	// positive rate bounded.
+	private static final int BITS_PER_ENTRY = 10;
+	private static final int HASH_FUNCTIONS = 7;
+	private static final int MAX_SLICE_CAPACITY = 1 << 26;
+
+	private final CopyOnWriteArrayList<Slice> slices = new CopyOnWriteArrayList<Slice>();
+	private volatile Slice current;
+
+	private final AtomicLong savedLookups = new AtomicLong(0);
+	private final AtomicLong falsePositives = new AtomicLong(0);
+	private final AtomicLong truePositives = new AtomicLong(0);
+
+	public UIDCacheBloomFilter(int expectedEntries) {
+		current = new Slice(Math.max(1024, expectedEntries), BITS_PER_ENTRY);
+		slices.add(current);
+	}
+
+	public void put(String key) {
+		int h1 = key.hashCode();
+		int h2 = hash2(key);
+
+		// only the draining thread adds keys, so no further synchronization is required
+		Slice slice = current;
+		if (slice.entries >= slice.capacity) {
+			slice = new Slice((int)Math.min((long)slice.capacity << 1, MAX_SLICE_CAPACITY), slice.bitsPerEntry + 2);
+			slices.add(slice);
+			current = slice;
+		}
+
+		slice.put(h1, h2);
+	}
+
+	public boolean mightContain(String key) {
+		int h1 = key.hashCode();
+		int h2 = hash2(key);
+
+		for (Slice slice : slices) {
+			if (slice.mightContain(h1, h2))
+				return true;
+		}
+
+		savedLookups.incrementAndGet();
+		return false;
+	}
+
+	public void recordLookup(boolean found) {
+		if (found)
+			truePositives.incrementAndGet();
+		else
+			falsePositives.incrementAndGet();
+	}
+
+	public long getSavedLookups() {
+		return savedLookups.get();
+	}
+
+	public long getFalsePositives() {
+		return falsePositives.get();
+	}
+
+	public double getFalsePositiveRate() {
+		long negatives = savedLookups.get() + falsePositives.get();
+		return negatives > 0 ? (double)falsePositives.get() / negatives : 0;
+	}
+
+	public double getExpectedFalsePositiveRate() {
+		// probability that at least one slice reports a false match
+		double p = 1;
+		for (Slice slice : slices)
+			p *= 1 - Math.pow(1 - Math.exp(-HASH_FUNCTIONS * (double)slice.entries / slice.bits), HASH_FUNCTIONS);
+
+		return 1 - p;
+	}
+
+	public long getMemoryUsage() {
+		long memory = 0;
+		for (Slice slice : slices)
+			memory += slice.bits / 8;
+
+		return memory;
+	}
+
+	private int hash2(String key) {
+		int h = 0x9747b28c;
+		for (int i = 0; i < key.length(); i++) {
+			h ^= key.charAt(i);
+			h *= 0x5bd1e995;
+			h ^= h >>> 15;
+		}
+
+		return h | 1;
+	}
+
+	private static final class Slice {
+		private final AtomicLongArray words;
+		private final long bits;
+		private final int capacity;
+		private final int bitsPerEntry;
+		private volatile int entries;
+
+		Slice(int capacity, int bitsPerEntry) {
+			this.capacity = capacity;
+			this.bitsPerEntry = bitsPerEntry;
+
+			long bits = (long)capacity * bitsPerEntry;
+			words = new AtomicLongArray((int)((bits + 63) >>> 6));
+			this.bits = words.length() * 64L;
+		}
+
+		void put(int h1, int h2) {
+			for (int i = 0; i < HASH_FUNCTIONS; i++) {
+				long bit = ((h1 + (long)i * h2) & Long.MAX_VALUE) % bits;
+				int index = (int)(bit >>> 6);
+				long mask = 1L << bit;
+
+				for (;;) {
+					long word = words.get(index);
+					if ((word & mask) != 0 || words.compareAndSet(index, word, word | mask))
+						break;
+				}
+			}
+
+			++entries;
+		}
+
+		boolean mightContain(int h1, int h2) {
+			for (int i = 0; i < HASH_FUNCTIONS; i++) {
+				long bit = ((h1 + (long)i * h2) & Long.MAX_VALUE) % bits;
+				if ((words.get((int)(bit >>> 6)) & (1L << bit)) == 0)
+					return false;
+			}
+
+			return true;
+		}
+	}
+
+}
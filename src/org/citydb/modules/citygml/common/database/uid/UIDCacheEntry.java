@@ -27,8 +27,6 @@
  */
 package org.citydb.modules.citygml.common.database.uid;
 
-import java.util.concurrent.atomic.AtomicBoolean;
-
 import org.citygml4j.model.citygml.CityGMLClass;
 
 public class UIDCacheEntry {
@@ -37,15 +35,19 @@ public class UIDCacheEntry {
 	private boolean reverse;
 	private String mapping;
 	private CityGMLClass type;
-	private AtomicBoolean isRegistered = new AtomicBoolean(false);
-	private AtomicBoolean isRequested = new AtomicBoolean(false);
+	private boolean isRequested;
 
 	public UIDCacheEntry(long id, long rootId, boolean reverse, String mapping, CityGMLClass type) {
+		this(id, rootId, reverse, mapping, type, false);
+	}
+
+	protected UIDCacheEntry(long id, long rootId, boolean reverse, String mapping, CityGMLClass type, boolean isRequested) {
 		this.id = id;
 		this.rootId = rootId;
 		this.reverse = reverse;
 		this.mapping = mapping;
 		this.type = type;
+		this.isRequested = isRequested;
 	}
 
 	public long getId() {
@@ -65,19 +67,7 @@ public class UIDCacheEntry {
 	}
 
 	public boolean isRequested() {
-		return isRequested.get();
-	}
-	
-	protected boolean getAndSetRequested(boolean value) {
-		return isRequested.getAndSet(value);
-	}
-	
-	protected boolean isRegistered() {
-		return isRegistered.get();
-	}
-	
-	protected boolean getAndSetRegistered(boolean value) {
-		return isRegistered.getAndSet(value);
+		return isRequested;
 	}
 	
 	public CityGMLClass getType() {
@@ -45,12 +45,23 @@ public class UIDCacheManager {
 		int cacheSize,
 		float drainFactor,
 		int concurrencyLevel) {
+		initCache(cacheType, model, cacheSize, drainFactor, concurrencyLevel, false);
+	}
+
+	public void initCache(
+		UIDCacheType cacheType,
+		UIDCachingModel model,
+		int cacheSize,
+		float drainFactor,
+		int concurrencyLevel,
+		boolean reverseLookup) {
 
 		cacheMap.put(cacheType, new UIDCache(
 				model,
 				cacheSize,
 				drainFactor,
-				concurrencyLevel
+				concurrencyLevel,
+				reverseLookup
 		));
 	}
 
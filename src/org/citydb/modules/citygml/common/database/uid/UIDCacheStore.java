@@ -0,0 +1,753 @@
+/*
+ * 3D City Database - The Open Source CityGML Database
+ * http://www.3dcitydb.org/
+ * 
+ * Copyright 2013 - 2016
+ * Chair of Geoinformatics
+ * Technical University of Munich, Germany
+ * https://www.gis.bgu.tum.de/
+ * 
+ * The 3D City Database is jointly developed with the following
+ * cooperation partners:
+ * 
+ * virtualcitySYSTEMS GmbH, Berlin <http://www.virtualcitysystems.de/>
+ * M.O.S.S. Computer Grafik Systeme GmbH, Taufkirchen <http://www.moss.de/>
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *     
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.citydb.modules.citygml.common.database.uid;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.citygml4j.model.citygml.CityGMLClass;
+
+public class UIDCacheStore {
+	// entries are kept in packed primitive arrays instead of one String key and
+	// one UIDCacheEntry object per gml:id. keys and mappings are encoded into a
+	// per-segment byte arena, so the heap footprint of an entry is a few dozen
+	// bytes instead of a couple of hundred. if requested, database ids are
+	// additionally indexed so that reverse lookups need not scan the table.
+	// a frozen store rejects new entries and only flags drained entries
+	// instead of removing them, so that it can still serve lookups while
+	// it is being written to the cache table.
+	private static final int EMPTY = -1;
+	private static final int REMOVED = -2;
+
+	private static final int FLAG_REVERSE = 1;
+	private static final int FLAG_REQUESTED = 1 << 1;
+	private static final int FLAG_NEGATIVE_ROOT_ID = 1 << 2;
+	private static final int FLAG_DRAINED = 1 << 3;
+	private static final int TYPE_SHIFT = 8;
+
+	private static final int DRAIN_CHUNK_SIZE = 1000;
+	private static final CityGMLClass[] TYPES = CityGMLClass.values();
+
+	private final Segment[] segments;
+	private final int segmentShift;
+	private final int segmentMask;
+	private final boolean indexIds;
+	private volatile boolean isFrozen;
+
+	public UIDCacheStore(int capacity, int concurrencyLevel) {
+		this(capacity, concurrencyLevel, false);
+	}
+
+	public UIDCacheStore(int capacity, int concurrencyLevel, boolean indexIds) {
+		this.indexIds = indexIds;
+
+		int segmentCount = 1;
+		int shift = 0;
+		while (segmentCount < Math.max(1, concurrencyLevel)) {
+			segmentCount <<= 1;
+			++shift;
+		}
+
+		segmentShift = 32 - shift;
+		segmentMask = segmentCount - 1;
+		segments = new Segment[segmentCount];
+
+		int segmentCapacity = Math.max(16, capacity / segmentCount);
+		for (int i = 0; i < segmentCount; i++)
+			segments[i] = new Segment(segmentCapacity, indexIds);
+	}
+
+	public boolean putIfAbsent(String key, long id, long rootId, boolean reverse, String mapping, CityGMLClass type) {
+		int hash = hash(key);
+		return segmentFor(hash).putIfAbsent(key, hash, id, rootId, reverse, mapping, type, false, false);
+	}
+
+	public boolean put(String key, UIDCacheEntry entry) {
+		int hash = hash(key);
+		return segmentFor(hash).putIfAbsent(key, hash, entry.getId(), entry.getRootId(), 
+				entry.isReverse(), entry.getMapping(), entry.getType(), entry.isRequested(), false);
+	}
+
+	public boolean replace(String key, UIDCacheEntry entry) {
+		int hash = hash(key);
+		return segmentFor(hash).putIfAbsent(key, hash, entry.getId(), entry.getRootId(), 
+				entry.isReverse(), entry.getMapping(), entry.getType(), entry.isRequested(), true);
+	}
+
+	public boolean remove(String key, long id) {
+		int hash = hash(key);
+		return segmentFor(hash).remove(key, hash, id);
+	}
+
+	public boolean contains(String key, boolean markRequested) {
+		int hash = hash(key);
+		return segmentFor(hash).contains(key, hash, markRequested);
+	}
+
+	public UIDCacheEntry get(String key, boolean markRequested) {
+		int hash = hash(key);
+		return segmentFor(hash).get(key, hash, markRequested);
+	}
+
+	public boolean isIndexIds() {
+		return indexIds;
+	}
+
+	public String getKey(long id, CityGMLClass type) {
+		for (Segment segment : segments) {
+			String key = segment.getKey(id, type);
+			if (key != null)
+				return key;
+		}
+
+		return null;
+	}
+
+	public int drain(int max, DrainHandler handler) throws SQLException {
+		return drain(max, false, false, handler);
+	}
+
+	public int drain(int max, boolean requested, DrainHandler handler) throws SQLException {
+		return drain(max, true, requested, handler);
+	}
+
+	private int drain(int max, boolean filter, boolean requested, DrainHandler handler) throws SQLException {
+		int drained = 0;
+		for (int i = 0; i < segments.length && drained < max; i++)
+			drained += segments[i].drain(max - drained, filter, requested, handler);
+
+		return drained;
+	}
+
+	public void forEachDrainedKey(KeyHandler handler) {
+		for (Segment segment : segments)
+			segment.forEachDrainedKey(handler);
+	}
+
+	public void freeze() {
+		// must be visible before the first segment rejects new entries
+		isFrozen = true;
+
+		for (Segment segment : segments) {
+			segment.lock();
+			try {
+				segment.frozen = true;
+			} finally {
+				segment.unlock();
+			}
+		}
+	}
+
+	public boolean isFrozen() {
+		return isFrozen;
+	}
+
+	public int size() {
+		int size = 0;
+		for (Segment segment : segments)
+			size += segment.size;
+
+		return size;
+	}
+
+	public int getDrainedEntries() {
+		int drained = 0;
+		for (Segment segment : segments)
+			drained += segment.drainedEntries;
+
+		return drained;
+	}
+
+	public long getMemoryUsage() {
+		long memory = 0;
+		for (Segment segment : segments)
+			memory += segment.getMemoryUsage();
+
+		return memory;
+	}
+
+	private Segment segmentFor(int hash) {
+		return segments[(hash >>> segmentShift) & segmentMask];
+	}
+
+	private static int hash(String key) {
+		// gml:ids are often sequential, so the hash code needs to be mixed 
+		// thoroughly to avoid long probe sequences
+		int h = key.hashCode();
+		h ^= h >>> 16;
+		h *= 0x85ebca6b;
+		h ^= h >>> 13;
+		h *= 0xc2b2ae35;
+		return h ^ (h >>> 16);
+	}
+
+	private static int hash(long id) {
+		long h = id * 0x9E3779B97F4A7C15L;
+		return (int)(h ^ (h >>> 32));
+	}
+
+	public interface DrainHandler {
+		public void drain(String key, UIDCacheEntry entry) throws SQLException;
+	}
+
+	public interface KeyHandler {
+		public void handle(String key);
+	}
+
+	@SuppressWarnings("serial")
+	private static final class Segment extends ReentrantLock {
+		private int[] hashes;
+		private int[] offsets;
+		private int[] meta;
+		private long[] ids;
+		private long[] rootIds;
+
+		private int[] idSlots;
+		private int idRemoved;
+
+		private byte[] arena;
+		private int arenaSize;
+		private int garbage;
+
+		private volatile int size;
+		private volatile int drainedEntries;
+		private boolean frozen;
+		private int removed;
+		private int threshold;
+		private int rehashes;
+
+		Segment(int capacity, boolean indexIds) {
+			int slots = 16;
+			while (slots * 3 / 4 < capacity)
+				slots <<= 1;
+
+			allocate(slots);
+			if (indexIds)
+				idSlots = newIdSlots(slots);
+
+			arena = new byte[Math.max(256, capacity * 16)];
+		}
+
+		boolean putIfAbsent(String key, int hash, long id, long rootId, boolean reverse, String mapping, CityGMLClass type, boolean requested, boolean replace) {
+			lock();
+			try {
+				if (frozen)
+					return false;
+
+				int existing = find(key, hash);
+				if (existing >= 0) {
+					if (!replace)
+						return false;
+
+					remove(existing);
+				}
+
+				if (size + Math.max(removed, idRemoved) + 1 > threshold)
+					rehash();
+
+				int slot = hash & (offsets.length - 1);
+				while (offsets[slot] >= 0)
+					slot = (slot + 1) & (offsets.length - 1);
+
+				if (offsets[slot] == REMOVED)
+					--removed;
+
+				int flags = type.ordinal() << TYPE_SHIFT;
+				if (reverse)
+					flags |= FLAG_REVERSE;
+				if (requested)
+					flags |= FLAG_REQUESTED;
+
+				if (rootIds == null && rootId != 0 && rootId != -1) {
+					rootIds = new long[offsets.length];
+					for (int i = 0; i < offsets.length; i++)
+						if (offsets[i] >= 0)
+							rootIds[i] = (meta[i] & FLAG_NEGATIVE_ROOT_ID) != 0 ? -1 : 0;
+				}
+
+				if (rootIds != null)
+					rootIds[slot] = rootId;
+				else if (rootId == -1)
+					flags |= FLAG_NEGATIVE_ROOT_ID;
+
+				hashes[slot] = hash;
+				offsets[slot] = write(key, mapping);
+				meta[slot] = flags;
+				ids[slot] = id;
+				if (idSlots != null)
+					indexId(slot);
+
+				++size;
+				return true;
+			} finally {
+				unlock();
+			}
+		}
+
+		boolean remove(String key, int hash, long id) {
+			lock();
+			try {
+				// entries that have already been drained must stay
+				int slot = find(key, hash);
+				if (slot < 0 || ids[slot] != id || (meta[slot] & FLAG_DRAINED) != 0)
+					return false;
+
+				remove(slot);
+				return true;
+			} finally {
+				unlock();
+			}
+		}
+
+		boolean contains(String key, int hash, boolean markRequested) {
+			lock();
+			try {
+				int slot = find(key, hash);
+				if (slot < 0)
+					return false;
+
+				if (markRequested)
+					meta[slot] |= FLAG_REQUESTED;
+
+				return true;
+			} finally {
+				unlock();
+			}
+		}
+
+		UIDCacheEntry get(String key, int hash, boolean markRequested) {
+			lock();
+			try {
+				int slot = find(key, hash);
+				if (slot < 0)
+					return null;
+
+				if (markRequested)
+					meta[slot] |= FLAG_REQUESTED;
+
+				return toEntry(slot);
+			} finally {
+				unlock();
+			}
+		}
+
+		String getKey(long id, CityGMLClass type) {
+			lock();
+			try {
+				if (idSlots != null) {
+					int mask = idSlots.length - 1;
+					int pos = hash(id) & mask;
+
+					while (idSlots[pos] != EMPTY) {
+						int slot = idSlots[pos];
+						if (slot >= 0 && ids[slot] == id && typeOf(slot).isInstance(type))
+							return readKey(offsets[slot]);
+
+						pos = (pos + 1) & mask;
+					}
+				} else {
+					for (int slot = 0; slot < offsets.length; slot++) {
+						if (offsets[slot] >= 0 && ids[slot] == id && typeOf(slot).isInstance(type))
+							return readKey(offsets[slot]);
+					}
+				}
+
+				return null;
+			} finally {
+				unlock();
+			}
+		}
+
+		int drain(int max, boolean filter, boolean requested, DrainHandler handler) throws SQLException {
+			int drained = 0;
+			int slot = 0;
+			int generation = -1;
+			List<String> keys = new ArrayList<String>(Math.min(max, DRAIN_CHUNK_SIZE));
+			List<UIDCacheEntry> entries = new ArrayList<UIDCacheEntry>(Math.min(max, DRAIN_CHUNK_SIZE));
+
+			while (drained < max) {
+				// remove a chunk of entries while holding the lock and hand
+				// them over to the handler after the lock has been released
+				lock();
+				try {
+					if (generation != rehashes) {
+						generation = rehashes;
+						slot = 0;
+					}
+
+					int chunk = Math.min(max - drained, DRAIN_CHUNK_SIZE);
+					for (; slot < offsets.length && keys.size() < chunk; slot++) {
+						if (offsets[slot] < 0 || (meta[slot] & FLAG_DRAINED) != 0)
+							continue;
+
+						if (filter && ((meta[slot] & FLAG_REQUESTED) != 0) != requested)
+							continue;
+
+						keys.add(readKey(offsets[slot]));
+						entries.add(toEntry(slot));
+
+						if (!frozen)
+							remove(slot);
+						else
+							meta[slot] |= FLAG_DRAINED;
+
+						++drainedEntries;
+					}
+				} finally {
+					unlock();
+				}
+
+				if (keys.isEmpty())
+					break;
+
+				for (int i = 0; i < keys.size(); i++)
+					handler.drain(keys.get(i), entries.get(i));
+
+				drained += keys.size();
+				keys.clear();
+				entries.clear();
+			}
+
+			return drained;
+		}
+
+		void forEachDrainedKey(KeyHandler handler) {
+			lock();
+			try {
+				for (int slot = 0; slot < offsets.length; slot++) {
+					if (offsets[slot] >= 0 && (meta[slot] & FLAG_DRAINED) != 0)
+						handler.handle(readKey(offsets[slot]));
+				}
+			} finally {
+				unlock();
+			}
+		}
+
+		long getMemoryUsage() {
+			lock();
+			try {
+				long memory = arena.length + offsets.length * 20L;
+				if (rootIds != null)
+					memory += rootIds.length * 8L;
+				if (idSlots != null)
+					memory += idSlots.length * 4L;
+
+				return memory;
+			} finally {
+				unlock();
+			}
+		}
+
+		private int find(String key, int hash) {
+			int mask = offsets.length - 1;
+			int slot = hash & mask;
+
+			while (offsets[slot] != EMPTY) {
+				if (offsets[slot] >= 0 && hashes[slot] == hash && keyEquals(offsets[slot], key))
+					return slot;
+
+				slot = (slot + 1) & mask;
+			}
+
+			return -1;
+		}
+
+		private void remove(int slot) {
+			if (idSlots != null)
+				unindexId(slot);
+
+			garbage += recordLength(offsets[slot]);
+			offsets[slot] = REMOVED;
+			++removed;
+			--size;
+		}
+
+		private UIDCacheEntry toEntry(int slot) {
+			int flags = meta[slot];
+			long rootId = rootIds != null ? rootIds[slot] : ((flags & FLAG_NEGATIVE_ROOT_ID) != 0 ? -1 : 0);
+
+			return new UIDCacheEntry(ids[slot], 
+					rootId, 
+					(flags & FLAG_REVERSE) != 0, 
+					readMapping(offsets[slot]), 
+					typeOf(slot), 
+					(flags & FLAG_REQUESTED) != 0);
+		}
+
+		private void indexId(int slot) {
+			int mask = idSlots.length - 1;
+			int pos = hash(ids[slot]) & mask;
+			while (idSlots[pos] >= 0)
+				pos = (pos + 1) & mask;
+
+			if (idSlots[pos] == REMOVED)
+				--idRemoved;
+
+			idSlots[pos] = slot;
+		}
+
+		private void unindexId(int slot) {
+			int mask = idSlots.length - 1;
+			int pos = hash(ids[slot]) & mask;
+			while (idSlots[pos] != slot)
+				pos = (pos + 1) & mask;
+
+			idSlots[pos] = REMOVED;
+			++idRemoved;
+		}
+
+		private int[] newIdSlots(int slots) {
+			int[] idSlots = new int[slots];
+			Arrays.fill(idSlots, EMPTY);
+			return idSlots;
+		}
+
+		private CityGMLClass typeOf(int slot) {
+			return TYPES[meta[slot] >>> TYPE_SHIFT];
+		}
+
+		private void allocate(int slots) {
+			hashes = new int[slots];
+			offsets = new int[slots];
+			meta = new int[slots];
+			ids = new long[slots];
+			Arrays.fill(offsets, EMPTY);
+			threshold = slots * 3 / 4;
+		}
+
+		private void rehash() {
+			int[] oldHashes = hashes;
+			int[] oldOffsets = offsets;
+			int[] oldMeta = meta;
+			long[] oldIds = ids;
+			long[] oldRootIds = rootIds;
+			byte[] oldArena = arena;
+
+			// grow if the table is filled with live entries, otherwise
+			// just get rid of removed entries and arena garbage
+			int slots = oldOffsets.length;
+			if (size + 1 > threshold / 2)
+				slots <<= 1;
+
+			allocate(slots);
+			rootIds = oldRootIds != null ? new long[slots] : null;
+			idSlots = idSlots != null ? newIdSlots(slots) : null;
+			idRemoved = 0;
+			arena = new byte[Math.max(256, (arenaSize - garbage) * 3 / 2)];
+			arenaSize = 0;
+			garbage = 0;
+			removed = 0;
+
+			int mask = slots - 1;
+			for (int i = 0; i < oldOffsets.length; i++) {
+				if (oldOffsets[i] < 0)
+					continue;
+
+				int slot = oldHashes[i] & mask;
+				while (offsets[slot] != EMPTY)
+					slot = (slot + 1) & mask;
+
+				int length = recordLength(oldArena, oldOffsets[i]);
+				ensureArenaCapacity(length);
+				System.arraycopy(oldArena, oldOffsets[i], arena, arenaSize, length);
+
+				hashes[slot] = oldHashes[i];
+				offsets[slot] = arenaSize;
+				meta[slot] = oldMeta[i];
+				ids[slot] = oldIds[i];
+				if (rootIds != null)
+					rootIds[slot] = oldRootIds[i];
+				if (idSlots != null)
+					indexId(slot);
+
+				arenaSize += length;
+			}
+
+			++rehashes;
+		}
+
+		private int write(String key, String mapping) {
+			int keyLength = encodedLength(key);
+			int mappingLength = mapping != null ? encodedLength(mapping) : 0;
+			ensureArenaCapacity(10 + keyLength + mappingLength);
+
+			int offset = arenaSize;
+			arenaSize = writeVarInt(keyLength, arenaSize);
+			arenaSize = encode(key, arenaSize);
+			arenaSize = writeVarInt(mapping != null ? mappingLength + 1 : 0, arenaSize);
+			if (mapping != null)
+				arenaSize = encode(mapping, arenaSize);
+
+			return offset;
+		}
+
+		private void ensureArenaCapacity(int length) {
+			if (arenaSize + length > arena.length) {
+				long newLength = Math.max((long)arena.length << 1, (long)arenaSize + length);
+				arena = Arrays.copyOf(arena, (int)Math.min(newLength, Integer.MAX_VALUE - 8));
+			}
+		}
+
+		private int writeVarInt(int value, int pos) {
+			while ((value & ~0x7F) != 0) {
+				arena[pos++] = (byte)((value & 0x7F) | 0x80);
+				value >>>= 7;
+			}
+
+			arena[pos++] = (byte)value;
+			return pos;
+		}
+
+		private int encode(String value, int pos) {
+			// ASCII characters take one byte, all others are stored as
+			// a marker byte followed by the two bytes of the char
+			for (int i = 0; i < value.length(); i++) {
+				char c = value.charAt(i);
+				if (c < 0x80)
+					arena[pos++] = (byte)c;
+				else {
+					arena[pos++] = (byte)0xFF;
+					arena[pos++] = (byte)(c >>> 8);
+					arena[pos++] = (byte)c;
+				}
+			}
+
+			return pos;
+		}
+
+		private boolean keyEquals(int offset, String key) {
+			int length = 0;
+			int shift = 0;
+			byte b;
+			do {
+				b = arena[offset++];
+				length |= (b & 0x7F) << shift;
+				shift += 7;
+			} while ((b & 0x80) != 0);
+
+			int end = offset + length;
+			int i = 0;
+			while (offset < end) {
+				if (i == key.length())
+					return false;
+
+				char c;
+				b = arena[offset++];
+				if (b >= 0)
+					c = (char)b;
+				else {
+					c = (char)(((arena[offset] & 0xFF) << 8) | (arena[offset + 1] & 0xFF));
+					offset += 2;
+				}
+
+				if (c != key.charAt(i++))
+					return false;
+			}
+
+			return i == key.length();
+		}
+
+		private String readKey(int offset) {
+			return readString(arena, offset);
+		}
+
+		private String readMapping(int offset) {
+			int[] pos = new int[]{ offset };
+			int keyLength = readVarInt(arena, pos);
+			pos[0] += keyLength;
+
+			int mappingLength = readVarInt(arena, pos);
+			return mappingLength > 0 ? decode(arena, pos[0], mappingLength - 1) : null;
+		}
+
+		private int recordLength(int offset) {
+			return recordLength(arena, offset);
+		}
+
+		private static int recordLength(byte[] arena, int offset) {
+			int[] pos = new int[]{ offset };
+			int keyLength = readVarInt(arena, pos);
+			pos[0] += keyLength;
+
+			int mappingLength = readVarInt(arena, pos);
+			if (mappingLength > 0)
+				pos[0] += mappingLength - 1;
+
+			return pos[0] - offset;
+		}
+
+		private static String readString(byte[] arena, int offset) {
+			int[] pos = new int[]{ offset };
+			int length = readVarInt(arena, pos);
+			return decode(arena, pos[0], length);
+		}
+
+		private static int readVarInt(byte[] arena, int[] pos) {
+			int value = 0;
+			int shift = 0;
+			byte b;
+			do {
+				b = arena[pos[0]++];
+				value |= (b & 0x7F) << shift;
+				shift += 7;
+			} while ((b & 0x80) != 0);
+
+			return value;
+		}
+
+		private static String decode(byte[] arena, int offset, int length) {
+			char[] chars = new char[length];
+			int end = offset + length;
+			int i = 0;
+
+			while (offset < end) {
+				byte b = arena[offset++];
+				if (b >= 0)
+					chars[i++] = (char)b;
+				else {
+					chars[i++] = (char)(((arena[offset] & 0xFF) << 8) | (arena[offset + 1] & 0xFF));
+					offset += 2;
+				}
+			}
+
+			return new String(chars, 0, i);
+		}
+
+		private static int encodedLength(String value) {
+			int length = 0;
+			for (int i = 0; i < value.length(); i++)
+				length += value.charAt(i) < 0x80 ? 1 : 3;
+
+			return length;
+		}
+	}
+
+}
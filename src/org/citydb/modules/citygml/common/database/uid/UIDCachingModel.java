@@ -28,12 +28,11 @@
 package org.citydb.modules.citygml.common.database.uid;
 
 import java.sql.SQLException;
-import java.util.concurrent.ConcurrentHashMap;
 
 import org.citygml4j.model.citygml.CityGMLClass;
 
 public interface UIDCachingModel {
-	public void drainToDB(ConcurrentHashMap<String, UIDCacheEntry> map, int drain) throws SQLException;
+	public void drainToDB(UIDCacheStore store, int drain) throws SQLException;
 	public UIDCacheEntry lookupDB(String key) throws SQLException;
 	public String lookupDB(long id, CityGMLClass type) throws SQLException;
 	public void close() throws SQLException;
@@ -29,6 +29,8 @@ package org.citydb.modules.citygml.exporter.concurrent;
 
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.locks.ReentrantLock;
 
 import org.citydb.api.concurrent.Worker;
@@ -46,6 +48,7 @@ import org.citydb.modules.citygml.exporter.database.content.DBAppearance;
 import org.citydb.modules.citygml.exporter.database.content.DBBridge;
 import org.citydb.modules.citygml.exporter.database.content.DBBuilding;
 import org.citydb.modules.citygml.exporter.database.content.DBCityFurniture;
+import org.citydb.modules.citygml.exporter.database.content.DBCityObject;
 import org.citydb.modules.citygml.exporter.database.content.DBCityObjectGroup;
 import org.citydb.modules.citygml.exporter.database.content.DBExporterEnum;
 import org.citydb.modules.citygml.exporter.database.content.DBExporterManager;
@@ -60,7 +63,6 @@ import org.citydb.modules.citygml.exporter.database.content.DBTunnel;
 import org.citydb.modules.citygml.exporter.database.content.DBWaterBody;
 import org.citydb.modules.citygml.exporter.util.FeatureProcessException;
 import org.citydb.modules.citygml.exporter.util.FeatureProcessor;
-import org.citydb.modules.common.event.CounterEvent;
 import org.citydb.modules.common.event.CounterType;
 import org.citydb.modules.common.event.EventType;
 import org.citydb.modules.common.event.FeatureCounterEvent;
@@ -69,9 +71,12 @@ import org.citydb.modules.common.event.InterruptEvent;
 import org.citydb.modules.common.event.InterruptReason;
 import org.citydb.modules.common.filter.ExportFilter;
 import org.citygml4j.builder.jaxb.JAXBBuilder;
+import org.citygml4j.model.citygml.CityGMLClass;
 import org.xml.sax.SAXException;
 
 public class DBExportWorker extends Worker<DBSplittingResult> implements EventHandler {
+	private static final int WORK_BLOCK_SIZE = 500;
+
 	private final ReentrantLock runLock = new ReentrantLock();
 	private volatile boolean shouldRun = true;
 	private volatile boolean shouldWork = true;
@@ -86,8 +91,11 @@ public class DBExportWorker extends Worker<DBSplittingResult> implements EventHa
 	private final Config config;
 	private Connection connection;	
 	private DBExporterManager dbExporterManager;
+	private DBCityObject cityObjectExporter;
+	private DBBuilding buildingExporter;
 	private final EventDispatcher eventDispatcher;
-	private int exportCounter = 0;
+	private List<DBSplittingResult> workBlock;
+	private int poolSize;
 
 	public DBExportWorker(DatabaseConnectionPool dbConnectionPool,
 			JAXBBuilder jaxbBuilder,
@@ -132,12 +140,15 @@ public class DBExportWorker extends Worker<DBSplittingResult> implements EventHa
 				config,
 				eventDispatcher);
 
+		workBlock = new ArrayList<DBSplittingResult>(WORK_BLOCK_SIZE);
+		poolSize = Math.max(1, config.getProject().getExporter().getResources().getThreadPool().getDefaultPool().getMaxThreads());
 		eventDispatcher.addEventHandler(EventType.INTERRUPT, this);
 	}
 
 	@Override
 	public void interrupt() {
 		shouldRun = false;
+		shouldWork = false;
 		workerThread.interrupt();
 	}
 
@@ -165,10 +176,19 @@ public class DBExportWorker extends Worker<DBSplittingResult> implements EventHa
 
 			while (shouldRun) {
 				try {
-					DBSplittingResult work = workQueue.take();
-					doWork(work);
+					// take further work items that are already queued so that
+					// their city objects can be fetched with a single query. only
+					// a share of the queue is taken to keep the other workers busy
+					workBlock.add(workQueue.take());
+					int blockSize = Math.min(WORK_BLOCK_SIZE, (workQueue.size() + 1) / poolSize);
+					if (blockSize > 1)
+						workQueue.drainTo(workBlock, blockSize - 1);
+
+					doWork(workBlock);
 				} catch (InterruptedException ie) {
 					// re-check state
+				} finally {
+					workBlock.clear();
 				}
 			}
 
@@ -178,7 +198,6 @@ public class DBExportWorker extends Worker<DBSplittingResult> implements EventHa
 				//
 			}
 
-			eventDispatcher.triggerEvent(new CounterEvent(CounterType.TOPLEVEL_FEATURE, exportCounter, this));
 			eventDispatcher.triggerEvent(new FeatureCounterEvent(dbExporterManager.getFeatureCounter(), this));
 			eventDispatcher.triggerEvent(new GeometryCounterEvent(dbExporterManager.getGeometryCounter(), this));
 		} finally {
@@ -194,6 +213,55 @@ public class DBExportWorker extends Worker<DBSplittingResult> implements EventHa
 		}
 	}
 
+	private void doWork(List<DBSplittingResult> workBlock) {
+		final ReentrantLock runLock = this.runLock;
+		runLock.lock();
+
+		try {
+			if (workBlock.size() > 1 && shouldWork) {
+				List<Long> cityObjectIds = new ArrayList<Long>(workBlock.size());
+				List<Long> buildingIds = new ArrayList<Long>();
+				for (DBSplittingResult work : workBlock) {
+					// global appearances are not stored in the CITYOBJECT table
+					if (work.getCityObjectType() != CityGMLClass.APPEARANCE)
+						cityObjectIds.add(work.getPrimaryKey());
+
+					if (work.getCityObjectType() == CityGMLClass.BUILDING)
+						buildingIds.add(work.getPrimaryKey());
+				}
+
+				try {
+					cityObjectExporter = (DBCityObject)dbExporterManager.getDBExporter(DBExporterEnum.CITYOBJECT);
+					cityObjectExporter.prefetch(cityObjectIds);
+
+					if (!buildingIds.isEmpty()) {
+						buildingExporter = (DBBuilding)dbExporterManager.getDBExporter(DBExporterEnum.BUILDING);
+						buildingExporter.prefetch(buildingIds);
+					}
+				} catch (SQLException e) {
+					eventDispatcher.triggerSyncEvent(new InterruptEvent(InterruptReason.SQL_ERROR, "Aborting export due to SQL errors.", LogLevel.WARN, e, eventChannel, this));
+					return;
+				}
+			}
+
+			for (DBSplittingResult work : workBlock) {
+				// stop early if the export has been aborted
+				if (!shouldWork)
+					break;
+
+				doWork(work);
+			}
+		} finally {
+			if (cityObjectExporter != null)
+				cityObjectExporter.clearPrefetchCache();
+
+			if (buildingExporter != null)
+				buildingExporter.clearPrefetchCache();
+
+			runLock.unlock();
+		}
+	}
+
 	private void doWork(DBSplittingResult work) {
 		final ReentrantLock runLock = this.runLock;
 		runLock.lock();
@@ -284,12 +352,7 @@ public class DBExportWorker extends Worker<DBSplittingResult> implements EventHa
 			}
 
 			if (success)
-				++exportCounter;
-
-			if (exportCounter == 20) {
-				eventDispatcher.triggerEvent(new CounterEvent(CounterType.TOPLEVEL_FEATURE, exportCounter, this));
-				exportCounter = 0;
-			}
+				eventDispatcher.updateCounter(CounterType.TOPLEVEL_FEATURE, 1);
 
 		} catch (SQLException e) {
 			eventDispatcher.triggerSyncEvent(new InterruptEvent(InterruptReason.SQL_ERROR, "Aborting export due to SQL errors.", LogLevel.WARN, e, eventChannel, this));
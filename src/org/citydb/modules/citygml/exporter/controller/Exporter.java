@@ -39,6 +39,7 @@ import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.citydb.api.concurrent.PoolSizeAdaptationStrategy;
 import org.citydb.api.concurrent.SingleWorkerPool;
+import org.citydb.api.concurrent.WorkQueueType;
 import org.citydb.api.concurrent.WorkerPool;
 import org.citydb.api.database.DatabaseSrs;
 import org.citydb.api.event.Event;
@@ -135,6 +136,9 @@ public class Exporter implements EventHandler {
 	}
 
 	public boolean doProcess() throws CityGMLExportException {
+		// discard counter updates left over from a previous operation
+		eventDispatcher.resetCounters();
+
 		// adding listeners
 		eventDispatcher.addEventHandler(EventType.FEATURE_COUNTER, this);
 		eventDispatcher.addEventHandler(EventType.GEOMETRY_COUNTER, this);
@@ -372,7 +376,8 @@ public class Exporter implements EventHandler {
 										config.getProject().getDatabase().getUpdateBatching().getGmlIdCacheBatchValue()),
 								config.getProject().getExporter().getResources().getGmlIdCache().getGeometry().getCacheSize(),
 								config.getProject().getExporter().getResources().getGmlIdCache().getGeometry().getPageFactor(),
-								config.getProject().getExporter().getResources().getThreadPool().getDefaultPool().getMaxThreads());
+								config.getProject().getExporter().getResources().getThreadPool().getDefaultPool().getMaxThreads(),
+								true);
 
 						uidCacheManager.initCache(
 								UIDCacheType.FEATURE,
@@ -381,7 +386,8 @@ public class Exporter implements EventHandler {
 										config.getProject().getDatabase().getUpdateBatching().getGmlIdCacheBatchValue()),
 								config.getProject().getExporter().getResources().getGmlIdCache().getFeature().getCacheSize(),
 								config.getProject().getExporter().getResources().getGmlIdCache().getFeature().getPageFactor(),
-								config.getProject().getExporter().getResources().getThreadPool().getDefaultPool().getMaxThreads());
+								config.getProject().getExporter().getResources().getThreadPool().getDefaultPool().getMaxThreads(),
+								true);
 					} catch (SQLException e) {
 						throw new CityGMLExportException("Failed to initialize internal gml:id caches.", e);
 					}	
@@ -419,7 +425,7 @@ public class Exporter implements EventHandler {
 									config,
 									eventDispatcher),
 							300,
-							false);
+							WorkQueueType.WORK_STEALING);
 
 					// prestart pool workers
 					xlinkExporterPool.prestartCoreWorkers();
@@ -32,7 +32,10 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 
@@ -74,6 +77,7 @@ public class DBAppearance implements DBExporter {
 	private final DBExporterEnum type;
 
 	private PreparedStatement psAppearance;
+	private String appearanceQuery;
 
 	private DBTextureParam textureParamExporter;
 	private boolean exportTextureImage;
@@ -86,6 +90,7 @@ public class DBAppearance implements DBExporter {
 	private String gmlIdPrefix;
 	private String pathSeparator;
 	private HashSet<Long> texImageIds;
+	private HashMap<Long, List<Object[]>> prefetchedRows;
 
 	public DBAppearance(DBExporterEnum type, Connection connection, Config config, DBExporterManager dbExporterManager) throws SQLException {
 		if (type != DBExporterEnum.LOCAL_APPEARANCE && type != DBExporterEnum.GLOBAL_APPEARANCE)
@@ -101,6 +106,7 @@ public class DBAppearance implements DBExporter {
 
 	private void init() throws SQLException {
 		texImageIds = new HashSet<Long>();
+		prefetchedRows = new HashMap<Long, List<Object[]>>();
 		exportTextureImage = config.getProject().getExporter().getAppearances().isSetExportTextureFiles();
 		uniqueFileNames = config.getProject().getExporter().getAppearances().isSetUniqueTextureFileNames();
 		noOfBuckets = config.getProject().getExporter().getAppearances().getTexturePath().getNoOfBuckets(); 
@@ -124,7 +130,7 @@ public class DBAppearance implements DBExporter {
 			.append("sd.X3D_SHININESS, sd.X3D_TRANSPARENCY, sd.X3D_AMBIENT_INTENSITY, sd.X3D_SPECULAR_COLOR, sd.X3D_DIFFUSE_COLOR, sd.X3D_EMISSIVE_COLOR, sd.X3D_IS_SMOOTH, ")
 			.append("sd.TEX_IMAGE_ID, COALESCE(").append(getLength).append("(ti.TEX_IMAGE_DATA)").append(", 0) as DB_TEX_IMAGE_SIZE, ti.TEX_IMAGE_URI, ti.TEX_MIME_TYPE, ti.TEX_MIME_TYPE_CODESPACE, ")
 			.append("lower(sd.TEX_TEXTURE_TYPE) as TEX_TEXTURE_TYPE, lower(sd.TEX_WRAP_MODE) as TEX_WRAP_MODE, sd.TEX_BORDER_COLOR, ")	
-			.append("sd.GT_PREFER_WORLDFILE, sd.GT_ORIENTATION, sd.GT_REFERENCE_POINT ")
+			.append("sd.GT_PREFER_WORLDFILE, sd.GT_ORIENTATION, sd.GT_REFERENCE_POINT, app.CITYOBJECT_ID as APP_CITYOBJECT_ID ")
 			.append("from APPEARANCE app inner join APPEAR_TO_SURFACE_DATA a2s on app.ID = a2s.APPEARANCE_ID inner join SURFACE_DATA sd on sd.ID=a2s.SURFACE_DATA_ID left join TEX_IMAGE ti on sd.TEX_IMAGE_ID=ti.ID where ");
 		} else {
 			int srid = config.getInternal().getExportTargetSRS().getSrid();
@@ -136,10 +142,11 @@ public class DBAppearance implements DBExporter {
 			.append("sd.TEX_IMAGE_ID, COALESCE(").append(getLength).append("(ti.TEX_IMAGE_DATA)").append(", 0) as DB_TEX_IMAGE_SIZE, ti.TEX_IMAGE_URI, ti.TEX_MIME_TYPE, ti.TEX_MIME_TYPE_CODESPACE, ")
 			.append("lower(sd.TEX_TEXTURE_TYPE) as TEX_TEXTURE_TYPE, lower(sd.TEX_WRAP_MODE) as TEX_WRAP_MODE, sd.TEX_BORDER_COLOR, ")
 			.append("sd.GT_PREFER_WORLDFILE, sd.GT_ORIENTATION, ")
-			.append(transformOrNull).append("(sd.GT_REFERENCE_POINT, ").append(srid).append(") AS GT_REFERENCE_POINT ")
+			.append(transformOrNull).append("(sd.GT_REFERENCE_POINT, ").append(srid).append(") AS GT_REFERENCE_POINT, app.CITYOBJECT_ID as APP_CITYOBJECT_ID ")
 			.append("from APPEARANCE app inner join APPEAR_TO_SURFACE_DATA a2s on app.ID = a2s.APPEARANCE_ID inner join SURFACE_DATA sd on sd.ID=a2s.SURFACE_DATA_ID left join TEX_IMAGE ti on sd.TEX_IMAGE_ID=ti.ID where ");
 		}
 
+		appearanceQuery = query.toString();
 		if (type == DBExporterEnum.LOCAL_APPEARANCE)
 			query.append("app.CITYOBJECT_ID=?");
 		else
@@ -151,75 +158,113 @@ public class DBAppearance implements DBExporter {
 				type == DBExporterEnum.LOCAL_APPEARANCE ? DBExporterEnum.LOCAL_APPEARANCE_TEXTUREPARAM : DBExporterEnum.GLOBAL_APPEARANCE_TEXTUREPARAM);
 	}
 
-	public void read(AbstractCityObject cityObject, long cityObjectId) throws SQLException {
-		final List<Long> appearanceIds = new ArrayList<Long>();
+	public void prefetch(Collection<Long> cityObjectIds) throws SQLException {
+		if (type != DBExporterEnum.LOCAL_APPEARANCE || cityObjectIds.isEmpty())
+			return;
+
+		Statement stmt = null;
 		ResultSet rs = null;
 
 		try {
-			psAppearance.setLong(1, cityObjectId);
-			rs = psAppearance.executeQuery();
+			for (Long cityObjectId : cityObjectIds)
+				prefetchedRows.put(cityObjectId, new ArrayList<Object[]>());
 
-			long currentAppearanceId = 0;
-			Appearance appearance = null;
+			// fetch the local appearances of all city objects in a single
+			// round trip and group the rows by the city object id
+			stmt = connection.createStatement();
+			rs = stmt.executeQuery(appearanceQuery + Util.buildInOperator(cityObjectIds, "app.CITYOBJECT_ID", "or", 
+					dbExporterManager.getDatabaseAdapter().getSQLAdapter().getMaximumNumberOfItemsForInOperator()));
 
 			while (rs.next()) {
-				long appearanceId = rs.getLong(1);
+				List<Object[]> rows = prefetchedRows.get(rs.getLong(32));
+				if (rows != null)
+					rows.add(getRow(rs));
+			}
+		} finally {
+			if (rs != null)
+				rs.close();
+
+			if (stmt != null)
+				stmt.close();
+		}
+	}
 
-				if (appearanceId != currentAppearanceId) {
-					currentAppearanceId = appearanceId;
+	public void clearPrefetchCache() {
+		prefetchedRows.clear();
+	}
 
-					int index = appearanceIds.indexOf(appearanceId);
-					if (index == -1) {
-						appearance = new Appearance();
-						getAppearanceProperties(appearance, rs);
+	public void read(AbstractCityObject cityObject, long cityObjectId) throws SQLException {
+		final List<Long> appearanceIds = new ArrayList<Long>();
 
-						// add appearance to cityobject
-						cityObject.addAppearance(new AppearanceProperty(appearance));
-						dbExporterManager.updateFeatureCounter(CityGMLClass.APPEARANCE);
+		List<Object[]> rows = prefetchedRows.remove(cityObjectId);
+		if (rows == null)
+			rows = queryAppearance(cityObjectId);
 
-						appearanceIds.add(appearanceId);
-					} else
-						appearance = cityObject.getAppearance().get(index).getAppearance();
-				}
+		long currentAppearanceId = 0;
+		Appearance appearance = null;
 
-				// add surface data to appearance
-				addSurfaceData(appearance, rs);
+		for (Object[] row : rows) {
+			long appearanceId = (Long)row[0];
+
+			if (appearanceId != currentAppearanceId) {
+				currentAppearanceId = appearanceId;
+
+				int index = appearanceIds.indexOf(appearanceId);
+				if (index == -1) {
+					appearance = new Appearance();
+					getAppearanceProperties(appearance, row);
+
+					// add appearance to cityobject
+					cityObject.addAppearance(new AppearanceProperty(appearance));
+					dbExporterManager.updateFeatureCounter(CityGMLClass.APPEARANCE);
+
+					appearanceIds.add(appearanceId);
+				} else
+					appearance = cityObject.getAppearance().get(index).getAppearance();
 			}
-		} finally {
-			if (rs != null)
-				rs.close();
+
+			// add surface data to appearance
+			addSurfaceData(appearance, row);
 		}
 	}
 
 	public boolean read(DBSplittingResult splitter) throws SQLException, FeatureProcessException {
-		ResultSet rs = null;
+		Appearance appearance = new Appearance();
+		boolean isInited = false;
+
+		long appearanceId = splitter.getPrimaryKey();
+		for (Object[] row : queryAppearance(appearanceId)) {
+			if (!isInited) {
+				getAppearanceProperties(appearance, row);
+				texImageIds.clear();
+				isInited = true;
+			}
 
-		try {
-			Appearance appearance = new Appearance();
-			boolean isInited = false;
+			// add surface data to appearance
+			addSurfaceData(appearance, row);
+		}
 
-			long appearanceId = splitter.getPrimaryKey();
-			psAppearance.setLong(1, appearanceId);
-			rs = psAppearance.executeQuery();
+		if (appearance.isSetSurfaceDataMember()) {
+			dbExporterManager.processFeature(appearance);
+			dbExporterManager.updateFeatureCounter(CityGMLClass.APPEARANCE);
+			return true;
+		}
 
-			while (rs.next()) {
-				if (!isInited) {
-					getAppearanceProperties(appearance, rs);
-					texImageIds.clear();
-					isInited = true;
-				}
+		return false;
+	}
 
-				// add surface data to appearance
-				addSurfaceData(appearance, rs);
-			}
+	private List<Object[]> queryAppearance(long id) throws SQLException {
+		ResultSet rs = null;
 
-			if (appearance.isSetSurfaceDataMember()) {
-				dbExporterManager.processFeature(appearance);
-				dbExporterManager.updateFeatureCounter(CityGMLClass.APPEARANCE);
-				return true;
-			}
+		try {
+			psAppearance.setLong(1, id);
+			rs = psAppearance.executeQuery();
+
+			List<Object[]> rows = new ArrayList<Object[]>();
+			while (rs.next())
+				rows.add(getRow(rs));
 
-			return false;
+			return rows;
 		} finally {
 			if (rs != null) {
 				try {
@@ -231,35 +276,35 @@ public class DBAppearance implements DBExporter {
 		}
 	}
 
-	private void getAppearanceProperties(Appearance appearance, ResultSet rs) throws SQLException {
-		String gmlId = rs.getString(2);
+	private void getAppearanceProperties(Appearance appearance, Object[] row) {
+		String gmlId = (String)row[1];
 		if (gmlId != null)
 			appearance.setId(gmlId);
 
-		String gmlName = rs.getString(3);
-		String gmlNameCodespace = rs.getString(4);
+		String gmlName = (String)row[2];
+		String gmlNameCodespace = (String)row[3];
 		if (gmlName != null)
 			appearance.setName(Util.string2codeList(gmlName, gmlNameCodespace));
 
-		String description = rs.getString(5);
+		String description = (String)row[4];
 		if (description != null) {
 			StringOrRef stringOrRef = new StringOrRef();
 			stringOrRef.setValue(description);
 			appearance.setDescription(stringOrRef);
 		}
 
-		String theme = rs.getString(6);
+		String theme = (String)row[5];
 		if (theme != null)
 			appearance.setTheme(theme);
 	}
 
-	private void addSurfaceData(Appearance appearance, ResultSet rs) throws SQLException {
-		long surfaceDataId = rs.getLong(7);
-		if (rs.wasNull())
+	private void addSurfaceData(Appearance appearance, Object[] row) throws SQLException {
+		Long surfaceDataId = (Long)row[6];
+		if (surfaceDataId == null)
 			return;
 
-		int classId = rs.getInt(8);
-		if (rs.wasNull() || classId == 0)
+		Integer classId = (Integer)row[7];
+		if (classId == null || classId == 0)
 			return;
 
 		AbstractSurfaceData surfaceData = null;		
@@ -278,7 +323,7 @@ public class DBAppearance implements DBExporter {
 			return;
 		}
 
-		String gmlId = rs.getString(9);
+		String gmlId = (String)row[8];
 		if (gmlId != null) {
 			// process xlink
 			if (dbExporterManager.lookupAndPutGmlId(gmlId, surfaceDataId, CityGMLClass.ABSTRACT_SURFACE_DATA)) {
@@ -305,39 +350,39 @@ public class DBAppearance implements DBExporter {
 		if (!hasTargets)
 			return;
 		
-		String gmlName = rs.getString(10);
-		String gmlNameCodespace = rs.getString(11);
+		String gmlName = (String)row[9];
+		String gmlNameCodespace = (String)row[10];
 		if (gmlName != null)
 			surfaceData.setName(Util.string2codeList(gmlName, gmlNameCodespace));
 
-		String description = rs.getString(12);
+		String description = (String)row[11];
 		if (description != null) {
 			StringOrRef stringOrRef = new StringOrRef();
 			stringOrRef.setValue(description);
 			surfaceData.setDescription(stringOrRef);
 		}
 
-		int isFront = rs.getInt(13);
-		if (!rs.wasNull() && isFront == 0)
+		Integer isFront = (Integer)row[12];
+		if (isFront != null && isFront == 0)
 			surfaceData.setIsFront(false);
 
 		if (type == CityGMLClass.X3D_MATERIAL) {
 			X3DMaterial material = (X3DMaterial)surfaceData;
 
-			double shininess = rs.getDouble(14);
-			if (!rs.wasNull())
+			Double shininess = (Double)row[13];
+			if (shininess != null)
 				material.setShininess(shininess);
 
-			double transparency = rs.getDouble(15);
-			if (!rs.wasNull())
+			Double transparency = (Double)row[14];
+			if (transparency != null)
 				material.setTransparency(transparency);
 
-			double ambientIntensity = rs.getDouble(16);
-			if (!rs.wasNull())
+			Double ambientIntensity = (Double)row[15];
+			if (ambientIntensity != null)
 				material.setAmbientIntensity(ambientIntensity);
 
 			for (int i = 0; i < 3; i++) {
-				String colorString = rs.getString(17 + i);
+				String colorString = (String)row[16 + i];
 				if (colorString != null) {
 					List<Double> colorList = Util.string2double(colorString, "\\s+");
 
@@ -361,8 +406,8 @@ public class DBAppearance implements DBExporter {
 				}
 			}
 
-			int isSmooth = rs.getInt(20);
-			if (!rs.wasNull() && isSmooth == 1)
+			Integer isSmooth = (Integer)row[19];
+			if (isSmooth != null && isSmooth == 1)
 				material.setIsSmooth(true);
 		}
 
@@ -370,11 +415,11 @@ public class DBAppearance implements DBExporter {
 				type == CityGMLClass.GEOREFERENCED_TEXTURE) {
 			AbstractTexture absTex = (AbstractTexture)surfaceData;
 
-			long texImageId = rs.getLong(21);			
+			long texImageId = (Long)row[20];
 			if (texImageId != 0) {
-				long dbImageSize = rs.getLong(22);
+				long dbImageSize = (Long)row[21];
 
-				String imageURI = rs.getString(23);
+				String imageURI = (String)row[22];
 				if (uniqueFileNames) {
 					String extension = Util.getFileExtension(imageURI);
 					imageURI = Internal.UNIQUE_TEXTURE_FILENAME_PREFIX + texImageId + (extension != null ? "." + extension : "");
@@ -410,24 +455,24 @@ public class DBAppearance implements DBExporter {
 				}
 			}
 
-			String mimeType = rs.getString(24);
+			String mimeType = (String)row[23];
 			if (mimeType != null) {
 				Code code = new Code(mimeType);
-				code.setCodeSpace(rs.getString(25));
+				code.setCodeSpace((String)row[24]);
 				absTex.setMimeType(code);
 			}
 
-			String textureType = rs.getString(26);
+			String textureType = (String)row[25];
 			if (textureType != null)
 				absTex.setTextureType(TextureType.fromValue(textureType));
 
-			String wrapMode = rs.getString(27);
+			String wrapMode = (String)row[26];
 			if (wrapMode != null) {
 				WrapMode mode = WrapMode.fromValue(wrapMode);
 				absTex.setWrapMode(mode);
 			}
 
-			String borderColorString = rs.getString(28);
+			String borderColorString = (String)row[27];
 			if (borderColorString != null) {
 				List<Double> colorList = Util.string2double(borderColorString, "\\s+");
 
@@ -446,11 +491,11 @@ public class DBAppearance implements DBExporter {
 		if (type == CityGMLClass.GEOREFERENCED_TEXTURE) {
 			GeoreferencedTexture geoTex = (GeoreferencedTexture)surfaceData;
 
-			int preferWorldFile = rs.getInt(29);
-			if (!rs.wasNull() && preferWorldFile == 0)
+			Integer preferWorldFile = (Integer)row[28];
+			if (preferWorldFile != null && preferWorldFile == 0)
 				geoTex.setPreferWorldFile(false);
 
-			String orientationString = rs.getString(30);
+			String orientationString = (String)row[29];
 			if (orientationString != null) {
 				List<Double> m = Util.string2double(orientationString, "\\s+");
 
@@ -462,8 +507,8 @@ public class DBAppearance implements DBExporter {
 				}
 			}
 
-			Object referencePointObj = rs.getObject(31);
-			if (!rs.wasNull() && referencePointObj != null) {
+			Object referencePointObj = row[30];
+			if (referencePointObj != null) {
 				GeometryObject pointObj = dbExporterManager.getDatabaseAdapter().getGeometryConverter().getPoint(referencePointObj);				
 
 				if (pointObj != null) {
@@ -493,6 +538,52 @@ public class DBAppearance implements DBExporter {
 		return;
 	}
 
+	private Object[] getRow(ResultSet rs) throws SQLException {
+		Object[] row = new Object[31];
+		row[0] = rs.getLong(1);
+		for (int i = 1; i < 6; i++)
+			row[i] = rs.getString(i + 1);
+
+		long surfaceDataId = rs.getLong(7);
+		row[6] = !rs.wasNull() ? surfaceDataId : null;
+
+		int classId = rs.getInt(8);
+		row[7] = !rs.wasNull() ? classId : null;
+
+		for (int i = 8; i < 12; i++)
+			row[i] = rs.getString(i + 1);
+
+		int isFront = rs.getInt(13);
+		row[12] = !rs.wasNull() ? isFront : null;
+
+		for (int i = 13; i < 16; i++) {
+			double value = rs.getDouble(i + 1);
+			row[i] = !rs.wasNull() ? value : null;
+		}
+
+		for (int i = 16; i < 19; i++)
+			row[i] = rs.getString(i + 1);
+
+		int isSmooth = rs.getInt(20);
+		row[19] = !rs.wasNull() ? isSmooth : null;
+
+		row[20] = rs.getLong(21);
+		row[21] = rs.getLong(22);
+
+		for (int i = 22; i < 28; i++)
+			row[i] = rs.getString(i + 1);
+
+		int preferWorldFile = rs.getInt(29);
+		row[28] = !rs.wasNull() ? preferWorldFile : null;
+
+		row[29] = rs.getString(30);
+
+		Object referencePoint = rs.getObject(31);
+		row[30] = !rs.wasNull() ? referencePoint : null;
+
+		return row;
+	}
+
 	public void clearLocalCache() {
 		texImageIds.clear();
 	}
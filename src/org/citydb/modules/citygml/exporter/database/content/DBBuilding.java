@@ -33,7 +33,9 @@ import java.sql.Date;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.GregorianCalendar;
 import java.util.HashMap;
 import java.util.List;
@@ -84,6 +86,7 @@ public class DBBuilding implements DBExporter {
 	private DBOtherGeometry geometryExporter;
 
 	private HashMap<Long, AbstractBuilding> buildings;
+	private String buildingIdColumn;
 	private ProjectionPropertyFilter projectionFilter;
 	private boolean handleAddressGmlId;
 	private boolean useXLink;
@@ -109,7 +112,7 @@ public class DBBuilding implements DBExporter {
 		}
 
 		buildings = new HashMap<Long, AbstractBuilding>();
-		String buildingId = projectionFilter.pass(CityGMLModuleType.BUILDING, "consistsOfBuildingPart") ? "BUILDING_ROOT_ID" : "ID";
+		buildingIdColumn = projectionFilter.pass(CityGMLModuleType.BUILDING, "consistsOfBuildingPart") ? "BUILDING_ROOT_ID" : "ID";
 
 		if (!config.getInternal().isTransformCoordinates()) {
 			StringBuilder query = new StringBuilder()
@@ -121,7 +124,7 @@ public class DBBuilding implements DBExporter {
 					.append("b.LOD1_SOLID_ID, b.LOD2_SOLID_ID, b.LOD3_SOLID_ID, b.LOD4_SOLID_ID, ")
 					.append("b.LOD1_MULTI_SURFACE_ID, b.LOD2_MULTI_SURFACE_ID, b.LOD3_MULTI_SURFACE_ID, b.LOD4_MULTI_SURFACE_ID, ")
 					.append("a.ID as ADDR_ID, a.STREET, a.HOUSE_NUMBER, a.PO_BOX, a.ZIP_CODE, a.CITY, a.STATE, a.COUNTRY, a.MULTI_POINT, a.XAL_SOURCE").append(handleAddressGmlId ? ", a.GMLID " : " ")
-					.append("from BUILDING b left join ADDRESS_TO_BUILDING a2b on b.ID=a2b.BUILDING_ID left join ADDRESS a on a.ID=a2b.ADDRESS_ID where b.").append(buildingId).append(" = ?");
+					.append("from BUILDING b left join ADDRESS_TO_BUILDING a2b on b.ID=a2b.BUILDING_ID left join ADDRESS a on a.ID=a2b.ADDRESS_ID where b.").append(buildingIdColumn).append(" = ?");
 			psBuilding = connection.prepareStatement(query.toString());
 		} else {
 			int srid = config.getInternal().getExportTargetSRS().getSrid();
@@ -142,7 +145,7 @@ public class DBBuilding implements DBExporter {
 					.append("b.LOD1_MULTI_SURFACE_ID, b.LOD2_MULTI_SURFACE_ID, b.LOD3_MULTI_SURFACE_ID, b.LOD4_MULTI_SURFACE_ID, ")
 					.append("a.ID as ADDR_ID, a.STREET, a.HOUSE_NUMBER, a.PO_BOX, a.ZIP_CODE, a.CITY, a.STATE, a.COUNTRY, ")
 					.append(transformOrNull).append("(a.MULTI_POINT, ").append(srid).append(") AS MULTI_POINT, a.XAL_SOURCE").append(handleAddressGmlId ? ", a.GMLID " : " ")
-					.append("from BUILDING b left join ADDRESS_TO_BUILDING a2b on b.ID=a2b.BUILDING_ID left join ADDRESS a on a.ID=a2b.ADDRESS_ID where b.").append(buildingId).append(" = ?");
+					.append("from BUILDING b left join ADDRESS_TO_BUILDING a2b on b.ID=a2b.BUILDING_ID left join ADDRESS a on a.ID=a2b.ADDRESS_ID where b.").append(buildingIdColumn).append(" = ?");
 			psBuilding = connection.prepareStatement(query.toString());
 		}
 
@@ -154,6 +157,59 @@ public class DBBuilding implements DBExporter {
 		geometryExporter = (DBOtherGeometry)dbExporterManager.getDBExporter(DBExporterEnum.OTHER_GEOMETRY);
 	}
 
+	public void prefetch(Collection<Long> buildingIds) throws SQLException {
+		if (buildingIds.isEmpty())
+			return;
+
+		Statement stmt = null;
+		ResultSet rs = null;
+
+		try {
+			int maxItems = dbExporterManager.getDatabaseAdapter().getSQLAdapter().getMaximumNumberOfItemsForInOperator();
+			String buildingQuery = "select ID from BUILDING where " + Util.buildInOperator(buildingIds, buildingIdColumn, "or", maxItems);
+
+			// the building rows themselves have been fetched by the city object
+			// exporter, so only collect the ids of their nested features
+			StringBuilder nestedQuery = new StringBuilder();
+			if (buildingIdColumn.equals("BUILDING_ROOT_ID"))
+				nestedQuery.append(buildingQuery).append(" and ID <> BUILDING_ROOT_ID");
+
+			if (projectionFilter.pass(CityGMLModuleType.BUILDING, "boundedBy")) {
+				if (nestedQuery.length() > 0)
+					nestedQuery.append(" union all ");
+
+				nestedQuery.append("select ID from THEMATIC_SURFACE where BUILDING_ID in (").append(buildingQuery).append(")");
+			}
+
+			List<Long> cityObjectIds = new ArrayList<Long>(buildingIds);
+			if (nestedQuery.length() > 0) {
+				List<Long> nestedIds = new ArrayList<Long>();
+
+				stmt = connection.createStatement();
+				rs = stmt.executeQuery(nestedQuery.toString());
+				while (rs.next())
+					nestedIds.add(rs.getLong(1));
+
+				cityObjectExporter.prefetch(nestedIds);
+				cityObjectIds.addAll(nestedIds);
+			}
+
+			// fetch the geometries of the buildings and their nested features
+			surfaceGeometryExporter.prefetch("select ID from SURFACE_GEOMETRY where PARENT_ID is null and " 
+					+ Util.buildInOperator(cityObjectIds, "CITYOBJECT_ID", "or", maxItems));
+		} finally {
+			if (rs != null)
+				rs.close();
+
+			if (stmt != null)
+				stmt.close();
+		}
+	}
+
+	public void clearPrefetchCache() {
+		surfaceGeometryExporter.clearPrefetchCache();
+	}
+
 	public boolean read(DBSplittingResult splitter) throws SQLException, FeatureProcessException {
 		ResultSet rs = null;
 
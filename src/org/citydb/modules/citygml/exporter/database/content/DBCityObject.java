@@ -31,9 +31,15 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.GregorianCalendar;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 
 import org.citydb.api.geometry.BoundingBox;
 import org.citydb.api.geometry.GeometryObject;
@@ -63,6 +69,7 @@ public class DBCityObject implements DBExporter {
 	private final Connection connection;
 
 	private PreparedStatement psCityObject;
+	private String cityObjectQuery;
 
 	private DBAppearance appearanceExporter;
 	private DBGeneralization generalizesToExporter;
@@ -78,6 +85,7 @@ public class DBCityObject implements DBExporter {
 
 	private HashSet<Long> generalizesToSet;
 	private HashSet<Long> externalReferenceSet;
+	private HashMap<Long, List<Object[]>> prefetchedRows;
 
 	public DBCityObject(Connection connection, ExportFilter exportFilter, Config config, DBExporterManager dbExporterManager) throws SQLException {
 		this.dbExporterManager = dbExporterManager;
@@ -100,15 +108,16 @@ public class DBCityObject implements DBExporter {
 		dummyFilter = new ProjectionPropertyFilter(null);
 		generalizesToSet = new HashSet<Long>();
 		externalReferenceSet = new HashSet<Long>();
+		prefetchedRows = new HashMap<Long, List<Object[]>>();
 
 		gmlSrsName = config.getInternal().getExportTargetSRS().getGMLSrsName();
 		if (!config.getInternal().isTransformCoordinates()) {
 			StringBuilder query = new StringBuilder()
 			.append("select co.GMLID, co.NAME, co.NAME_CODESPACE, co.DESCRIPTION, co.ENVELOPE, co.CREATION_DATE, co.TERMINATION_DATE, co.RELATIVE_TO_TERRAIN, co.RELATIVE_TO_WATER, ")
-			.append("ex.ID as EXID, ex.INFOSYS, ex.NAME, ex.URI, ge.GENERALIZES_TO_ID ")
+			.append("ex.ID as EXID, ex.INFOSYS, ex.NAME, ex.URI, ge.GENERALIZES_TO_ID, co.ID ")
 			.append("from CITYOBJECT co left join EXTERNAL_REFERENCE ex on co.ID = ex.CITYOBJECT_ID ")
-			.append("left join GENERALIZATION ge on ge.CITYOBJECT_ID=co.ID where co.ID = ?");
-			psCityObject = connection.prepareStatement(query.toString());
+			.append("left join GENERALIZATION ge on ge.CITYOBJECT_ID=co.ID ");
+			cityObjectQuery = query.toString();
 		} else {
 			int srid = config.getInternal().getExportTargetSRS().getSrid();
 			String transformOrNull = dbExporterManager.getDatabaseAdapter().getSQLAdapter().resolveDatabaseOperationName("citydb_srs.transform_or_null");
@@ -117,221 +126,309 @@ public class DBCityObject implements DBExporter {
 			.append("select co.GMLID, co.NAME, co.NAME_CODESPACE, co.DESCRIPTION, ")
 			.append(transformOrNull).append("(co.ENVELOPE, ").append(srid).append(") AS ENVELOPE, ")
 			.append("co.CREATION_DATE, co.TERMINATION_DATE, co.RELATIVE_TO_TERRAIN, co.RELATIVE_TO_WATER, ")
-			.append("ex.ID as EXID, ex.INFOSYS, ex.NAME, ex.URI, ge.GENERALIZES_TO_ID ")
+			.append("ex.ID as EXID, ex.INFOSYS, ex.NAME, ex.URI, ge.GENERALIZES_TO_ID, co.ID ")
 			.append("from CITYOBJECT co left join EXTERNAL_REFERENCE ex on co.ID = ex.CITYOBJECT_ID ")
-			.append("left join GENERALIZATION ge on ge.CITYOBJECT_ID=co.ID where co.ID = ?");
-			psCityObject = connection.prepareStatement(query.toString());
+			.append("left join GENERALIZATION ge on ge.CITYOBJECT_ID=co.ID ");
+			cityObjectQuery = query.toString();
 		}
 
+		psCityObject = connection.prepareStatement(cityObjectQuery + "where co.ID = ?");
+
 		generalizesToExporter = (DBGeneralization)dbExporterManager.getDBExporter(DBExporterEnum.GENERALIZATION);
 		genericAttributeExporter = (DBCityObjectGenericAttrib)dbExporterManager.getDBExporter(DBExporterEnum.CITYOBJECT_GENERICATTRIB);
 		if (exportAppearance)
 			appearanceExporter = (DBAppearance)dbExporterManager.getDBExporter(DBExporterEnum.LOCAL_APPEARANCE);
 	}
 
+	public void prefetch(Collection<Long> cityObjectIds) throws SQLException {
+		if (cityObjectIds.isEmpty())
+			return;
+
+		Statement stmt = null;
+		ResultSet rs = null;
+
+		try {
+			for (Long cityObjectId : cityObjectIds)
+				prefetchedRows.put(cityObjectId, new ArrayList<Object[]>());
+
+			// fetch the city objects of all ids in a single round trip and
+			// group the rows by their id
+			stmt = connection.createStatement();
+			rs = stmt.executeQuery(cityObjectQuery + "where " + Util.buildInOperator(cityObjectIds, "co.ID", "or", 
+					dbExporterManager.getDatabaseAdapter().getSQLAdapter().getMaximumNumberOfItemsForInOperator()));
+
+			while (rs.next()) {
+				List<Object[]> rows = prefetchedRows.get(rs.getLong(15));
+				if (rows != null)
+					rows.add(getRow(rs));
+			}
+
+			// appearances of the city objects are fetched along with them
+			if (exportAppearance)
+				appearanceExporter.prefetch(cityObjectIds);
+		} finally {
+			if (rs != null)
+				rs.close();
+
+			if (stmt != null)
+				stmt.close();
+		}
+	}
+
+	public void clearPrefetchCache() {
+		prefetchedRows.clear();
+		if (exportAppearance)
+			appearanceExporter.clearPrefetchCache();
+	}
 
 	public boolean read(AbstractCityObject cityObject, long parentId) throws SQLException {
 		return read(cityObject, parentId, false, dummyFilter);
 	}
 
 	public boolean read(AbstractCityObject cityObject, long parentId, boolean isTopLevelObject, ProjectionPropertyFilter projectionFilter) throws SQLException {
-		ResultSet rs = null;
-
-		try {
-			psCityObject.setLong(1, parentId);
-			rs = psCityObject.executeQuery();
+		List<Object[]> rows = prefetchedRows.remove(parentId);
+		if (rows == null)
+			rows = queryCityObject(parentId);
+
+		if (!rows.isEmpty()) {
+			Object[] row = rows.get(0);
+
+			// boundedBy
+			Object object = row[4];
+			if (object != null) {
+				GeometryObject geomObj = dbExporterManager.getDatabaseAdapter().getGeometryConverter().getEnvelope(object);
+				double[] coordinates = geomObj.getCoordinates(0);
+
+				Envelope envelope = new Envelope();
+				envelope.setLowerCorner(new Point(coordinates[0], coordinates[1], coordinates[2]));
+				envelope.setUpperCorner(new Point(coordinates[3], coordinates[4], coordinates[5]));
+				envelope.setSrsDimension(3);
+				envelope.setSrsName(gmlSrsName);
+
+				BoundingShape boundedBy = new BoundingShape();
+				boundedBy.setEnvelope(envelope);
+				cityObject.setBoundedBy(boundedBy);
+			}
 
-			if (rs.next()) {
-				// boundedBy
-				Object object = rs.getObject(5);
-				if (!rs.wasNull() && object != null) {
-					GeometryObject geomObj = dbExporterManager.getDatabaseAdapter().getGeometryConverter().getEnvelope(object);
-					double[] coordinates = geomObj.getCoordinates(0);
-
-					Envelope envelope = new Envelope();
-					envelope.setLowerCorner(new Point(coordinates[0], coordinates[1], coordinates[2]));
-					envelope.setUpperCorner(new Point(coordinates[3], coordinates[4], coordinates[5]));
-					envelope.setSrsDimension(3);
-					envelope.setSrsName(gmlSrsName);
-
-					BoundingShape boundedBy = new BoundingShape();
-					boundedBy.setEnvelope(envelope);
-					cityObject.setBoundedBy(boundedBy);
-				}
+			// check bounding volume filter
+			if (isTopLevelObject && useTiling) {
+				if (!cityObject.isSetBoundedBy() ||
+						!cityObject.getBoundedBy().isSetEnvelope() ||
+						boundingBoxFilter.filter(cityObject.getBoundedBy().getEnvelope()))
+					return false;
+			}
 
-				// check bounding volume filter
-				if (isTopLevelObject && useTiling) {
-					if (!cityObject.isSetBoundedBy() ||
-							!cityObject.getBoundedBy().isSetEnvelope() ||
-							boundingBoxFilter.filter(cityObject.getBoundedBy().getEnvelope()))
-						return false;
-				}
+			if (projectionFilter.filter(GMLModuleType.CORE, "boundedBy"))
+				cityObject.unsetBoundedBy();
 
-				if (projectionFilter.filter(GMLModuleType.CORE, "boundedBy"))
-					cityObject.unsetBoundedBy();
+			// gml:id
+			String gmlId = (String)row[0];
+			if (gmlId != null)
+				cityObject.setId(gmlId);
 
-				// gml:id
-				String gmlId = rs.getString(1);
-				if (gmlId != null)
-					cityObject.setId(gmlId);
+			// gml:name
+			if (projectionFilter.pass(GMLModuleType.CORE, "name")) {
+				String gmlName = (String)row[1];
+				String gmlNameCodespace = (String)row[2];
+				if (gmlName != null)
+					cityObject.setName(Util.string2codeList(gmlName, gmlNameCodespace));
+			}
 
-				// gml:name
-				if (projectionFilter.pass(GMLModuleType.CORE, "name")) {
-					String gmlName = rs.getString(2);
-					String gmlNameCodespace = rs.getString(3);
-					if (gmlName != null)
-						cityObject.setName(Util.string2codeList(gmlName, gmlNameCodespace));
+			// gml:description
+			if (projectionFilter.pass(GMLModuleType.CORE, "description")) {
+				String description = (String)row[3];
+				if (description != null) {
+					StringOrRef stringOrRef = new StringOrRef();
+					stringOrRef.setValue(description);
+					cityObject.setDescription(stringOrRef);
 				}
+			}
 
-				// gml:description
-				if (projectionFilter.pass(GMLModuleType.CORE, "description")) {
-					String description = rs.getString(4);
-					if (description != null) {
-						StringOrRef stringOrRef = new StringOrRef();
-						stringOrRef.setValue(description);
-						cityObject.setDescription(stringOrRef);
-					}
+			// creationDate
+			if (projectionFilter.pass(CityGMLModuleType.CORE, "creationDate")) {
+				Timestamp creationDate = (Timestamp)row[5];
+				if (creationDate != null) {
+					GregorianCalendar gregDate = new GregorianCalendar();
+					gregDate.setTime(creationDate);
+					cityObject.setCreationDate(gregDate);
 				}
+			}
 
-				// creationDate
-				if (projectionFilter.pass(CityGMLModuleType.CORE, "creationDate")) {
-					Timestamp creationDate = rs.getTimestamp(6);
-					if (creationDate != null) {
-						GregorianCalendar gregDate = new GregorianCalendar();
-						gregDate.setTime(creationDate);
-						cityObject.setCreationDate(gregDate);
-					}
+			// terminationDate
+			if (projectionFilter.pass(CityGMLModuleType.CORE, "terminationDate")) {
+				Timestamp terminationDate = (Timestamp)row[6];
+				if (terminationDate != null) {
+					GregorianCalendar gregDate = new GregorianCalendar();
+					gregDate.setTime(terminationDate);
+					cityObject.setTerminationDate(gregDate);
 				}
+			}
 
-				// terminationDate
-				if (projectionFilter.pass(CityGMLModuleType.CORE, "terminationDate")) {
-					Timestamp terminationDate = rs.getTimestamp(7);
-					if (terminationDate != null) {
-						GregorianCalendar gregDate = new GregorianCalendar();
-						gregDate.setTime(terminationDate);
-						cityObject.setTerminationDate(gregDate);
-					}
-				}
+			// relativeToTerrain
+			if (projectionFilter.pass(CityGMLModuleType.CORE, "relativeToTerrain")) {
+				String relativeToTerrain = (String)row[7];
+				if (relativeToTerrain != null)
+					cityObject.setRelativeToTerrain(RelativeToTerrain.fromValue(relativeToTerrain));
+			}
 
-				// relativeToTerrain
-				if (projectionFilter.pass(CityGMLModuleType.CORE, "relativeToTerrain")) {
-					String relativeToTerrain = rs.getString(8);
-					if (relativeToTerrain != null)
-						cityObject.setRelativeToTerrain(RelativeToTerrain.fromValue(relativeToTerrain));
-				}
+			// relativeToWater
+			if (projectionFilter.pass(CityGMLModuleType.CORE, "relativeToWater")) {
+				String relativeToWater = (String)row[8];
+				if (relativeToWater != null)
+					cityObject.setRelativeToWater(RelativeToWater.fromValue(relativeToWater));
+			}
 
-				// relativeToWater
-				if (projectionFilter.pass(CityGMLModuleType.CORE, "relativeToWater")) {
-					String relativeToWater = rs.getString(9);
-					if (relativeToWater != null)
-						cityObject.setRelativeToWater(RelativeToWater.fromValue(relativeToWater));
+			for (Object[] current : rows) {
+				// generalizesTo
+				if (projectionFilter.pass(CityGMLModuleType.CORE, "generalizesTo")) {
+					Long generalizesTo = (Long)current[13];
+					if (generalizesTo != null)
+						generalizesToSet.add(generalizesTo);
 				}
 
-				do {
-					// generalizesTo
-					if (projectionFilter.pass(CityGMLModuleType.CORE, "generalizesTo")) {
-						long generalizesTo = rs.getLong(14);
-						if (!rs.wasNull())
-							generalizesToSet.add(generalizesTo);
-					}
-
-					// externalReference
-					if (projectionFilter.pass(CityGMLModuleType.CORE, "externalReference")) {
-						long externalReferenceId = rs.getLong(10);
-						if (!rs.wasNull() && !externalReferenceSet.contains(externalReferenceId)) {
-							externalReferenceSet.add(externalReferenceId);
-
-							ExternalReference externalReference = new ExternalReference();
-							ExternalObject externalObject = new ExternalObject();
+				// externalReference
+				if (projectionFilter.pass(CityGMLModuleType.CORE, "externalReference")) {
+					Long externalReferenceId = (Long)current[9];
+					if (externalReferenceId != null && !externalReferenceSet.contains(externalReferenceId)) {
+						externalReferenceSet.add(externalReferenceId);
 
-							String infoSys = rs.getString(11);
-							if (infoSys != null)
-								externalReference.setInformationSystem(infoSys);
+						ExternalReference externalReference = new ExternalReference();
+						ExternalObject externalObject = new ExternalObject();
 
-							String name = rs.getString(12);
-							String uri = rs.getString(13);
+						String infoSys = (String)current[10];
+						if (infoSys != null)
+							externalReference.setInformationSystem(infoSys);
 
-							if (name != null || uri != null) {
-								if (name != null)
-									externalObject.setName(name);
+						String name = (String)current[11];
+						String uri = (String)current[12];
 
-								if (uri != null)
-									externalObject.setUri(uri);
-							} else if (name == null && uri == null) {
-								externalObject.setUri("");
-							}
+						if (name != null || uri != null) {
+							if (name != null)
+								externalObject.setName(name);
 
-							externalReference.setExternalObject(externalObject);
-							cityObject.addExternalReference(externalReference);
+							if (uri != null)
+								externalObject.setUri(uri);
+						} else if (name == null && uri == null) {
+							externalObject.setUri("");
 						}
-					}
 
-				} while (rs.next());
-
-				generalizesToSet.clear();
-				externalReferenceSet.clear();
-
-				if (isTopLevelObject && setTileInfoAsGenericAttribute) {
-					String value;
-
-					double minX = activeTile.getLowerCorner().getX();
-					double minY = activeTile.getLowerCorner().getY();
-					double maxX = activeTile.getUpperCorner().getX();
-					double maxY = activeTile.getUpperCorner().getY();
-
-					switch (tiling.getGenericAttributeValue()) {
-					case XMIN_YMIN:
-						value = String.valueOf(minX) + ' ' + String.valueOf(minY);
-						break;
-					case XMAX_YMIN:
-						value = String.valueOf(maxX) + ' ' + String.valueOf(minY);
-						break;
-					case XMIN_YMAX:
-						value = String.valueOf(minX) + ' ' + String.valueOf(maxY);
-						break;
-					case XMAX_YMAX:
-						value = String.valueOf(maxX) + ' ' + String.valueOf(maxY);
-						break;
-					case XMIN_YMIN_XMAX_YMAX:
-						value = String.valueOf(minX) + ' ' + String.valueOf(minY) + ' ' + String.valueOf(maxX) + ' ' + String.valueOf(maxY);
-						break;
-					default:
-						value = String.valueOf(boundingBoxFilter.getTileRow()) + ' ' + String.valueOf(boundingBoxFilter.getTileColumn());
-					} 
-
-					StringAttribute genericStringAttrib = new StringAttribute();
-					genericStringAttrib.setName("TILE");
-					genericStringAttrib.setValue(value);
-					cityObject.addGenericAttribute(genericStringAttrib);
+						externalReference.setExternalObject(externalObject);
+						cityObject.addExternalReference(externalReference);
+					}
 				}
 
-				// generalizesTo relation
-				if (!generalizesToSet.isEmpty())
-					generalizesToExporter.read(cityObject, parentId, generalizesToSet);
+			}
+
+			generalizesToSet.clear();
+			externalReferenceSet.clear();
+
+			if (isTopLevelObject && setTileInfoAsGenericAttribute) {
+				String value;
+
+				double minX = activeTile.getLowerCorner().getX();
+				double minY = activeTile.getLowerCorner().getY();
+				double maxX = activeTile.getUpperCorner().getX();
+				double maxY = activeTile.getUpperCorner().getY();
+
+				switch (tiling.getGenericAttributeValue()) {
+				case XMIN_YMIN:
+					value = String.valueOf(minX) + ' ' + String.valueOf(minY);
+					break;
+				case XMAX_YMIN:
+					value = String.valueOf(maxX) + ' ' + String.valueOf(minY);
+					break;
+				case XMIN_YMAX:
+					value = String.valueOf(minX) + ' ' + String.valueOf(maxY);
+					break;
+				case XMAX_YMAX:
+					value = String.valueOf(maxX) + ' ' + String.valueOf(maxY);
+					break;
+				case XMIN_YMIN_XMAX_YMAX:
+					value = String.valueOf(minX) + ' ' + String.valueOf(minY) + ' ' + String.valueOf(maxX) + ' ' + String.valueOf(maxY);
+					break;
+				default:
+					value = String.valueOf(boundingBoxFilter.getTileRow()) + ' ' + String.valueOf(boundingBoxFilter.getTileColumn());
+				} 
+
+				StringAttribute genericStringAttrib = new StringAttribute();
+				genericStringAttrib.setName("TILE");
+				genericStringAttrib.setValue(value);
+				cityObject.addGenericAttribute(genericStringAttrib);
+			}
 
-				// generic attributes
-				genericAttributeExporter.read(cityObject, parentId, projectionFilter);
+			// generalizesTo relation
+			if (!generalizesToSet.isEmpty())
+				generalizesToExporter.read(cityObject, parentId, generalizesToSet);
 
-				// get appearance information associated with the cityobject
-				if (exportAppearance) {
-					if (isTopLevelObject)
-						appearanceExporter.clearLocalCache();
+			// generic attributes
+			genericAttributeExporter.read(cityObject, parentId, projectionFilter);
 
-					if (projectionFilter.pass(CityGMLModuleType.APPEARANCE, "appearance"))
-						appearanceExporter.read(cityObject, parentId);
-				}
+			// get appearance information associated with the cityobject
+			if (exportAppearance) {
+				if (isTopLevelObject)
+					appearanceExporter.clearLocalCache();
 
-				// update feature counter
-				dbExporterManager.updateFeatureCounter(cityObject.getCityGMLClass());
+				if (projectionFilter.pass(CityGMLModuleType.APPEARANCE, "appearance"))
+					appearanceExporter.read(cityObject, parentId);
 			}
 
-			return true;
+			// update feature counter
+			dbExporterManager.updateFeatureCounter(cityObject.getCityGMLClass());
+		}
+
+		return true;
+	}
+
+	private List<Object[]> queryCityObject(long cityObjectId) throws SQLException {
+		ResultSet rs = null;
+
+		try {
+			psCityObject.setLong(1, cityObjectId);
+			rs = psCityObject.executeQuery();
+
+			if (!rs.next())
+				return Collections.emptyList();
+
+			List<Object[]> rows = new ArrayList<Object[]>();
+			do {
+				rows.add(getRow(rs));
+			} while (rs.next());
+
+			return rows;
 		} finally {
 			if (rs != null)
 				rs.close();
 		}
 	}
 
+	private Object[] getRow(ResultSet rs) throws SQLException {
+		Object[] row = new Object[14];
+		row[0] = rs.getString(1);
+		row[1] = rs.getString(2);
+		row[2] = rs.getString(3);
+		row[3] = rs.getString(4);
+
+		Object envelope = rs.getObject(5);
+		row[4] = !rs.wasNull() ? envelope : null;
+
+		row[5] = rs.getTimestamp(6);
+		row[6] = rs.getTimestamp(7);
+		row[7] = rs.getString(8);
+		row[8] = rs.getString(9);
+
+		long externalReferenceId = rs.getLong(10);
+		row[9] = !rs.wasNull() ? externalReferenceId : null;
+
+		row[10] = rs.getString(11);
+		row[11] = rs.getString(12);
+		row[12] = rs.getString(13);
+
+		long generalizesTo = rs.getLong(14);
+		row[13] = !rs.wasNull() ? generalizesTo : null;
+
+		return row;
+	}
+
 	@Override
 	public void close() throws SQLException {
 		psCityObject.close();
@@ -34,6 +34,15 @@ import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 
 import org.citydb.api.concurrent.WorkerPool;
 import org.citydb.api.database.DatabaseSrs;
@@ -61,6 +70,13 @@ import org.citydb.util.Util;
 import org.citygml4j.model.citygml.CityGMLClass;
 
 public class DBSplitter {
+	// the id space of the CITYOBJECT table is split into ranges that are 
+	// queried concurrently on separate connections
+	private static final int MAX_ID_RANGES = 8;
+	private static final int ID_RANGE_QUEUE_SIZE = 1000;
+	private static final int WORK_BATCH_SIZE = 100;
+	private static final DBSplittingResult END_OF_ID_RANGE = new DBSplittingResult(0, CityGMLClass.UNDEFINED);
+
 	private final Logger LOG = Logger.getInstance();
 
 	private final DatabaseConnectionPool dbConnectionPool;
@@ -70,6 +86,7 @@ public class DBSplitter {
 	private final Config config;
 	private final EventDispatcher eventDispatcher;
 	private volatile boolean shouldRun = true;
+	private volatile boolean isIdRangeQueryDone;
 
 	private Connection connection;
 	private long elementCounter;
@@ -267,10 +284,19 @@ public class DBSplitter {
 			if (bboxFilter != null)
 				query.append("and ").append(bboxFilter);
 
-			if (featureCounterFilter.isActive())
-				query.append("order by ID");
 		}
 
+		// split the id space into ranges unless the query is restricted to a list of gml:ids 
+		List<long[]> idRanges = gmlIdFilter == null ? getIdRanges() : null;
+		if (idRanges != null && idRanges.size() > 1) {
+			query.append(" and co.ID between ? and ?");
+			queryCityObject(query, idRanges);
+			return;
+		}
+
+		if (!expFilterConfig.isSetSimpleFilter() && featureCounterFilter.isActive())
+			query.append(" order by ID");
+
 		Statement stmt = null;
 		ResultSet rs = null;
 
@@ -321,6 +347,120 @@ public class DBSplitter {
 		}
 	}
 
+	private void queryCityObject(StringBuilder query, List<long[]> idRanges) throws SQLException {
+		// the feature counter filter requires a deterministic order. in this case, the 
+		// ranges are still queried concurrently but their results are consumed in id order
+		boolean isOrdered = !expFilterConfig.isSetSimpleFilter() && featureCounterFilter.isActive();
+		if (isOrdered)
+			query.append(" order by ID");
+
+		ExecutorService service = Executors.newFixedThreadPool(idRanges.size(), new ThreadFactory() {
+			private int counter;
+
+			public Thread newThread(Runnable r) {
+				Thread t = new Thread(r, "export_splitter_" + (++counter));
+				t.setDaemon(true);
+				return t;
+			}
+		});
+
+		List<Future<Long>> results = new ArrayList<Future<Long>>();
+		List<BlockingQueue<DBSplittingResult>> queues = new ArrayList<BlockingQueue<DBSplittingResult>>();
+		isIdRangeQueryDone = false;
+
+		try {
+			for (long[] idRange : idRanges) {
+				BlockingQueue<DBSplittingResult> queue = null;
+				if (isOrdered) {
+					queue = new ArrayBlockingQueue<DBSplittingResult>(ID_RANGE_QUEUE_SIZE);
+					queues.add(queue);
+				}
+
+				results.add(service.submit(new IdRangeQuery(query.toString(), idRange[0], idRange[1], queue)));
+			}
+
+			for (BlockingQueue<DBSplittingResult> queue : queues) {
+				while (shouldRun && !isIdRangeQueryDone) {
+					DBSplittingResult splitter = queue.poll(1, TimeUnit.SECONDS);
+					if (splitter == null)
+						continue;
+
+					if (splitter == END_OF_ID_RANGE)
+						break;
+
+					elementCounter++;
+
+					if (firstElement != null && elementCounter < firstElement)
+						continue;
+
+					if (lastElement != null && elementCounter > lastElement) {
+						isIdRangeQueryDone = true;
+						break;
+					}
+
+					dbWorkerPool.addWork(splitter);
+				}
+			}
+
+			for (Future<Long> result : results)
+				elementCounter += result.get();
+
+		} catch (InterruptedException e) {
+			throw new SQLException("Interrupted while querying city objects.", e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof SQLException)
+				throw (SQLException)e.getCause();
+
+			throw new SQLException("Failed to query city objects.", e.getCause());
+		} finally {
+			isIdRangeQueryDone = true;
+			service.shutdownNow();
+		}
+	}
+
+	private List<long[]> getIdRanges() throws SQLException {
+		int maxThreads = config.getProject().getExporter().getResources().getThreadPool().getDefaultPool().getMaxThreads();
+		int nrOfRanges = Math.min(Math.max(maxThreads / 2, 1), MAX_ID_RANGES);
+		List<long[]> idRanges = new ArrayList<long[]>();
+
+		Statement stmt = null;
+		ResultSet rs = null;
+
+		try {
+			stmt = connection.createStatement();
+			rs = stmt.executeQuery("select min(ID), max(ID) from CITYOBJECT");
+
+			if (rs.next()) {
+				long minId = rs.getLong(1);
+				long maxId = rs.getLong(2);
+				if (rs.wasNull())
+					return idRanges;
+
+				long rangeSize = (maxId - minId) / nrOfRanges + 1;
+				for (long lower = minId; lower <= maxId; lower += rangeSize)
+					idRanges.add(new long[]{lower, Math.min(lower + rangeSize - 1, maxId)});
+			}
+		} finally {
+			if (rs != null) {
+				try {
+					rs.close();
+				} catch (SQLException sqlEx) {
+					//
+				}
+			}
+
+			if (stmt != null) {
+				try {
+					stmt.close();
+				} catch (SQLException sqlEx) {
+					//
+				}
+			}
+		}
+
+		return idRanges;
+	}
+
 	private void queryCityObjectGroups() throws SQLException {
 		if (!shouldRun)
 			return;
@@ -555,4 +695,104 @@ public class DBSplitter {
 			}
 		}
 	}
+
+	private final class IdRangeQuery implements Callable<Long> {
+		private final String query;
+		private final long lowerId;
+		private final long upperId;
+		private final BlockingQueue<DBSplittingResult> queue;
+
+		IdRangeQuery(String query, long lowerId, long upperId, BlockingQueue<DBSplittingResult> queue) {
+			this.query = query;
+			this.lowerId = lowerId;
+			this.upperId = upperId;
+			this.queue = queue;
+		}
+
+		@Override
+		public Long call() throws Exception {
+			Connection conn = null;
+			PreparedStatement stmt = null;
+			ResultSet rs = null;
+			long counter = 0;
+			List<DBSplittingResult> batch = queue == null ? new ArrayList<DBSplittingResult>(WORK_BATCH_SIZE) : null;
+
+			try {
+				conn = dbConnectionPool.getConnection();
+
+				// try and change workspace for connection
+				if (dbConnectionPool.getActiveDatabaseAdapter().hasVersioningSupport()) {
+					dbConnectionPool.getActiveDatabaseAdapter().getWorkspaceManager().gotoWorkspace(
+							conn, 
+							config.getProject().getDatabase().getWorkspaces().getExportWorkspace());
+				}
+
+				stmt = conn.prepareStatement(query);
+				stmt.setLong(1, lowerId);
+				stmt.setLong(2, upperId);
+				rs = stmt.executeQuery();
+
+				while (rs.next() && shouldRun && !isIdRangeQueryDone) {
+					long primaryKey = rs.getLong(1);
+					int classId = rs.getInt(2);
+					CityGMLClass cityObjectType = Util.classId2cityObject(classId);
+
+					// set initial context...
+					DBSplittingResult splitter = new DBSplittingResult(primaryKey, cityObjectType);
+					if (queue != null)
+						put(splitter);
+					else {
+						// hand over work items in batches to reduce contention on the work queue
+						batch.add(splitter);
+						if (batch.size() == WORK_BATCH_SIZE) {
+							dbWorkerPool.addWork(batch);
+							counter += batch.size();
+							batch.clear();
+						}
+					}
+				}
+
+				if (batch != null && !batch.isEmpty() && shouldRun) {
+					dbWorkerPool.addWork(batch);
+					counter += batch.size();
+				}
+
+				return counter;
+			} finally {
+				if (queue != null)
+					put(END_OF_ID_RANGE);
+
+				if (rs != null) {
+					try {
+						rs.close();
+					} catch (SQLException sqlEx) {
+						//
+					}
+				}
+
+				if (stmt != null) {
+					try {
+						stmt.close();
+					} catch (SQLException sqlEx) {
+						//
+					}
+				}
+
+				if (conn != null) {
+					try {
+						conn.close();
+					} catch (SQLException sqlEx) {
+						//
+					}
+				}
+			}
+		}
+
+		private void put(DBSplittingResult splitter) throws InterruptedException {
+			while (shouldRun && !isIdRangeQueryDone) {
+				if (queue.offer(splitter, 1, TimeUnit.SECONDS))
+					return;
+			}
+		}
+	}
 }
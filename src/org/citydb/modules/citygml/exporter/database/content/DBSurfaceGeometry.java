@@ -31,6 +31,7 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -75,6 +76,7 @@ public class DBSurfaceGeometry implements DBExporter {
 	private PreparedStatement psSurfaceGeometry;
 	private PreparedStatement psTransformSurfaceGeometry;
 	private PreparedStatement psImportGmlId;
+	private String surfaceGeometryQuery;
 
 	private boolean exportAppearance;
 	private boolean useXLink;
@@ -85,6 +87,7 @@ public class DBSurfaceGeometry implements DBExporter {
 
 	private int commitAfter;
 	private int batchCounter;
+	private HashMap<Long, List<GeometryNode>> prefetchedNodes;
 
 	public DBSurfaceGeometry(Connection connection, CacheTable tempTable, Config config, DBExporterManager dbExporterManager) throws SQLException {
 		this.connection = connection;
@@ -119,9 +122,12 @@ public class DBSurfaceGeometry implements DBExporter {
 			gmlIdPrefix = config.getProject().getExporter().getXlink().getGeometry().getIdPrefix();
 		}	
 
+		prefetchedNodes = new HashMap<Long, List<GeometryNode>>();
+
 		StringBuilder query = new StringBuilder("select ID, GMLID, PARENT_ID, IS_SOLID, IS_COMPOSITE, IS_TRIANGULATED, IS_XLINK, IS_REVERSE, ")
-		.append("GEOMETRY, IMPLICIT_GEOMETRY from SURFACE_GEOMETRY where ROOT_ID = ?");
-		psSurfaceGeometry = connection.prepareStatement(query.toString());
+		.append("GEOMETRY, IMPLICIT_GEOMETRY, ROOT_ID from SURFACE_GEOMETRY ");
+		surfaceGeometryQuery = query.toString();
+		psSurfaceGeometry = connection.prepareStatement(surfaceGeometryQuery + "where ROOT_ID = ?");
 
 		applyTransformation = config.getInternal().isTransformCoordinates();
 		if (applyTransformation) {	
@@ -130,12 +136,85 @@ public class DBSurfaceGeometry implements DBExporter {
 
 			query = new StringBuilder("select ID, GMLID, PARENT_ID, IS_SOLID, IS_COMPOSITE, IS_TRIANGULATED, IS_XLINK, IS_REVERSE, ")
 			.append(transformOrNull).append("(GEOMETRY, ").append(srid).append(") AS GEOMETRY, ")
-			.append("IMPLICIT_GEOMETRY from SURFACE_GEOMETRY where ROOT_ID = ?");
-			psTransformSurfaceGeometry = connection.prepareStatement(query.toString());
+			.append("IMPLICIT_GEOMETRY, ROOT_ID from SURFACE_GEOMETRY ");
+			surfaceGeometryQuery = query.toString();
+			psTransformSurfaceGeometry = connection.prepareStatement(surfaceGeometryQuery + "where ROOT_ID = ?");
 		}
 	}
 
+	public void prefetch(String rootIdQuery) throws SQLException {
+		Statement stmt = null;
+		ResultSet rs = null;
+
+		try {
+			// fetch the geometry entries of all roots in a single round trip
+			// and group them by their root id
+			stmt = connection.createStatement();
+			rs = stmt.executeQuery(surfaceGeometryQuery + "where ROOT_ID in (" + rootIdQuery + ")");
+
+			while (rs.next()) {
+				long rootId = rs.getLong(11);
+				List<GeometryNode> geomNodes = prefetchedNodes.get(rootId);
+				if (geomNodes == null) {
+					geomNodes = new ArrayList<GeometryNode>();
+					prefetchedNodes.put(rootId, geomNodes);
+				}
+
+				geomNodes.add(getGeometryNode(rs, 9));
+			}
+		} finally {
+			if (rs != null)
+				rs.close();
+
+			if (stmt != null)
+				stmt.close();
+		}
+	}
+
+	public void clearPrefetchCache() {
+		prefetchedNodes.clear();
+	}
+
 	public DBSurfaceGeometryResult read(long rootId) throws SQLException {
+		// prefetched entries are not valid for implicit geometries
+		List<GeometryNode> geomNodes = !isImplicit ? prefetchedNodes.remove(rootId) : null;
+		if (geomNodes == null)
+			geomNodes = queryGeometryNodes(rootId);
+
+		GeometryTree geomTree = new GeometryTree();
+
+		// firstly, read the geometry entries into a
+		// flat geometry tree structure
+		for (GeometryNode geomNode : geomNodes) {
+			if (geomNode.dbGeometry != null) {
+				try {
+					geomNode.geometry = dbExporterManager.getDatabaseAdapter().getGeometryConverter().getPolygon(geomNode.dbGeometry);
+					geomNode.dbGeometry = null;
+				} catch (IllegalArgumentException e) {
+					StringBuilder msg = new StringBuilder("Skipping ").append(Util.getGeometrySignature(
+							GMLClass.POLYGON, 
+							geomNode.gmlId));
+					msg.append(": ").append(e.getMessage());
+
+					LOG.error(msg.toString());
+					continue;
+				}
+			}
+
+			// put it into our geometry tree
+			geomTree.insertNode(geomNode, geomNode.parentId);
+		}
+
+		// interpret geometry tree as a single abstract geometry
+		if (geomTree.root != 0)
+			return rebuildGeometry(geomTree.getNode(geomTree.root), false, false);
+		else {
+			LOG.error("Failed to interpret geometry object.");
+			return null;
+		}
+	}
+
+	private List<GeometryNode> queryGeometryNodes(long rootId) throws SQLException {
 		ResultSet rs = null;
 
 		try {
@@ -147,58 +226,36 @@ public class DBSurfaceGeometry implements DBExporter {
 				rs = psTransformSurfaceGeometry.executeQuery();
 			}
 
-			GeometryTree geomTree = new GeometryTree();
+			List<GeometryNode> geomNodes = new ArrayList<GeometryNode>();
+			while (rs.next())
+				geomNodes.add(getGeometryNode(rs, !isImplicit ? 9 : 10));
 
-			// firstly, read the geometry entries into a
-			// flat geometry tree structure
-			while (rs.next()) {
-				long id = rs.getLong(1);
-				
-				// constructing a geometry node
-				GeometryNode geomNode = new GeometryNode();
-				geomNode.id = id;				
-				geomNode.gmlId = rs.getString(2);
-				geomNode.parentId = rs.getLong(3);
-				geomNode.isSolid = rs.getBoolean(4);
-				geomNode.isComposite = rs.getBoolean(5);
-				geomNode.isTriangulated = rs.getBoolean(6);
-				geomNode.isXlink = rs.getBoolean(7);
-				geomNode.isReverse = rs.getBoolean(8);
-
-				GeometryObject geometry = null;
-				Object object = rs.getObject(!isImplicit ? 9 : 10);
-				if (!rs.wasNull() && object != null) {
-					try {
-						geometry = dbExporterManager.getDatabaseAdapter().getGeometryConverter().getPolygon(object);
-					} catch (IllegalArgumentException e) {
-						StringBuilder msg = new StringBuilder("Skipping ").append(Util.getGeometrySignature(
-								GMLClass.POLYGON, 
-								geomNode.gmlId));
-						msg.append(": ").append(e.getMessage());
-
-						LOG.error(msg.toString());
-						continue;
-					}
-				}
-
-				geomNode.geometry = geometry;
-
-				// put it into our geometry tree
-				geomTree.insertNode(geomNode, geomNode.parentId);
-			}
-
-			// interpret geometry tree as a single abstract geometry
-			if (geomTree.root != 0)
-				return rebuildGeometry(geomTree.getNode(geomTree.root), false, false);
-			else {
-				LOG.error("Failed to interpret geometry object.");
-				return null;
-			}
+			return geomNodes;
 		} finally {
 			if (rs != null)
 				rs.close();
 		}
 	}
+
+	private GeometryNode getGeometryNode(ResultSet rs, int geometryColumn) throws SQLException {
+		// constructing a geometry node. the geometry is converted
+		// when the node is inserted into a geometry tree
+		GeometryNode geomNode = new GeometryNode();
+		geomNode.id = rs.getLong(1);
+		geomNode.gmlId = rs.getString(2);
+		geomNode.parentId = rs.getLong(3);
+		geomNode.isSolid = rs.getBoolean(4);
+		geomNode.isComposite = rs.getBoolean(5);
+		geomNode.isTriangulated = rs.getBoolean(6);
+		geomNode.isXlink = rs.getBoolean(7);
+		geomNode.isReverse = rs.getBoolean(8);
+
+		Object object = rs.getObject(geometryColumn);
+		if (!rs.wasNull())
+			geomNode.dbGeometry = object;
+
+		return geomNode;
+	}
 	
 	public DBSurfaceGeometryResult readImplicitGeometry(long rootId) throws SQLException {
 		try {
@@ -676,6 +733,7 @@ public class DBSurfaceGeometry implements DBExporter {
 		protected boolean isXlink;
 		protected boolean isReverse;
 		protected GeometryObject geometry;
+		protected Object dbGeometry;
 		protected List<GeometryNode> childNodes;
 
 		public GeometryNode() {
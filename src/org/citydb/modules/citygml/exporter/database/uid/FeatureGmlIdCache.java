@@ -31,9 +31,6 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.util.Iterator;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.locks.ReentrantLock;
 
 import org.citydb.modules.citygml.common.database.cache.BranchCacheTable;
@@ -41,6 +38,7 @@ import org.citydb.modules.citygml.common.database.cache.CacheTable;
 import org.citydb.modules.citygml.common.database.cache.CacheTableManager;
 import org.citydb.modules.citygml.common.database.cache.model.CacheTableModelEnum;
 import org.citydb.modules.citygml.common.database.uid.UIDCacheEntry;
+import org.citydb.modules.citygml.common.database.uid.UIDCacheStore;
 import org.citydb.modules.citygml.common.database.uid.UIDCachingModel;
 import org.citygml4j.model.citygml.CityGMLClass;
 
@@ -60,6 +58,7 @@ public class FeatureGmlIdCache implements UIDCachingModel {
 	private int[] batchCounters;
 
 	private int batchSize;
+	private final DrainHandler drainHandler = new DrainHandler();
 
 	public FeatureGmlIdCache(CacheTableManager cacheTableManager, int partitions, int batchSize) throws SQLException {
 		this.cacheTableManager = cacheTableManager;
@@ -79,71 +78,28 @@ public class FeatureGmlIdCache implements UIDCachingModel {
 	}
 
 	@Override
-	public void drainToDB(ConcurrentHashMap<String, UIDCacheEntry> map, int drain) throws SQLException {
-		int drainCounter = 0;			
-
+	public void drainToDB(UIDCacheStore store, int drain) throws SQLException {
 		// firstly, try and write those entries which have already been requested
-		Iterator<Map.Entry<String, UIDCacheEntry>> iter = map.entrySet().iterator();
-		while (drainCounter <= drain && iter.hasNext()) {
-			Map.Entry<String, UIDCacheEntry> entry = iter.next();
-			if (entry.getValue().isRequested()) { 
-				String gmlId = entry.getKey();
-
-				// determine partition for gml:id
-				int partition = Math.abs(gmlId.hashCode() % partitions);
-				initializePartition(partition);
-
-				// get corresponding prepared statement
-				PreparedStatement psDrain = psDrains[partition];
-
-				psDrain.setString(1, gmlId);
-				psDrain.setLong(2, entry.getValue().getId());
-				psDrain.setString(3, entry.getValue().getMapping());
-				psDrain.setInt(4, entry.getValue().getType().ordinal());
-
-				psDrain.addBatch();
-				if (++batchCounters[partition] == batchSize) {
-					psDrain.executeBatch();
-					batchCounters[partition] = 0;
-				}
-
-				iter.remove();
-				++drainCounter;
-			}
-		}
+		int drainCounter = store.drain(drain, true, drainHandler);
 
 		// secondly, drain remaining entries until drain limit
-		iter = map.entrySet().iterator();
-		while (drainCounter <= drain && iter.hasNext()) {
-			Map.Entry<String, UIDCacheEntry> entry = iter.next();				
-			String gmlId = entry.getKey();
-
-			// determine partition for gml:id
-			int partition = Math.abs(gmlId.hashCode() % partitions);
-			initializePartition(partition);
+		if (drainCounter < drain)
+			store.drain(drain - drainCounter, drainHandler);
 
-			// get corresponding prepared statement
-			PreparedStatement psDrain = psDrains[partition];
-
-			psDrain.setString(1, gmlId);
-			psDrain.setLong(2, entry.getValue().getId());
-			psDrain.setString(3, entry.getValue().getMapping());
-			psDrain.setInt(4, entry.getValue().getType().ordinal());
+		// finally execute batches
+		for (int i = 0; i < psDrains.length; i++) {
+			final ReentrantLock tableLock = locks[i];
+			tableLock.lock();
 
-			psDrain.addBatch();
-			if (++batchCounters[partition] == batchSize) {
-				psDrain.executeBatch();
-				batchCounters[partition] = 0;
+			try {
+				if (psDrains[i] != null && batchCounters[i] > 0) {
+					psDrains[i].executeBatch();
+					batchCounters[i] = 0;
+				}
+			} finally {
+				tableLock.unlock();
 			}
-
-			iter.remove();
-			++drainCounter;
 		}
-
-		// finally execute batches
-		for (int i = 0; i < psDrains.length; i++)
-			if (psDrains[i] != null && batchCounters[i] > 0)
-				psDrains[i].executeBatch();
 	}
 
 	@Override
@@ -282,5 +238,38 @@ public class FeatureGmlIdCache implements UIDCachingModel {
 				tableLock.unlock();
 			}
 		}
-	}	
+	}
+
+	private final class DrainHandler implements UIDCacheStore.DrainHandler {
+
+		@Override
+		public void drain(String key, UIDCacheEntry entry) throws SQLException {
+			// determine partition for gml:id
+			int partition = Math.abs(key.hashCode() % partitions);
+			initializePartition(partition);
+
+			// the drain runs concurrently with lookups on the same connection
+			final ReentrantLock tableLock = locks[partition];
+			tableLock.lock();
+
+			try {
+				// get corresponding prepared statement
+				PreparedStatement psDrain = psDrains[partition];
+
+				psDrain.setString(1, key);
+				psDrain.setLong(2, entry.getId());
+				psDrain.setString(3, entry.getMapping());
+				psDrain.setInt(4, entry.getType().ordinal());
+
+				psDrain.addBatch();
+				if (++batchCounters[partition] == batchSize) {
+					psDrain.executeBatch();
+					batchCounters[partition] = 0;
+				}
+			} finally {
+				tableLock.unlock();
+			}
+		}
+	}
+
 }
@@ -32,6 +32,7 @@ import java.sql.SQLException;
 import java.util.HashMap;
 
 import org.citydb.api.event.Event;
+import org.citydb.api.event.EventCounterType;
 import org.citydb.api.event.EventDispatcher;
 import org.citydb.config.Config;
 import org.citydb.database.adapter.AbstractDatabaseAdapter;
@@ -80,6 +81,10 @@ public class DBXlinkExporterManager {
 	public void propagateEvent(Event event) {
 		eventDispatcher.triggerEvent(event);
 	}
+
+	public void updateCounter(EventCounterType type, long delta) {
+		eventDispatcher.updateCounter(type, delta);
+	}
 	
 	public void close() throws SQLException {
 		for (DBXlinkExporter exporter : dbExporterMap.values())
@@ -38,7 +38,6 @@ import org.citydb.database.adapter.BlobExportAdapter;
 import org.citydb.database.adapter.BlobType;
 import org.citydb.log.Logger;
 import org.citydb.modules.citygml.common.database.xlink.DBXlinkTextureFile;
-import org.citydb.modules.common.event.CounterEvent;
 import org.citydb.modules.common.event.CounterType;
 import org.citydb.util.Util;
 
@@ -55,7 +54,6 @@ public class DBXlinkExporterTextureImage implements DBXlinkExporter {
 	private boolean overwriteTextureImage;
 	private boolean useBuckets;
 	private boolean[] buckets; 
-	private CounterEvent counter;
 
 	public DBXlinkExporterTextureImage(Connection connection, Config config, DBXlinkExporterManager xlinkExporterManager) throws SQLException {
 		this.xlinkExporterManager = xlinkExporterManager;
@@ -70,7 +68,6 @@ public class DBXlinkExporterTextureImage implements DBXlinkExporter {
 		texturePathIsLocal = config.getProject().getExporter().getAppearances().getTexturePath().isRelative();
 		texturePath = config.getInternal().getExportTextureFilePath();
 		overwriteTextureImage = config.getProject().getExporter().getAppearances().isSetOverwriteTextureFiles();
-		counter = new CounterEvent(CounterType.TEXTURE_IMAGE, 1, this);
 		useBuckets = config.getProject().getExporter().getAppearances().getTexturePath().isUseBuckets() &&
 				config.getProject().getExporter().getAppearances().getTexturePath().getNoOfBuckets() > 0;
 
@@ -127,7 +124,7 @@ public class DBXlinkExporterTextureImage implements DBXlinkExporter {
 		}
 
 		// load image data into file
-		xlinkExporterManager.propagateEvent(counter);
+		xlinkExporterManager.updateCounter(CounterType.TEXTURE_IMAGE, 1);
 		return textureImageExportAdapter.getInFile(xlink.getId(), fileName, fileURI);
 	}
 
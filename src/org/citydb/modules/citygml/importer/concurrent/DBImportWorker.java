@@ -60,9 +60,10 @@ import org.citydb.modules.citygml.importer.database.content.DBSolitaryVegetatObj
 import org.citydb.modules.citygml.importer.database.content.DBTransportationComplex;
 import org.citydb.modules.citygml.importer.database.content.DBTunnel;
 import org.citydb.modules.citygml.importer.database.content.DBWaterBody;
+import org.citydb.modules.citygml.importer.util.ImportFileContext;
 import org.citydb.modules.citygml.importer.util.ImportLogger;
 import org.citydb.modules.citygml.importer.util.ImportLogger.ImportLogEntry;
-import org.citydb.modules.common.event.CounterEvent;
+import org.citydb.modules.common.event.BatchStatisticsEvent;
 import org.citydb.modules.common.event.CounterType;
 import org.citydb.modules.common.event.EventType;
 import org.citydb.modules.common.event.FeatureCounterEvent;
@@ -92,6 +93,7 @@ import org.citygml4j.model.citygml.vegetation.PlantCover;
 import org.citygml4j.model.citygml.vegetation.SolitaryVegetationObject;
 import org.citygml4j.model.citygml.waterbody.WaterBody;
 import org.citygml4j.model.common.base.ModelType;
+import org.citygml4j.model.gml.base.AbstractGML;
 import org.citygml4j.model.gml.basicTypes.Code;
 import org.citygml4j.model.gml.geometry.primitives.Envelope;
 
@@ -108,10 +110,11 @@ public class DBImportWorker extends Worker<CityGML> implements EventHandler {
 	private final Config config;
 	private final EventDispatcher eventDispatcher;
 	private final ImportFilter importFilter;
-	private final ImportLogger importLogger;
 
 	private Connection batchConn;
 	private DBImporterManager dbImporterManager;
+	private ImportFileContext fileContext;
+	private int pendingWork = 0;
 	private int updateCounter = 0;
 	private int commitAfter = 20;
 
@@ -125,7 +128,6 @@ public class DBImportWorker extends Worker<CityGML> implements EventHandler {
 			WorkerPool<DBXlink> tmpXlinkPool,
 			UIDCacheManager uidCacheManager,
 			ImportFilter importFilter,
-			ImportLogger importLogger,
 			Config config,
 			EventDispatcher eventDispatcher) throws SQLException {
 		this.dbConnectionPool = dbConnectionPool;
@@ -133,7 +135,6 @@ public class DBImportWorker extends Worker<CityGML> implements EventHandler {
 		this.tmpXlinkPool = tmpXlinkPool;
 		this.uidCacheManager = uidCacheManager;
 		this.importFilter = importFilter;
-		this.importLogger = importLogger;
 		this.config = config;
 		this.eventDispatcher = eventDispatcher;
 
@@ -157,15 +158,6 @@ public class DBImportWorker extends Worker<CityGML> implements EventHandler {
 		featureGmlIdFilter = importFilter.getGmlIdFilter();
 		featureGmlNameFilter = importFilter.getGmlNameFilter();		
 
-		dbImporterManager = new DBImporterManager(
-				batchConn,
-				dbConnectionPool.getActiveDatabaseAdapter(),
-				jaxbBuilder,
-				config,
-				tmpXlinkPool,
-				uidCacheManager,
-				eventDispatcher);
-
 		Integer commitAfterProp = database.getUpdateBatching().getFeatureBatchValue();
 		if (commitAfterProp != null && commitAfterProp > 0)
 			commitAfter = commitAfterProp;
@@ -211,10 +203,11 @@ public class DBImportWorker extends Worker<CityGML> implements EventHandler {
 			}
 
 			try {
-				if (shouldWork) {
+				if (shouldWork && dbImporterManager != null) {
 					dbImporterManager.executeBatch();
 					batchConn.commit();
 					updateImportContext();
+					eventDispatcher.triggerEvent(new BatchStatisticsEvent(dbImporterManager.getBatchStatistics(), this));
 				}
 			} catch (SQLException e) {
 				try {
@@ -229,8 +222,15 @@ public class DBImportWorker extends Worker<CityGML> implements EventHandler {
 			}
 
 		} finally {
+			// release features that could not be committed
+			if (fileContext != null) {
+				fileContext.featuresProcessed(pendingWork);
+				pendingWork = 0;
+			}
+
 			try {
-				dbImporterManager.close();
+				if (dbImporterManager != null)
+					dbImporterManager.close();
 			} catch (SQLException e) {
 				// 
 			}
@@ -251,6 +251,11 @@ public class DBImportWorker extends Worker<CityGML> implements EventHandler {
 		runLock.lock();
 
 		try {
+			ImportFileContext context = (ImportFileContext)((AbstractGML)work).getLocalProperty(ImportFileContext.PROPERTY_NAME);
+			if (context != fileContext)
+				switchFileContext(context);
+
+			pendingWork++;
 			if (!shouldWork)
 				return;
 
@@ -425,17 +430,53 @@ public class DBImportWorker extends Worker<CityGML> implements EventHandler {
 		}
 	}
 
+	private void switchFileContext(ImportFileContext context) throws SQLException, IOException {
+		// features from different files are never committed together so
+		// that the import of each file can be finished on its own
+		if (dbImporterManager != null) {
+			if (shouldWork) {
+				dbImporterManager.executeBatch();
+				batchConn.commit();
+				updateImportContext();
+				eventDispatcher.triggerEvent(new BatchStatisticsEvent(dbImporterManager.getBatchStatistics(), this));
+			}
+
+			dbImporterManager.close();
+			dbImporterManager = null;
+		}
+
+		if (fileContext != null) {
+			fileContext.featuresProcessed(pendingWork);
+			pendingWork = 0;
+		}
+
+		fileContext = context;
+		dbImporterManager = new DBImporterManager(
+				batchConn,
+				dbConnectionPool.getActiveDatabaseAdapter(),
+				jaxbBuilder,
+				config,
+				tmpXlinkPool,
+				uidCacheManager,
+				fileContext,
+				eventDispatcher);
+	}
+
 	private void updateImportContext() throws IOException {
 		eventDispatcher.triggerEvent(new FeatureCounterEvent(dbImporterManager.getAndResetFeatureCounter(), this));
 		eventDispatcher.triggerEvent(new GeometryCounterEvent(dbImporterManager.getAndResetGeometryCounter(), this));
-		eventDispatcher.triggerEvent(new CounterEvent(CounterType.TOPLEVEL_FEATURE, updateCounter, this));
+		eventDispatcher.updateCounter(CounterType.TOPLEVEL_FEATURE, updateCounter);
 		updateCounter = 0;
 
 		// log imported top-level features
+		ImportLogger importLogger = fileContext.getImportLogger();
 		if (importLogger != null) {
 			for (ImportLogEntry entry : dbImporterManager.getAndResetImportedFeatures())
 				importLogger.write(entry);
 		}
+
+		fileContext.featuresProcessed(pendingWork);
+		pendingWork = 0;
 	}
 
 	@Override
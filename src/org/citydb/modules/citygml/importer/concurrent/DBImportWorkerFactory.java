@@ -38,7 +38,6 @@ import org.citydb.database.DatabaseConnectionPool;
 import org.citydb.log.Logger;
 import org.citydb.modules.citygml.common.database.uid.UIDCacheManager;
 import org.citydb.modules.citygml.common.database.xlink.DBXlink;
-import org.citydb.modules.citygml.importer.util.ImportLogger;
 import org.citydb.modules.common.filter.ImportFilter;
 import org.citygml4j.builder.jaxb.JAXBBuilder;
 import org.citygml4j.model.citygml.CityGML;
@@ -51,7 +50,6 @@ public class DBImportWorkerFactory implements WorkerFactory<CityGML> {
 	private final WorkerPool<DBXlink> xlinkWorkerPool;
 	private final UIDCacheManager uidCacheManager;
 	private final ImportFilter importFilter;
-	private final ImportLogger importLogger;
 	private final Config config;
 	private final EventDispatcher eventDispatcher;
 
@@ -60,7 +58,6 @@ public class DBImportWorkerFactory implements WorkerFactory<CityGML> {
 			WorkerPool<DBXlink> xlinkWorkerPool,
 			UIDCacheManager uidCacheManager,
 			ImportFilter importFilter,
-			ImportLogger importLogger,
 			Config config,
 			EventDispatcher eventDispatcher) {
 		this.dbConnectionPool = dbConnectionPool;
@@ -68,7 +65,6 @@ public class DBImportWorkerFactory implements WorkerFactory<CityGML> {
 		this.xlinkWorkerPool = xlinkWorkerPool;
 		this.uidCacheManager = uidCacheManager;
 		this.importFilter = importFilter;
-		this.importLogger = importLogger;
 		this.config = config;
 		this.eventDispatcher = eventDispatcher;
 	}
@@ -83,7 +79,6 @@ public class DBImportWorkerFactory implements WorkerFactory<CityGML> {
 					xlinkWorkerPool, 
 					uidCacheManager,
 					importFilter,
-					importLogger,
 					config, 
 					eventDispatcher);
 		} catch (SQLException e) {
@@ -60,6 +60,7 @@ import org.citydb.modules.citygml.common.database.xlink.DBXlinkTextureParam;
 import org.citydb.modules.citygml.common.database.xlink.DBXlinkTextureParamEnum;
 import org.citydb.modules.citygml.importer.database.xlink.resolver.DBXlinkResolverEnum;
 import org.citydb.modules.citygml.importer.database.xlink.resolver.DBXlinkResolverManager;
+import org.citydb.modules.citygml.importer.database.xlink.resolver.SurfaceGeometryCache;
 import org.citydb.modules.citygml.importer.database.xlink.resolver.XlinkBasic;
 import org.citydb.modules.citygml.importer.database.xlink.resolver.XlinkDeprecatedMaterial;
 import org.citydb.modules.citygml.importer.database.xlink.resolver.XlinkGroupToCityObject;
@@ -87,6 +88,7 @@ public class DBImportXlinkResolverWorker extends Worker<DBXlink> implements Even
 	private final WorkerPool<DBXlink> tmpXlinkPool;
 	private final UIDCacheManager uidCacheManager;
 	private final CacheTableManager cacheTableManager;
+	private final SurfaceGeometryCache surfaceGeometryCache;
 	private final ImportFilter importFilter;
 	private final Config config;
 	private final EventDispatcher eventDispatcher;
@@ -100,6 +102,7 @@ public class DBImportXlinkResolverWorker extends Worker<DBXlink> implements Even
 			WorkerPool<DBXlink> tmpXlinkPool, 
 			UIDCacheManager uidCacheManager, 
 			CacheTableManager cacheTableManager, 
+			SurfaceGeometryCache surfaceGeometryCache, 
 			ImportFilter importFilter, 
 			Config config, 
 			EventDispatcher eventDispatcher) throws SQLException {
@@ -107,6 +110,7 @@ public class DBImportXlinkResolverWorker extends Worker<DBXlink> implements Even
 		this.tmpXlinkPool = tmpXlinkPool;
 		this.uidCacheManager = uidCacheManager;
 		this.cacheTableManager = cacheTableManager;
+		this.surfaceGeometryCache = surfaceGeometryCache;
 		this.importFilter = importFilter;
 		this.config = config;
 		this.eventDispatcher = eventDispatcher;
@@ -136,6 +140,7 @@ public class DBImportXlinkResolverWorker extends Worker<DBXlink> implements Even
 				tmpXlinkPool,
 				uidCacheManager,
 				cacheTableManager,
+				surfaceGeometryCache,
 				importFilter,
 				config,
 				eventDispatcher);
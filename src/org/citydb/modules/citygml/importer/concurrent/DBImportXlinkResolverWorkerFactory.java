@@ -39,6 +39,7 @@ import org.citydb.log.Logger;
 import org.citydb.modules.citygml.common.database.cache.CacheTableManager;
 import org.citydb.modules.citygml.common.database.uid.UIDCacheManager;
 import org.citydb.modules.citygml.common.database.xlink.DBXlink;
+import org.citydb.modules.citygml.importer.database.xlink.resolver.SurfaceGeometryCache;
 import org.citydb.modules.common.filter.ImportFilter;
 
 public class DBImportXlinkResolverWorkerFactory implements WorkerFactory<DBXlink> {
@@ -48,6 +49,7 @@ public class DBImportXlinkResolverWorkerFactory implements WorkerFactory<DBXlink
 	private final WorkerPool<DBXlink> tmpXlinkPool;
 	private final UIDCacheManager uidCacheManager;
 	private final CacheTableManager cacheTableManager;
+	private final SurfaceGeometryCache surfaceGeometryCache;
 	private final ImportFilter importFilter;
 	private final Config config;
 	private final EventDispatcher eventDispatcher;
@@ -56,6 +58,7 @@ public class DBImportXlinkResolverWorkerFactory implements WorkerFactory<DBXlink
 			WorkerPool<DBXlink> tmpXlinkPool, 
 			UIDCacheManager uidCacheManager, 
 			CacheTableManager cacheTableManager, 
+			SurfaceGeometryCache surfaceGeometryCache, 
 			ImportFilter importFilter, 
 			Config config, 
 			EventDispatcher eventDispatcher) {
@@ -63,6 +66,7 @@ public class DBImportXlinkResolverWorkerFactory implements WorkerFactory<DBXlink
 		this.tmpXlinkPool = tmpXlinkPool;
 		this.uidCacheManager = uidCacheManager;
 		this.cacheTableManager = cacheTableManager;
+		this.surfaceGeometryCache = surfaceGeometryCache;
 		this.importFilter = importFilter;
 		this.config = config;
 		this.eventDispatcher = eventDispatcher;
@@ -77,6 +81,7 @@ public class DBImportXlinkResolverWorkerFactory implements WorkerFactory<DBXlink
 					tmpXlinkPool, 
 					uidCacheManager, 
 					cacheTableManager, 
+					surfaceGeometryCache, 
 					importFilter,
 					config, 
 					eventDispatcher);
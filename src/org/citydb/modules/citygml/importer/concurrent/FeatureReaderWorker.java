@@ -27,6 +27,7 @@
  */
 package org.citydb.modules.citygml.importer.concurrent;
 
+import java.io.IOException;
 import java.util.concurrent.locks.ReentrantLock;
 
 import org.citydb.api.concurrent.Worker;
@@ -35,26 +36,46 @@ import org.citydb.api.event.EventDispatcher;
 import org.citydb.api.log.LogLevel;
 import org.citydb.config.Config;
 import org.citydb.log.Logger;
+import org.citydb.modules.citygml.importer.util.ImportChunk;
+import org.citydb.modules.citygml.importer.util.ImportFileContext;
+import org.citydb.modules.citygml.importer.util.MappedChunk;
 import org.citydb.modules.common.event.InterruptEvent;
 import org.citydb.modules.common.event.InterruptReason;
+import org.citygml4j.builder.jaxb.JAXBBuilder;
 import org.citygml4j.model.citygml.CityGML;
+import org.citygml4j.model.gml.base.AbstractGML;
+import org.citygml4j.xml.io.CityGMLInputFactory;
+import org.citygml4j.xml.io.reader.CityGMLInputFilter;
+import org.citygml4j.xml.io.reader.CityGMLReadException;
+import org.citygml4j.xml.io.reader.CityGMLReader;
 import org.citygml4j.xml.io.reader.MissingADESchemaException;
 import org.citygml4j.xml.io.reader.UnmarshalException;
 import org.citygml4j.xml.io.reader.XMLChunk;
 
-public class FeatureReaderWorker extends Worker<XMLChunk> {
+public class FeatureReaderWorker extends Worker<ImportChunk> {
 	private final Logger LOG = Logger.getInstance();
 	private final ReentrantLock runLock = new ReentrantLock();
 	private volatile boolean shouldRun = true;
 
 	private final WorkerPool<CityGML> dbWorkerPool;
+	private final JAXBBuilder jaxbBuilder;
+	private final CityGMLInputFactory template;
+	private final CityGMLInputFilter inputFilter;
 	private final EventDispatcher eventDispatcher;
 	private final boolean useValidation;
 
+	private CityGMLInputFactory in;
+
 	public FeatureReaderWorker(WorkerPool<CityGML> dbWorkerPool,
+			JAXBBuilder jaxbBuilder,
+			CityGMLInputFactory template,
+			CityGMLInputFilter inputFilter,
 			Config config,
 			EventDispatcher eventDispatcher) {
 		this.dbWorkerPool = dbWorkerPool;
+		this.jaxbBuilder = jaxbBuilder;
+		this.template = template;
+		this.inputFilter = inputFilter;
 		this.eventDispatcher = eventDispatcher;
 
 		useValidation = config.getProject().getImporter().getXMLValidation().isSetUseXMLValidation();
@@ -89,7 +110,7 @@ public class FeatureReaderWorker extends Worker<XMLChunk> {
 
 		while (shouldRun) {
 			try {
-				XMLChunk work = workQueue.take();				
+				ImportChunk work = workQueue.take();				
 				doWork(work);
 			} catch (InterruptedException ie) {
 				// re-check state
@@ -97,30 +118,90 @@ public class FeatureReaderWorker extends Worker<XMLChunk> {
 		}
 	}
 
-	private void doWork(XMLChunk work) {
+	private void doWork(ImportChunk work) {
 		final ReentrantLock runLock = this.runLock;
 		runLock.lock();
 
 		try {
-			try {
-				CityGML cityGML = work.unmarshal();
-				if (!useValidation || work.hasPassedXMLValidation())
-					dbWorkerPool.addWork(cityGML);
-			} catch (UnmarshalException e) {
-				if (!useValidation || work.hasPassedXMLValidation()) {
-					StringBuilder msg = new StringBuilder();				
-					msg.append("Failed to unmarshal XML chunk: ").append(e.getMessage());			
-					LOG.error(msg.toString());
-				}
-			} catch (MissingADESchemaException e) {
-				eventDispatcher.triggerEvent(new InterruptEvent(InterruptReason.ADE_SCHEMA_READ_ERROR, "Failed to read an ADE XML Schema.", LogLevel.ERROR, e, eventChannel, this));
-			} catch (Exception e) {
-				// this is to catch general exceptions that may occur during the import
-				eventDispatcher.triggerEvent(new InterruptEvent(InterruptReason.UNKNOWN_ERROR, "Aborting due to an unexpected " + e.getClass().getName() + " error.", LogLevel.ERROR, e, eventChannel, this));
-			}
+			if (work.isMappedChunk())
+				doWork(work.getMappedChunk(), work.getFileContext());
+			else
+				doWork(work.getChunk(), work.getFileContext());
 		} finally {
+			work.getFileContext().chunkProcessed();
 			runLock.unlock();
 		}
 	}
 
+	private void doWork(MappedChunk mappedChunk, ImportFileContext fileContext) {
+		CityGMLReader reader = null;
+
+		try {
+			if (in == null)
+				in = createInputFactory();
+
+			reader = in.createFilteredCityGMLReader(in.createCityGMLReader(fileContext.getFile().toURI().toString(), mappedChunk.openStream()), inputFilter);
+			while (reader.hasNext())
+				doWork(reader.nextChunk(), fileContext);
+
+		} catch (CityGMLReadException e) {
+			eventDispatcher.triggerEvent(new InterruptEvent(InterruptReason.UNKNOWN_ERROR, "Failed to parse CityGML file. Aborting.", LogLevel.ERROR, e, eventChannel, this));
+		} catch (IOException e) {
+			eventDispatcher.triggerEvent(new InterruptEvent(InterruptReason.UNKNOWN_ERROR, "Failed to read CityGML file. Aborting.", LogLevel.ERROR, e, eventChannel, this));
+		} finally {
+			if (reader != null) {
+				try {
+					reader.close();
+				} catch (CityGMLReadException e) {
+					//
+				}
+			}
+		}
+	}
+
+	private void doWork(XMLChunk chunk, ImportFileContext fileContext) {
+		try {
+			CityGML cityGML = chunk.unmarshal();
+			if ((!useValidation || chunk.hasPassedXMLValidation()) && cityGML instanceof AbstractGML) {
+				// remember the file the feature stems from
+				((AbstractGML)cityGML).setLocalProperty(ImportFileContext.PROPERTY_NAME, fileContext);
+				fileContext.addFeature();
+				dbWorkerPool.addWork(cityGML);
+			}
+		} catch (UnmarshalException e) {
+			if (!useValidation || chunk.hasPassedXMLValidation()) {
+				StringBuilder msg = new StringBuilder();				
+				msg.append("Failed to unmarshal XML chunk: ").append(e.getMessage());			
+				LOG.error(msg.toString());
+			}
+		} catch (MissingADESchemaException e) {
+			eventDispatcher.triggerEvent(new InterruptEvent(InterruptReason.ADE_SCHEMA_READ_ERROR, "Failed to read an ADE XML Schema.", LogLevel.ERROR, e, eventChannel, this));
+		} catch (Exception e) {
+			// this is to catch general exceptions that may occur during the import
+			eventDispatcher.triggerEvent(new InterruptEvent(InterruptReason.UNKNOWN_ERROR, "Aborting due to an unexpected " + e.getClass().getName() + " error.", LogLevel.ERROR, e, eventChannel, this));
+		}
+	}
+
+	private CityGMLInputFactory createInputFactory() throws CityGMLReadException {
+		// StAX input factories are not guaranteed to be thread-safe, so
+		// every worker parses mapped chunks with its own instance
+		CityGMLInputFactory in = jaxbBuilder.createCityGMLInputFactory();
+		if (template.getValidationEventHandler() != null)
+			in.setValidationEventHandler(template.getValidationEventHandler());
+
+		for (String name : new String[]{
+				CityGMLInputFactory.FEATURE_READ_MODE,
+				CityGMLInputFactory.FAIL_ON_MISSING_ADE_SCHEMA,
+				CityGMLInputFactory.PARSE_SCHEMA,
+				CityGMLInputFactory.SPLIT_AT_FEATURE_PROPERTY,
+				CityGMLInputFactory.EXCLUDE_FROM_SPLITTING,
+				CityGMLInputFactory.USE_VALIDATION}) {
+			Object value = template.getProperty(name);
+			if (value != null)
+				in.setProperty(name, value);
+		}
+
+		return in;
+	}
+
 }
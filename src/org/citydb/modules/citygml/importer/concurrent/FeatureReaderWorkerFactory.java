@@ -32,24 +32,36 @@ import org.citydb.api.concurrent.WorkerFactory;
 import org.citydb.api.concurrent.WorkerPool;
 import org.citydb.api.event.EventDispatcher;
 import org.citydb.config.Config;
+import org.citydb.modules.citygml.importer.util.ImportChunk;
+import org.citygml4j.builder.jaxb.JAXBBuilder;
 import org.citygml4j.model.citygml.CityGML;
-import org.citygml4j.xml.io.reader.XMLChunk;
+import org.citygml4j.xml.io.CityGMLInputFactory;
+import org.citygml4j.xml.io.reader.CityGMLInputFilter;
 
-public class FeatureReaderWorkerFactory implements WorkerFactory<XMLChunk> {
+public class FeatureReaderWorkerFactory implements WorkerFactory<ImportChunk> {
 	private final WorkerPool<CityGML> dbWorkerPool;
+	private final JAXBBuilder jaxbBuilder;
+	private final CityGMLInputFactory in;
+	private final CityGMLInputFilter inputFilter;
 	private final Config config;
 	private final EventDispatcher eventDispatcher;
 
 	public FeatureReaderWorkerFactory(WorkerPool<CityGML> dbWorkerPool,
+			JAXBBuilder jaxbBuilder,
+			CityGMLInputFactory in,
+			CityGMLInputFilter inputFilter,
 			Config config,
 			EventDispatcher eventDispatcher) {
 		this.dbWorkerPool = dbWorkerPool;
+		this.jaxbBuilder = jaxbBuilder;
+		this.in = in;
+		this.inputFilter = inputFilter;
 		this.config = config;
 		this.eventDispatcher = eventDispatcher;
 	}
 
 	@Override
-	public Worker<XMLChunk> createWorker() {
-		return new FeatureReaderWorker(dbWorkerPool, config, eventDispatcher);
+	public Worker<ImportChunk> createWorker() {
+		return new FeatureReaderWorker(dbWorkerPool, jaxbBuilder, in, inputFilter, config, eventDispatcher);
 	}
 }
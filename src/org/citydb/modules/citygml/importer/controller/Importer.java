@@ -30,6 +30,7 @@ package org.citydb.modules.citygml.importer.controller;
 import java.io.File;
 import java.io.IOException;
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.Iterator;
@@ -73,12 +74,20 @@ import org.citydb.modules.citygml.importer.concurrent.DBImportWorkerFactory;
 import org.citydb.modules.citygml.importer.concurrent.DBImportXlinkResolverWorkerFactory;
 import org.citydb.modules.citygml.importer.concurrent.DBImportXlinkWorkerFactory;
 import org.citydb.modules.citygml.importer.concurrent.FeatureReaderWorkerFactory;
+import org.citydb.modules.citygml.importer.database.content.DBBatchSizer.BatchStatistics;
+import org.citydb.modules.citygml.importer.database.content.DBImporterEnum;
 import org.citydb.modules.citygml.importer.database.uid.FeatureGmlIdCache;
 import org.citydb.modules.citygml.importer.database.uid.GeometryGmlIdCache;
 import org.citydb.modules.citygml.importer.database.uid.TextureImageCache;
 import org.citydb.modules.citygml.importer.database.xlink.resolver.DBXlinkSplitter;
+import org.citydb.modules.citygml.importer.database.xlink.resolver.SurfaceGeometryCache;
 import org.citydb.modules.citygml.importer.util.AffineTransformer;
+import org.citydb.modules.citygml.importer.util.ImportChunk;
+import org.citydb.modules.citygml.importer.util.ImportFileContext;
 import org.citydb.modules.citygml.importer.util.ImportLogger;
+import org.citydb.modules.citygml.importer.util.MappedChunk;
+import org.citydb.modules.citygml.importer.util.MappedFileScanner;
+import org.citydb.modules.common.event.BatchStatisticsEvent;
 import org.citydb.modules.common.event.CounterEvent;
 import org.citydb.modules.common.event.CounterType;
 import org.citydb.modules.common.event.EventType;
@@ -119,6 +128,7 @@ public class Importer implements EventHandler {
 	private InterruptReason interruptReason;
 	private EnumMap<CityGMLClass, Long> featureCounterMap;
 	private EnumMap<GMLClass, Long> geometryCounterMap;
+	private EnumMap<DBImporterEnum, BatchStatistics> batchStatisticsMap;
 	private DirectoryScanner directoryScanner;
 	private long xmlValidationErrorCounter;
 
@@ -133,6 +143,7 @@ public class Importer implements EventHandler {
 
 		featureCounterMap = new EnumMap<CityGMLClass, Long>(CityGMLClass.class);
 		geometryCounterMap = new EnumMap<GMLClass, Long>(GMLClass.class);
+		batchStatisticsMap = new EnumMap<DBImporterEnum, BatchStatistics>(DBImporterEnum.class);
 	}
 
 	public void cleanup() {
@@ -140,9 +151,13 @@ public class Importer implements EventHandler {
 	}
 
 	public boolean doProcess() throws CityGMLImportException {
+		// discard counter updates left over from a previous operation
+		eventDispatcher.resetCounters();
+
 		// adding listeners
 		eventDispatcher.addEventHandler(EventType.FEATURE_COUNTER, this);
 		eventDispatcher.addEventHandler(EventType.GEOMETRY_COUNTER, this);
+		eventDispatcher.addEventHandler(EventType.BATCH_STATISTICS, this);
 		eventDispatcher.addEventHandler(EventType.INTERRUPT, this);
 
 		// get config shortcuts
@@ -248,12 +263,27 @@ public class Importer implements EventHandler {
 			}
 		}
 
+		// bulk load mode
+		if (importerConfig.getBulkLoad().isSetUseBulkLoad())
+			LOG.info("Using bulk load mode for database import.");
+
 		// prepare counter filter
 		FeatureCounterFilter counterFilter = new FeatureCounterFilter(config, FilterMode.IMPORT);
 		Long counterFirstElement = counterFilter.getFilterState().get(0);
 		Long counterLastElement = counterFilter.getFilterState().get(1);
 		long elementCounter = 0;
 
+		// memory-mapped scanning of input files
+		boolean useMappedFileScanner = false;
+		if (resourcesConfig.isSetUseMappedFileScanner()) {
+			if (xmlValidation.isSetUseXMLValidation() || counterFilter.isActive())
+				LOG.info("Memory-mapped scanning of input files is not available with XML validation or feature counter filter.");
+			else {
+				LOG.info("Using memory-mapped scanning of input files.");
+				useMappedFileScanner = true;
+			}
+		}
+
 		// prepare feature filter
 		final ImportFilter importFilter = new ImportFilter(config);
 		CityGMLInputFilter inputFilter = new CityGMLInputFilter() {
@@ -266,17 +296,22 @@ public class Importer implements EventHandler {
 		CacheTableManager cacheTableManager = null;
 		UIDCacheManager uidCacheManager = null;
 		WorkerPool<CityGML> dbWorkerPool = null;
-		WorkerPool<XMLChunk> featureWorkerPool = null;
+		WorkerPool<ImportChunk> featureWorkerPool = null;
 		WorkerPool<DBXlink> tmpXlinkPool = null;
 		WorkerPool<DBXlink> xlinkResolverPool = null;
 		DBXlinkSplitter tmpSplitter = null;
-		ImportLogger importLogger = null;
+		SurfaceGeometryCache surfaceGeometryCache = new SurfaceGeometryCache(Runtime.getRuntime().maxMemory() / 10);
+		List<ImportFileContext> fileContexts = new ArrayList<ImportFileContext>();
+		boolean pipelineImportFiles = resourcesConfig.isSetPipelineImportFiles();
+		boolean keepPools = false;
 		long start = System.currentTimeMillis();
 
-		while (shouldRun && fileCounter < importFiles.size()) {
+		while (fileCounter < importFiles.size() && (shouldRun || keepPools)) {
 			try {
+				keepPools = false;
+
 				// check whether we reached the counter limit
-				if (counterLastElement != null && elementCounter > counterLastElement)
+				if (!shouldRun || (counterLastElement != null && elementCounter > counterLastElement))
 					break;
 
 				File file = importFiles.get(fileCounter++);
@@ -290,22 +325,23 @@ public class Importer implements EventHandler {
 				LOG.info("Importing file: " + file.toString());	
 
 				// set gml:id codespace starting from version 3.1
+				String gmlIdCodespace = null;
 				if (dbPool.getActiveDatabaseAdapter().getConnectionMetaData().getCityDBVersion().compareTo(3, 1, 0) >= 0) {
-					if (gmlIdConfig.isSetNoneCodeSpaceMode())
-						internalConfig.setCurrentGmlIdCodespace(null);
-					else if (gmlIdConfig.isSetRelativeCodeSpaceMode())
-						internalConfig.setCurrentGmlIdCodespace(file.getName());
+					if (gmlIdConfig.isSetRelativeCodeSpaceMode())
+						gmlIdCodespace = file.getName();
 					else if (gmlIdConfig.isSetAbsoluteCodeSpaceMode())
-						internalConfig.setCurrentGmlIdCodespace(file.getAbsolutePath());
+						gmlIdCodespace = file.getAbsolutePath();
 					else if (gmlIdConfig.isSetUserCodeSpaceMode()) {
 						String codespace = gmlIdConfig.getCodeSpace();
 						if (codespace != null && codespace.length() > 0)
-							internalConfig.setCurrentGmlIdCodespace(codespace);
+							gmlIdCodespace = codespace;
 					}
-				} else
-					internalConfig.setCurrentGmlIdCodespace(null);
-				
+				}
+
+				internalConfig.setCurrentGmlIdCodespace(gmlIdCodespace);
+
 				// create import logger
+				ImportLogger importLogger = null;
 				if (importerConfig.getImportLog().isSetLogImportedFeatures()) {
 					try {
 						String logPath = importerConfig.getImportLog().isSetLogPath() ? importerConfig.getImportLog().getLogPath() : Internal.DEFAULT_IMPORT_LOG_PATH;
@@ -316,137 +352,194 @@ public class Importer implements EventHandler {
 					}
 				}
 
-				// create instance of the cache table manager
-				try {
-					cacheTableManager = new CacheTableManager(dbPool, maxThreads, config);
-				} catch (SQLException e) {
-					throw new CityGMLImportException("SQL error while initializing cache manager.", e);
-				} catch (IOException e) {
-					throw new CityGMLImportException("I/O error while initializing cache manager.", e);
-				}
+				ImportFileContext fileContext = new ImportFileContext(file, gmlIdCodespace, importLogger, isInterrupted);
+				fileContexts.add(fileContext);
 
-				// create instance of gml:id lookup server manager...
-				uidCacheManager = new UIDCacheManager();
+				// when pipelining import files, the cache tables, gml:id caches and
+				// worker pools of the previous file are still alive and are reused
+				if (dbWorkerPool == null) {
+					// create instance of the cache table manager
+					try {
+						cacheTableManager = new CacheTableManager(dbPool, maxThreads, config);
+					} catch (SQLException e) {
+						throw new CityGMLImportException("SQL error while initializing cache manager.", e);
+					} catch (IOException e) {
+						throw new CityGMLImportException("I/O error while initializing cache manager.", e);
+					}
+
+					// create instance of gml:id lookup server manager...
+					uidCacheManager = new UIDCacheManager();
+
+					// ...and start servers
+					try {
+						uidCacheManager.initCache(
+								UIDCacheType.GEOMETRY,
+								new GeometryGmlIdCache(cacheTableManager, 
+										resourcesConfig.getGmlIdCache().getGeometry().getPartitions(), 
+										lookupCacheBatchSize),
+										resourcesConfig.getGmlIdCache().getGeometry().getCacheSize(),
+										resourcesConfig.getGmlIdCache().getGeometry().getPageFactor(),
+										maxThreads);
 
-				// ...and start servers
-				try {
-					uidCacheManager.initCache(
-							UIDCacheType.GEOMETRY,
-							new GeometryGmlIdCache(cacheTableManager, 
-									resourcesConfig.getGmlIdCache().getGeometry().getPartitions(), 
-									lookupCacheBatchSize),
-									resourcesConfig.getGmlIdCache().getGeometry().getCacheSize(),
-									resourcesConfig.getGmlIdCache().getGeometry().getPageFactor(),
-									maxThreads);
-
-					uidCacheManager.initCache(
-							UIDCacheType.FEATURE,
-							new FeatureGmlIdCache(cacheTableManager, 
-									resourcesConfig.getGmlIdCache().getFeature().getPartitions(),
-									lookupCacheBatchSize),
-									resourcesConfig.getGmlIdCache().getFeature().getCacheSize(),
-									resourcesConfig.getGmlIdCache().getFeature().getPageFactor(),
-									maxThreads);
-
-					if (config.getProject().getImporter().getAppearances().isSetImportAppearance() &&
-							config.getProject().getImporter().getAppearances().isSetImportTextureFiles()) {
 						uidCacheManager.initCache(
-								UIDCacheType.TEX_IMAGE,
-								new TextureImageCache(cacheTableManager, 
-										resourcesConfig.getTexImageCache().getPartitions(),
+								UIDCacheType.FEATURE,
+								new FeatureGmlIdCache(cacheTableManager, 
+										resourcesConfig.getGmlIdCache().getFeature().getPartitions(),
 										lookupCacheBatchSize),
-										resourcesConfig.getTexImageCache().getCacheSize(),
-										resourcesConfig.getTexImageCache().getPageFactor(),
+										resourcesConfig.getGmlIdCache().getFeature().getCacheSize(),
+										resourcesConfig.getGmlIdCache().getFeature().getPageFactor(),
 										maxThreads);
+
+						if (config.getProject().getImporter().getAppearances().isSetImportAppearance() &&
+								config.getProject().getImporter().getAppearances().isSetImportTextureFiles()) {
+							uidCacheManager.initCache(
+									UIDCacheType.TEX_IMAGE,
+									new TextureImageCache(cacheTableManager, 
+											resourcesConfig.getTexImageCache().getPartitions(),
+											lookupCacheBatchSize),
+											resourcesConfig.getTexImageCache().getCacheSize(),
+											resourcesConfig.getTexImageCache().getPageFactor(),
+											maxThreads);
+						}
+					} catch (SQLException e) {
+						throw new CityGMLImportException("SQL error while initializing database import.", e);
 					}
-				} catch (SQLException e) {
-					throw new CityGMLImportException("SQL error while initializing database import.", e);
-				}
 
-				// creating worker pools needed for data import
-				// this pool is for registering xlinks
-				tmpXlinkPool = new WorkerPool<DBXlink>(
-						"xlink_importer_pool",
-						minThreads,
-						maxThreads,
-						PoolSizeAdaptationStrategy.AGGRESSIVE,
-						new DBImportXlinkWorkerFactory(dbPool, cacheTableManager, config, eventDispatcher),
-						queueSize,
-						false);
-
-				// this pool basically works on the data import
-				dbWorkerPool = new WorkerPool<CityGML>(
-						"db_importer_pool",
-						minThreads,
-						maxThreads,
-						PoolSizeAdaptationStrategy.AGGRESSIVE,
-						new DBImportWorkerFactory(dbPool, 
-								jaxbBuilder,
-								tmpXlinkPool, 
-								uidCacheManager, 
-								importFilter,
-								importLogger,
-								config, 
-								eventDispatcher),
-								queueSize,
-								false);
-
-				// this worker pool unmarshals the input file and passes xml chunks to the dbworker pool
-				featureWorkerPool = new WorkerPool<XMLChunk>(
-						"citygml_parser_pool",
-						minThreads,
-						maxThreads,
-						PoolSizeAdaptationStrategy.AGGRESSIVE,
-						new FeatureReaderWorkerFactory(dbWorkerPool, config, eventDispatcher),
-						queueSize,
-						false);
-
-				// prestart threads
-				tmpXlinkPool.prestartCoreWorkers();
-				dbWorkerPool.prestartCoreWorkers();
-				featureWorkerPool.prestartCoreWorkers();
-
-				// fail if we could not start a single import worker
-				if (dbWorkerPool.getPoolSize() == 0) {
-					LOG.error("Failed to start database import worker pool. Check the database connection pool settings.");
-					return false;
+					// creating worker pools needed for data import
+					// this pool is for registering xlinks
+					tmpXlinkPool = new WorkerPool<DBXlink>(
+							"xlink_importer_pool",
+							minThreads,
+							maxThreads,
+							PoolSizeAdaptationStrategy.AGGRESSIVE,
+							new DBImportXlinkWorkerFactory(dbPool, cacheTableManager, config, eventDispatcher),
+							queueSize,
+							false);
+
+					// this pool basically works on the data import
+					dbWorkerPool = new WorkerPool<CityGML>(
+							"db_importer_pool",
+							minThreads,
+							maxThreads,
+							PoolSizeAdaptationStrategy.AGGRESSIVE,
+							new DBImportWorkerFactory(dbPool, 
+									jaxbBuilder,
+									tmpXlinkPool, 
+									uidCacheManager, 
+									importFilter,
+									config, 
+									eventDispatcher),
+									queueSize,
+									false);
+
+					// this worker pool unmarshals the input file and passes xml chunks to the dbworker pool
+					featureWorkerPool = new WorkerPool<ImportChunk>(
+							"citygml_parser_pool",
+							minThreads,
+							maxThreads,
+							PoolSizeAdaptationStrategy.AGGRESSIVE,
+							new FeatureReaderWorkerFactory(dbWorkerPool, jaxbBuilder, in, inputFilter, config, eventDispatcher),
+							queueSize,
+							false);
+
+					// prestart threads
+					tmpXlinkPool.prestartCoreWorkers();
+					dbWorkerPool.prestartCoreWorkers();
+					featureWorkerPool.prestartCoreWorkers();
+
+					// fail if we could not start a single import worker
+					if (dbWorkerPool.getPoolSize() == 0) {
+						LOG.error("Failed to start database import worker pool. Check the database connection pool settings.");
+						return false;
+					}
 				}
 
 				// ok, preparation done. start parsing the input file
-				CityGMLReader reader = null;
 				try {
-					reader = in.createFilteredCityGMLReader(in.createCityGMLReader(file), inputFilter);	
+					List<MappedChunk> mappedChunks = null;
+					if (useMappedFileScanner) {
+						MappedFileScanner scanner = null;
+						try {
+							scanner = new MappedFileScanner(file, Runtime.getRuntime().availableProcessors());
+							fileContext.setScanner(scanner);
+
+							// the whole file is scanned before the first chunk is passed on
+							// so that we can still fall back to streaming if the scan fails
+							mappedChunks = new ArrayList<MappedChunk>();
+							while (shouldRun && scanner.hasNext())
+								mappedChunks.add(scanner.nextChunk());
+						} catch (IOException e) {
+							LOG.warn("Failed to scan input file using memory mapping: " + e.getMessage());
+							LOG.warn("Falling back to streaming the input file.");
+							mappedChunks = null;
+
+							if (scanner != null) {
+								fileContext.setScanner(null);
+								try {
+									scanner.close();
+								} catch (IOException ioE) {
+									//
+								}
+							}
+						}
+					}
+
+					if (mappedChunks != null) {
+						// chunks of features are unmarshalled by the parser workers
+						for (MappedChunk chunk : mappedChunks) {
+							if (!shouldRun)
+								break;
+
+							fileContext.addChunk();
+							featureWorkerPool.addWork(new ImportChunk(chunk, fileContext));
+						}
+					} else {
+						CityGMLReader reader = in.createFilteredCityGMLReader(in.createCityGMLReader(file), inputFilter);	
+						fileContext.setReader(reader);
 
-					while (shouldRun && reader.hasNext()) {
-						XMLChunk chunk = reader.nextChunk();
+						while (shouldRun && reader.hasNext()) {
+							XMLChunk chunk = reader.nextChunk();
 
-						if (counterFilter.isActive()) {
-							elementCounter++;
+							if (counterFilter.isActive()) {
+								elementCounter++;
 
-							if (counterFirstElement != null && elementCounter < counterFirstElement)
-								continue;
+								if (counterFirstElement != null && elementCounter < counterFirstElement)
+									continue;
 
-							if (counterLastElement != null && elementCounter > counterLastElement)
-								break;
-						}
+								if (counterLastElement != null && elementCounter > counterLastElement)
+									break;
+							}
 
-						featureWorkerPool.addWork(chunk);
-					}					
+							fileContext.addChunk();
+							featureWorkerPool.addWork(new ImportChunk(chunk, fileContext));
+						}					
+					}
 				} catch (CityGMLReadException e) {
 					throw new CityGMLImportException("Failed to parse CityGML file. Aborting.", e);
+				} finally {
+					// the reader is closed once all chunks have been unmarshalled
+					fileContext.readingDone();
+				}
+
+				// continue with the next file while the workers still process
+				// this one. xlinks are resolved once for all files at the end
+				if (pipelineImportFiles 
+						&& shouldRun 
+						&& fileCounter < importFiles.size()
+						&& (counterLastElement == null || elementCounter <= counterLastElement)) {
+					fileContext.release(true);
+					keepPools = true;
+					continue;
 				}
 
 				// we are done with parsing. so shutdown the workers.
 				// the xlink pool is not shutdown because we need it afterwards
 				try {
 					featureWorkerPool.shutdownAndWait();
-					reader.close();
 					dbWorkerPool.shutdownAndWait();
 					tmpXlinkPool.join();
 				} catch (InterruptedException e) {
 					throw new CityGMLImportException("Failed to shutdown worker pools.", e);
-				} catch (CityGMLReadException e) {
-					throw new CityGMLImportException("Failed to close CityGML reader.", e);
 				}
 
 				if (shouldRun) {
@@ -461,6 +554,7 @@ public class Importer implements EventHandler {
 									tmpXlinkPool, 
 									uidCacheManager, 
 									cacheTableManager, 
+									surfaceGeometryCache, 
 									importFilter,
 									config, 
 									eventDispatcher),
@@ -486,6 +580,8 @@ public class Importer implements EventHandler {
 						xlinkResolverPool.shutdownAndWait();
 					} catch (InterruptedException e) {
 						throw new CityGMLImportException("Failed to shutdown worker pools.", e);
+					} finally {
+						surfaceGeometryCache.clear();
 					}
 				}
 
@@ -505,54 +601,60 @@ public class Importer implements EventHandler {
 
 				xmlValidationErrorCounter = 0;
 			} finally {
-				// clean up
-				if (featureWorkerPool != null && !featureWorkerPool.isTerminated())
-					featureWorkerPool.shutdownNow();
+				if (!keepPools) {
+					// clean up
+					if (featureWorkerPool != null && !featureWorkerPool.isTerminated())
+						featureWorkerPool.shutdownNow();
 
-				if (dbWorkerPool != null && !dbWorkerPool.isTerminated())
-					dbWorkerPool.shutdownNow();
+					if (dbWorkerPool != null && !dbWorkerPool.isTerminated())
+						dbWorkerPool.shutdownNow();
 
-				if (xlinkResolverPool != null && !xlinkResolverPool.isTerminated())
-					xlinkResolverPool.shutdownNow();
+					if (xlinkResolverPool != null && !xlinkResolverPool.isTerminated())
+						xlinkResolverPool.shutdownNow();
 
-				if (tmpXlinkPool != null && !tmpXlinkPool.isTerminated())
-					tmpXlinkPool.shutdownNow();
+					if (tmpXlinkPool != null && !tmpXlinkPool.isTerminated())
+						tmpXlinkPool.shutdownNow();
 
-				try {
-					eventDispatcher.flushEvents();
-				} catch (InterruptedException e) {
-					//
-				}
-
-				if (uidCacheManager != null) {
 					try {
-						uidCacheManager.shutdownAll();
-					} catch (SQLException e) {
-						LOG.error("Failed to shutdown gml:id cache: " + e.getMessage());
-						shouldRun = false;
+						eventDispatcher.flushEvents();
+					} catch (InterruptedException e) {
+						//
 					}
-				}
 
-				if (cacheTableManager != null) {
-					try {
-						LOG.info("Cleaning temporary cache.");
-						cacheTableManager.dropAll();
-						cacheTableManager = null;
-					} catch (SQLException e) {
-						LOG.error("SQL error while cleaning temporary cache: " + e.getMessage());
-						shouldRun = false;
+					if (uidCacheManager != null) {
+						try {
+							uidCacheManager.shutdownAll();
+						} catch (SQLException e) {
+							LOG.error("Failed to shutdown gml:id cache: " + e.getMessage());
+							shouldRun = false;
+						}
 					}
-				}
 
-				if (importLogger != null) {
-					if (interruptReason != InterruptReason.IMPORT_LOG_ERROR) {
+					if (cacheTableManager != null) {
 						try {
-							importLogger.close(shouldRun);
-						} catch (IOException e) {
-							LOG.error("Failed to finish logging of imported top-level features.");
-							LOG.warn("The feature import log is most likely corrupt.");
+							LOG.info("Cleaning temporary cache.");
+							cacheTableManager.dropAll();
+							cacheTableManager = null;
+						} catch (SQLException e) {
+							LOG.error("SQL error while cleaning temporary cache: " + e.getMessage());
+							shouldRun = false;
 						}
-					} else
+					}
+
+					featureWorkerPool = null;
+					dbWorkerPool = null;
+					xlinkResolverPool = null;
+					tmpXlinkPool = null;
+					uidCacheManager = null;
+
+					// finish the import logs of all files
+					for (ImportFileContext fileContext : fileContexts) {
+						fileContext.release(shouldRun);
+						fileContext.close();
+					}
+
+					fileContexts.clear();
+					if (interruptReason == InterruptReason.IMPORT_LOG_ERROR)
 						LOG.warn("The feature import log is most likely corrupt.");
 				}
 			}
@@ -589,6 +691,25 @@ public class Importer implements EventHandler {
 		if (geometryObjects != 0)
 			LOG.info("Processed geometry objects: " + geometryObjects);
 
+		// show batch sizes and throughput per table
+		if (!batchStatisticsMap.isEmpty()) {
+			LOG.info("Database insert batches:");
+			for (DBImporterEnum type : batchStatisticsMap.keySet()) {
+				BatchStatistics statistics = batchStatisticsMap.get(type);
+				String batchSize = statistics.getMinBatchSize() == statistics.getMaxBatchSize() ? 
+						String.valueOf(statistics.getMinBatchSize()) : statistics.getMinBatchSize() + "-" + statistics.getMaxBatchSize();
+
+				LOG.info(String.format("%s: batch size %s, %d rows in %d batches, %.1f ms per batch, %.0f rows/s",
+						type, batchSize, statistics.getRows(), statistics.getBatches(), statistics.getAverageLatency(), statistics.getThroughput()));
+			}
+		}
+
+		// show cache statistics of geometry xlink resolution
+		if (surfaceGeometryCache.getHits() + surfaceGeometryCache.getMisses() > 0) {
+			LOG.info(String.format("Geometry XLink cache: %d hits, %d misses, %d evictions", 
+					surfaceGeometryCache.getHits(), surfaceGeometryCache.getMisses(), surfaceGeometryCache.getEvictions()));
+		}
+
 		if (shouldRun)
 			LOG.info("Total import time: " + Util.formatElapsedTime(System.currentTimeMillis() - start) + ".");
 
@@ -634,6 +755,20 @@ public class Importer implements EventHandler {
 			}
 		}
 
+		else if (e.getEventType() == EventType.BATCH_STATISTICS) {
+			EnumMap<DBImporterEnum, BatchStatistics> statisticsMap = ((BatchStatisticsEvent)e).getStatistics();
+
+			for (DBImporterEnum type : statisticsMap.keySet()) {
+				BatchStatistics statistics = batchStatisticsMap.get(type);
+				BatchStatistics update = statisticsMap.get(type);
+
+				if (statistics == null)
+					batchStatisticsMap.put(type, update);
+				else
+					statistics.merge(update);
+			}
+		}
+
 		else if (e.getEventType() == EventType.GEOMETRY_COUNTER) {
 			HashMap<GMLClass, Long> counterMap = ((GeometryCounterEvent)e).getCounter();
 
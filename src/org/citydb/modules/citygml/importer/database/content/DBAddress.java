@@ -114,7 +114,7 @@ public class DBAddress implements DBImporter {
 		String gmlIdCodespace = null;
 
 		if (handleGmlId) {
-			gmlIdCodespace = config.getInternal().getCurrentGmlIdCodespace();
+			gmlIdCodespace = dbImporterManager.getImportFileContext().getGmlIdCodespace();
 
 			if (gmlIdCodespace != null && gmlIdCodespace.length() > 0)
 				gmlIdCodespace = "'" + gmlIdCodespace + "', ";
@@ -125,7 +125,7 @@ public class DBAddress implements DBImporter {
 		StringBuilder stmt = new StringBuilder()
 				.append("insert into ADDRESS (ID, ").append(handleGmlId ? "GMLID, " : "").append(gmlIdCodespace != null ? "GMLID_CODESPACE, " : "").append("STREET, HOUSE_NUMBER, PO_BOX, ZIP_CODE, CITY, COUNTRY, MULTI_POINT, XAL_SOURCE) values ")
 				.append("(?, ").append(handleGmlId ? "?, " : "").append(gmlIdCodespace != null ? gmlIdCodespace : "").append("?, ?, ?, ?, ?, ?, ?, ?)");
-		psAddress = batchConn.prepareStatement(stmt.toString());
+		psAddress = dbImporterManager.prepareInsertStatement(stmt.toString());
 
 		addressToBuildingImporter = (DBAddressToBuilding)dbImporterManager.getDBImporter(DBImporterEnum.ADDRESS_TO_BUILDING);
 		addressToBridgeImporter = (DBAddressToBridge)dbImporterManager.getDBImporter(DBImporterEnum.ADDRESS_TO_BRIDGE);
@@ -332,7 +332,7 @@ public class DBAddress implements DBImporter {
 				psAddress.setNull(index++, Types.CLOB);
 
 			psAddress.addBatch();
-			if (++batchCounter == dbImporterManager.getDatabaseAdapter().getMaxBatchSize())
+			if (++batchCounter >= dbImporterManager.getBatchSize(DBImporterEnum.ADDRESS))
 				dbImporterManager.executeBatch(DBImporterEnum.ADDRESS);
 
 		} else
@@ -368,6 +368,11 @@ public class DBAddress implements DBImporter {
 		psAddress.close();
 	}
 
+	@Override
+	public int getBatchCounter() {
+		return batchCounter;
+	}
+
 	@Override
 	public DBImporterEnum getDBImporterType() {
 		return DBImporterEnum.ADDRESS;
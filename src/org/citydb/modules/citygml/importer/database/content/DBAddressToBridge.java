@@ -46,7 +46,7 @@ public class DBAddressToBridge implements DBImporter {
 	}
 
 	private void init() throws SQLException {
-		psAddressToBridge = batchConn.prepareStatement("insert into ADDRESS_TO_BRIDGE (BRIDGE_ID, ADDRESS_ID) values (?, ?)");
+		psAddressToBridge = dbImporterManager.prepareInsertStatement("insert into ADDRESS_TO_BRIDGE (BRIDGE_ID, ADDRESS_ID) values (?, ?)");
 	}
 	
 	public void insert(long addressId, long buildingId) throws SQLException {
@@ -54,7 +54,7 @@ public class DBAddressToBridge implements DBImporter {
 		psAddressToBridge.setLong(2, addressId);
 
 		psAddressToBridge.addBatch();
-		if (++batchCounter == dbImporterManager.getDatabaseAdapter().getMaxBatchSize())
+		if (++batchCounter >= dbImporterManager.getBatchSize(DBImporterEnum.ADDRESS_TO_BRIDGE))
 			dbImporterManager.executeBatch(DBImporterEnum.ADDRESS_TO_BRIDGE);
 	}
 	
@@ -69,6 +69,11 @@ public class DBAddressToBridge implements DBImporter {
 		psAddressToBridge.close();
 	}
 
+	@Override
+	public int getBatchCounter() {
+		return batchCounter;
+	}
+
 	@Override
 	public DBImporterEnum getDBImporterType() {
 		return DBImporterEnum.ADDRESS_TO_BRIDGE;
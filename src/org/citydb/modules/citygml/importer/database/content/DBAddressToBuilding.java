@@ -46,7 +46,7 @@ public class DBAddressToBuilding implements DBImporter {
 	}
 
 	private void init() throws SQLException {
-		psAddressToBuilding = batchConn.prepareStatement("insert into ADDRESS_TO_BUILDING (BUILDING_ID, ADDRESS_ID) values (?, ?)");
+		psAddressToBuilding = dbImporterManager.prepareInsertStatement("insert into ADDRESS_TO_BUILDING (BUILDING_ID, ADDRESS_ID) values (?, ?)");
 	}
 	
 	public void insert(long addressId, long buildingId) throws SQLException {
@@ -54,7 +54,7 @@ public class DBAddressToBuilding implements DBImporter {
 		psAddressToBuilding.setLong(2, addressId);
 
 		psAddressToBuilding.addBatch();
-		if (++batchCounter == dbImporterManager.getDatabaseAdapter().getMaxBatchSize())
+		if (++batchCounter >= dbImporterManager.getBatchSize(DBImporterEnum.ADDRESS_TO_BUILDING))
 			dbImporterManager.executeBatch(DBImporterEnum.ADDRESS_TO_BUILDING);
 	}
 	
@@ -69,6 +69,11 @@ public class DBAddressToBuilding implements DBImporter {
 		psAddressToBuilding.close();
 	}
 
+	@Override
+	public int getBatchCounter() {
+		return batchCounter;
+	}
+
 	@Override
 	public DBImporterEnum getDBImporterType() {
 		return DBImporterEnum.ADDRESS_TO_BUILDING;
@@ -46,7 +46,7 @@ public class DBAppearToSurfaceData implements DBImporter {
 	}
 
 	private void init() throws SQLException {
-		psAppearToSurfaceData = batchConn.prepareStatement("insert into APPEAR_TO_SURFACE_DATA (SURFACE_DATA_ID, APPEARANCE_ID) values (?, ?)");
+		psAppearToSurfaceData = dbImporterManager.prepareInsertStatement("insert into APPEAR_TO_SURFACE_DATA (SURFACE_DATA_ID, APPEARANCE_ID) values (?, ?)");
 	}
 
 	public void insert(long surfaceDataId, long appearanceId) throws SQLException {
@@ -54,7 +54,7 @@ public class DBAppearToSurfaceData implements DBImporter {
 		psAppearToSurfaceData.setLong(2, appearanceId);
 
 		psAppearToSurfaceData.addBatch();
-		if (++batchCounter == dbImporterManager.getDatabaseAdapter().getMaxBatchSize())
+		if (++batchCounter >= dbImporterManager.getBatchSize(DBImporterEnum.APPEAR_TO_SURFACE_DATA))
 			dbImporterManager.executeBatch(DBImporterEnum.APPEAR_TO_SURFACE_DATA);
 	}
 
@@ -69,6 +69,11 @@ public class DBAppearToSurfaceData implements DBImporter {
 		psAppearToSurfaceData.close();
 	}
 
+	@Override
+	public int getBatchCounter() {
+		return batchCounter;
+	}
+
 	@Override
 	public DBImporterEnum getDBImporterType() {
 		return DBImporterEnum.APPEAR_TO_SURFACE_DATA;
@@ -65,7 +65,7 @@ public class DBAppearance implements DBImporter {
 
 	private void init() throws SQLException {
 		replaceGmlId = config.getProject().getImporter().getGmlId().isUUIDModeReplace();
-		String gmlIdCodespace = config.getInternal().getCurrentGmlIdCodespace();
+		String gmlIdCodespace = dbImporterManager.getImportFileContext().getGmlIdCodespace();
 		
 		if (gmlIdCodespace != null && gmlIdCodespace.length() > 0)
 			gmlIdCodespace = "'" + gmlIdCodespace + "', ";
@@ -75,7 +75,7 @@ public class DBAppearance implements DBImporter {
 		StringBuilder stmt = new StringBuilder()
 		.append("insert into APPEARANCE (ID, GMLID, ").append(gmlIdCodespace != null ? "GMLID_CODESPACE, " : "").append("NAME, NAME_CODESPACE, DESCRIPTION, THEME, CITYMODEL_ID, CITYOBJECT_ID) values ")
 		.append("(?, ?, ").append(gmlIdCodespace != null ? gmlIdCodespace : "").append("?, ?, ?, ?, ?, ?)");
-		psAppearance = batchConn.prepareStatement(stmt.toString());
+		psAppearance = dbImporterManager.prepareInsertStatement(stmt.toString());
 
 		surfaceDataImporter = (DBSurfaceData)dbImporterManager.getDBImporter(DBImporterEnum.SURFACE_DATA);
 	}
@@ -156,7 +156,7 @@ public class DBAppearance implements DBImporter {
 		}
 
 		psAppearance.addBatch();
-		if (++batchCounter == dbImporterManager.getDatabaseAdapter().getMaxBatchSize())
+		if (++batchCounter >= dbImporterManager.getBatchSize(DBImporterEnum.APPEARANCE))
 			dbImporterManager.executeBatch(DBImporterEnum.APPEARANCE);
 
 		// surfaceData members
@@ -211,6 +211,11 @@ public class DBAppearance implements DBImporter {
 		psAppearance.close();
 	}
 
+	@Override
+	public int getBatchCounter() {
+		return batchCounter;
+	}
+
 	@Override
 	public DBImporterEnum getDBImporterType() {
 		return DBImporterEnum.APPEARANCE;
@@ -0,0 +1,158 @@
+/*
+ * 3D City Database - The Open Source CityGML Database
+ * http://www.3dcitydb.org/
+ * 
+ * Copyright 2013 - 2016
+ * Chair of Geoinformatics
+ * Technical University of Munich, Germany
+ * https://www.gis.bgu.tum.de/
+ * 
+ * The 3D City Database is jointly developed with the following
+ * cooperation partners:
+ * 
+ * virtualcitySYSTEMS GmbH, Berlin <http://www.virtualcitysystems.de/>
+ * M.O.S.S. Computer Grafik Systeme GmbH, Taufkirchen <http://www.moss.de/>
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *     
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.citydb.modules.citygml.importer.database.content;
+
+import java.util.EnumMap;
+
+public class DBBatchSizer {
+	// batch sizes are tuned per importer by comparing the throughput of
+	// consecutive measurement windows. the batch size keeps moving in the same
+	// direction as long as the throughput does not drop, and is only increased
+	// if the current size actually limited the batches of the window.
+	private static final int INITIAL_BATCH_SIZE = 1000;
+	private static final int MIN_BATCH_SIZE = 50;
+	private static final int WINDOW_SIZE = 8;
+	private static final double THROUGHPUT_TOLERANCE = 0.95;
+
+	private final int maxBatchSize;
+	private final EnumMap<DBImporterEnum, BatchStatistics> statisticsMap;
+
+	public DBBatchSizer(int maxBatchSize) {
+		this.maxBatchSize = Math.max(maxBatchSize, 1);
+		statisticsMap = new EnumMap<DBImporterEnum, BatchStatistics>(DBImporterEnum.class);
+	}
+
+	public int getBatchSize(DBImporterEnum type) {
+		BatchStatistics statistics = statisticsMap.get(type);
+		return statistics != null ? statistics.batchSize : Math.min(INITIAL_BATCH_SIZE, maxBatchSize);
+	}
+
+	public void update(DBImporterEnum type, int rows, long nanos) {
+		if (rows <= 0)
+			return;
+
+		BatchStatistics statistics = statisticsMap.get(type);
+		if (statistics == null) {
+			statistics = new BatchStatistics(Math.min(INITIAL_BATCH_SIZE, maxBatchSize));
+			statisticsMap.put(type, statistics);
+		}
+
+		statistics.rows += rows;
+		statistics.nanos += nanos;
+		statistics.batches++;
+
+		statistics.windowRows += rows;
+		statistics.windowNanos += nanos;
+		if (rows >= statistics.batchSize)
+			statistics.isWindowSaturated = true;
+
+		if (++statistics.windowBatches == WINDOW_SIZE) {
+			double throughput = statistics.windowRows / (double)Math.max(statistics.windowNanos, 1);
+			if (statistics.lastThroughput > 0 && throughput < statistics.lastThroughput * THROUGHPUT_TOLERANCE)
+				statistics.direction = -statistics.direction;
+
+			if (statistics.direction < 0)
+				statistics.batchSize = Math.max(statistics.batchSize >> 1, Math.min(MIN_BATCH_SIZE, maxBatchSize));
+			else if (statistics.isWindowSaturated)
+				statistics.batchSize = (int)Math.min((long)statistics.batchSize << 1, maxBatchSize);
+
+			statistics.lastThroughput = throughput;
+			statistics.windowRows = 0;
+			statistics.windowNanos = 0;
+			statistics.windowBatches = 0;
+			statistics.isWindowSaturated = false;
+		}
+	}
+
+	public EnumMap<DBImporterEnum, BatchStatistics> getStatistics() {
+		EnumMap<DBImporterEnum, BatchStatistics> tmp = new EnumMap<DBImporterEnum, BatchStatistics>(DBImporterEnum.class);
+		for (DBImporterEnum type : statisticsMap.keySet())
+			tmp.put(type, new BatchStatistics(statisticsMap.get(type)));
+
+		return tmp;
+	}
+
+	public static final class BatchStatistics {
+		private int batchSize;
+		private int minBatchSize;
+		private int maxBatchSize;
+		private long rows;
+		private long nanos;
+		private long batches;
+
+		private int direction = 1;
+		private double lastThroughput;
+		private long windowRows;
+		private long windowNanos;
+		private int windowBatches;
+		private boolean isWindowSaturated;
+
+		private BatchStatistics(int batchSize) {
+			this.batchSize = batchSize;
+		}
+
+		private BatchStatistics(BatchStatistics other) {
+			batchSize = minBatchSize = maxBatchSize = other.batchSize;
+			rows = other.rows;
+			nanos = other.nanos;
+			batches = other.batches;
+		}
+
+		public void merge(BatchStatistics other) {
+			minBatchSize = Math.min(minBatchSize, other.minBatchSize);
+			maxBatchSize = Math.max(maxBatchSize, other.maxBatchSize);
+			rows += other.rows;
+			nanos += other.nanos;
+			batches += other.batches;
+		}
+
+		public int getMinBatchSize() {
+			return minBatchSize;
+		}
+
+		public int getMaxBatchSize() {
+			return maxBatchSize;
+		}
+
+		public long getRows() {
+			return rows;
+		}
+
+		public long getBatches() {
+			return batches;
+		}
+
+		public double getAverageLatency() {
+			return batches > 0 ? nanos / 1e6 / batches : 0;
+		}
+
+		public double getThroughput() {
+			return nanos > 0 ? rows * 1e9 / nanos : 0;
+		}
+	}
+}
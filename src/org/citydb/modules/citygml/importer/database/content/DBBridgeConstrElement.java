@@ -87,7 +87,7 @@ public class DBBridgeConstrElement implements DBImporter {
 		.append("LOD1_IMPLICIT_REF_POINT, LOD2_IMPLICIT_REF_POINT, LOD3_IMPLICIT_REF_POINT, LOD4_IMPLICIT_REF_POINT, ")
 		.append("LOD1_IMPLICIT_TRANSFORMATION, LOD2_IMPLICIT_TRANSFORMATION, LOD3_IMPLICIT_TRANSFORMATION, LOD4_IMPLICIT_TRANSFORMATION) values ")
 		.append("(?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)");
-		psBridgeConstruction = batchConn.prepareStatement(stmt.toString());
+		psBridgeConstruction = dbImporterManager.prepareInsertStatement(stmt.toString());
 
 		surfaceGeometryImporter = (DBSurfaceGeometry)dbImporterManager.getDBImporter(DBImporterEnum.SURFACE_GEOMETRY);
 		otherGeometryImporter = (DBOtherGeometry)dbImporterManager.getDBImporter(DBImporterEnum.OTHER_GEOMETRY);
@@ -298,7 +298,7 @@ public class DBBridgeConstrElement implements DBImporter {
 		}
 
 		psBridgeConstruction.addBatch();
-		if (++batchCounter == dbImporterManager.getDatabaseAdapter().getMaxBatchSize())
+		if (++batchCounter >= dbImporterManager.getBatchSize(DBImporterEnum.BRIDGE_CONSTR_ELEMENT))
 			dbImporterManager.executeBatch(DBImporterEnum.BRIDGE_CONSTR_ELEMENT);
 
 		// BoundarySurfaces
@@ -352,6 +352,11 @@ public class DBBridgeConstrElement implements DBImporter {
 		psBridgeConstruction.close();
 	}
 
+	@Override
+	public int getBatchCounter() {
+		return batchCounter;
+	}
+
 	@Override
 	public DBImporterEnum getDBImporterType() {
 		return DBImporterEnum.BRIDGE_CONSTR_ELEMENT;
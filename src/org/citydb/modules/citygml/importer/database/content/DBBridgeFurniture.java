@@ -75,7 +75,7 @@ public class DBBridgeFurniture implements DBImporter {
 		.append("LOD4_BREP_ID, LOD4_OTHER_GEOM, ")
 		.append("LOD4_IMPLICIT_REP_ID, LOD4_IMPLICIT_REF_POINT, LOD4_IMPLICIT_TRANSFORMATION) values ")
 		.append("(?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)");
-		psBridgeFurniture = batchConn.prepareStatement(stmt.toString());
+		psBridgeFurniture = dbImporterManager.prepareInsertStatement(stmt.toString());
 
 		surfaceGeometryImporter = (DBSurfaceGeometry)dbImporterManager.getDBImporter(DBImporterEnum.SURFACE_GEOMETRY);
 		otherGeometryImporter = (DBOtherGeometry)dbImporterManager.getDBImporter(DBImporterEnum.OTHER_GEOMETRY);
@@ -223,7 +223,7 @@ public class DBBridgeFurniture implements DBImporter {
 			psBridgeFurniture.setNull(13, Types.VARCHAR);
 
 		psBridgeFurniture.addBatch();
-		if (++batchCounter == dbImporterManager.getDatabaseAdapter().getMaxBatchSize())
+		if (++batchCounter >= dbImporterManager.getBatchSize(DBImporterEnum.BRIDGE_FURNITURE))
 			dbImporterManager.executeBatch(DBImporterEnum.BRIDGE_FURNITURE);
 
 		// insert local appearance
@@ -243,6 +243,11 @@ public class DBBridgeFurniture implements DBImporter {
 		psBridgeFurniture.close();
 	}
 
+	@Override
+	public int getBatchCounter() {
+		return batchCounter;
+	}
+
 	@Override
 	public DBImporterEnum getDBImporterType() {
 		return DBImporterEnum.BRIDGE_FURNITURE;
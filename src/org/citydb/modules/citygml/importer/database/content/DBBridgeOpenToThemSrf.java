@@ -46,7 +46,7 @@ public class DBBridgeOpenToThemSrf implements DBImporter {
 	}
 
 	private void init() throws SQLException {
-		psBridgeOpenToThemSrf = batchConn.prepareStatement("insert into BRIDGE_OPEN_TO_THEM_SRF (BRIDGE_OPENING_ID, BRIDGE_THEMATIC_SURFACE_ID) values (?, ?)");
+		psBridgeOpenToThemSrf = dbImporterManager.prepareInsertStatement("insert into BRIDGE_OPEN_TO_THEM_SRF (BRIDGE_OPENING_ID, BRIDGE_THEMATIC_SURFACE_ID) values (?, ?)");
 	}
 
 	public void insert(long openingId, long thematicSurfaceId) throws SQLException {
@@ -54,7 +54,7 @@ public class DBBridgeOpenToThemSrf implements DBImporter {
         psBridgeOpenToThemSrf.setLong(2, thematicSurfaceId);
 
         psBridgeOpenToThemSrf.addBatch();
-        if (++batchCounter == dbImporterManager.getDatabaseAdapter().getMaxBatchSize())
+        if (++batchCounter >= dbImporterManager.getBatchSize(DBImporterEnum.BRIDGE_OPEN_TO_THEM_SRF))
 			dbImporterManager.executeBatch(DBImporterEnum.BRIDGE_OPEN_TO_THEM_SRF);
 	}
 
@@ -69,6 +69,11 @@ public class DBBridgeOpenToThemSrf implements DBImporter {
 		psBridgeOpenToThemSrf.close();
 	}
 
+	@Override
+	public int getBatchCounter() {
+		return batchCounter;
+	}
+
 	@Override
 	public DBImporterEnum getDBImporterType() {
 		return DBImporterEnum.BRIDGE_OPEN_TO_THEM_SRF;
@@ -74,7 +74,7 @@ public class DBBridgeRoom implements DBImporter {
 		.append("insert into BRIDGE_ROOM (ID, CLASS, CLASS_CODESPACE, FUNCTION, FUNCTION_CODESPACE, USAGE, USAGE_CODESPACE, BRIDGE_ID, ")
 		.append("LOD4_MULTI_SURFACE_ID, LOD4_SOLID_ID) values ")
 		.append("(?, ?, ?, ?, ?, ?, ?, ?, ?, ?)");
-		psRoom = batchConn.prepareStatement(stmt.toString());
+		psRoom = dbImporterManager.prepareInsertStatement(stmt.toString());
 
 		surfaceGeometryImporter = (DBSurfaceGeometry)dbImporterManager.getDBImporter(DBImporterEnum.SURFACE_GEOMETRY);
 		cityObjectImporter = (DBCityObject)dbImporterManager.getDBImporter(DBImporterEnum.CITYOBJECT);
@@ -185,7 +185,7 @@ public class DBBridgeRoom implements DBImporter {
 			psRoom.setNull(10, Types.NULL);
 
 		psRoom.addBatch();
-		if (++batchCounter == dbImporterManager.getDatabaseAdapter().getMaxBatchSize())
+		if (++batchCounter >= dbImporterManager.getBatchSize(DBImporterEnum.BRIDGE_ROOM))
 			dbImporterManager.executeBatch(DBImporterEnum.BRIDGE_ROOM);
 
 		// BoundarySurfaces
@@ -307,6 +307,11 @@ public class DBBridgeRoom implements DBImporter {
 		psRoom.close();
 	}
 
+	@Override
+	public int getBatchCounter() {
+		return batchCounter;
+	}
+
 	@Override
 	public DBImporterEnum getDBImporterType() {
 		return DBImporterEnum.BRIDGE_ROOM;
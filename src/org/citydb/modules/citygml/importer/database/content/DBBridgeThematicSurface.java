@@ -68,7 +68,7 @@ public class DBBridgeThematicSurface implements DBImporter {
 		.append("insert into BRIDGE_THEMATIC_SURFACE (ID, OBJECTCLASS_ID, BRIDGE_ID, BRIDGE_ROOM_ID, BRIDGE_INSTALLATION_ID, BRIDGE_CONSTR_ELEMENT_ID, ")
 		.append("LOD2_MULTI_SURFACE_ID, LOD3_MULTI_SURFACE_ID, LOD4_MULTI_SURFACE_ID) values ")
 		.append("(?, ?, ?, ?, ?, ?, ?, ?, ?)");
-		psThematicSurface = batchConn.prepareStatement(stmt.toString());
+		psThematicSurface = dbImporterManager.prepareInsertStatement(stmt.toString());
 
 		surfaceGeometryImporter = (DBSurfaceGeometry)dbImporterManager.getDBImporter(DBImporterEnum.SURFACE_GEOMETRY);
 		cityObjectImporter = (DBCityObject)dbImporterManager.getDBImporter(DBImporterEnum.CITYOBJECT);
@@ -169,7 +169,7 @@ public class DBBridgeThematicSurface implements DBImporter {
 		}
 
 		psThematicSurface.addBatch();
-		if (++batchCounter == dbImporterManager.getDatabaseAdapter().getMaxBatchSize())
+		if (++batchCounter >= dbImporterManager.getBatchSize(DBImporterEnum.BRIDGE_THEMATIC_SURFACE))
 			dbImporterManager.executeBatch(DBImporterEnum.BRIDGE_THEMATIC_SURFACE);
 
 		// Openings
@@ -227,6 +227,11 @@ public class DBBridgeThematicSurface implements DBImporter {
 		psThematicSurface.close();
 	}
 
+	@Override
+	public int getBatchCounter() {
+		return batchCounter;
+	}
+
 	@Override
 	public DBImporterEnum getDBImporterType() {
 		return DBImporterEnum.BRIDGE_THEMATIC_SURFACE;
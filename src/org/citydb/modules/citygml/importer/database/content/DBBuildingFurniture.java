@@ -75,7 +75,7 @@ public class DBBuildingFurniture implements DBImporter {
 		.append("LOD4_BREP_ID, LOD4_OTHER_GEOM, ")
 		.append("LOD4_IMPLICIT_REP_ID, LOD4_IMPLICIT_REF_POINT, LOD4_IMPLICIT_TRANSFORMATION) values ")
 		.append("(?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)");
-		psBuildingFurniture = batchConn.prepareStatement(stmt.toString());
+		psBuildingFurniture = dbImporterManager.prepareInsertStatement(stmt.toString());
 
 		surfaceGeometryImporter = (DBSurfaceGeometry)dbImporterManager.getDBImporter(DBImporterEnum.SURFACE_GEOMETRY);
 		otherGeometryImporter = (DBOtherGeometry)dbImporterManager.getDBImporter(DBImporterEnum.OTHER_GEOMETRY);
@@ -223,7 +223,7 @@ public class DBBuildingFurniture implements DBImporter {
 			psBuildingFurniture.setNull(13, Types.VARCHAR);
 
 		psBuildingFurniture.addBatch();
-		if (++batchCounter == dbImporterManager.getDatabaseAdapter().getMaxBatchSize())
+		if (++batchCounter >= dbImporterManager.getBatchSize(DBImporterEnum.BUILDING_FURNITURE))
 			dbImporterManager.executeBatch(DBImporterEnum.BUILDING_FURNITURE);
 
 		// insert local appearance
@@ -243,6 +243,11 @@ public class DBBuildingFurniture implements DBImporter {
 		psBuildingFurniture.close();
 	}
 
+	@Override
+	public int getBatchCounter() {
+		return batchCounter;
+	}
+
 	@Override
 	public DBImporterEnum getDBImporterType() {
 		return DBImporterEnum.BUILDING_FURNITURE;
@@ -86,7 +86,7 @@ public class DBBuildingInstallation implements DBImporter {
 		.append("LOD2_IMPLICIT_REF_POINT, LOD3_IMPLICIT_REF_POINT, LOD4_IMPLICIT_REF_POINT, ")
 		.append("LOD2_IMPLICIT_TRANSFORMATION, LOD3_IMPLICIT_TRANSFORMATION, LOD4_IMPLICIT_TRANSFORMATION) values ")
 		.append("(?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)");
-		psBuildingInstallation = batchConn.prepareStatement(stmt.toString());
+		psBuildingInstallation = dbImporterManager.prepareInsertStatement(stmt.toString());
 
 		surfaceGeometryImporter = (DBSurfaceGeometry)dbImporterManager.getDBImporter(DBImporterEnum.SURFACE_GEOMETRY);
 		otherGeometryImporter = (DBOtherGeometry)dbImporterManager.getDBImporter(DBImporterEnum.OTHER_GEOMETRY);
@@ -274,7 +274,7 @@ public class DBBuildingInstallation implements DBImporter {
 		}
 
 		psBuildingInstallation.addBatch();
-		if (++batchCounter == dbImporterManager.getDatabaseAdapter().getMaxBatchSize())
+		if (++batchCounter >= dbImporterManager.getBatchSize(DBImporterEnum.BUILDING_INSTALLATION))
 			dbImporterManager.executeBatch(DBImporterEnum.BUILDING_INSTALLATION);
 
 		// BoundarySurfaces
@@ -482,7 +482,7 @@ public class DBBuildingInstallation implements DBImporter {
 			psBuildingInstallation.setNull(25, Types.VARCHAR);
 
 		psBuildingInstallation.addBatch();
-		if (++batchCounter == dbImporterManager.getDatabaseAdapter().getMaxBatchSize())
+		if (++batchCounter >= dbImporterManager.getBatchSize(DBImporterEnum.BUILDING_INSTALLATION))
 			dbImporterManager.executeBatch(DBImporterEnum.BUILDING_INSTALLATION);
 
 		// BoundarySurfaces
@@ -536,6 +536,11 @@ public class DBBuildingInstallation implements DBImporter {
 		psBuildingInstallation.close();
 	}
 
+	@Override
+	public int getBatchCounter() {
+		return batchCounter;
+	}
+
 	@Override
 	public DBImporterEnum getDBImporterType() {
 		return DBImporterEnum.BUILDING_INSTALLATION;
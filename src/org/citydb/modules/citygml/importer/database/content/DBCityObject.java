@@ -88,7 +88,7 @@ public class DBCityObject implements DBImporter {
 		this.batchConn = batchConn;
 		this.dbImporterManager = dbImporterManager;
 
-		gmlIdCodespace = config.getInternal().getCurrentGmlIdCodespace();
+		gmlIdCodespace = dbImporterManager.getImportFileContext().getGmlIdCodespace();
 		replaceGmlId = config.getProject().getImporter().getGmlId().isUUIDModeReplace();
 		rememberGmlId = config.getProject().getImporter().getGmlId().isSetKeepGmlIdAsExternalReference();
 		affineTransformation = config.getProject().getImporter().getAffineTransformation().isSetUseAffineTransformation();
@@ -105,7 +105,7 @@ public class DBCityObject implements DBImporter {
 			gmlIdCodespace = null;
 		
 		if (replaceGmlId && rememberGmlId)
-			importFileName = config.getInternal().getCurrentImportFile().getAbsolutePath();
+			importFileName = dbImporterManager.getImportFileContext().getFile().getAbsolutePath();
 
 		if (config.getProject().getImporter().getContinuation().isUpdatingPersonModeDatabase())
 			updatingPerson = config.getProject().getDatabase().getActiveConnection().getUser();
@@ -138,7 +138,7 @@ public class DBCityObject implements DBImporter {
 		.append(updatingPerson).append(", ")
 		.append(reasonForUpdate).append(", ")
 		.append(lineage).append(", null)");
-		psCityObject = batchConn.prepareStatement(stmt.toString());
+		psCityObject = dbImporterManager.prepareInsertStatement(stmt.toString());
 
 		genericAttributeImporter = (DBCityObjectGenericAttrib)dbImporterManager.getDBImporter(DBImporterEnum.CITYOBJECT_GENERICATTRIB);
 		externalReferenceImporter = (DBExternalReference)dbImporterManager.getDBImporter(DBImporterEnum.EXTERNAL_REFERENCE);
@@ -319,7 +319,7 @@ public class DBCityObject implements DBImporter {
 		}
 
 		psCityObject.addBatch();
-		if (++batchCounter == dbImporterManager.getDatabaseAdapter().getMaxBatchSize())
+		if (++batchCounter >= dbImporterManager.getBatchSize(DBImporterEnum.CITYOBJECT))
 			dbImporterManager.executeBatch(DBImporterEnum.CITYOBJECT);
 
 		// genericAttributes
@@ -421,6 +421,11 @@ public class DBCityObject implements DBImporter {
 		psCityObject.close();
 	}
 
+	@Override
+	public int getBatchCounter() {
+		return batchCounter;
+	}
+
 	@Override
 	public DBImporterEnum getDBImporterType() {
 		return DBImporterEnum.CITYOBJECT;
@@ -64,15 +64,15 @@ public class DBCityObjectGenericAttrib implements DBImporter {
 		StringBuilder stmt = new StringBuilder()
 		.append("insert into CITYOBJECT_GENERICATTRIB (ID, PARENT_GENATTRIB_ID, ROOT_GENATTRIB_ID, ATTRNAME, DATATYPE, GENATTRIBSET_CODESPACE, CITYOBJECT_ID) values ")
 		.append("(?, ?, ?, ?, ?, ?, ?)");
-		psGenericAttributeSet = batchConn.prepareStatement(stmt.toString());		
+		psGenericAttributeSet = dbImporterManager.prepareInsertStatement(stmt.toString());		
 
 		stmt = new StringBuilder()
 		.append("insert into CITYOBJECT_GENERICATTRIB (ID, ATTRNAME, DATATYPE, STRVAL, INTVAL, REALVAL, URIVAL, DATEVAL, UNIT, GEOMVAL, CITYOBJECT_ID, PARENT_GENATTRIB_ID, ROOT_GENATTRIB_ID) values ")
 		.append("(").append(dbImporterManager.getDatabaseAdapter().getSQLAdapter().getNextSequenceValue(DBSequencerEnum.CITYOBJECT_GENERICATTRIB_ID_SEQ))
 		.append(", ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ");
 		
-		psGenericAttributeMember = batchConn.prepareStatement(new StringBuilder(stmt).append("?, ?)").toString());		
-		psAtomicGenericAttribute = batchConn.prepareStatement(new StringBuilder(stmt).append("null, ")
+		psGenericAttributeMember = dbImporterManager.prepareInsertStatement(new StringBuilder(stmt).append("?, ?)").toString());		
+		psAtomicGenericAttribute = dbImporterManager.prepareInsertStatement(new StringBuilder(stmt).append("null, ")
 		.append(dbImporterManager.getDatabaseAdapter().getSQLAdapter().getCurrentSequenceValue(DBSequencerEnum.CITYOBJECT_GENERICATTRIB_ID_SEQ)).append(")").toString());
 	}
 
@@ -111,7 +111,7 @@ public class DBCityObjectGenericAttrib implements DBImporter {
 				psGenericAttributeSet.setNull(2, Types.NULL);
 			
 			psGenericAttributeSet.addBatch();
-			if (++batchCounter == dbImporterManager.getDatabaseAdapter().getMaxBatchSize())
+			if (++batchCounter >= dbImporterManager.getBatchSize(DBImporterEnum.CITYOBJECT_GENERICATTRIB))
 				dbImporterManager.executeBatch(DBImporterEnum.CITYOBJECT_GENERICATTRIB);
 			
 			// insert members of the attribute set
@@ -230,7 +230,7 @@ public class DBCityObjectGenericAttrib implements DBImporter {
 			}
 
 			ps.addBatch();
-			if (++batchCounter == dbImporterManager.getDatabaseAdapter().getMaxBatchSize())
+			if (++batchCounter >= dbImporterManager.getBatchSize(DBImporterEnum.CITYOBJECT_GENERICATTRIB))
 				dbImporterManager.executeBatch(DBImporterEnum.CITYOBJECT_GENERICATTRIB);
 		}
 	}
@@ -251,7 +251,7 @@ public class DBCityObjectGenericAttrib implements DBImporter {
 		psAtomicGenericAttribute.setLong(10, cityObjectId);
 
 		psAtomicGenericAttribute.addBatch();
-		if (++batchCounter == dbImporterManager.getDatabaseAdapter().getMaxBatchSize())
+		if (++batchCounter >= dbImporterManager.getBatchSize(DBImporterEnum.CITYOBJECT_GENERICATTRIB))
 			dbImporterManager.executeBatch(DBImporterEnum.CITYOBJECT_GENERICATTRIB);
 	}
 
@@ -270,6 +270,11 @@ public class DBCityObjectGenericAttrib implements DBImporter {
 		psGenericAttributeMember.close();
 	}
 
+	@Override
+	public int getBatchCounter() {
+		return batchCounter;
+	}
+
 	@Override
 	public DBImporterEnum getDBImporterType() {
 		return DBImporterEnum.CITYOBJECT_GENERICATTRIB;
@@ -69,7 +69,7 @@ public class DBCityObjectGroup implements DBImporter {
 		.append("insert into CITYOBJECTGROUP (ID, CLASS, CLASS_CODESPACE, FUNCTION, FUNCTION_CODESPACE, USAGE, USAGE_CODESPACE, ")
 		.append("BREP_ID, OTHER_GEOM, PARENT_CITYOBJECT_ID) values ")
 		.append("(?, ?, ?, ?, ?, ?, ?, ?, ?, ?)");
-		psCityObjectGroup = batchConn.prepareStatement(stmt.toString());
+		psCityObjectGroup = dbImporterManager.prepareInsertStatement(stmt.toString());
 
 		surfaceGeometryImporter = (DBSurfaceGeometry)dbImporterManager.getDBImporter(DBImporterEnum.SURFACE_GEOMETRY);
 		cityObjectImporter = (DBCityObject)dbImporterManager.getDBImporter(DBImporterEnum.CITYOBJECT);
@@ -182,7 +182,7 @@ public class DBCityObjectGroup implements DBImporter {
 		psCityObjectGroup.setNull(10, Types.NULL);
 
 		psCityObjectGroup.addBatch();
-		if (++batchCounter == dbImporterManager.getDatabaseAdapter().getMaxBatchSize())
+		if (++batchCounter >= dbImporterManager.getBatchSize(DBImporterEnum.CITYOBJECTGROUP))
 			dbImporterManager.executeBatch(DBImporterEnum.CITYOBJECTGROUP);		
 
 		// group parent
@@ -251,6 +251,11 @@ public class DBCityObjectGroup implements DBImporter {
 		psCityObjectGroup.close();
 	}
 
+	@Override
+	public int getBatchCounter() {
+		return batchCounter;
+	}
+
 	@Override
 	public DBImporterEnum getDBImporterType() {
 		return DBImporterEnum.CITYOBJECTGROUP;
@@ -290,6 +290,11 @@ public class DBDeprecatedMaterialModel implements DBImporter {
 		// nothing to do here
 	}
 
+	@Override
+	public int getBatchCounter() {
+		return 0;
+	}
+
 	@Override
 	public DBImporterEnum getDBImporterType() {
 		return DBImporterEnum.DEPRECATED_MATERIAL_MODEL;
@@ -54,7 +54,7 @@ public class DBExternalReference implements DBImporter {
 		.append("insert into EXTERNAL_REFERENCE (ID, INFOSYS, NAME, URI, CITYOBJECT_ID) values ")
 		.append("(").append(dbImporterManager.getDatabaseAdapter().getSQLAdapter().getNextSequenceValue(DBSequencerEnum.EXTERNAL_REFERENCE_ID_SEQ))
 		.append(", ?, ?, ?, ?)");
-		psExternalReference = batchConn.prepareStatement(stmt.toString());
+		psExternalReference = dbImporterManager.prepareInsertStatement(stmt.toString());
 	}
 
 	public void insert(ExternalReference externalReference, long cityObjectId) throws SQLException {
@@ -91,7 +91,7 @@ public class DBExternalReference implements DBImporter {
 		psExternalReference.setLong(4, cityObjectId);
 
 		psExternalReference.addBatch();
-		if (++batchCounter == dbImporterManager.getDatabaseAdapter().getMaxBatchSize())
+		if (++batchCounter >= dbImporterManager.getBatchSize(DBImporterEnum.EXTERNAL_REFERENCE))
 			dbImporterManager.executeBatch(DBImporterEnum.EXTERNAL_REFERENCE);
 	}
 
@@ -106,6 +106,11 @@ public class DBExternalReference implements DBImporter {
 		psExternalReference.close();
 	}
 
+	@Override
+	public int getBatchCounter() {
+		return batchCounter;
+	}
+
 	@Override
 	public DBImporterEnum getDBImporterType() {
 		return DBImporterEnum.EXTERNAL_REFERENCE;
@@ -70,7 +70,7 @@ public class DBImplicitGeometry implements DBImporter {
 	}
 
 	private void init() throws SQLException {
-		psImplicitGeometry = batchConn.prepareStatement("insert into IMPLICIT_GEOMETRY (ID, REFERENCE_TO_LIBRARY) values (?, ?)");
+		psImplicitGeometry = dbImporterManager.prepareInsertStatement("insert into IMPLICIT_GEOMETRY (ID, REFERENCE_TO_LIBRARY) values (?, ?)");
 		psUpdateImplicitGeometry = batchConn.prepareStatement("update IMPLICIT_GEOMETRY set MIME_TYPE=?, RELATIVE_BREP_ID=?, RELATIVE_OTHER_GEOM=? where ID=?");
 		psSelectLibraryObject = batchConn.prepareStatement("select ID from IMPLICIT_GEOMETRY where REFERENCE_TO_LIBRARY=?");
 
@@ -159,7 +159,7 @@ public class DBImplicitGeometry implements DBImporter {
 					// propagate the link to the library object
 					dbImporterManager.propagateXlink(new DBXlinkLibraryObject(
 							implicitGeometryId,
-							libraryURI
+							dbImporterManager.getImportFileContext().resolveFileURI(libraryURI)
 							));
 				} else
 					psUpdateImplicitGeometry.setNull(1, Types.VARCHAR);
@@ -247,6 +247,11 @@ public class DBImplicitGeometry implements DBImporter {
 		lockManager.clear();
 	}
 
+	@Override
+	public int getBatchCounter() {
+		return batchCounter;
+	}
+
 	@Override
 	public DBImporterEnum getDBImporterType() {
 		return DBImporterEnum.IMPLICIT_GEOMETRY;
@@ -32,5 +32,6 @@ import java.sql.SQLException;
 public interface DBImporter {
 	public void executeBatch() throws SQLException;
 	public void close() throws SQLException;
+	public int getBatchCounter();
 	public DBImporterEnum getDBImporterType();
 }
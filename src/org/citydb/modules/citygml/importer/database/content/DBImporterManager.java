@@ -30,8 +30,10 @@ package org.citydb.modules.citygml.importer.database.content;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.List;
 
@@ -49,6 +51,7 @@ import org.citydb.modules.citygml.common.database.uid.UIDCacheEntry;
 import org.citydb.modules.citygml.common.database.uid.UIDCacheManager;
 import org.citydb.modules.citygml.common.database.xlink.DBXlink;
 import org.citydb.modules.citygml.importer.util.AffineTransformer;
+import org.citydb.modules.citygml.importer.util.ImportFileContext;
 import org.citydb.modules.citygml.importer.util.ImportLogger.ImportLogEntry;
 import org.citydb.modules.citygml.importer.util.LocalTextureCoordinatesResolver;
 import org.citygml4j.builder.jaxb.JAXBBuilder;
@@ -67,6 +70,7 @@ public class DBImporterManager {
 	private final JAXBBuilder jaxbBuilder;
 	private final WorkerPool<DBXlink> tmpXlinkPool;
 	private final UIDCacheManager uidCacheManager;
+	private final ImportFileContext importFileContext;
 	private final EventDispatcher eventDipatcher;
 	private final Config config;
 
@@ -75,6 +79,7 @@ public class DBImporterManager {
 	private final HashMap<GMLClass, Long> geometryCounterMap;
 	private final List<ImportLogEntry> importedFeatures;
 	private final DBSequencer dbSequencer;
+	private final DBBatchSizer dbBatchSizer;
 
 	private AffineTransformer affineTransformer;
 	private LocalTextureCoordinatesResolver localTexCoordResolver;
@@ -82,6 +87,7 @@ public class DBImporterManager {
 	private JAXBMarshaller jaxbMarshaller;
 	private SAXWriter saxWriter;
 	private boolean isLogImportedFeatures;
+	private boolean useBulkLoad;
 
 	public DBImporterManager(Connection batchConn,
 			AbstractDatabaseAdapter databaseAdapter,
@@ -89,6 +95,7 @@ public class DBImporterManager {
 			Config config,
 			WorkerPool<DBXlink> tmpXlinkPool,
 			UIDCacheManager uidCacheManager,
+			ImportFileContext importFileContext,
 			EventDispatcher eventDipatcher) throws SQLException {
 		this.batchConn = batchConn;
 		this.databaseAdapter = databaseAdapter;
@@ -96,13 +103,15 @@ public class DBImporterManager {
 		this.config = config;
 		this.uidCacheManager = uidCacheManager;
 		this.tmpXlinkPool = tmpXlinkPool;
+		this.importFileContext = importFileContext;
 		this.eventDipatcher = eventDipatcher;
 
 		dbImporterMap = new HashMap<DBImporterEnum, DBImporter>();
 		featureCounterMap = new HashMap<CityGMLClass, Long>();
 		geometryCounterMap = new HashMap<GMLClass, Long>();
 		importedFeatures = new ArrayList<ImportLogEntry>();
-		dbSequencer = new DBSequencer(batchConn, databaseAdapter);
+		dbSequencer = new DBSequencer(batchConn, databaseAdapter, config.getProject().getDatabase().getUpdateBatching().getSequenceBatchValue());
+		dbBatchSizer = new DBBatchSizer(databaseAdapter.getMaxBatchSize());
 
 		if (config.getProject().getImporter().getAffineTransformation().isSetUseAffineTransformation())
 			affineTransformer = config.getInternal().getAffineTransformer();
@@ -117,6 +126,7 @@ public class DBImporterManager {
 		}
 		
 		isLogImportedFeatures = config.getProject().getImporter().getImportLog().isSetLogImportedFeatures();
+		useBulkLoad = config.getProject().getImporter().getBulkLoad().isSetUseBulkLoad();
 	}
 
 	public DBImporter getDBImporter(DBImporterEnum dbImporterType) throws SQLException {
@@ -287,6 +297,21 @@ public class DBImporterManager {
 		return dbImporter;
 	}
 
+	public PreparedStatement prepareInsertStatement(String insertStatement) throws SQLException {
+		if (useBulkLoad)
+			return databaseAdapter.getSQLAdapter().prepareBulkLoadStatement(batchConn, insertStatement);
+		else
+			return batchConn.prepareStatement(insertStatement);
+	}
+
+	public int getBatchSize(DBImporterEnum type) {
+		return dbBatchSizer.getBatchSize(type);
+	}
+
+	public EnumMap<DBImporterEnum, DBBatchSizer.BatchStatistics> getBatchStatistics() {
+		return dbBatchSizer.getStatistics();
+	}
+
 	public long getDBId(DBSequencerEnum sequence) throws SQLException {
 		return dbSequencer.getDBId(sequence);
 	}
@@ -342,6 +367,10 @@ public class DBImporterManager {
 		eventDipatcher.triggerEvent(event);
 	}
 
+	public ImportFileContext getImportFileContext() {
+		return importFileContext;
+	}
+
 	public AffineTransformer getAffineTransformer() {
 		return affineTransformer;
 	}
@@ -425,7 +454,7 @@ public class DBImporterManager {
 		for (DBImporterEnum key : DBImporterEnum.getExecutionPlan(type)) {
 			DBImporter importer = dbImporterMap.get(key);
 			if (importer != null)
-				importer.executeBatch();
+				executeBatch(importer);
 		}
 	}
 
@@ -433,10 +462,19 @@ public class DBImporterManager {
 		for (DBImporterEnum key : DBImporterEnum.EXECUTION_PLAN) {
 			DBImporter importer = dbImporterMap.get(key);
 			if (importer != null)
-				importer.executeBatch();
+				executeBatch(importer);
 		}
 	}
 
+	private void executeBatch(DBImporter importer) throws SQLException {
+		int rows = importer.getBatchCounter();
+		long start = System.nanoTime();
+		importer.executeBatch();
+
+		// measure the batch to tune the batch size of the importer
+		dbBatchSizer.update(importer.getDBImporterType(), rows, System.nanoTime() - start);
+	}
+
 	public AbstractDatabaseAdapter getDatabaseAdapter() {
 		return databaseAdapter;
 	}
@@ -60,7 +60,7 @@ public class DBLandUse implements DBImporter {
 		.append("insert into LAND_USE (ID, CLASS, CLASS_CODESPACE, FUNCTION, FUNCTION_CODESPACE, USAGE, USAGE_CODESPACE, ")
 		.append("LOD0_MULTI_SURFACE_ID, LOD1_MULTI_SURFACE_ID, LOD2_MULTI_SURFACE_ID, LOD3_MULTI_SURFACE_ID, LOD4_MULTI_SURFACE_ID) values ")
 		.append("(?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)");
-		psLandUse = batchConn.prepareStatement(stmt.toString());
+		psLandUse = dbImporterManager.prepareInsertStatement(stmt.toString());
 
 		surfaceGeometryImporter = (DBSurfaceGeometry)dbImporterManager.getDBImporter(DBImporterEnum.SURFACE_GEOMETRY);
 		cityObjectImporter = (DBCityObject)dbImporterManager.getDBImporter(DBImporterEnum.CITYOBJECT);
@@ -166,7 +166,7 @@ public class DBLandUse implements DBImporter {
 		}
 
 		psLandUse.addBatch();
-		if (++batchCounter == dbImporterManager.getDatabaseAdapter().getMaxBatchSize())
+		if (++batchCounter >= dbImporterManager.getBatchSize(DBImporterEnum.LAND_USE))
 			dbImporterManager.executeBatch(DBImporterEnum.LAND_USE);
 
 		// insert local appearance
@@ -187,6 +187,11 @@ public class DBLandUse implements DBImporter {
 		psLandUse.close();
 	}
 
+	@Override
+	public int getBatchCounter() {
+		return batchCounter;
+	}
+
 	@Override
 	public DBImporterEnum getDBImporterType() {
 		return DBImporterEnum.LAND_USE;
@@ -81,7 +81,7 @@ public class DBOpening implements DBImporter {
 		.append("LOD3_IMPLICIT_REF_POINT, LOD4_IMPLICIT_REF_POINT, ")
 		.append("LOD3_IMPLICIT_TRANSFORMATION, LOD4_IMPLICIT_TRANSFORMATION) values ")
 		.append("(?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)");
-		psOpening = batchConn.prepareStatement(stmt.toString());
+		psOpening = dbImporterManager.prepareInsertStatement(stmt.toString());
 
 		surfaceGeometryImporter = (DBSurfaceGeometry)dbImporterManager.getDBImporter(DBImporterEnum.SURFACE_GEOMETRY);
 		otherGeometryImporter = (DBOtherGeometry)dbImporterManager.getDBImporter(DBImporterEnum.OTHER_GEOMETRY);
@@ -251,7 +251,7 @@ public class DBOpening implements DBImporter {
 		}
 
 		psOpening.addBatch();
-		if (++batchCounter == dbImporterManager.getDatabaseAdapter().getMaxBatchSize())
+		if (++batchCounter >= dbImporterManager.getBatchSize(DBImporterEnum.OPENING))
 			dbImporterManager.executeBatch(DBImporterEnum.OPENING);
 
 		openingToThemSurfaceImporter.insert(openingId, parentId);
@@ -273,6 +273,11 @@ public class DBOpening implements DBImporter {
 		psOpening.close();
 	}
 
+	@Override
+	public int getBatchCounter() {
+		return batchCounter;
+	}
+
 	@Override
 	public DBImporterEnum getDBImporterType() {
 		return DBImporterEnum.OPENING;
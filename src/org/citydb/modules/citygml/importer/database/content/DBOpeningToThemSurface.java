@@ -46,7 +46,7 @@ public class DBOpeningToThemSurface implements DBImporter {
 	}
 
 	private void init() throws SQLException {
-		psOpeningToThemSurface = batchConn.prepareStatement("insert into OPENING_TO_THEM_SURFACE (OPENING_ID, THEMATIC_SURFACE_ID) values (?, ?)");
+		psOpeningToThemSurface = dbImporterManager.prepareInsertStatement("insert into OPENING_TO_THEM_SURFACE (OPENING_ID, THEMATIC_SURFACE_ID) values (?, ?)");
 	}
 
 	public void insert(long openingId, long thematicSurfaceId) throws SQLException {
@@ -54,7 +54,7 @@ public class DBOpeningToThemSurface implements DBImporter {
         psOpeningToThemSurface.setLong(2, thematicSurfaceId);
 
         psOpeningToThemSurface.addBatch();
-        if (++batchCounter == dbImporterManager.getDatabaseAdapter().getMaxBatchSize())
+        if (++batchCounter >= dbImporterManager.getBatchSize(DBImporterEnum.OPENING_TO_THEM_SURFACE))
 			dbImporterManager.executeBatch(DBImporterEnum.OPENING_TO_THEM_SURFACE);
 	}
 
@@ -69,6 +69,11 @@ public class DBOpeningToThemSurface implements DBImporter {
 		psOpeningToThemSurface.close();
 	}
 
+	@Override
+	public int getBatchCounter() {
+		return batchCounter;
+	}
+
 	@Override
 	public DBImporterEnum getDBImporterType() {
 		return DBImporterEnum.OPENING_TO_THEM_SURFACE;
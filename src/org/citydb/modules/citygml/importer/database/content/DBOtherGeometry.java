@@ -29,7 +29,6 @@ package org.citydb.modules.citygml.importer.database.content;
 
 import java.sql.SQLException;
 import java.util.ArrayList;
-import java.util.Iterator;
 import java.util.List;
 
 import org.citydb.api.database.DatabaseType;
@@ -463,6 +462,16 @@ public class DBOtherGeometry implements DBImporter {
 		return result;
 	}
 
+	private double[][] convertRings(List<double[]> pointList) {
+		double[][] result = pointList.toArray(new double[pointList.size()][]);
+		if (affineTransformation) {
+			for (double[] coords : result)
+				dbImporterManager.getAffineTransformer().transformCoordinates(coords);
+		}
+
+		return result;
+	}
+
 	public GeometryObject get2DPolygon(Polygon polygon) {
 		return getPolygon(polygon, true);
 	}
@@ -475,9 +484,26 @@ public class DBOtherGeometry implements DBImporter {
 		GeometryObject polygonGeom = null;
 
 		if (polygon != null) {
-			List<List<Double>> pointList = generatePointList(polygon, is2d, false);
-			if (pointList != null && !pointList.isEmpty())
-				polygonGeom = GeometryObject.createPolygon(convertAggregate(pointList), is2d ? 2 : 3, dbSrid);
+			List<double[]> pointList = generatePointList(polygon, false);
+			if (pointList != null && !pointList.isEmpty()) {
+				double[][] coordinates = convertRings(pointList);
+
+				if (is2d) {
+					// if we have to return a 2d polygon we first have to correct the
+					// coordinates we retrieved from the rings as they are always 3d
+					for (int i = 0; i < coordinates.length; i++) {
+						double[] coords = new double[coordinates[i].length / 3 * 2];
+						for (int j = 0, k = 0; j < coords.length; j += 2, k += 3) {
+							coords[j] = coordinates[i][k];
+							coords[j + 1] = coordinates[i][k + 1];
+						}
+
+						coordinates[i] = coords;
+					}
+				}
+
+				polygonGeom = GeometryObject.createPolygon(coordinates, is2d ? 2 : 3, dbSrid);
+			}
 		}
 
 		return polygonGeom;
@@ -491,49 +517,33 @@ public class DBOtherGeometry implements DBImporter {
 		return polygonProperty != null ? getPolygon(polygonProperty.getPolygon()) : null;
 	}
 
-	private List<List<Double>> generatePointList(Polygon polygon, boolean is2d, boolean reverse) {
-		List<List<Double>> pointList = new ArrayList<>();
+	private List<double[]> generatePointList(Polygon polygon, boolean reverse) {
+		List<double[]> pointList = new ArrayList<>();
 
 		if (polygon.isSetExterior()) {
 			AbstractRing exteriorAbstractRing = polygon.getExterior().getRing();
 			if (exteriorAbstractRing instanceof LinearRing) {
 				LinearRing exteriorLinearRing = (LinearRing)exteriorAbstractRing;
-				if (!ringValidator.validate(exteriorLinearRing, polygon.getId()))
+				double[] points = ringValidator.getValidCoordinates(exteriorLinearRing, polygon.getId(), reverse);
+				if (points == null)
 					return null;
 
-				pointList.add(exteriorLinearRing.toList3d(reverse));
+				pointList.add(points);
 
 				if (polygon.isSetInterior()) {
 					for (AbstractRingProperty abstractRingProperty : polygon.getInterior()) {
 						AbstractRing interiorAbstractRing = abstractRingProperty.getRing();
 						if (interiorAbstractRing instanceof LinearRing) {
 							LinearRing interiorLinearRing = (LinearRing)interiorAbstractRing;
-							if (!ringValidator.validate(interiorLinearRing, polygon.getId()))
+							double[] interiorPoints = ringValidator.getValidCoordinates(interiorLinearRing, polygon.getId(), reverse);
+							if (interiorPoints == null)
 								return null;
 
-							pointList.add(interiorLinearRing.toList3d(reverse));
+							pointList.add(interiorPoints);
 						}
 					}
 				}
 			}
-
-			if (is2d) {
-				// if we have to return a 2d polygon we first have to correct the
-				// double lists we retrieved from citygml4j as they are always 3d
-				for (List<Double> coordsList : pointList) {							
-					Iterator<Double> iter = coordsList.iterator();
-
-					int count = 0;							
-					while (iter.hasNext()) {
-						iter.next();
-
-						if (count++ == 2) {
-							count = 0;	
-							iter.remove();
-						}
-					}
-				}						
-			}
 		}
 
 		return pointList;
@@ -546,7 +556,7 @@ public class DBOtherGeometry implements DBImporter {
 		GeometryObject solidGeom = null;
 
 		if (solid != null) {
-			final List<List<Double>> pointList = new ArrayList<>();
+			final List<double[]> pointList = new ArrayList<>();
 			final List<Integer> rings = new ArrayList<>();
 
 			solid.accept(new GeometryWalker() {
@@ -573,7 +583,7 @@ public class DBOtherGeometry implements DBImporter {
 				}
 
 				public void visit(Polygon polygon) {
-					List<List<Double>> points = generatePointList(polygon, false, reverse);
+					List<double[]> points = generatePointList(polygon, reverse);
 					if (points == null || points.isEmpty()) {
 						setShouldWalk(false);
 						pointList.clear();
@@ -587,8 +597,8 @@ public class DBOtherGeometry implements DBImporter {
 
 				public void visit(LinearRing linearRing) {
 					// required to handle surface patches such as triangles and rectangles
-					if (ringValidator.validate(linearRing, null)) {
-						List<Double> points = linearRing.toList3d(reverse);
+					double[] points = ringValidator.getValidCoordinates(linearRing, null, reverse);
+					if (points != null) {
 						pointList.add(points);
 						rings.add(ringNo);
 						ringNo++;
@@ -604,7 +614,7 @@ public class DBOtherGeometry implements DBImporter {
 				for (Integer ringNo : rings)
 					exteriorRings[i++] = ringNo.intValue();
 
-				solidGeom = GeometryObject.createSolid(convertAggregate(pointList), exteriorRings, dbSrid);
+				solidGeom = GeometryObject.createSolid(convertRings(pointList), exteriorRings, dbSrid);
 			}
 		}
 
@@ -706,6 +716,11 @@ public class DBOtherGeometry implements DBImporter {
 		// nothing to do here
 	}
 
+	@Override
+	public int getBatchCounter() {
+		return 0;
+	}
+
 	@Override
 	public DBImporterEnum getDBImporterType() {
 		return DBImporterEnum.OTHER_GEOMETRY;
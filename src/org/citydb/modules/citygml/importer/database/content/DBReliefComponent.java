@@ -75,10 +75,10 @@ public class DBReliefComponent implements DBImporter {
 		nullGeometryType = dbImporterManager.getDatabaseAdapter().getGeometryConverter().getNullGeometryType();
 		nullGeometryTypeName = dbImporterManager.getDatabaseAdapter().getGeometryConverter().getNullGeometryTypeName();
 
-		psReliefComponent = batchConn.prepareStatement("insert into RELIEF_COMPONENT (ID, OBJECTCLASS_ID, LOD, EXTENT) values (?, ?, ?, ?)");
-		psTinRelief = batchConn.prepareStatement("insert into TIN_RELIEF (ID, MAX_LENGTH, MAX_LENGTH_UNIT, STOP_LINES, BREAK_LINES, CONTROL_POINTS, SURFACE_GEOMETRY_ID) values (?, ?, ?, ?, ?, ?, ?)");
-		psMassPointRelief = batchConn.prepareStatement("insert into MASSPOINT_RELIEF (ID, RELIEF_POINTS) values (?, ?)");
-		psBreaklineRelief = batchConn.prepareStatement("insert into BREAKLINE_RELIEF (ID, RIDGE_OR_VALLEY_LINES, BREAK_LINES) values (?, ?, ?)");
+		psReliefComponent = dbImporterManager.prepareInsertStatement("insert into RELIEF_COMPONENT (ID, OBJECTCLASS_ID, LOD, EXTENT) values (?, ?, ?, ?)");
+		psTinRelief = dbImporterManager.prepareInsertStatement("insert into TIN_RELIEF (ID, MAX_LENGTH, MAX_LENGTH_UNIT, STOP_LINES, BREAK_LINES, CONTROL_POINTS, SURFACE_GEOMETRY_ID) values (?, ?, ?, ?, ?, ?, ?)");
+		psMassPointRelief = dbImporterManager.prepareInsertStatement("insert into MASSPOINT_RELIEF (ID, RELIEF_POINTS) values (?, ?)");
+		psBreaklineRelief = dbImporterManager.prepareInsertStatement("insert into BREAKLINE_RELIEF (ID, RIDGE_OR_VALLEY_LINES, BREAK_LINES) values (?, ?, ?)");
 
 		surfaceGeometryImporter = (DBSurfaceGeometry)dbImporterManager.getDBImporter(DBImporterEnum.SURFACE_GEOMETRY);
 		cityObjectImporter = (DBCityObject)dbImporterManager.getDBImporter(DBImporterEnum.CITYOBJECT);
@@ -115,7 +115,7 @@ public class DBReliefComponent implements DBImporter {
 			psReliefComponent.setNull(4, nullGeometryType, nullGeometryTypeName);
 
 		psReliefComponent.addBatch();
-		if (++batchCounter == dbImporterManager.getDatabaseAdapter().getMaxBatchSize())
+		if (++batchCounter >= dbImporterManager.getBatchSize(DBImporterEnum.RELIEF_COMPONENT))
 			dbImporterManager.executeBatch(DBImporterEnum.RELIEF_COMPONENT);
 
 		// fill sub-tables according to relief component type
@@ -288,6 +288,11 @@ public class DBReliefComponent implements DBImporter {
 		psBreaklineRelief.close();
 	}
 
+	@Override
+	public int getBatchCounter() {
+		return batchCounter;
+	}
+
 	@Override
 	public DBImporterEnum getDBImporterType() {
 		return DBImporterEnum.RELIEF_COMPONENT;
@@ -46,7 +46,7 @@ public class DBReliefFeatToRelComp implements DBImporter {
 	}
 
 	private void init() throws SQLException {
-		psReliefFeatToRelComp = batchConn.prepareStatement("insert into RELIEF_FEAT_TO_REL_COMP (RELIEF_COMPONENT_ID, RELIEF_FEATURE_ID) values " +
+		psReliefFeatToRelComp = dbImporterManager.prepareInsertStatement("insert into RELIEF_FEAT_TO_REL_COMP (RELIEF_COMPONENT_ID, RELIEF_FEATURE_ID) values " +
 			"(?, ?)");
 	}
 	
@@ -55,7 +55,7 @@ public class DBReliefFeatToRelComp implements DBImporter {
 		psReliefFeatToRelComp.setLong(2, reliefFeatureId);
 
 		psReliefFeatToRelComp.addBatch();
-		if (++batchCounter == dbImporterManager.getDatabaseAdapter().getMaxBatchSize())
+		if (++batchCounter >= dbImporterManager.getBatchSize(DBImporterEnum.RELIEF_FEAT_TO_REL_COMP))
 			dbImporterManager.executeBatch(DBImporterEnum.RELIEF_FEAT_TO_REL_COMP);
 	}
 	
@@ -70,6 +70,11 @@ public class DBReliefFeatToRelComp implements DBImporter {
 		psReliefFeatToRelComp.close();
 	}
 
+	@Override
+	public int getBatchCounter() {
+		return batchCounter;
+	}
+
 	@Override
 	public DBImporterEnum getDBImporterType() {
 		return DBImporterEnum.RELIEF_FEAT_TO_REL_COMP;
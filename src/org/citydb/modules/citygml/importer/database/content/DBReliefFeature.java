@@ -60,7 +60,7 @@ public class DBReliefFeature implements DBImporter {
 	}
 
 	private void init() throws SQLException {
-		psReliefFeature = batchConn.prepareStatement("insert into RELIEF_FEATURE (ID, LOD) values (?, ?)");
+		psReliefFeature = dbImporterManager.prepareInsertStatement("insert into RELIEF_FEATURE (ID, LOD) values (?, ?)");
 
 		cityObjectImporter = (DBCityObject)dbImporterManager.getDBImporter(DBImporterEnum.CITYOBJECT);
 		reliefComponentImporter = (DBReliefComponent)dbImporterManager.getDBImporter(DBImporterEnum.RELIEF_COMPONENT);
@@ -95,7 +95,7 @@ public class DBReliefFeature implements DBImporter {
 		psReliefFeature.setInt(2, reliefFeature.getLod());
 
 		psReliefFeature.addBatch();
-		if (++batchCounter == dbImporterManager.getDatabaseAdapter().getMaxBatchSize())
+		if (++batchCounter >= dbImporterManager.getBatchSize(DBImporterEnum.RELIEF_FEATURE))
 			dbImporterManager.executeBatch(DBImporterEnum.RELIEF_FEATURE);
 
 		// relief component
@@ -164,6 +164,11 @@ public class DBReliefFeature implements DBImporter {
 		psReliefFeature.close();
 	}
 
+	@Override
+	public int getBatchCounter() {
+		return batchCounter;
+	}
+
 	@Override
 	public DBImporterEnum getDBImporterType() {
 		return DBImporterEnum.RELIEF_FEATURE;
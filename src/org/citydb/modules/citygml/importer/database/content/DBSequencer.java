@@ -36,43 +36,79 @@ import java.util.HashMap;
 import org.citydb.database.adapter.AbstractDatabaseAdapter;
 
 public class DBSequencer {
+	// sequence values are reserved in ranges and handed out from a local pool.
+	// the range size starts small and adapts to the consumption rate, bounded 
+	// by the configured maximum.
+	private static final int INITIAL_RANGE_SIZE = 16;
+	private static final long FAST_CONSUMPTION_MILLIS = 1000;
+	private static final long SLOW_CONSUMPTION_MILLIS = 30000;
+
 	private final Connection conn;
 	private final AbstractDatabaseAdapter databaseAdapter;
+	private final int maxRangeSize;
 	private HashMap<DBSequencerEnum, PreparedStatement> psIdMap;
+	private HashMap<DBSequencerEnum, PreparedStatement> psRangeMap;
+	private HashMap<DBSequencerEnum, SequencePool> poolMap;
 
 	public DBSequencer(Connection conn, AbstractDatabaseAdapter databaseAdapter) throws SQLException {
+		this(conn, databaseAdapter, 1);
+	}
+
+	public DBSequencer(Connection conn, AbstractDatabaseAdapter databaseAdapter, int maxRangeSize) throws SQLException {
 		this.conn = conn;
 		this.databaseAdapter = databaseAdapter;
+		this.maxRangeSize = Math.max(1, maxRangeSize);
 		psIdMap = new HashMap<DBSequencerEnum, PreparedStatement>();
+		psRangeMap = new HashMap<DBSequencerEnum, PreparedStatement>();
+		poolMap = new HashMap<DBSequencerEnum, SequencePool>();
 	}
 
 	public long getDBId(DBSequencerEnum sequence) throws SQLException {
 		if (sequence == null)
 			return 0;
 
-		PreparedStatement pstsmt = psIdMap.get(sequence);
-		if (pstsmt == null) {
-			StringBuilder query = new StringBuilder()
-			.append("select ")
-			.append(databaseAdapter.getSQLAdapter().getNextSequenceValue(sequence));
-			if (databaseAdapter.getSQLAdapter().requiresPseudoTableInSelect())
-				query.append(" from ").append(databaseAdapter.getSQLAdapter().getPseudoTableName());
-			
-			pstsmt = conn.prepareStatement(query.toString());
-			psIdMap.put(sequence, pstsmt);
+		SequencePool pool = poolMap.get(sequence);
+		if (pool == null) {
+			pool = new SequencePool(Math.min(INITIAL_RANGE_SIZE, maxRangeSize));
+			poolMap.put(sequence, pool);
 		}
 
+		if (pool.index == pool.count)
+			fetch(sequence, pool);
+
+		return pool.index < pool.count ? pool.ids[pool.index++] : 0;
+	}
+
+	private void fetch(DBSequencerEnum sequence, SequencePool pool) throws SQLException {
+		// adapt the range size to the time it took to consume the last range
+		long now = System.currentTimeMillis();
+		if (pool.lastFetch > 0) {
+			long elapsed = now - pool.lastFetch;
+			if (elapsed < FAST_CONSUMPTION_MILLIS)
+				pool.rangeSize = Math.min(pool.rangeSize << 1, maxRangeSize);
+			else if (elapsed > SLOW_CONSUMPTION_MILLIS)
+				pool.rangeSize = Math.max(pool.rangeSize >> 1, 1);
+		}
+
+		PreparedStatement pstsmt = getStatement(sequence, pool.rangeSize > 1);
 		ResultSet rs = null;
-		long id = 0;
 
 		try {
+			if (pool.rangeSize > 1)
+				pstsmt.setInt(1, pool.rangeSize);
+
 			rs = pstsmt.executeQuery();
 
-			if (rs.next())
-				id = rs.getLong(1);
+			if (pool.ids.length < pool.rangeSize)
+				pool.ids = new long[pool.rangeSize];
 
-		} catch (SQLException sqlEx) {
-			throw sqlEx;
+			int count = 0;
+			while (rs.next() && count < pool.ids.length)
+				pool.ids[count++] = rs.getLong(1);
+
+			pool.count = count;
+			pool.index = 0;
+			pool.lastFetch = now;
 		} finally {
 			if (rs != null) {
 				try {
@@ -84,12 +120,48 @@ public class DBSequencer {
 				rs = null;
 			}
 		}
+	}
 
-		return id;
+	private PreparedStatement getStatement(DBSequencerEnum sequence, boolean range) throws SQLException {
+		HashMap<DBSequencerEnum, PreparedStatement> map = range ? psRangeMap : psIdMap;
+		PreparedStatement pstsmt = map.get(sequence);
+		if (pstsmt != null)
+			return pstsmt;
+
+		if (range)
+			pstsmt = conn.prepareStatement(databaseAdapter.getSQLAdapter().getNextSequenceValuesQuery(sequence));
+		else {
+			StringBuilder query = new StringBuilder()
+			.append("select ")
+			.append(databaseAdapter.getSQLAdapter().getNextSequenceValue(sequence));
+			if (databaseAdapter.getSQLAdapter().requiresPseudoTableInSelect())
+				query.append(" from ").append(databaseAdapter.getSQLAdapter().getPseudoTableName());
+
+			pstsmt = conn.prepareStatement(query.toString());
+		}
+
+		map.put(sequence, pstsmt);
+		return pstsmt;
 	}
 	
 	public void close() throws SQLException {
 		for (PreparedStatement stmt : psIdMap.values())
 			stmt.close();
+
+		for (PreparedStatement stmt : psRangeMap.values())
+			stmt.close();
+	}
+
+	private static final class SequencePool {
+		private long[] ids;
+		private int index;
+		private int count;
+		private int rangeSize;
+		private long lastFetch;
+
+		SequencePool(int rangeSize) {
+			this.rangeSize = rangeSize;
+			ids = new long[rangeSize];
+		}
 	}
 }
@@ -101,7 +101,7 @@ public class DBSurfaceData implements DBImporter {
 		nullGeometryType = dbImporterManager.getDatabaseAdapter().getGeometryConverter().getNullGeometryType();
 		nullGeometryTypeName = dbImporterManager.getDatabaseAdapter().getGeometryConverter().getNullGeometryTypeName();
 
-		String gmlIdCodespace = config.getInternal().getCurrentGmlIdCodespace();
+		String gmlIdCodespace = dbImporterManager.getImportFileContext().getGmlIdCodespace();
 		if (gmlIdCodespace != null && gmlIdCodespace.length() > 0)
 			gmlIdCodespace = "'" + gmlIdCodespace + "', ";
 		else
@@ -111,20 +111,20 @@ public class DBSurfaceData implements DBImporter {
 		.append("insert into SURFACE_DATA (ID, GMLID, ").append(gmlIdCodespace != null ? "GMLID_CODESPACE, " : "").append("NAME, NAME_CODESPACE, DESCRIPTION, IS_FRONT, OBJECTCLASS_ID, ")
 		.append("X3D_SHININESS, X3D_TRANSPARENCY, X3D_AMBIENT_INTENSITY, X3D_SPECULAR_COLOR, X3D_DIFFUSE_COLOR, X3D_EMISSIVE_COLOR, X3D_IS_SMOOTH) values ")
 		.append("(?, ?, ").append(gmlIdCodespace != null ? gmlIdCodespace : "").append("?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)");
-		psX3DMaterial = batchConn.prepareStatement(x3dStmt.toString());
+		psX3DMaterial = dbImporterManager.prepareInsertStatement(x3dStmt.toString());
 
 		StringBuilder paraStmt = new StringBuilder()
 		.append("insert into SURFACE_DATA (ID, GMLID, ").append(gmlIdCodespace != null ? "GMLID_CODESPACE, " : "").append("NAME, NAME_CODESPACE, DESCRIPTION, IS_FRONT, OBJECTCLASS_ID, ")
 		.append("TEX_TEXTURE_TYPE, TEX_WRAP_MODE, TEX_BORDER_COLOR) values ")
 		.append("(?, ?, ").append(gmlIdCodespace != null ? gmlIdCodespace : "").append("?, ?, ?, ?, ?, ?, ?, ?)");
-		psParaTex = batchConn.prepareStatement(paraStmt.toString());
+		psParaTex = dbImporterManager.prepareInsertStatement(paraStmt.toString());
 
 		StringBuilder geoStmt = new StringBuilder()
 		.append("insert into SURFACE_DATA (ID, GMLID, ").append(gmlIdCodespace != null ? "GMLID_CODESPACE, " : "").append("NAME, NAME_CODESPACE, DESCRIPTION, IS_FRONT, OBJECTCLASS_ID, ")
 		.append("TEX_TEXTURE_TYPE, TEX_WRAP_MODE, TEX_BORDER_COLOR, ")
 		.append("GT_PREFER_WORLDFILE, GT_ORIENTATION, GT_REFERENCE_POINT) values ")
 		.append("(?, ?, ").append(gmlIdCodespace != null ? gmlIdCodespace : "").append("?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)");
-		psGeoTex = batchConn.prepareStatement(geoStmt.toString());
+		psGeoTex = dbImporterManager.prepareInsertStatement(geoStmt.toString());
 
 		textureParamImporter = (DBTextureParam)dbImporterManager.getDBImporter(DBImporterEnum.TEXTURE_PARAM);
 		textureImageImporter = (DBTexImage)dbImporterManager.getDBImporter(DBImporterEnum.TEX_IMAGE);
@@ -258,7 +258,7 @@ public class DBSurfaceData implements DBImporter {
 				psSurfaceData.setInt(14, 0);
 
 			psSurfaceData.addBatch();
-			if (++batchCounter == dbImporterManager.getDatabaseAdapter().getMaxBatchSize())
+			if (++batchCounter >= dbImporterManager.getBatchSize(DBImporterEnum.SURFACE_DATA))
 				dbImporterManager.executeBatch(DBImporterEnum.SURFACE_DATA);
 
 			if (material.isSetTarget()) {
@@ -315,7 +315,7 @@ public class DBSurfaceData implements DBImporter {
 			// ParameterizedTexture
 			if (abstractSurfData.getCityGMLClass() == CityGMLClass.PARAMETERIZED_TEXTURE) {
 				psSurfaceData.addBatch();
-				if (++batchCounter == dbImporterManager.getDatabaseAdapter().getMaxBatchSize())
+				if (++batchCounter >= dbImporterManager.getBatchSize(DBImporterEnum.SURFACE_DATA))
 					dbImporterManager.executeBatch(DBImporterEnum.SURFACE_DATA);
 
 				ParameterizedTexture paraTex = (ParameterizedTexture)abstractSurfData;
@@ -530,7 +530,7 @@ public class DBSurfaceData implements DBImporter {
 					psSurfaceData.setNull(13, nullGeometryType, nullGeometryTypeName);
 
 				psSurfaceData.addBatch();
-				if (++batchCounter == dbImporterManager.getDatabaseAdapter().getMaxBatchSize())
+				if (++batchCounter >= dbImporterManager.getBatchSize(DBImporterEnum.SURFACE_DATA))
 					dbImporterManager.executeBatch(DBImporterEnum.SURFACE_DATA);
 
 				if (geoTex.isSetTarget()) {
@@ -588,6 +588,11 @@ public class DBSurfaceData implements DBImporter {
 		psGeoTex.close();
 	}
 
+	@Override
+	public int getBatchCounter() {
+		return batchCounter;
+	}
+
 	@Override
 	public DBImporterEnum getDBImporterType() {
 		return DBImporterEnum.SURFACE_DATA;
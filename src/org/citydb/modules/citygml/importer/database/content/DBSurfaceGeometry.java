@@ -125,7 +125,7 @@ public class DBSurfaceGeometry implements DBImporter {
 		nullGeometryType = dbImporterManager.getDatabaseAdapter().getGeometryConverter().getNullGeometryType();
 		nullGeometryTypeName = dbImporterManager.getDatabaseAdapter().getGeometryConverter().getNullGeometryTypeName();
 
-		String gmlIdCodespace = config.getInternal().getCurrentGmlIdCodespace();
+		String gmlIdCodespace = dbImporterManager.getImportFileContext().getGmlIdCodespace();
 		if (gmlIdCodespace != null && gmlIdCodespace.length() > 0)
 			gmlIdCodespace = "'" + gmlIdCodespace + "', ";
 		else
@@ -133,19 +133,9 @@ public class DBSurfaceGeometry implements DBImporter {
 
 		StringBuilder stmt = new StringBuilder()
 		.append("insert into SURFACE_GEOMETRY (ID, GMLID, ").append(gmlIdCodespace != null ? "GMLID_CODESPACE, " : "").append("PARENT_ID, ROOT_ID, IS_SOLID, IS_COMPOSITE, IS_TRIANGULATED, IS_XLINK, IS_REVERSE, GEOMETRY, SOLID_GEOMETRY, IMPLICIT_GEOMETRY, CITYOBJECT_ID) values ")
-		.append("(?, ?, ").append(gmlIdCodespace != null ? gmlIdCodespace : "").append("?, ?, ?, ?, ?, ?, ?, ?, ");
+		.append("(?, ?, ").append(gmlIdCodespace != null ? gmlIdCodespace : "").append("?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)");
 
-		if (dbImporterManager.getDatabaseAdapter().getDatabaseType() == DatabaseType.POSTGIS) {
-			// the current PostGIS JDBC driver lacks support for geometry objects of type PolyhedralSurface
-			// thus, we have to use the database function ST_GeomFromEWKT to insert such geometries
-			// TODO: rework as soon as the JDBC driver supports PolyhedralSurface
-			stmt.append("ST_GeomFromEWKT(?), ");	
-		} else
-			stmt.append("?, ");
-
-		stmt.append("?, ?)");
-
-		psGeomElem = batchConn.prepareStatement(stmt.toString());
+		psGeomElem = dbImporterManager.prepareInsertStatement(stmt.toString());
 		psNextSeqValues = batchConn.prepareStatement(dbImporterManager.getDatabaseAdapter().getSQLAdapter().getNextSequenceValuesQuery(DBSequencerEnum.SURFACE_GEOMETRY_ID_SEQ));
 
 		materialModelImporter = (DBDeprecatedMaterialModel)dbImporterManager.getDBImporter(DBImporterEnum.DEPRECATED_MATERIAL_MODEL);
@@ -284,12 +274,12 @@ public class DBSurfaceGeometry implements DBImporter {
 		// a single linearRing
 		if (surfaceGeometryType == GMLClass.LINEAR_RING) {
 			LinearRing linearRing = (LinearRing)surfaceGeometry;
-			if (!ringValidator.validate(linearRing, origGmlId))
+			double[] coordinates = ringValidator.getValidCoordinates(linearRing, origGmlId, reverse);
+			if (coordinates == null)
 				return;
 
-			List<Double> points = linearRing.toList3d(reverse);
 			if (applyTransformation)
-				dbImporterManager.getAffineTransformer().transformCoordinates(points);
+				dbImporterManager.getAffineTransformer().transformCoordinates(coordinates);
 
 			// well, taking care about geometry is not enough... this ring could
 			// be referenced by a <textureCoordinates> element. since we cannot store
@@ -308,12 +298,6 @@ public class DBSurfaceGeometry implements DBImporter {
 				}
 			}
 
-			double[] coordinates = new double[points.size()];
-
-			int i = 0;
-			for (Double point : points)
-				coordinates[i++] = point.doubleValue();
-
 			GeometryObject geomObj = GeometryObject.createPolygon(coordinates, 3, dbSrid);
 			Object obj = dbImporterManager.getDatabaseAdapter().getGeometryConverter().getDatabaseObject(geomObj, batchConn);
 
@@ -356,14 +340,14 @@ public class DBSurfaceGeometry implements DBImporter {
 			Polygon polygon = (Polygon)surfaceGeometry;
 
 			if (polygon.isSetExterior()) {
-				List<List<Double>> pointList = new ArrayList<List<Double>>();
+				List<double[]> pointList = new ArrayList<double[]>();
 				AbstractRing exteriorAbstractRing = polygon.getExterior().getRing();
 				if (exteriorAbstractRing instanceof LinearRing) {
 					LinearRing exteriorLinearRing = (LinearRing)exteriorAbstractRing;
-					if (!ringValidator.validate(exteriorLinearRing, origGmlId))
+					double[] points = ringValidator.getValidCoordinates(exteriorLinearRing, origGmlId, reverse);
+					if (points == null)
 						return;
 
-					List<Double> points = exteriorLinearRing.toList3d(reverse);
 					if (applyTransformation)
 						dbImporterManager.getAffineTransformer().transformCoordinates(points);
 
@@ -393,10 +377,10 @@ public class DBSurfaceGeometry implements DBImporter {
 							AbstractRing interiorAbstractRing = abstractRingProperty.getRing();
 							if (interiorAbstractRing instanceof LinearRing) {								
 								LinearRing interiorLinearRing = (LinearRing)interiorAbstractRing;
-								if (!ringValidator.validate(interiorLinearRing, origGmlId))
+								double[] interiorPoints = ringValidator.getValidCoordinates(interiorLinearRing, origGmlId, reverse);
+								if (interiorPoints == null)
 									continue;
 
-								List<Double> interiorPoints = interiorLinearRing.toList3d(reverse);
 								if (applyTransformation)
 									dbImporterManager.getAffineTransformer().transformCoordinates(interiorPoints);
 
@@ -429,21 +413,7 @@ public class DBSurfaceGeometry implements DBImporter {
 						}
 					}
 
-					double[][] coordinates = new double[pointList.size()][];
-					int i = 0;
-					for (List<Double> coordsList : pointList) {
-						double[] coords = new double[coordsList.size()];
-
-						int j = 0;
-						for (Double coord : coordsList) {
-							coords[j] = coord.doubleValue();
-							j++;
-						}
-
-						coordinates[i] = coords;	
-						i++;
-					}
-
+					double[][] coordinates = pointList.toArray(new double[pointList.size()][]);
 					GeometryObject geomObj = GeometryObject.createPolygon(coordinates, 3, dbSrid);
 					Object obj = dbImporterManager.getDatabaseAdapter().getGeometryConverter().getDatabaseObject(geomObj, batchConn);
 
@@ -1325,7 +1295,7 @@ public class DBSurfaceGeometry implements DBImporter {
 
 	private void addBatch() throws SQLException {
 		psGeomElem.addBatch();
-		if (++batchCounter == dbImporterManager.getDatabaseAdapter().getMaxBatchSize())
+		if (++batchCounter >= dbImporterManager.getBatchSize(DBImporterEnum.SURFACE_GEOMETRY))
 			dbImporterManager.executeBatch(DBImporterEnum.SURFACE_GEOMETRY);
 	}
 
@@ -1341,6 +1311,11 @@ public class DBSurfaceGeometry implements DBImporter {
 		psNextSeqValues.close();
 	}
 
+	@Override
+	public int getBatchCounter() {
+		return batchCounter;
+	}
+
 	@Override
 	public DBImporterEnum getDBImporterType() {
 		return DBImporterEnum.SURFACE_GEOMETRY;
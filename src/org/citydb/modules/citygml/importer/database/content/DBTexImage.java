@@ -64,7 +64,7 @@ public class DBTexImage implements DBImporter {
 	}
 
 	private void init() throws SQLException {
-		localPath = config.getInternal().getImportPath();
+		localPath = importerManager.getImportFileContext().getImportPath();
 		replacePathSeparator = File.separatorChar == '/';
 		importTextureImage = config.getProject().getImporter().getAppearances().isSetImportTextureFiles();
 
@@ -123,14 +123,18 @@ public class DBTexImage implements DBImporter {
 			psInsertStmt.setString(4, codeSpace);
 
 			psInsertStmt.addBatch();
-			if (++batchCounter == importerManager.getDatabaseAdapter().getMaxBatchSize())
+			if (++batchCounter >= importerManager.getBatchSize(DBImporterEnum.TEX_IMAGE))
 				importerManager.executeBatch(DBImporterEnum.TEX_IMAGE);
 
 			if (importTextureImage) {
+				// relative image URIs are resolved against the location of the
+				// input file, since files may be imported concurrently
+				String fileURI = importerManager.getImportFileContext().resolveFileURI(imageURI);
+
 				// propagte xlink to import the texture file itself
 				importerManager.propagateXlink(new DBXlinkTextureFile(
 						texImageId,
-						imageURI,
+						fileURI,
 						false));
 
 				// do we have a world file?!
@@ -138,7 +142,7 @@ public class DBTexImage implements DBImporter {
 						!((GeoreferencedTexture)abstractTexture).isSetOrientation() && !((GeoreferencedTexture)abstractTexture).isSetReferencePoint()) {
 					importerManager.propagateXlink(new DBXlinkTextureFile(
 							surfaceDataId,
-							imageURI,
+							fileURI,
 							true));
 				}
 			}
@@ -185,6 +189,11 @@ public class DBTexImage implements DBImporter {
 		lockManager.clear();
 	}
 
+	@Override
+	public int getBatchCounter() {
+		return batchCounter;
+	}
+
 	@Override
 	public DBImporterEnum getDBImporterType() {
 		return DBImporterEnum.TEX_IMAGE;
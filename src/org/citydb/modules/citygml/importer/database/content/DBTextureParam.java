@@ -52,7 +52,7 @@ public class DBTextureParam implements DBImporter {
 		StringBuilder texCoordListStmt = new StringBuilder()
 		.append("insert into TEXTUREPARAM (SURFACE_GEOMETRY_ID, IS_TEXTURE_PARAMETRIZATION, WORLD_TO_TEXTURE, TEXTURE_COORDINATES, SURFACE_DATA_ID) values ")
 		.append("(?, ?, ?, ?, ?)");
-		psTextureParam = batchConn.prepareStatement(texCoordListStmt.toString());
+		psTextureParam = dbImporterManager.prepareInsertStatement(texCoordListStmt.toString());
 	}
 
 	public void insert(SurfaceGeometryTarget target, long surfaceDataId) throws SQLException {
@@ -89,7 +89,7 @@ public class DBTextureParam implements DBImporter {
 
 	private void addBatch() throws SQLException {
 		psTextureParam.addBatch();
-		if (++batchCounter == dbImporterManager.getDatabaseAdapter().getMaxBatchSize())
+		if (++batchCounter >= dbImporterManager.getBatchSize(DBImporterEnum.TEXTURE_PARAM))
 			dbImporterManager.executeBatch(DBImporterEnum.TEXTURE_PARAM);		
 	}
 
@@ -104,6 +104,11 @@ public class DBTextureParam implements DBImporter {
 		psTextureParam.close();
 	}
 
+	@Override
+	public int getBatchCounter() {
+		return batchCounter;
+	}
+
 	@Override
 	public DBImporterEnum getDBImporterType() {
 		return DBImporterEnum.TEXTURE_PARAM;
@@ -67,7 +67,7 @@ public class DBThematicSurface implements DBImporter {
 		StringBuilder stmt = new StringBuilder()
 		.append("insert into THEMATIC_SURFACE (ID, OBJECTCLASS_ID, BUILDING_ID, ROOM_ID, BUILDING_INSTALLATION_ID, LOD2_MULTI_SURFACE_ID, LOD3_MULTI_SURFACE_ID, LOD4_MULTI_SURFACE_ID) values ")
 		.append("(?, ?, ?, ?, ?, ?, ?, ?)");
-		psThematicSurface = batchConn.prepareStatement(stmt.toString());
+		psThematicSurface = dbImporterManager.prepareInsertStatement(stmt.toString());
 
 		surfaceGeometryImporter = (DBSurfaceGeometry)dbImporterManager.getDBImporter(DBImporterEnum.SURFACE_GEOMETRY);
 		cityObjectImporter = (DBCityObject)dbImporterManager.getDBImporter(DBImporterEnum.CITYOBJECT);
@@ -158,7 +158,7 @@ public class DBThematicSurface implements DBImporter {
 		}
 
 		psThematicSurface.addBatch();
-		if (++batchCounter == dbImporterManager.getDatabaseAdapter().getMaxBatchSize())
+		if (++batchCounter >= dbImporterManager.getBatchSize(DBImporterEnum.THEMATIC_SURFACE))
 			dbImporterManager.executeBatch(DBImporterEnum.THEMATIC_SURFACE);
 
 		// Openings
@@ -216,6 +216,11 @@ public class DBThematicSurface implements DBImporter {
 		psThematicSurface.close();
 	}
 
+	@Override
+	public int getBatchCounter() {
+		return batchCounter;
+	}
+
 	@Override
 	public DBImporterEnum getDBImporterType() {
 		return DBImporterEnum.THEMATIC_SURFACE;
@@ -62,7 +62,7 @@ public class DBTrafficArea implements DBImporter {
 		.append("SURFACE_MATERIAL, SURFACE_MATERIAL_CODESPACE, LOD2_MULTI_SURFACE_ID, LOD3_MULTI_SURFACE_ID, LOD4_MULTI_SURFACE_ID, ")
 		.append("TRANSPORTATION_COMPLEX_ID) values ")
 		.append("(?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)");
-		psTrafficArea = batchConn.prepareStatement(stmt.toString());
+		psTrafficArea = dbImporterManager.prepareInsertStatement(stmt.toString());
 
 		surfaceGeometryImporter = (DBSurfaceGeometry)dbImporterManager.getDBImporter(DBImporterEnum.SURFACE_GEOMETRY);
 		cityObjectImporter = (DBCityObject)dbImporterManager.getDBImporter(DBImporterEnum.CITYOBJECT);
@@ -167,7 +167,7 @@ public class DBTrafficArea implements DBImporter {
 		psTrafficArea.setLong(14, parentId);
 
 		psTrafficArea.addBatch();
-		if (++batchCounter == dbImporterManager.getDatabaseAdapter().getMaxBatchSize())
+		if (++batchCounter >= dbImporterManager.getBatchSize(DBImporterEnum.TRAFFIC_AREA))
 			dbImporterManager.executeBatch(DBImporterEnum.TRAFFIC_AREA);
 
 		// insert local appearance
@@ -274,7 +274,7 @@ public class DBTrafficArea implements DBImporter {
 		psTrafficArea.setLong(14, parentId);
 
 		psTrafficArea.addBatch();
-		if (++batchCounter == dbImporterManager.getDatabaseAdapter().getMaxBatchSize())
+		if (++batchCounter >= dbImporterManager.getBatchSize(DBImporterEnum.TRAFFIC_AREA))
 			dbImporterManager.executeBatch(DBImporterEnum.TRAFFIC_AREA);
 
 		// insert local appearance
@@ -294,6 +294,11 @@ public class DBTrafficArea implements DBImporter {
 		psTrafficArea.close();
 	}
 
+	@Override
+	public int getBatchCounter() {
+		return batchCounter;
+	}
+
 	@Override
 	public DBImporterEnum getDBImporterType() {
 		return DBImporterEnum.TRAFFIC_AREA;
@@ -80,7 +80,7 @@ public class DBTransportationComplex implements DBImporter {
 		.append("insert into TRANSPORTATION_COMPLEX (ID, OBJECTCLASS_ID, CLASS, CLASS_CODESPACE, FUNCTION, FUNCTION_CODESPACE, USAGE, USAGE_CODESPACE, ")
 		.append("LOD0_NETWORK, LOD1_MULTI_SURFACE_ID, LOD2_MULTI_SURFACE_ID, LOD3_MULTI_SURFACE_ID, LOD4_MULTI_SURFACE_ID) values ")
 		.append("(?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)");
-		psTransComplex = batchConn.prepareStatement(stmt.toString());
+		psTransComplex = dbImporterManager.prepareInsertStatement(stmt.toString());
 
 		surfaceGeometryImporter = (DBSurfaceGeometry)dbImporterManager.getDBImporter(DBImporterEnum.SURFACE_GEOMETRY);
 		cityObjectImporter = (DBCityObject)dbImporterManager.getDBImporter(DBImporterEnum.CITYOBJECT);
@@ -245,7 +245,7 @@ public class DBTransportationComplex implements DBImporter {
 		}		
 
 		psTransComplex.addBatch();
-		if (++batchCounter == dbImporterManager.getDatabaseAdapter().getMaxBatchSize())
+		if (++batchCounter >= dbImporterManager.getBatchSize(DBImporterEnum.TRANSPORTATION_COMPLEX))
 			dbImporterManager.executeBatch(DBImporterEnum.TRANSPORTATION_COMPLEX);
 
 		// AuxiliaryTrafficArea
@@ -333,6 +333,11 @@ public class DBTransportationComplex implements DBImporter {
 		psTransComplex.close();
 	}
 
+	@Override
+	public int getBatchCounter() {
+		return batchCounter;
+	}
+
 	@Override
 	public DBImporterEnum getDBImporterType() {
 		return DBImporterEnum.TRANSPORTATION_COMPLEX;
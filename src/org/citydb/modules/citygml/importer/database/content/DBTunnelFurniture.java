@@ -75,7 +75,7 @@ public class DBTunnelFurniture implements DBImporter {
 		.append("LOD4_BREP_ID, LOD4_OTHER_GEOM, ")
 		.append("LOD4_IMPLICIT_REP_ID, LOD4_IMPLICIT_REF_POINT, LOD4_IMPLICIT_TRANSFORMATION) values ")
 		.append("(?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)");
-		psTunnelFurniture = batchConn.prepareStatement(stmt.toString());
+		psTunnelFurniture = dbImporterManager.prepareInsertStatement(stmt.toString());
 
 		surfaceGeometryImporter = (DBSurfaceGeometry)dbImporterManager.getDBImporter(DBImporterEnum.SURFACE_GEOMETRY);
 		otherGeometryImporter = (DBOtherGeometry)dbImporterManager.getDBImporter(DBImporterEnum.OTHER_GEOMETRY);
@@ -223,7 +223,7 @@ public class DBTunnelFurniture implements DBImporter {
 			psTunnelFurniture.setNull(13, Types.VARCHAR);
 
 		psTunnelFurniture.addBatch();
-		if (++batchCounter == dbImporterManager.getDatabaseAdapter().getMaxBatchSize())
+		if (++batchCounter >= dbImporterManager.getBatchSize(DBImporterEnum.TUNNEL_FURNITURE))
 			dbImporterManager.executeBatch(DBImporterEnum.TUNNEL_FURNITURE);
 
 		// insert local appearance
@@ -243,6 +243,11 @@ public class DBTunnelFurniture implements DBImporter {
 		psTunnelFurniture.close();
 	}
 
+	@Override
+	public int getBatchCounter() {
+		return batchCounter;
+	}
+
 	@Override
 	public DBImporterEnum getDBImporterType() {
 		return DBImporterEnum.TUNNEL_FURNITURE;
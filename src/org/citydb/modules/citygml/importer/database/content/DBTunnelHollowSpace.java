@@ -74,7 +74,7 @@ public class DBTunnelHollowSpace implements DBImporter {
 		.append("insert into TUNNEL_HOLLOW_SPACE (ID, CLASS, CLASS_CODESPACE, FUNCTION, FUNCTION_CODESPACE, USAGE, USAGE_CODESPACE, TUNNEL_ID, ")
 		.append("LOD4_MULTI_SURFACE_ID, LOD4_SOLID_ID) values ")
 		.append("(?, ?, ?, ?, ?, ?, ?, ?, ?, ?)");
-		psHollowSpace = batchConn.prepareStatement(stmt.toString());
+		psHollowSpace = dbImporterManager.prepareInsertStatement(stmt.toString());
 
 		surfaceGeometryImporter = (DBSurfaceGeometry)dbImporterManager.getDBImporter(DBImporterEnum.SURFACE_GEOMETRY);
 		cityObjectImporter = (DBCityObject)dbImporterManager.getDBImporter(DBImporterEnum.CITYOBJECT);
@@ -185,7 +185,7 @@ public class DBTunnelHollowSpace implements DBImporter {
 			psHollowSpace.setNull(10, Types.NULL);
 
 		psHollowSpace.addBatch();
-		if (++batchCounter == dbImporterManager.getDatabaseAdapter().getMaxBatchSize())
+		if (++batchCounter >= dbImporterManager.getBatchSize(DBImporterEnum.TUNNEL_HOLLOW_SPACE))
 			dbImporterManager.executeBatch(DBImporterEnum.TUNNEL_HOLLOW_SPACE);
 
 		// BoundarySurfaces
@@ -307,6 +307,11 @@ public class DBTunnelHollowSpace implements DBImporter {
 		psHollowSpace.close();
 	}
 
+	@Override
+	public int getBatchCounter() {
+		return batchCounter;
+	}
+
 	@Override
 	public DBImporterEnum getDBImporterType() {
 		return DBImporterEnum.TUNNEL_HOLLOW_SPACE;
@@ -86,7 +86,7 @@ public class DBTunnelInstallation implements DBImporter {
 		.append("LOD2_IMPLICIT_REF_POINT, LOD3_IMPLICIT_REF_POINT, LOD4_IMPLICIT_REF_POINT, ")
 		.append("LOD2_IMPLICIT_TRANSFORMATION, LOD3_IMPLICIT_TRANSFORMATION, LOD4_IMPLICIT_TRANSFORMATION) values ")
 		.append("(?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)");
-		psTunnelInstallation = batchConn.prepareStatement(stmt.toString());
+		psTunnelInstallation = dbImporterManager.prepareInsertStatement(stmt.toString());
 
 		surfaceGeometryImporter = (DBSurfaceGeometry)dbImporterManager.getDBImporter(DBImporterEnum.SURFACE_GEOMETRY);
 		otherGeometryImporter = (DBOtherGeometry)dbImporterManager.getDBImporter(DBImporterEnum.OTHER_GEOMETRY);
@@ -274,7 +274,7 @@ public class DBTunnelInstallation implements DBImporter {
 		}
 
 		psTunnelInstallation.addBatch();
-		if (++batchCounter == dbImporterManager.getDatabaseAdapter().getMaxBatchSize())
+		if (++batchCounter >= dbImporterManager.getBatchSize(DBImporterEnum.TUNNEL_INSTALLATION))
 			dbImporterManager.executeBatch(DBImporterEnum.TUNNEL_INSTALLATION);
 
 		// BoundarySurfaces
@@ -482,7 +482,7 @@ public class DBTunnelInstallation implements DBImporter {
 			psTunnelInstallation.setNull(25, Types.VARCHAR);
 
 		psTunnelInstallation.addBatch();
-		if (++batchCounter == dbImporterManager.getDatabaseAdapter().getMaxBatchSize())
+		if (++batchCounter >= dbImporterManager.getBatchSize(DBImporterEnum.TUNNEL_INSTALLATION))
 			dbImporterManager.executeBatch(DBImporterEnum.TUNNEL_INSTALLATION);
 
 		// BoundarySurfaces
@@ -536,6 +536,11 @@ public class DBTunnelInstallation implements DBImporter {
 		psTunnelInstallation.close();
 	}
 
+	@Override
+	public int getBatchCounter() {
+		return batchCounter;
+	}
+
 	@Override
 	public DBImporterEnum getDBImporterType() {
 		return DBImporterEnum.TUNNEL_INSTALLATION;
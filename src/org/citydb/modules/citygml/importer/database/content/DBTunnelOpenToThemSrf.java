@@ -46,7 +46,7 @@ public class DBTunnelOpenToThemSrf implements DBImporter {
 	}
 
 	private void init() throws SQLException {
-		psTunnelOpenToThemSrf = batchConn.prepareStatement("insert into TUNNEL_OPEN_TO_THEM_SRF (TUNNEL_OPENING_ID, TUNNEL_THEMATIC_SURFACE_ID) values (?, ?)");
+		psTunnelOpenToThemSrf = dbImporterManager.prepareInsertStatement("insert into TUNNEL_OPEN_TO_THEM_SRF (TUNNEL_OPENING_ID, TUNNEL_THEMATIC_SURFACE_ID) values (?, ?)");
 	}
 
 	public void insert(long openingId, long thematicSurfaceId) throws SQLException {
@@ -54,7 +54,7 @@ public class DBTunnelOpenToThemSrf implements DBImporter {
         psTunnelOpenToThemSrf.setLong(2, thematicSurfaceId);
 
         psTunnelOpenToThemSrf.addBatch();
-        if (++batchCounter == dbImporterManager.getDatabaseAdapter().getMaxBatchSize())
+        if (++batchCounter >= dbImporterManager.getBatchSize(DBImporterEnum.TUNNEL_OPEN_TO_THEM_SRF))
 			dbImporterManager.executeBatch(DBImporterEnum.TUNNEL_OPEN_TO_THEM_SRF);
 	}
 
@@ -69,6 +69,11 @@ public class DBTunnelOpenToThemSrf implements DBImporter {
 		psTunnelOpenToThemSrf.close();
 	}
 
+	@Override
+	public int getBatchCounter() {
+		return batchCounter;
+	}
+
 	@Override
 	public DBImporterEnum getDBImporterType() {
 		return DBImporterEnum.TUNNEL_OPEN_TO_THEM_SRF;
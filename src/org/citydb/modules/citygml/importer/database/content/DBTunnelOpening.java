@@ -72,7 +72,7 @@ public class DBTunnelOpening implements DBImporter {
 		.append("LOD3_IMPLICIT_REF_POINT, LOD4_IMPLICIT_REF_POINT, ")
 		.append("LOD3_IMPLICIT_TRANSFORMATION, LOD4_IMPLICIT_TRANSFORMATION) values ")
 		.append("(?, ?, ?, ?, ?, ?, ?, ?, ?, ?)");
-		psOpening = batchConn.prepareStatement(stmt.toString());
+		psOpening = dbImporterManager.prepareInsertStatement(stmt.toString());
 
 		surfaceGeometryImporter = (DBSurfaceGeometry)dbImporterManager.getDBImporter(DBImporterEnum.SURFACE_GEOMETRY);
 		otherGeometryImporter = (DBOtherGeometry)dbImporterManager.getDBImporter(DBImporterEnum.OTHER_GEOMETRY);
@@ -190,7 +190,7 @@ public class DBTunnelOpening implements DBImporter {
 		}
 
 		psOpening.addBatch();
-		if (++batchCounter == dbImporterManager.getDatabaseAdapter().getMaxBatchSize())
+		if (++batchCounter >= dbImporterManager.getBatchSize(DBImporterEnum.TUNNEL_OPENING))
 			dbImporterManager.executeBatch(DBImporterEnum.TUNNEL_OPENING);
 
 		openingToThemSurfaceImporter.insert(openingId, parentId);
@@ -212,6 +212,11 @@ public class DBTunnelOpening implements DBImporter {
 		psOpening.close();
 	}
 
+	@Override
+	public int getBatchCounter() {
+		return batchCounter;
+	}
+
 	@Override
 	public DBImporterEnum getDBImporterType() {
 		return DBImporterEnum.TUNNEL_OPENING;
@@ -68,7 +68,7 @@ public class DBTunnelThematicSurface implements DBImporter {
 		.append("insert into TUNNEL_THEMATIC_SURFACE (ID, OBJECTCLASS_ID, TUNNEL_ID, TUNNEL_HOLLOW_SPACE_ID, TUNNEL_INSTALLATION_ID, ")
 		.append("LOD2_MULTI_SURFACE_ID, LOD3_MULTI_SURFACE_ID, LOD4_MULTI_SURFACE_ID) values ")
 		.append("(?, ?, ?, ?, ?, ?, ?, ?)");
-		psThematicSurface = batchConn.prepareStatement(stmt.toString());
+		psThematicSurface = dbImporterManager.prepareInsertStatement(stmt.toString());
 
 		surfaceGeometryImporter = (DBSurfaceGeometry)dbImporterManager.getDBImporter(DBImporterEnum.SURFACE_GEOMETRY);
 		cityObjectImporter = (DBCityObject)dbImporterManager.getDBImporter(DBImporterEnum.CITYOBJECT);
@@ -159,7 +159,7 @@ public class DBTunnelThematicSurface implements DBImporter {
 		}
 
 		psThematicSurface.addBatch();
-		if (++batchCounter == dbImporterManager.getDatabaseAdapter().getMaxBatchSize())
+		if (++batchCounter >= dbImporterManager.getBatchSize(DBImporterEnum.TUNNEL_THEMATIC_SURFACE))
 			dbImporterManager.executeBatch(DBImporterEnum.TUNNEL_THEMATIC_SURFACE);
 
 		// Openings
@@ -217,6 +217,11 @@ public class DBTunnelThematicSurface implements DBImporter {
 		psThematicSurface.close();
 	}
 
+	@Override
+	public int getBatchCounter() {
+		return batchCounter;
+	}
+
 	@Override
 	public DBImporterEnum getDBImporterType() {
 		return DBImporterEnum.TUNNEL_THEMATIC_SURFACE;
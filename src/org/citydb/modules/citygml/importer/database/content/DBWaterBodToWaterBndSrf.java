@@ -46,7 +46,7 @@ public class DBWaterBodToWaterBndSrf implements DBImporter {
 	}
 
 	private void init() throws SQLException {
-		psWaterBodToWaterBndSrf = batchConn.prepareStatement("insert into WATERBOD_TO_WATERBND_SRF (WATERBOUNDARY_SURFACE_ID, WATERBODY_ID) values (?, ?)");
+		psWaterBodToWaterBndSrf = dbImporterManager.prepareInsertStatement("insert into WATERBOD_TO_WATERBND_SRF (WATERBOUNDARY_SURFACE_ID, WATERBODY_ID) values (?, ?)");
 	}
 
 	public void insert(long waterSurfaceId, long waterBodyId) throws SQLException {
@@ -54,7 +54,7 @@ public class DBWaterBodToWaterBndSrf implements DBImporter {
 		psWaterBodToWaterBndSrf.setLong(2, waterBodyId);
 
 		psWaterBodToWaterBndSrf.addBatch();
-		if (++batchCounter == dbImporterManager.getDatabaseAdapter().getMaxBatchSize())
+		if (++batchCounter >= dbImporterManager.getBatchSize(DBImporterEnum.WATERBOD_TO_WATERBND_SRF))
 			dbImporterManager.executeBatch(DBImporterEnum.WATERBOD_TO_WATERBND_SRF);
 	}
 
@@ -69,6 +69,11 @@ public class DBWaterBodToWaterBndSrf implements DBImporter {
 		psWaterBodToWaterBndSrf.close();
 	}
 
+	@Override
+	public int getBatchCounter() {
+		return batchCounter;
+	}
+
 	@Override
 	public DBImporterEnum getDBImporterType() {
 		return DBImporterEnum.WATERBOD_TO_WATERBND_SRF;
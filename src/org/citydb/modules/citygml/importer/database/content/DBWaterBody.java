@@ -78,7 +78,7 @@ public class DBWaterBody implements DBImporter {
 		.append("LOD0_MULTI_CURVE, LOD1_MULTI_CURVE, LOD0_MULTI_SURFACE_ID, LOD1_MULTI_SURFACE_ID, ")
 		.append("LOD1_SOLID_ID, LOD2_SOLID_ID, LOD3_SOLID_ID, LOD4_SOLID_ID) values ")
 		.append("(?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)");
-		psWaterBody = batchConn.prepareStatement(stmt.toString());
+		psWaterBody = dbImporterManager.prepareInsertStatement(stmt.toString());
 
 		surfaceGeometryImporter = (DBSurfaceGeometry)dbImporterManager.getDBImporter(DBImporterEnum.SURFACE_GEOMETRY);
 		cityObjectImporter = (DBCityObject)dbImporterManager.getDBImporter(DBImporterEnum.CITYOBJECT);
@@ -249,7 +249,7 @@ public class DBWaterBody implements DBImporter {
 		}
 
 		psWaterBody.addBatch();
-		if (++batchCounter == dbImporterManager.getDatabaseAdapter().getMaxBatchSize())
+		if (++batchCounter >= dbImporterManager.getBatchSize(DBImporterEnum.WATERBODY))
 			dbImporterManager.executeBatch(DBImporterEnum.WATERBODY);
 
 		// boundary surfaces
@@ -308,6 +308,11 @@ public class DBWaterBody implements DBImporter {
 		psWaterBody.close();
 	}
 
+	@Override
+	public int getBatchCounter() {
+		return batchCounter;
+	}
+
 	@Override
 	public DBImporterEnum getDBImporterType() {
 		return DBImporterEnum.WATERBODY;
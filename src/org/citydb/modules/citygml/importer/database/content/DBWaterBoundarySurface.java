@@ -63,7 +63,7 @@ public class DBWaterBoundarySurface implements DBImporter {
 		.append("insert into WATERBOUNDARY_SURFACE (ID, OBJECTCLASS_ID, WATER_LEVEL, WATER_LEVEL_CODESPACE, ")
 		.append("LOD2_SURFACE_ID, LOD3_SURFACE_ID, LOD4_SURFACE_ID) values ")
 		.append("(?, ?, ?, ?, ?, ?, ?)");
-		psWaterBoundarySurface = batchConn.prepareStatement(stmt.toString());
+		psWaterBoundarySurface = dbImporterManager.prepareInsertStatement(stmt.toString());
 
 		surfaceGeometryImporter = (DBSurfaceGeometry)dbImporterManager.getDBImporter(DBImporterEnum.SURFACE_GEOMETRY);
 		cityObjectImporter = (DBCityObject)dbImporterManager.getDBImporter(DBImporterEnum.CITYOBJECT);
@@ -138,7 +138,7 @@ public class DBWaterBoundarySurface implements DBImporter {
 		}
 
 		psWaterBoundarySurface.addBatch();
-		if (++batchCounter == dbImporterManager.getDatabaseAdapter().getMaxBatchSize())
+		if (++batchCounter >= dbImporterManager.getBatchSize(DBImporterEnum.WATERBOUNDARY_SURFACE))
 			dbImporterManager.executeBatch(DBImporterEnum.WATERBOUNDARY_SURFACE);
 
 		// boundary surface to waterBody
@@ -161,6 +161,11 @@ public class DBWaterBoundarySurface implements DBImporter {
 		psWaterBoundarySurface.close();
 	}
 
+	@Override
+	public int getBatchCounter() {
+		return batchCounter;
+	}
+
 	@Override
 	public DBImporterEnum getDBImporterType() {
 		return DBImporterEnum.WATERBOUNDARY_SURFACE;
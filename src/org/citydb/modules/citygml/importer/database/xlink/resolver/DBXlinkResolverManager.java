@@ -39,6 +39,7 @@ import java.util.HashMap;
 
 import org.citydb.api.concurrent.WorkerPool;
 import org.citydb.api.event.Event;
+import org.citydb.api.event.EventCounterType;
 import org.citydb.api.event.EventDispatcher;
 import org.citydb.config.Config;
 import org.citydb.database.adapter.AbstractDatabaseAdapter;
@@ -58,6 +59,7 @@ public class DBXlinkResolverManager {
 	private final AbstractDatabaseAdapter databaseAdapter;
 	private final WorkerPool<DBXlink> tmpXlinkPool;
 	private final CacheTableManager cacheTableManager;
+	private final SurfaceGeometryCache surfaceGeometryCache;
 	private final ImportFilter importFilter;
 	private final Config config;
 	private final EventDispatcher eventDispatcher;
@@ -73,6 +75,7 @@ public class DBXlinkResolverManager {
 			WorkerPool<DBXlink> tmpXlinkPool,
 			UIDCacheManager uidCacheManager,
 			CacheTableManager cacheTableManager,
+			SurfaceGeometryCache surfaceGeometryCache,
 			ImportFilter importFilter,
 			Config config,
 			EventDispatcher eventDispatcher) throws SQLException {
@@ -80,6 +83,7 @@ public class DBXlinkResolverManager {
 		this.databaseAdapter = databaseAdapter;
 		this.tmpXlinkPool = tmpXlinkPool;
 		this.cacheTableManager = cacheTableManager;
+		this.surfaceGeometryCache = surfaceGeometryCache;
 		this.importFilter = importFilter;
 		this.config = config;
 		this.eventDispatcher = eventDispatcher;
@@ -173,6 +177,14 @@ public class DBXlinkResolverManager {
 		eventDispatcher.triggerEvent(event);
 	}
 
+	public void updateCounter(EventCounterType type, long delta) {
+		eventDispatcher.updateCounter(type, delta);
+	}
+
+	public SurfaceGeometryCache getSurfaceGeometryCache() {
+		return surfaceGeometryCache;
+	}
+
 	public AbstractDatabaseAdapter getDatabaseAdapter() {
 		return databaseAdapter;
 	}
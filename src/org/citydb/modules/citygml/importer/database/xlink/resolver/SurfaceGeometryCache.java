@@ -0,0 +1,156 @@
+/*
+ * 3D City Database - The Open Source CityGML Database
+ * http://www.3dcitydb.org/
+ * 
+ * Copyright 2013 - 2016
+ * Chair of Geoinformatics
+ * Technical University of Munich, Germany
+ * https://www.gis.bgu.tum.de/
+ * 
+ * The 3D City Database is jointly developed with the following
+ * cooperation partners:
+ * 
+ * virtualcitySYSTEMS GmbH, Berlin <http://www.virtualcitysystems.de/>
+ * M.O.S.S. Computer Grafik Systeme GmbH, Taufkirchen <http://www.moss.de/>
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *     
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.citydb.modules.citygml.importer.database.xlink.resolver;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map.Entry;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.citydb.api.geometry.GeometryObject;
+
+public class SurfaceGeometryCache {
+	private final ReentrantLock lock = new ReentrantLock();
+	private final LinkedHashMap<Long, CacheEntry> entries;
+	private final long maxWeight;
+
+	private long weight;
+	private long hits;
+	private long misses;
+	private long evictions;
+
+	public SurfaceGeometryCache(long maxWeight) {
+		this.maxWeight = maxWeight;
+		entries = new LinkedHashMap<Long, CacheEntry>(16, 0.75f, true);
+	}
+
+	GeometryNode get(long rootId, boolean reverse) {
+		final ReentrantLock lock = this.lock;
+		lock.lock();
+
+		try {
+			CacheEntry entry = entries.get(getKey(rootId, reverse));
+			if (entry != null) {
+				hits++;
+				return entry.node;
+			}
+
+			misses++;
+			return null;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	void put(long rootId, boolean reverse, GeometryNode node) {
+		// cached trees are shared between resolver workers and
+		// therefore must not be changed after they have been put
+		long nodeWeight = getWeight(node);
+		if (nodeWeight > maxWeight >> 3)
+			return;
+
+		final ReentrantLock lock = this.lock;
+		lock.lock();
+
+		try {
+			CacheEntry previous = entries.put(getKey(rootId, reverse), new CacheEntry(node, nodeWeight));
+			if (previous != null)
+				weight -= previous.weight;
+
+			weight += nodeWeight;
+
+			// evict least recently used trees
+			Iterator<Entry<Long, CacheEntry>> iter = entries.entrySet().iterator();
+			while (weight > maxWeight && iter.hasNext()) {
+				weight -= iter.next().getValue().weight;
+				iter.remove();
+				evictions++;
+			}
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	public void clear() {
+		final ReentrantLock lock = this.lock;
+		lock.lock();
+
+		try {
+			entries.clear();
+			weight = 0;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	public long getHits() {
+		return hits;
+	}
+
+	public long getMisses() {
+		return misses;
+	}
+
+	public long getEvictions() {
+		return evictions;
+	}
+
+	private long getKey(long rootId, boolean reverse) {
+		return (rootId << 1) | (reverse ? 1 : 0);
+	}
+
+	private long getWeight(GeometryNode node) {
+		// rough estimate of the memory footprint in bytes
+		long weight = 64 + getWeight(node.geometry);
+		for (GeometryNode childNode : node.childNodes)
+			weight += getWeight(childNode);
+
+		return weight;
+	}
+
+	private long getWeight(GeometryObject geometry) {
+		long weight = 0;
+		if (geometry != null) {
+			for (int i = 0; i < geometry.getNumElements(); i++)
+				weight += 16 + (geometry.getCoordinates(i).length << 3);
+		}
+
+		return weight;
+	}
+
+	private static final class CacheEntry {
+		private final GeometryNode node;
+		private final long weight;
+
+		private CacheEntry(GeometryNode node, long weight) {
+			this.node = node;
+			this.weight = weight;
+		}
+	}
+
+}
@@ -36,7 +36,6 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.concurrent.locks.ReentrantLock;
 
-import org.citydb.api.database.DatabaseType;
 import org.citydb.api.geometry.GeometryObject;
 import org.citydb.log.Logger;
 import org.citydb.modules.citygml.common.database.xlink.DBXlinkSolidGeometry;
@@ -65,17 +64,7 @@ public class XlinkSolidGeometry implements DBXlinkResolver {
 		dbSrid = resolverManager.getDatabaseAdapter().getConnectionMetaData().getReferenceSystem().getSrid();
 		psSelectSurfGeom = batchConn.prepareStatement(resolverManager.getDatabaseAdapter().getSQLAdapter().getHierarchicalGeometryQuery());
 
-		StringBuilder stmt = new StringBuilder("update SURFACE_GEOMETRY set SOLID_GEOMETRY=");
-		if (resolverManager.getDatabaseAdapter().getDatabaseType() == DatabaseType.POSTGIS) {
-			// the current PostGIS JDBC driver lacks support for geometry objects of type PolyhedralSurface
-			// thus, we have to use the database function ST_GeomFromEWKT to insert such geometries
-			// TODO: rework as soon as the JDBC driver supports PolyhedralSurface
-			stmt.append("ST_GeomFromEWKT(?) ");	
-		} else
-			stmt.append("? ");
-
-		stmt.append("where ID=?");
-		psUpdateSurfGeom = batchConn.prepareStatement(stmt.toString());
+		psUpdateSurfGeom = batchConn.prepareStatement("update SURFACE_GEOMETRY set SOLID_GEOMETRY=? where ID=?");
 	}
 
 	public boolean insert(DBXlinkSolidGeometry xlink) throws SQLException {
@@ -31,14 +31,13 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Savepoint;
 import java.sql.Types;
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map.Entry;
 import java.util.concurrent.locks.ReentrantLock;
 
-import org.citydb.api.database.DatabaseType;
 import org.citydb.api.geometry.GeometryObject;
 import org.citydb.database.TableEnum;
 import org.citydb.modules.citygml.common.database.cache.CacheTable;
@@ -50,10 +49,14 @@ import org.citygml4j.model.citygml.CityGMLClass;
 
 public class XlinkSurfaceGeometry implements DBXlinkResolver {
 	private static final ReentrantLock mainLock = new ReentrantLock();
+	private static final int MAX_DEADLOCK_RETRIES = 3;
 
 	private final Connection batchConn;
 	private final CacheTable cacheTable;
 	private final DBXlinkResolverManager resolverManager;
+	private final SurfaceGeometryCache geometryCache;
+	private final boolean serializeUpdates;
+	private final boolean releaseSavepoints;
 
 	private PreparedStatement psSelectTmpSurfGeom;
 	private PreparedStatement psSelectSurfGeom;
@@ -65,12 +68,16 @@ public class XlinkSurfaceGeometry implements DBXlinkResolver {
 	private HashMap<String, Integer> psBatchCounterMap;
 	private int parentBatchCounter;
 	private int memberBatchCounter;
+	private long[] updateIds;
 	private int updateBatchCounter;
 
 	public XlinkSurfaceGeometry(Connection batchConn, CacheTable cacheTable, DBXlinkResolverManager resolverManager) throws SQLException {
 		this.batchConn = batchConn;
 		this.cacheTable = cacheTable;
 		this.resolverManager = resolverManager;
+		geometryCache = resolverManager.getSurfaceGeometryCache();
+		serializeUpdates = resolverManager.getDatabaseAdapter().getSQLAdapter().requiresSerializedConcurrentUpdates();
+		releaseSavepoints = resolverManager.getDatabaseAdapter().getSQLAdapter().supportsReleaseSavepoint();
 
 		psMap = new HashMap<String, PreparedStatement>();
 		psBatchCounterMap = new HashMap<String, Integer>();
@@ -82,19 +89,10 @@ public class XlinkSurfaceGeometry implements DBXlinkResolver {
 		psSelectTmpSurfGeom = cacheTable.getConnection().prepareStatement(new StringBuilder("select ID from ").append(cacheTable.getTableName()).append(" where PARENT_ID=? or ROOT_ID=?").toString());
 		psSelectSurfGeom = batchConn.prepareStatement(resolverManager.getDatabaseAdapter().getSQLAdapter().getHierarchicalGeometryQuery());
 		psUpdateSurfGeom = batchConn.prepareStatement("update SURFACE_GEOMETRY set IS_XLINK=1 where ID=?");
+		updateIds = new long[resolverManager.getDatabaseAdapter().getMaxBatchSize()];
 
 		StringBuilder parentElemStmt = new StringBuilder("insert into SURFACE_GEOMETRY (ID, GMLID, PARENT_ID, ROOT_ID, IS_SOLID, IS_COMPOSITE, IS_TRIANGULATED, IS_XLINK, IS_REVERSE, GEOMETRY, SOLID_GEOMETRY, CITYOBJECT_ID) values ")
-				.append("(?, ?, ?, ?, ?, ?, ?, 1, ?, ?, ");
-
-		if (resolverManager.getDatabaseAdapter().getDatabaseType() == DatabaseType.POSTGIS) {
-			// the current PostGIS JDBC driver lacks support for geometry objects of type PolyhedralSurface
-			// thus, we have to use the database function ST_GeomFromEWKT to insert such geometries
-			// TODO: rework as soon as the JDBC driver supports PolyhedralSurface
-			parentElemStmt.append("ST_GeomFromEWKT(?), ");	
-		} else
-			parentElemStmt.append("?, ");
-
-		parentElemStmt.append("?)");
+				.append("(?, ?, ?, ?, ?, ?, ?, 1, ?, ?, ?, ?)");
 		psParentElem = batchConn.prepareStatement(parentElemStmt.toString());
 
 		psMemberElem = batchConn.prepareStatement(new StringBuilder("insert into SURFACE_GEOMETRY (ID, GMLID, PARENT_ID, ROOT_ID, IS_SOLID, IS_COMPOSITE, IS_TRIANGULATED, IS_XLINK, IS_REVERSE, GEOMETRY, CITYOBJECT_ID) values ")
@@ -168,9 +166,8 @@ public class XlinkSurfaceGeometry implements DBXlinkResolver {
 			}
 		}
 
-		psUpdateSurfGeom.setLong(1, rootGeometryEntry.getId());
-		psUpdateSurfGeom.addBatch();
-		if (++updateBatchCounter == resolverManager.getDatabaseAdapter().getMaxBatchSize())
+		updateIds[updateBatchCounter] = rootGeometryEntry.getId();
+		if (++updateBatchCounter == updateIds.length)
 			executeUpdateSurfGeomBatch();
 
 		return true;
@@ -251,6 +248,35 @@ public class XlinkSurfaceGeometry implements DBXlinkResolver {
 	}
 
 	private GeometryNode read(long rootId, boolean reverse) throws SQLException {
+		// shared geometries are usually referenced many times, so
+		// we avoid querying the same geometry tree over and over again
+		GeometryNode root = geometryCache.get(rootId, reverse);
+		if (root == null) {
+			root = query(rootId, reverse);
+
+			// solid geometries are passed on as database objects which may be
+			// bound to the connection they were read from. so we do not share
+			// geometry trees containing solids with other workers
+			if (root != null && !hasSolidGeometry(root))
+				geometryCache.put(rootId, reverse, root);
+		}
+
+		return root;
+	}
+
+	private boolean hasSolidGeometry(GeometryNode node) {
+		if (node.solidGeometry != null)
+			return true;
+
+		for (GeometryNode childNode : node.childNodes) {
+			if (hasSolidGeometry(childNode))
+				return true;
+		}
+
+		return false;
+	}
+
+	private GeometryNode query(long rootId, boolean reverse) throws SQLException {
 		ResultSet rs = null;
 
 		try {
@@ -345,17 +371,6 @@ public class XlinkSurfaceGeometry implements DBXlinkResolver {
 		}
 	}
 
-	private class GeometryNode {
-		private String gmlId;
-		private boolean isSolid;
-		private boolean isComposite;
-		private boolean isTriangulated;
-		private boolean isReverse;
-		private GeometryObject geometry;
-		private Object solidGeometry;
-		private List<GeometryNode> childNodes = new ArrayList<GeometryNode>();
-	}
-
 	private String getKey(DBXlinkSurfaceGeometry xlink) {
 		return xlink.getFromTable().ordinal() + "_" + xlink.getFromTableAttributeName();
 	}
@@ -387,14 +402,54 @@ public class XlinkSurfaceGeometry implements DBXlinkResolver {
 	}
 
 	private void executeUpdateSurfGeomBatch() throws SQLException {
-		// we need to synchronize updates otherwise Oracle will run into deadlocks
-		final ReentrantLock lock = mainLock;
-		lock.lock();
-		try {
-			psUpdateSurfGeom.executeBatch();
-			updateBatchCounter = 0;
-		} finally {
-			lock.unlock();
+		if (updateBatchCounter == 0)
+			return;
+
+		// referenced geometries are shared between workers. updating them in
+		// ascending id order makes all workers acquire row locks in the same order
+		Arrays.sort(updateIds, 0, updateBatchCounter);
+
+		int retries = 0;
+		while (true) {
+			long previousId = 0;
+			for (int i = 0; i < updateBatchCounter; i++) {
+				if (updateIds[i] != previousId) {
+					psUpdateSurfGeom.setLong(1, updateIds[i]);
+					psUpdateSurfGeom.addBatch();
+					previousId = updateIds[i];
+				}
+			}
+
+			// some databases still need updates to be synchronized to avoid deadlocks
+			final ReentrantLock lock = serializeUpdates ? mainLock : null;
+			if (lock != null)
+				lock.lock();
+
+			Savepoint savepoint = null;
+			try {
+				savepoint = batchConn.setSavepoint();
+				psUpdateSurfGeom.executeBatch();
+				updateBatchCounter = 0;
+
+				// do not keep a subtransaction open per batch until commit
+				if (releaseSavepoints)
+					batchConn.releaseSavepoint(savepoint);
+
+				return;
+			} catch (SQLException e) {
+				if (savepoint == null 
+						|| ++retries > MAX_DEADLOCK_RETRIES 
+						|| !resolverManager.getDatabaseAdapter().getSQLAdapter().isDeadlock(e))
+					throw e;
+
+				// the database has chosen us as deadlock victim, so undo
+				// the updates of this batch and try again
+				psUpdateSurfGeom.clearBatch();
+				batchConn.rollback(savepoint);
+			} finally {
+				if (lock != null)
+					lock.unlock();
+			}
 		}
 	}
 
@@ -36,7 +36,6 @@ import org.citydb.database.adapter.BlobImportAdapter;
 import org.citydb.database.adapter.BlobType;
 import org.citydb.log.Logger;
 import org.citydb.modules.citygml.common.database.xlink.DBXlinkTextureFile;
-import org.citydb.modules.common.event.CounterEvent;
 import org.citydb.modules.common.event.CounterType;
 
 public class XlinkTextureImage implements DBXlinkResolver {
@@ -44,17 +43,15 @@ public class XlinkTextureImage implements DBXlinkResolver {
 	private final DBXlinkResolverManager resolverManager;
 
 	private BlobImportAdapter textureImportAdapter;	
-	private CounterEvent counter;
 
 	public XlinkTextureImage(Connection externalFileConn, DBXlinkResolverManager resolverManager) throws SQLException {
 		this.resolverManager = resolverManager;
 		
-		counter = new CounterEvent(CounterType.TEXTURE_IMAGE, 1, this);
 		textureImportAdapter = resolverManager.getDatabaseAdapter().getSQLAdapter().getBlobImportAdapter(externalFileConn, BlobType.TEXTURE_IMAGE);
 	}
 
 	public boolean insert(DBXlinkTextureFile xlink) throws SQLException {
-		resolverManager.propagateEvent(counter);			
+		resolverManager.updateCounter(CounterType.TEXTURE_IMAGE, 1);			
 		String fileURI = xlink.getFileURI();
 		
 		try (InputStream inputStream = resolverManager.openStream(fileURI)) {
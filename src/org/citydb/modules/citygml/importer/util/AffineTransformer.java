@@ -36,12 +36,14 @@ import org.citygml4j.geometry.Matrix;
 public class AffineTransformer {
 	private final Matrix matrix4x4;
 	private final Matrix matrix3x4;
+	private final double[][] transformation;
 	private final Matrix inverse4x4;
 	private final Matrix inverse2x2;
 	
 	public AffineTransformer(Config config) throws Exception {
 		matrix4x4 = toMatrix4x4(config.getProject().getImporter().getAffineTransformation().getTransformationMatrix());
 		matrix3x4 = matrix4x4.getMatrix(3, 4);
+		transformation = matrix3x4.getArray();
 		inverse4x4 = matrix4x4.inverse();
 		inverse2x2 = inverse4x4.getMatrix(2, 2);
 		
@@ -55,15 +57,32 @@ public class AffineTransformer {
 	
 	public void transformCoordinates(List<Double> points) {
 		for (int i = 0; i < points.size(); i += 3) {
-			double[] vals = new double[]{ points.get(i), points.get(i+1), points.get(i+2), 1};
-			Matrix v = new Matrix(vals, 4);
+			double x = points.get(i);
+			double y = points.get(i+1);
+			double z = points.get(i+2);
 
-			v = matrix3x4.times(v);
-			points.set(i, v.get(0, 0));
-			points.set(i+1, v.get(1, 0));
-			points.set(i+2, v.get(2, 0));
+			points.set(i, transform(0, x, y, z));
+			points.set(i+1, transform(1, x, y, z));
+			points.set(i+2, transform(2, x, y, z));
 		}
 	}
+
+	public void transformCoordinates(double[] points) {
+		for (int i = 0; i < points.length; i += 3) {
+			double x = points[i];
+			double y = points[i+1];
+			double z = points[i+2];
+
+			points[i] = transform(0, x, y, z);
+			points[i+1] = transform(1, x, y, z);
+			points[i+2] = transform(2, x, y, z);
+		}
+	}
+
+	private double transform(int row, double x, double y, double z) {
+		double[] m = transformation[row];
+		return m[0] * x + m[1] * y + m[2] * z + m[3];
+	}
 	
 	public Matrix transformGeoreferencedTextureOrientation(Matrix orientation) {
 		return orientation.times(inverse2x2);
@@ -0,0 +1,179 @@
+/*
+ * 3D City Database - The Open Source CityGML Database
+ * http://www.3dcitydb.org/
+ * 
+ * Copyright 2013 - 2016
+ * Chair of Geoinformatics
+ * Technical University of Munich, Germany
+ * https://www.gis.bgu.tum.de/
+ * 
+ * The 3D City Database is jointly developed with the following
+ * cooperation partners:
+ * 
+ * virtualcitySYSTEMS GmbH, Berlin <http://www.virtualcitysystems.de/>
+ * M.O.S.S. Computer Grafik Systeme GmbH, Taufkirchen <http://www.moss.de/>
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *     
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.citydb.modules.citygml.importer.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.citydb.log.Logger;
+import org.citygml4j.xml.io.reader.CityGMLReadException;
+import org.citygml4j.xml.io.reader.CityGMLReader;
+
+public class ImportFileContext {
+	// name of the local property that links an unmarshalled feature to its file
+	public static final String PROPERTY_NAME = "importFileContext";
+
+	private final Logger LOG = Logger.getInstance();
+
+	private final File file;
+	private final String gmlIdCodespace;
+	private final ImportLogger importLogger;
+	private final AtomicBoolean isInterrupted;
+
+	// the importer holds one reference on both counters until it is done
+	// with the file. The reader is closed once all XML chunks have been
+	// unmarshalled, and the import log is closed once all features have
+	// been committed.
+	private final AtomicInteger pendingChunks = new AtomicInteger(1);
+	private final AtomicInteger pendingFeatures = new AtomicInteger(1);
+	private final AtomicBoolean isReadingDone = new AtomicBoolean(false);
+	private final AtomicBoolean isReleased = new AtomicBoolean(false);
+	private final AtomicBoolean isReaderClosed = new AtomicBoolean(false);
+	private final AtomicBoolean isLoggerClosed = new AtomicBoolean(false);
+
+	private volatile CityGMLReader reader;
+	private volatile MappedFileScanner scanner;
+	private volatile boolean success = true;
+
+	public ImportFileContext(File file, String gmlIdCodespace, ImportLogger importLogger, AtomicBoolean isInterrupted) {
+		this.file = file;
+		this.gmlIdCodespace = gmlIdCodespace;
+		this.importLogger = importLogger;
+		this.isInterrupted = isInterrupted;
+	}
+
+	public File getFile() {
+		return file;
+	}
+
+	public String getImportPath() {
+		return file.getParent();
+	}
+
+	public String getGmlIdCodespace() {
+		return gmlIdCodespace;
+	}
+
+	public ImportLogger getImportLogger() {
+		return importLogger;
+	}
+
+	public void setReader(CityGMLReader reader) {
+		this.reader = reader;
+	}
+
+	public void setScanner(MappedFileScanner scanner) {
+		this.scanner = scanner;
+	}
+
+	public String resolveFileURI(String fileURI) {
+		try {
+			new URL(fileURI);
+			return fileURI;
+		} catch (MalformedURLException e) {
+			File target = new File(fileURI);
+			return target.isAbsolute() ? fileURI : new File(file.getParentFile(), fileURI).getPath();
+		}
+	}
+
+	public void addChunk() {
+		pendingFeatures.incrementAndGet();
+		pendingChunks.incrementAndGet();
+	}
+
+	public void addFeature() {
+		pendingFeatures.incrementAndGet();
+	}
+
+	public void chunkProcessed() {
+		featuresProcessed(1);
+
+		if (pendingChunks.decrementAndGet() == 0)
+			closeReader();
+	}
+
+	public void featuresProcessed(int count) {
+		if (count > 0 && pendingFeatures.addAndGet(-count) == 0)
+			closeLogger(success && !isInterrupted.get());
+	}
+
+	public void readingDone() {
+		if (isReadingDone.compareAndSet(false, true) && pendingChunks.decrementAndGet() == 0)
+			closeReader();
+	}
+
+	public void release(boolean success) {
+		if (isReleased.compareAndSet(false, true)) {
+			if (!success)
+				this.success = false;
+
+			featuresProcessed(1);
+		}
+	}
+
+	public void close() {
+		closeReader();
+		closeLogger(false);
+	}
+
+	private void closeReader() {
+		if (isReaderClosed.compareAndSet(false, true)) {
+			if (reader != null) {
+				try {
+					reader.close();
+				} catch (CityGMLReadException e) {
+					LOG.error("Failed to close CityGML reader for file " + file + ": " + e.getMessage());
+				}
+			}
+
+			if (scanner != null) {
+				try {
+					scanner.close();
+				} catch (IOException e) {
+					LOG.error("Failed to close file scanner for file " + file + ": " + e.getMessage());
+				}
+			}
+		}
+	}
+
+	private void closeLogger(boolean success) {
+		if (isLoggerClosed.compareAndSet(false, true) && importLogger != null) {
+			try {
+				importLogger.close(success);
+			} catch (IOException e) {
+				LOG.error("Failed to finish logging of imported top-level features.");
+				LOG.warn("The feature import log is most likely corrupt.");
+			}
+		}
+	}
+
+}
@@ -0,0 +1,500 @@
+/*
+ * 3D City Database - The Open Source CityGML Database
+ * http://www.3dcitydb.org/
+ * 
+ * Copyright 2013 - 2016
+ * Chair of Geoinformatics
+ * Technical University of Munich, Germany
+ * https://www.gis.bgu.tum.de/
+ * 
+ * The 3D City Database is jointly developed with the following
+ * cooperation partners:
+ * 
+ * virtualcitySYSTEMS GmbH, Berlin <http://www.virtualcitysystems.de/>
+ * M.O.S.S. Computer Grafik Systeme GmbH, Taufkirchen <http://www.moss.de/>
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *     
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.citydb.modules.citygml.importer.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+public class MappedFileScanner {
+	private static final int SEGMENT_SIZE = 64 * 1024 * 1024;
+	private static final int SEGMENT_OVERLAP = 64 * 1024;
+	private static final int CHUNK_SIZE = 1024 * 1024;
+	private static final int MAX_NAME_LENGTH = 256;
+
+	private static final byte[][] MEMBER_NAMES = {
+		"cityObjectMember".getBytes(Charset.forName("US-ASCII")),
+		"featureMember".getBytes(Charset.forName("US-ASCII")),
+		"featureMembers".getBytes(Charset.forName("US-ASCII")),
+		"appearanceMember".getBytes(Charset.forName("US-ASCII"))
+	};
+
+	private static final byte MEMBER_START = 0;
+	private static final byte MEMBER_EMPTY = 1;
+	private static final byte MEMBER_END = 2;
+	private static final byte COMMENT_START = 3;
+	private static final byte COMMENT_END = 4;
+	private static final byte CDATA_START = 5;
+	private static final byte CDATA_END = 6;
+
+	private final File file;
+	private final FileChannel channel;
+	private final long size;
+	private final int maxPendingSegments;
+	private final ExecutorService service;
+	private final LinkedList<Future<Segment>> segments = new LinkedList<Future<Segment>>();
+
+	private byte[] prefix;
+	private byte[] suffix;
+	private long position;
+
+	private Segment segment;
+	private int marker;
+	private boolean inComment;
+	private boolean inCData;
+	private long markupStart;
+	private int depth;
+	private long memberStart;
+	private long chunkStart = -1;
+	private long chunkEnd;
+	private MappedChunk next;
+	private boolean isClosed;
+
+	public MappedFileScanner(File file, int threads) throws IOException {
+		this.file = file;
+
+		channel = new RandomAccessFile(file, "r").getChannel();
+		size = channel.size();
+		maxPendingSegments = Math.max(threads, 1) * 2;
+
+		try {
+			readProlog();
+		} catch (IOException e) {
+			channel.close();
+			throw e;
+		}
+
+		service = Executors.newFixedThreadPool(Math.max(threads, 1), new ThreadFactory() {
+			private int counter;
+
+			public Thread newThread(Runnable r) {
+				Thread t = new Thread(r, "mapped_file_scanner_" + (++counter));
+				t.setDaemon(true);
+				return t;
+			}
+		});
+
+		submitSegments();
+	}
+
+	public File getFile() {
+		return file;
+	}
+
+	public boolean hasNext() throws IOException {
+		while (next == null) {
+			if (segment == null || marker == segment.count) {
+				if (segments.isEmpty()) {
+					if (depth != 0 || inComment || inCData)
+						throw new IOException("Unexpected end of file " + file + ".");
+
+					emitChunk();
+					break;
+				}
+
+				segment = getNextSegment();
+				marker = 0;
+				submitSegments();
+				continue;
+			}
+
+			processMarker(marker++);
+		}
+
+		return next != null;
+	}
+
+	public MappedChunk nextChunk() throws IOException {
+		if (!hasNext())
+			return null;
+
+		MappedChunk chunk = next;
+		next = null;
+		return chunk;
+	}
+
+	public void close() throws IOException {
+		if (!isClosed) {
+			isClosed = true;
+			service.shutdownNow();
+			channel.close();
+		}
+	}
+
+	MappedByteBuffer map(long start, long length) throws IOException {
+		return channel.map(MapMode.READ_ONLY, start, length);
+	}
+
+	byte[] getPrefix() {
+		return prefix;
+	}
+
+	byte[] getSuffix() {
+		return suffix;
+	}
+
+	private void processMarker(int index) throws IOException {
+		byte type = segment.types[index];
+		long pos = segment.positions[index];
+		long end = segment.ends[index];
+
+		// markup inside comments and CDATA sections is ignored
+		if (inComment) {
+			if (type == COMMENT_END && pos >= markupStart + 4)
+				inComment = false;
+
+			return;
+		}
+
+		if (inCData) {
+			if (type == CDATA_END && pos >= markupStart + 9)
+				inCData = false;
+
+			return;
+		}
+
+		switch (type) {
+		case COMMENT_START:
+			inComment = true;
+			markupStart = pos;
+			break;
+		case CDATA_START:
+			inCData = true;
+			markupStart = pos;
+			break;
+		case MEMBER_START:
+		case MEMBER_EMPTY:
+			if (end < 0)
+				throw new IOException("Failed to find the end of the start tag at offset " + pos + " in file " + file + ".");
+
+			if (type == MEMBER_EMPTY) {
+				if (depth == 0)
+					addMember(pos, end);
+			} else if (depth++ == 0)
+				memberStart = pos;
+
+			break;
+		case MEMBER_END:
+			if (end < 0 || depth == 0)
+				throw new IOException("Unbalanced end tag at offset " + pos + " in file " + file + ".");
+
+			if (--depth == 0)
+				addMember(memberStart, end);
+
+			break;
+		}
+	}
+
+	private void addMember(long start, long end) {
+		// neighbouring members are passed on as a single chunk
+		// in order to amortize the setup costs of the parser
+		if (chunkStart < 0)
+			chunkStart = start;
+
+		chunkEnd = end;
+		if (chunkEnd - chunkStart >= CHUNK_SIZE)
+			emitChunk();
+	}
+
+	private void emitChunk() {
+		if (chunkStart >= 0) {
+			next = new MappedChunk(this, chunkStart, chunkEnd);
+			chunkStart = -1;
+		}
+	}
+
+	private void submitSegments() {
+		while (position < size && segments.size() < maxPendingSegments) {
+			long start = position;
+			long end = Math.min(size, start + SEGMENT_SIZE);
+			segments.add(service.submit(new SegmentScanner(start, end)));
+			position = end;
+		}
+	}
+
+	private Segment getNextSegment() throws IOException {
+		try {
+			return segments.removeFirst().get();
+		} catch (InterruptedException e) {
+			throw new InterruptedIOException("Interrupted while scanning file " + file + ".");
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof IOException)
+				throw (IOException)e.getCause();
+
+			throw new IOException("Failed to scan file " + file + ".", e.getCause());
+		}
+	}
+
+	private void readProlog() throws IOException {
+		MappedByteBuffer buffer = map(0, Math.min(size, SEGMENT_OVERLAP));
+		int limit = buffer.limit();
+		int i = 0;
+
+		if (limit >= 2 && ((buffer.get(0) == (byte)0xFE && buffer.get(1) == (byte)0xFF) 
+				|| (buffer.get(0) == (byte)0xFF && buffer.get(1) == (byte)0xFE)))
+			throw new IOException("UTF-16 encoded files are not supported.");
+
+		if (limit >= 3 && buffer.get(0) == (byte)0xEF && buffer.get(1) == (byte)0xBB && buffer.get(2) == (byte)0xBF)
+			i = 3;
+
+		while (i < limit) {
+			byte b = buffer.get(i);
+			if (b != '<') {
+				i++;
+				continue;
+			}
+
+			if (matches(buffer, i, limit, "<?")) {
+				int end = indexOf(buffer, i, limit, "?>");
+				if (end < 0)
+					break;
+
+				if (matches(buffer, i, limit, "<?xml "))
+					checkEncoding(new String(getBytes(buffer, i, end), "US-ASCII"));
+
+				i = end + 2;
+			} else if (matches(buffer, i, limit, "<!--")) {
+				int end = indexOf(buffer, i + 4, limit, "-->");
+				if (end < 0)
+					break;
+
+				i = end + 3;
+			} else if (matches(buffer, i, limit, "<!DOCTYPE")) {
+				int end = findTagEnd(buffer, i, limit);
+				if (end < 0 || indexOf(buffer, i, end, "[") >= 0)
+					throw new IOException("Document type declarations with an internal subset are not supported.");
+
+				i = end;
+			} else {
+				// root element
+				int end = findTagEnd(buffer, i, limit);
+				if (end < 0)
+					break;
+
+				int nameEnd = i + 1;
+				while (nameEnd < end && isNameChar(buffer.get(nameEnd)))
+					nameEnd++;
+
+				prefix = getBytes(buffer, 0, end);
+				suffix = ("</" + new String(getBytes(buffer, i + 1, nameEnd), "UTF-8") + ">").getBytes("UTF-8");
+
+				// an empty root element does not contain members
+				if (buffer.get(end - 2) == '/')
+					position = size;
+				else
+					position = end;
+
+				return;
+			}
+		}
+
+		throw new IOException("Failed to find the root element of file " + file + ".");
+	}
+
+	private void checkEncoding(String declaration) throws IOException {
+		int index = declaration.indexOf("encoding");
+		if (index < 0)
+			return;
+
+		String encoding = declaration.substring(index + 8).replaceAll("[\\s=\"']", " ").trim().split("\\s+")[0].toUpperCase(Locale.ENGLISH);
+		if (!encoding.startsWith("UTF-8") 
+				&& !encoding.startsWith("US-ASCII") 
+				&& !encoding.startsWith("ISO-8859") 
+				&& !encoding.startsWith("WINDOWS-125"))
+			throw new IOException("The encoding " + encoding + " is not supported.");
+	}
+
+	private static boolean matches(MappedByteBuffer buffer, int pos, int limit, String token) {
+		if (pos + token.length() > limit)
+			return false;
+
+		for (int i = 0; i < token.length(); i++) {
+			if (buffer.get(pos + i) != token.charAt(i))
+				return false;
+		}
+
+		return true;
+	}
+
+	private static int indexOf(MappedByteBuffer buffer, int pos, int limit, String token) {
+		for (int i = pos; i < limit; i++) {
+			if (matches(buffer, i, limit, token))
+				return i;
+		}
+
+		return -1;
+	}
+
+	private static int findTagEnd(MappedByteBuffer buffer, int pos, int limit) {
+		// '>' may legally occur within attribute values
+		byte quote = 0;
+		for (int i = pos; i < limit; i++) {
+			byte b = buffer.get(i);
+			if (quote != 0) {
+				if (b == quote)
+					quote = 0;
+			} else if (b == '"' || b == '\'')
+				quote = b;
+			else if (b == '>')
+				return i + 1;
+		}
+
+		return -1;
+	}
+
+	private static byte[] getBytes(MappedByteBuffer buffer, int start, int end) {
+		byte[] bytes = new byte[end - start];
+		for (int i = 0; i < bytes.length; i++)
+			bytes[i] = buffer.get(start + i);
+
+		return bytes;
+	}
+
+	private static boolean isNameChar(byte b) {
+		return b != ' ' && b != '\t' && b != '\r' && b != '\n' && b != '>' && b != '/';
+	}
+
+	private final class SegmentScanner implements Callable<Segment> {
+		private final long start;
+		private final long end;
+
+		private SegmentScanner(long start, long end) {
+			this.start = start;
+			this.end = end;
+		}
+
+		@Override
+		public Segment call() throws Exception {
+			// markers are only recorded if they start within the segment, but
+			// they may extend into the overlap with the next segment
+			int length = (int)(end - start);
+			int limit = (int)(Math.min(size, end + SEGMENT_OVERLAP) - start);
+			MappedByteBuffer buffer = map(start, limit);
+			Segment segment = new Segment();
+
+			for (int i = 0; i < length; i++) {
+				byte b = buffer.get(i);
+
+				if (b == '<') {
+					if (i + 1 == limit)
+						break;
+
+					byte c = buffer.get(i + 1);
+					if (c == '!') {
+						if (matches(buffer, i, limit, "<!--"))
+							segment.add(COMMENT_START, start + i, -1);
+						else if (matches(buffer, i, limit, "<![CDATA["))
+							segment.add(CDATA_START, start + i, -1);
+					} else if (c == '/') {
+						if (isMemberName(buffer, i + 2, limit)) {
+							int tagEnd = findTagEnd(buffer, i, limit);
+							segment.add(MEMBER_END, start + i, tagEnd < 0 ? -1 : start + tagEnd);
+						}
+					} else if (c != '?' && isMemberName(buffer, i + 1, limit)) {
+						int tagEnd = findTagEnd(buffer, i, limit);
+						if (tagEnd < 0)
+							segment.add(MEMBER_START, start + i, -1);
+						else
+							segment.add(buffer.get(tagEnd - 2) == '/' ? MEMBER_EMPTY : MEMBER_START, start + i, start + tagEnd);
+					}
+				} else if (b == '-') {
+					if (matches(buffer, i, limit, "-->"))
+						segment.add(COMMENT_END, start + i, -1);
+				} else if (b == ']') {
+					if (matches(buffer, i, limit, "]]>"))
+						segment.add(CDATA_END, start + i, -1);
+				}
+			}
+
+			return segment;
+		}
+
+		private boolean isMemberName(MappedByteBuffer buffer, int pos, int limit) {
+			// compare the local part of the qualified name
+			int localName = pos;
+			int i = pos;
+			for (; i < limit && i - pos < MAX_NAME_LENGTH; i++) {
+				byte b = buffer.get(i);
+				if (!isNameChar(b))
+					break;
+				else if (b == ':')
+					localName = i + 1;
+			}
+
+			if (i == limit || i - pos == MAX_NAME_LENGTH)
+				return false;
+
+			for (byte[] name : MEMBER_NAMES) {
+				if (name.length == i - localName) {
+					int j = 0;
+					while (j < name.length && buffer.get(localName + j) == name[j])
+						j++;
+
+					if (j == name.length)
+						return true;
+				}
+			}
+
+			return false;
+		}
+	}
+
+	private static final class Segment {
+		private byte[] types = new byte[64];
+		private long[] positions = new long[64];
+		private long[] ends = new long[64];
+		private int count;
+
+		private void add(byte type, long position, long end) {
+			if (count == types.length) {
+				types = Arrays.copyOf(types, count * 2);
+				positions = Arrays.copyOf(positions, count * 2);
+				ends = Arrays.copyOf(ends, count * 2);
+			}
+
+			types[count] = type;
+			positions[count] = position;
+			ends[count++] = end;
+		}
+	}
+
+}
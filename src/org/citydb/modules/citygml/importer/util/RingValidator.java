@@ -27,6 +27,7 @@
  */
 package org.citydb.modules.citygml.importer.util;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import org.citydb.config.internal.Internal;
@@ -40,12 +41,16 @@ public class RingValidator {
 	private final Logger LOG = Logger.getInstance();
 
 	public boolean validate(LinearRing ring, String parentGmlId) {
+		return getValidCoordinates(ring, parentGmlId, false) != null;
+	}
+
+	public double[] getValidCoordinates(LinearRing ring, String parentGmlId, boolean reverse) {
 		if (ring.hasLocalProperty(Internal.GEOMETRY_INVALID))
-			return false;
+			return null;
 
-		List<Double> coords = ring.toList3d();
+		double[] coords = toArray3d(ring);
 
-		if (coords == null || coords.isEmpty()) {
+		if (coords.length == 0) {
 			StringBuilder msg = new StringBuilder(Util.getGeometrySignature(
 					GMLClass.LINEAR_RING, 
 					parentGmlId));
@@ -53,20 +58,22 @@ public class RingValidator {
 			LOG.error(msg.toString());
 			
 			ring.setLocalProperty(Internal.GEOMETRY_INVALID, "Too few coordinates");			
-			return false;
+			return null;
 		}
 		
 		// check closedness
-		if (!isClosed(coords, ring)) {
+		if (!isClosed(coords)) {
 			StringBuilder msg = new StringBuilder(Util.getGeometrySignature(
 					GMLClass.LINEAR_RING, 
 					parentGmlId));
 			msg.append(": Linear ring is not closed. Appending first coordinate to fix it.");
 			LOG.warn(msg.toString());
+			
+			coords = close(coords, ring);
 		}
 		
 		// check for minimum number of coordinates
-		if (coords.size() / 3 < 4) {
+		if (coords.length / 3 < 4) {
 			StringBuilder msg = new StringBuilder(Util.getGeometrySignature(
 					GMLClass.LINEAR_RING, 
 					parentGmlId));
@@ -74,39 +81,90 @@ public class RingValidator {
 			LOG.error(msg.toString());
 			
 			ring.setLocalProperty(Internal.GEOMETRY_INVALID, "Too few coordinates");			
-			return false;
+			return null;
 		}
 		
-		return true;
+		if (reverse)
+			reverse(coords);
+		
+		return coords;
 	}
 	
-	private boolean isClosed(List<Double> coords, LinearRing ring) {
-		Double x = coords.get(0);
-		Double y = coords.get(1);
-		Double z = coords.get(2);
-
-		int nrOfPoints = coords.size();
-
-		if (!x.equals(coords.get(nrOfPoints - 3)) ||
-				!y.equals(coords.get(nrOfPoints - 2)) ||
-				!z.equals(coords.get(nrOfPoints - 1))) {
-			// repair unclosed ring...
-			coords.add(x);
-			coords.add(y);
-			coords.add(z);
-
-			DirectPositionList posList = new DirectPositionList();
-			posList.setValue(coords);
-			ring.setPosList(posList);
-
-			ring.unsetCoord();
-			ring.unsetCoordinates();
-			ring.unsetPosOrPointPropertyOrPointRep();
+	private double[] toArray3d(LinearRing ring) {
+		// gml:posList is by far the most common encoding, so read its values
+		// directly instead of copying them into an intermediate list first
+		if (ring.isSetPosList() 
+				&& !ring.isSetPosOrPointPropertyOrPointRep() 
+				&& !ring.isSetCoord() 
+				&& !ring.isSetCoordinates()) {
+			DirectPositionList posList = ring.getPosList();
+			if (!posList.isSetValue())
+				return new double[0];
+			
+			List<Double> values = posList.getValue();
+			int dimension = posList.isSetSrsDimension() && posList.getSrsDimension() == 2 ? 2 : 3;
+			int size = values.size();
 			
-			return false;
+			// missing ordinates are filled with zero like in DirectPositionList.toList3d()
+			double[] coords = new double[(size + dimension - 1) / dimension * 3];
+			for (int i = 0, j = 0; i < size; i += dimension, j += 3) {
+				coords[j] = values.get(i);
+				if (i + 1 < size)
+					coords[j + 1] = values.get(i + 1);
+				if (dimension == 3 && i + 2 < size)
+					coords[j + 2] = values.get(i + 2);
+			}
+			
+			return coords;
 		}
 		
-		return true;
+		List<Double> values = ring.toList3d();
+		double[] coords = new double[values.size()];
+		
+		int i = 0;
+		for (Double value : values)
+			coords[i++] = value.doubleValue();
+		
+		return coords;
+	}
+	
+	private boolean isClosed(double[] coords) {
+		int nrOfCoords = coords.length;
+		
+		return Double.compare(coords[0], coords[nrOfCoords - 3]) == 0 
+				&& Double.compare(coords[1], coords[nrOfCoords - 2]) == 0 
+				&& Double.compare(coords[2], coords[nrOfCoords - 1]) == 0;
+	}
+	
+	private double[] close(double[] coords, LinearRing ring) {
+		// repair unclosed ring...
+		double[] closed = new double[coords.length + 3];
+		System.arraycopy(coords, 0, closed, 0, coords.length);
+		System.arraycopy(coords, 0, closed, coords.length, 3);
+		
+		List<Double> values = new ArrayList<Double>(closed.length);
+		for (double value : closed)
+			values.add(value);
+		
+		DirectPositionList posList = new DirectPositionList();
+		posList.setValue(values);
+		ring.setPosList(posList);
+
+		ring.unsetCoord();
+		ring.unsetCoordinates();
+		ring.unsetPosOrPointPropertyOrPointRep();
+		
+		return closed;
+	}
+	
+	private void reverse(double[] coords) {
+		for (int i = 0, j = coords.length - 3; i < j; i += 3, j -= 3) {
+			for (int k = 0; k < 3; k++) {
+				double tmp = coords[i + k];
+				coords[i + k] = coords[j + k];
+				coords[j + k] = tmp;
+			}
+		}
 	}
 
 }
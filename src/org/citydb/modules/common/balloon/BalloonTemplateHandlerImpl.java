@@ -34,13 +34,19 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.ListIterator;
+import java.util.Map;
 import java.util.Set;
 import java.util.StringTokenizer;
 
@@ -1118,11 +1124,31 @@ public class BalloonTemplateHandlerImpl implements BalloonTemplateHandler {
 			"  </body>\n" +
 			"</html>";
 
+	private static final int MAX_CACHED_STATEMENTS = 100;
+
 	private final AbstractDatabaseAdapter databaseAdapter;
 	private CityGMLClass cityGMLClassForBalloonHandler = null;
 
 	List<BalloonStatement> statementList = null;
 	List<String> htmlChunkList = null;
+
+	// prepared statements are reused for all objects as long as the connection does not change
+	private Connection cachedConnection;
+	private LinkedHashMap<String, CachedStatement> statementCache = new LinkedHashMap<String, CachedStatement>(16, 0.75f, true) {
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, CachedStatement> eldest) {
+			if (size() > MAX_CACHED_STATEMENTS) {
+				eldest.getValue().close();
+				return true;
+			}
+
+			return false;
+		}
+	};
+
+	// block of object ids whose balloon statements are resolved with one query per statement
+	private Set<Long> prefetchIds;
+	private HashMap<Long, CityGMLClass> prefetchedTypes;
 	
 	public BalloonTemplateHandlerImpl(File templateFile, AbstractDatabaseAdapter databaseAdapter) {
 		this.databaseAdapter = databaseAdapter;
@@ -1188,8 +1214,10 @@ public class BalloonTemplateHandlerImpl implements BalloonTemplateHandler {
 		String balloonContent = "";
 		List<BalloonStatement> statementListBackup = statementList;
 		List<String> htmlChunkListBackup = htmlChunkList;
+		Set<Long> prefetchIdsBackup = prefetchIds;
 		statementList = new ArrayList<BalloonStatement>();
 		htmlChunkList = new ArrayList<String>();
+		prefetchIds = null;
 		try {
 			fillStatementAndHtmlChunkList(template);
 			balloonContent = getBalloonContent(id, lod, connection);
@@ -1200,6 +1228,7 @@ public class BalloonTemplateHandlerImpl implements BalloonTemplateHandler {
 		}
 		statementList = statementListBackup;
 		htmlChunkList = htmlChunkListBackup;
+		prefetchIds = prefetchIdsBackup;
 		return balloonContent;
 	}
 
@@ -1219,9 +1248,8 @@ public class BalloonTemplateHandlerImpl implements BalloonTemplateHandler {
 			long id = -1;
 
 			ResultSet rs = null;
-			PreparedStatement query = null;
 			try {
-				query = connection.prepareStatement("SELECT id, objectclass_id FROM CITYOBJECT WHERE gmlid = ?");
+				PreparedStatement query = getCachedStatement("SELECT id, objectclass_id FROM CITYOBJECT WHERE gmlid = ?", 0, connection).getPreparedStatement();
 				query.setString(1, gmlId);
 				rs = query.executeQuery();
 				
@@ -1236,11 +1264,6 @@ public class BalloonTemplateHandlerImpl implements BalloonTemplateHandler {
 					try { rs.close(); }	catch (SQLException sqlEx) {}
 					rs = null;
 				}
-
-				if (query != null) {
-					try { query.close(); } catch (SQLException sqlEx) {}
-					query = null;
-				}
 			}
 
 			if (cityGMLClassForBalloonHandler != cityObjectTypeForGmlId) {
@@ -1280,31 +1303,7 @@ public class BalloonTemplateHandlerImpl implements BalloonTemplateHandler {
 			// otherwise it avoids problems from lousy initialization of BalloonTemplateHandlers in threads
 			// at the cost of performance
 
-			CityGMLClass cityObjectTypeForId = null;
-
-			ResultSet rs = null;
-			PreparedStatement query = null;
-			try {
-				query = connection.prepareStatement("SELECT gmlid, objectclass_id FROM CITYOBJECT WHERE id = ?");
-				query.setLong(1, id);
-				rs = query.executeQuery();
-
-				if (rs.next()) {
-					cityObjectTypeForId = Util.classId2cityObject(rs.getInt("objectclass_id"));
-				}
-			}
-			catch (SQLException sqlEx) {}
-			finally {
-				if (rs != null) {
-					try { rs.close(); }	catch (SQLException sqlEx) {}
-					rs = null;
-				}
-
-				if (query != null) {
-					try { query.close(); } catch (SQLException sqlEx) {}
-					query = null;
-				}
-			}
+			CityGMLClass cityObjectTypeForId = getCityObjectType(id, connection);
 
 			if (cityGMLClassForBalloonHandler != cityObjectTypeForId) {
 				for (BalloonStatement statement: statementList) {
@@ -1396,59 +1395,31 @@ public class BalloonTemplateHandlerImpl implements BalloonTemplateHandler {
 					}
 
 					BalloonStatement dummy = new BalloonStatement(notNestedAnymore.toString());
-					preparedStatement = connection.prepareStatement(dummy.getProperSQLStatement(lod));
+					preparedStatement = getCachedStatement(dummy.getProperSQLStatement(lod), lod, connection).bind(id);
 				}
 				else { // not nested
 					if (statement.getProperSQLStatement(lod) == null) {
 						// malformed expression between proper START_TAG and END_TAG
 						return result; // skip db call, rs and preparedStatement are currently null
 					}
-					preparedStatement = connection.prepareStatement(statement.getProperSQLStatement(lod));
-				}
 
-				for (int i = 1; i <= preparedStatement.getParameterMetaData().getParameterCount(); i++) {
-					preparedStatement.setLong(i, id);
+					String prefetchedResult = getPrefetchedResult(statement, id, lod, connection);
+					if (prefetchedResult != null) {
+						return prefetchedResult;
+					}
+
+					preparedStatement = getCachedStatement(statement.getProperSQLStatement(lod), lod, connection).bind(id);
 				}
+
 				rs = preparedStatement.executeQuery();
+				StringBuilder resultBuilder = new StringBuilder();
 				while (rs.next()) {
 					if (rs.getRow() > 1) {
-						result = result + ", ";
-					}
-					Object object = rs.getObject(1);
-					if (!rs.wasNull() && object != null) {
-						GeometryObject geomObj = databaseAdapter.getGeometryConverter().getGeometry(object);
-						if (geomObj != null) {
-							int dimension = geomObj.getDimension();
-
-							result = result + "(";
-							for (int ringNo = 0; ringNo < geomObj.getNumElements(); ringNo++) {
-								double[] ring = geomObj.getCoordinates(ringNo);
-
-								for (int i = 0; i < ring.length; i = i + dimension) {
-									for (int j = 0; j < dimension; j++) {
-										result = result + ring[i+j];
-										if (j < dimension - 1) 
-											result = result + ",";
-									}
-
-									if (i+dimension < ring.length)
-										result = result + " ";
-								}	
-
-								if (ringNo < geomObj.getNumElements() - 1)
-									result = result + " ";
-							}
-							result = result + ")";
-						}
-						else {
-							String tmp = rs.getObject(1).toString();
-							if (tmp.indexOf("oracle.sql.TIMESTAMPTZ") >= 0) {
-								tmp =  rs.getTimestamp(1).toString();
-							}
-							result = result + tmp.replaceAll("\"", "&quot;"); // workaround, the JAXB KML marshaler does not escape " properly;
-						}
+						resultBuilder.append(", ");
 					}
+					appendValue(resultBuilder, rs, 1);
 				}
+				result = resultBuilder.toString();
 			}
 			catch (Exception e) {
 				Logger.getInstance().warn("Exception when executing balloon statement: " + statement.rawStatement + " --> " + e.getMessage());
@@ -1456,7 +1427,6 @@ public class BalloonTemplateHandlerImpl implements BalloonTemplateHandler {
 			finally {
 				try {
 					if (rs != null) rs.close();
-					if (preparedStatement != null) preparedStatement.close();
 				}
 				catch (Exception e2) {}
 			}
@@ -1464,6 +1434,43 @@ public class BalloonTemplateHandlerImpl implements BalloonTemplateHandler {
 		return result;
 	}
 
+	private void appendValue(StringBuilder result, ResultSet rs, int column) throws SQLException {
+		Object object = rs.getObject(column);
+		if (!rs.wasNull() && object != null) {
+			GeometryObject geomObj = databaseAdapter.getGeometryConverter().getGeometry(object);
+			if (geomObj != null) {
+				int dimension = geomObj.getDimension();
+
+				result.append("(");
+				for (int ringNo = 0; ringNo < geomObj.getNumElements(); ringNo++) {
+					double[] ring = geomObj.getCoordinates(ringNo);
+
+					for (int i = 0; i < ring.length; i = i + dimension) {
+						for (int j = 0; j < dimension; j++) {
+							result.append(ring[i+j]);
+							if (j < dimension - 1) 
+								result.append(",");
+						}
+
+						if (i+dimension < ring.length)
+							result.append(" ");
+					}	
+
+					if (ringNo < geomObj.getNumElements() - 1)
+						result.append(" ");
+				}
+				result.append(")");
+			}
+			else {
+				String tmp = object.toString();
+				if (tmp.indexOf("oracle.sql.TIMESTAMPTZ") >= 0) {
+					tmp =  rs.getTimestamp(column).toString();
+				}
+				result.append(tmp.replaceAll("\"", "&quot;")); // workaround, the JAXB KML marshaler does not escape " properly;
+			}
+		}
+	}
+
 	private String executeForeachStatement(BalloonStatement statement, long id, int lod, Connection connection) {
 		String resultBody = "";
 		
@@ -1471,11 +1478,7 @@ public class BalloonTemplateHandlerImpl implements BalloonTemplateHandler {
 		ResultSet rs = null;
 		try {
 			if (statement != null && statement.getProperSQLStatement(lod) != null) {
-				preparedStatement = connection.prepareStatement(statement.getProperSQLStatement(lod));
-				for (int i = 1; i <= preparedStatement.getParameterMetaData().getParameterCount(); i++) {
-					preparedStatement.setLong(i, id);
-				}
-
+				preparedStatement = getCachedStatement(statement.getProperSQLStatement(lod), lod, connection).bind(id);
 				rs = preparedStatement.executeQuery();
 				while (rs.next()) {
 					String iterationBody = statement.getForeachBody();
@@ -1528,13 +1531,276 @@ public class BalloonTemplateHandlerImpl implements BalloonTemplateHandler {
 		finally {
 			try {
 				if (rs != null) rs.close();
-				if (preparedStatement != null) preparedStatement.close();
 			}
 			catch (Exception e2) {}
 		}
 		return resultBody;
 	}
 
+	@Override
+	public void prefetch(Collection<Long> ids) {
+		prefetchIds = new HashSet<Long>(ids);
+		prefetchedTypes = null;
+
+		for (BalloonStatement statement: statementList) {
+			statement.clearPrefetchedResults();
+		}
+	}
+
+	@Override
+	public void close() {
+		closeCachedStatements();
+		cachedConnection = null;
+		prefetchIds = null;
+		prefetchedTypes = null;
+	}
+
+	private void closeCachedStatements() {
+		for (CachedStatement cachedStatement: statementCache.values()) {
+			cachedStatement.close();
+		}
+		statementCache.clear();
+	}
+
+	private CachedStatement getCachedStatement(String sqlStatement, int lod, Connection connection) throws SQLException {
+		if (connection != cachedConnection) {
+			closeCachedStatements();
+			cachedConnection = connection;
+		}
+
+		String key = lod + ":" + sqlStatement;
+		CachedStatement cachedStatement = statementCache.get(key);
+		if (cachedStatement == null) {
+			cachedStatement = new CachedStatement(connection.prepareStatement(sqlStatement));
+			statementCache.put(key, cachedStatement);
+		}
+
+		return cachedStatement;
+	}
+
+	private CityGMLClass getCityObjectType(long id, Connection connection) {
+		if (prefetchIds != null && prefetchIds.contains(id)) {
+			CityGMLClass cityObjectType = getPrefetchedTypes(connection).get(id);
+			if (cityObjectType != null) {
+				return cityObjectType;
+			}
+		}
+
+		CityGMLClass cityObjectType = null;
+		ResultSet rs = null;
+		try {
+			PreparedStatement query = getCachedStatement("SELECT gmlid, objectclass_id FROM CITYOBJECT WHERE id = ?", 0, connection).bind(id);
+			rs = query.executeQuery();
+
+			if (rs.next()) {
+				cityObjectType = Util.classId2cityObject(rs.getInt("objectclass_id"));
+			}
+		}
+		catch (SQLException sqlEx) {}
+		finally {
+			if (rs != null) {
+				try { rs.close(); }	catch (SQLException sqlEx) {}
+			}
+		}
+
+		return cityObjectType;
+	}
+
+	private HashMap<Long, CityGMLClass> getPrefetchedTypes(Connection connection) {
+		if (prefetchedTypes == null) {
+			prefetchedTypes = new HashMap<Long, CityGMLClass>();
+
+			Statement stmt = null;
+			ResultSet rs = null;
+			try {
+				stmt = connection.createStatement();
+				rs = stmt.executeQuery("SELECT id, objectclass_id FROM CITYOBJECT WHERE " + 
+						Util.buildInOperator(prefetchIds, "id", "or", databaseAdapter.getSQLAdapter().getMaximumNumberOfItemsForInOperator()));
+
+				while (rs.next()) {
+					prefetchedTypes.put(rs.getLong(1), Util.classId2cityObject(rs.getInt(2)));
+				}
+			}
+			catch (SQLException sqlEx) {}
+			finally {
+				try {
+					if (rs != null) rs.close();
+					if (stmt != null) stmt.close();
+				}
+				catch (SQLException sqlEx) {}
+			}
+		}
+
+		return prefetchedTypes;
+	}
+
+	private String getPrefetchedResult(BalloonStatement statement, long id, int lod, Connection connection) throws Exception {
+		if (prefetchIds == null || !prefetchIds.contains(id) || statement.isPrefetchDisabled()) {
+			return null;
+		}
+
+		// results are kept per object type, so blocks mixing several
+		// types do not query the same objects again on every type switch
+		HashMap<Long, String> results = statement.getPrefetchedResults(cityGMLClassForBalloonHandler, lod);
+		if (results == null) {
+			results = prefetchResults(statement, lod, connection);
+			statement.setPrefetchedResults(cityGMLClassForBalloonHandler, lod, results);
+		}
+
+		return results.get(id);
+	}
+
+	private HashMap<Long, String> prefetchResults(BalloonStatement statement, int lod, Connection connection) throws Exception {
+		HashMap<Long, String> results = new HashMap<Long, String>();
+
+		// the statement has been converted for the current object type, so only
+		// objects of the same type in the block can share the query
+		HashMap<Long, CityGMLClass> cityObjectTypes = getPrefetchedTypes(connection);
+		List<Long> ids = new ArrayList<Long>();
+		for (Long id: prefetchIds) {
+			if (cityObjectTypes.get(id) == cityGMLClassForBalloonHandler) {
+				ids.add(id);
+			}
+		}
+
+		if (ids.size() < 2) {
+			return results;
+		}
+
+		// evaluate the statement once per object by correlating its id parameters
+		// with the objects of the block
+		String correlatedStatement = replaceParameterMarkers(statement.getProperSQLStatement(lod), "balloon_co.id");
+		StringBuilder query = new StringBuilder("SELECT balloon_co.id AS balloon_id, s.* FROM CITYOBJECT balloon_co ");
+		switch (databaseAdapter.getDatabaseType()) {
+		case ORACLE:
+			query.append("CROSS APPLY (SELECT t.*, ROWNUM AS balloon_rn FROM (").append(correlatedStatement).append(") t) s ");
+			break;
+		case POSTGIS:
+			query.append("CROSS JOIN LATERAL (SELECT t.*, ROW_NUMBER() OVER() AS balloon_rn FROM (").append(correlatedStatement).append(") t) s ");
+			break;
+		default:
+			statement.setPrefetchDisabled(true);
+			return results;
+		}
+		query.append("WHERE ").append(Util.buildInOperator(ids, "balloon_co.id", "or", databaseAdapter.getSQLAdapter().getMaximumNumberOfItemsForInOperator()))
+		.append(" ORDER BY balloon_co.id, s.balloon_rn");
+
+		HashMap<Long, StringBuilder> resultBuilders = new HashMap<Long, StringBuilder>();
+		for (Long id: ids) {
+			resultBuilders.put(id, new StringBuilder());
+		}
+
+		Savepoint savepoint = null;
+		Statement stmt = null;
+		ResultSet rs = null;
+		try {
+			// a failing query must not abort the transaction of the export worker
+			if (!connection.getAutoCommit()) {
+				savepoint = connection.setSavepoint();
+			}
+
+			stmt = connection.createStatement();
+			rs = stmt.executeQuery(query.toString());
+
+			long lastId = 0;
+			boolean isFirst = true;
+			while (rs.next()) {
+				long id = rs.getLong(1);
+				StringBuilder result = resultBuilders.get(id);
+				if (result == null) {
+					continue;
+				}
+
+				if (!isFirst && id == lastId) {
+					result.append(", ");
+				}
+				appendValue(result, rs, 2);
+
+				lastId = id;
+				isFirst = false;
+			}
+
+			for (Map.Entry<Long, StringBuilder> entry: resultBuilders.entrySet()) {
+				results.put(entry.getKey(), entry.getValue().toString());
+			}
+		}
+		catch (SQLException sqlEx) {
+			// fall back to executing the statement per object
+			Logger.getInstance().debug("Failed to resolve balloon statement " + statement.getRawStatement() + " for a block of objects: " + sqlEx.getMessage());
+			statement.setPrefetchDisabled(true);
+			results.clear();
+
+			if (savepoint != null) {
+				try { connection.rollback(savepoint); } catch (SQLException e) {}
+				savepoint = null;
+			}
+		}
+		finally {
+			try {
+				if (rs != null) rs.close();
+				if (stmt != null) stmt.close();
+			}
+			catch (SQLException sqlEx) {}
+
+			if (savepoint != null) {
+				try { connection.releaseSavepoint(savepoint); } catch (SQLException e) {}
+			}
+		}
+
+		return results;
+	}
+
+	private static String replaceParameterMarkers(String sql, String replacement) {
+		// only replace ? outside of string literals, quoted identifiers and comments
+		StringBuilder result = new StringBuilder(sql.length());
+		int length = sql.length();
+		int index = 0;
+
+		while (index < length) {
+			char c = sql.charAt(index);
+			int end = index + 1;
+
+			if (c == '\'' || c == '"') {
+				// a doubled quote is an escaped quote and keeps the section open
+				end = sql.indexOf(c, end);
+				while (end != -1 && end + 1 < length && sql.charAt(end + 1) == c) {
+					end = sql.indexOf(c, end + 2);
+				}
+				end = end == -1 ? length : end + 1;
+			}
+			else if (c == '-' && sql.startsWith("--", index)) {
+				end = sql.indexOf('\n', index);
+				end = end == -1 ? length : end + 1;
+			}
+			else if (c == '/' && sql.startsWith("/*", index)) {
+				end = sql.indexOf("*/", index + 2);
+				end = end == -1 ? length : end + 2;
+			}
+			else if (c == '$' && (index == 0 || !Character.isLetterOrDigit(sql.charAt(index - 1)) && sql.charAt(index - 1) != '_')) {
+				// PostgreSQL dollar-quoted string such as $$...$$ or $tag$...$tag$
+				int tagEnd = index + 1;
+				while (tagEnd < length && (Character.isLetterOrDigit(sql.charAt(tagEnd)) || sql.charAt(tagEnd) == '_')) {
+					tagEnd++;
+				}
+				if (tagEnd < length && sql.charAt(tagEnd) == '$' && (tagEnd == index + 1 || !Character.isDigit(sql.charAt(index + 1)))) {
+					String tag = sql.substring(index, tagEnd + 1);
+					end = sql.indexOf(tag, tagEnd + 1);
+					end = end == -1 ? length : end + tag.length();
+				}
+			}
+			else if (c == '?') {
+				result.append(replacement);
+				index = end;
+				continue;
+			}
+
+			result.append(sql, index, end);
+			index = end;
+		}
+
+		return result.toString();
+	}
+
 	private void fillStatementAndHtmlChunkList(String template) throws Exception {
 		// parse like it's 1999
 		int lastIndex = 0;
@@ -1588,6 +1854,35 @@ public class BalloonTemplateHandlerImpl implements BalloonTemplateHandler {
 		htmlChunkList.add(template.substring(index)); // last chunk
 	}
 
+	private static final class CachedStatement {
+		private final PreparedStatement preparedStatement;
+		private int parameterCount = -1;
+
+		private CachedStatement(PreparedStatement preparedStatement) {
+			this.preparedStatement = preparedStatement;
+		}
+
+		private PreparedStatement getPreparedStatement() {
+			return preparedStatement;
+		}
+
+		private PreparedStatement bind(long id) throws SQLException {
+			// the parameter metadata may require a round trip, so it is only requested once
+			if (parameterCount < 0) {
+				parameterCount = preparedStatement.getParameterMetaData().getParameterCount();
+			}
+
+			for (int i = 1; i <= parameterCount; i++) {
+				preparedStatement.setLong(i, id);
+			}
+
+			return preparedStatement;
+		}
+
+		private void close() {
+			try { preparedStatement.close(); } catch (SQLException sqlEx) {}
+		}
+	}
 
 	private class BalloonStatement {
 		private String rawStatement;
@@ -1601,6 +1896,9 @@ public class BalloonTemplateHandlerImpl implements BalloonTemplateHandler {
 		private String tableShortId;
 		private boolean orderByColumnAllowed = true;
 
+		private HashMap<String, HashMap<Long, String>> prefetchedResults = new HashMap<String, HashMap<Long, String>>();
+		private boolean prefetchDisabled = false;
+
 		BalloonStatement (String rawStatement) {
 			this.setRawStatement(rawStatement);
 		}
@@ -1661,6 +1959,26 @@ public class BalloonTemplateHandlerImpl implements BalloonTemplateHandler {
 			this.columnAmount = columnAmount;
 		}
 
+		private HashMap<Long, String> getPrefetchedResults(CityGMLClass cityObjectType, int lod) {
+			return prefetchedResults.get(lod + ":" + cityObjectType);
+		}
+
+		private void setPrefetchedResults(CityGMLClass cityObjectType, int lod, HashMap<Long, String> results) {
+			prefetchedResults.put(lod + ":" + cityObjectType, results);
+		}
+
+		private void clearPrefetchedResults() {
+			prefetchedResults.clear();
+		}
+
+		private boolean isPrefetchDisabled() {
+			return prefetchDisabled;
+		}
+
+		private void setPrefetchDisabled(boolean prefetchDisabled) {
+			this.prefetchDisabled = prefetchDisabled;
+		}
+
 		private void convertStatementToProperSQL(int lod) throws Exception {
 
 			String sqlStatement = null; 
@@ -27,9 +27,16 @@
  */
 package org.citydb.modules.common.event;
 
-public enum CounterType {
+import org.citydb.api.event.EventCounterType;
+
+public enum CounterType implements EventCounterType {
 	TEXTURE_IMAGE,
 	TOPLEVEL_FEATURE,
 	FILE,
-	REMAINING_TILES
+	REMAINING_TILES;
+
+	@Override
+	public CounterEvent createCounterEvent(long counter, Object source) {
+		return new CounterEvent(this, counter, source);
+	}
 }
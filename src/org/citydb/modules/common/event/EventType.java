@@ -30,6 +30,7 @@ package org.citydb.modules.common.event;
 public enum EventType {
 	FEATURE_COUNTER,
 	GEOMETRY_COUNTER,
+	BATCH_STATISTICS,
 	COUNTER,
 	INTERRUPT,
 	STATUS_DIALOG_PROGRESS_BAR,
@@ -30,7 +30,13 @@ package org.citydb.modules.kml.concurrent;
 import java.io.File;
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.EnumMap;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.locks.ReentrantLock;
 
 import javax.xml.bind.JAXBContext;
@@ -71,18 +77,23 @@ import org.citydb.modules.kml.database.WaterBody;
 import org.citydb.modules.kml.util.ExportTracker;
 import org.citygml4j.model.citygml.CityGMLClass;
 import org.citygml4j.util.xml.SAXEventBuffer;
+import org.collada._2005._11.colladaschema.COLLADA;
 
 import net.opengis.kml._2.ObjectFactory;
 
 public class KmlExportWorker extends Worker<KmlSplittingResult> {
+	private static final int WORK_BLOCK_SIZE = 100;
+
 	private final ReentrantLock runLock = new ReentrantLock();
 	private volatile boolean shouldRun = true;
+	private volatile boolean shouldWork = true;
 
 	private AbstractDatabaseAdapter databaseAdapter;
 	private BlobExportAdapter textureExportAdapter;
 	private final ObjectFactory kmlFactory; 
 	private final Config config;
 	private final EventDispatcher eventDispatcher;
+	private final ExportTracker tracker;
 
 	private Connection connection;
 	private ExportFilterConfig filterConfig;
@@ -96,17 +107,27 @@ public class KmlExportWorker extends Worker<KmlSplittingResult> {
 
 	private ElevationServiceHandler elevationServiceHandler;
 
+	private final TextureAtlasService textureAtlasService;
+	private final ArrayDeque<PendingObjectGroup> pendingObjectGroups = new ArrayDeque<PendingObjectGroup>();
+	private final List<KmlSplittingResult> workBlock = new ArrayList<KmlSplittingResult>(WORK_BLOCK_SIZE);
+	private final int poolSize;
+
 	public KmlExportWorker(JAXBContext jaxbKmlContext,
 			JAXBContext jaxbColladaContext,
 			DatabaseConnectionPool dbConnectionPool,
 			WorkerPool<SAXEventBuffer> ioWriterPool,
+			TextureAtlasService textureAtlasService,
 			ExportTracker tracker,
 			ObjectFactory kmlFactory,
 			Config config,
-			EventDispatcher eventDispatcher) throws SQLException {
+			EventDispatcher eventDispatcher,
+			int poolSize) throws SQLException {
+		this.textureAtlasService = textureAtlasService;
+		this.tracker = tracker;
 		this.kmlFactory = kmlFactory;
 		this.config = config;
 		this.eventDispatcher = eventDispatcher;
+		this.poolSize = Math.max(1, poolSize);
 
 		connection = dbConnectionPool.getConnection();
 		connection.setAutoCommit(false);
@@ -237,6 +258,7 @@ public class KmlExportWorker extends Worker<KmlSplittingResult> {
 	@Override
 	public void interrupt() {
 		shouldRun = false;
+		shouldWork = false;
 		workerThread.interrupt();
 	}
 
@@ -262,15 +284,32 @@ public class KmlExportWorker extends Worker<KmlSplittingResult> {
 				firstWork = null;
 			}
 
-			KmlSplittingResult work = null; 
 			while (shouldRun) {
 				try {
-					work = workQueue.take();
-					doWork(work);
+					// take further work items that are already queued so that the
+					// balloon statements of their objects can be resolved in blocks.
+					// only a share of the queue is taken to keep the other workers busy
+					workBlock.add(workQueue.take());
+					int blockSize = Math.min(WORK_BLOCK_SIZE, (workQueue.size() + 1) / poolSize);
+					if (blockSize > 1)
+						workQueue.drainTo(workBlock, blockSize - 1);
+
+					prefetchBalloonContents(workBlock);
+
+					for (KmlSplittingResult work : workBlock) {
+						// stop early if the worker has been interrupted
+						if (!shouldWork)
+							break;
+
+						doWork(work);
+					}
 				}
 				catch (InterruptedException ie) {
 					// re-check state
 				}
+				finally {
+					workBlock.clear();
+				}
 			}
 
 			// last objectGroups may be not empty but not big enough
@@ -289,10 +328,17 @@ public class KmlExportWorker extends Worker<KmlSplittingResult> {
 					objectGroupCounter.put(cityObjectType, 0);
 				}
 			}
+
+			// wait for object groups still being processed by the texture atlas service
+			printCompletedObjectGroups(true);
 			
+			tracker.updateFeatureCounter(kmlExporterManager.getFeatureCounter());
 			eventDispatcher.triggerEvent(new FeatureCounterEvent(kmlExporterManager.getFeatureCounter(), this));
 		}
 		finally {
+			for (BalloonTemplateHandler handler : balloonTemplateHandler.values())
+				handler.close();
+
 			if (textureExportAdapter != null) {
 				try {
 					textureExportAdapter.close();
@@ -319,6 +365,8 @@ public class KmlExportWorker extends Worker<KmlSplittingResult> {
 
 		CityGMLClass featureClass = work.getCityObjectType();
 		try {
+			printCompletedObjectGroups(false);
+
 			switch (featureClass) {
 			case BUILDING:
 				singleObject = new Building(connection,
@@ -519,56 +567,110 @@ public class KmlExportWorker extends Worker<KmlSplittingResult> {
 	}
 
 	private void sendGroupToFile(KmlGenericObject objectGroup) {
-		try {
-			double imageScaleFactor = 1;
-			ColladaOptions colladaOptions = objectGroup.getColladaOptions();
-			
-			if (colladaOptions.isCropImages()) {
-				objectGroup.cropImages();
-			}
-			
-			if (colladaOptions.isGenerateTextureAtlases()) {
-				if (colladaOptions.isScaleImages()) {
-					imageScaleFactor = colladaOptions.getImageScaleFactor();
-				}
-				objectGroup.createTextureAtlas(colladaOptions.getPackingAlgorithm(),
-						imageScaleFactor,
-						colladaOptions.isTextureAtlasPots());
-			}
-			else if (colladaOptions.isScaleImages()) {
-				imageScaleFactor = colladaOptions.getImageScaleFactor();
-				if (imageScaleFactor < 1) {
-					objectGroup.resizeAllImagesByFactor(imageScaleFactor);
-				}
+		ColladaOptions colladaOptions = objectGroup.getColladaOptions();
+
+		// hand over texture processing and COLLADA generation to the texture atlas service
+		if (textureAtlasService != null && 
+				!objectGroup.getTexImages().isEmpty() && 
+				TextureAtlasService.requiresImageProcessing(colladaOptions)) {
+			try {
+				// free the memory of completed object groups first
+				printCompletedObjectGroups(false);
+				pendingObjectGroups.add(new PendingObjectGroup(objectGroup, textureAtlasService.submit(objectGroup)));
+			} catch (InterruptedException e) {
+				// export has been aborted
+			} catch (RejectedExecutionException e) {
+				// texture atlas service has been shut down
 			}
 
-			ColladaBundle colladaBundle = new ColladaBundle();
-			colladaBundle.setCollada(objectGroup.generateColladaTree());
-			colladaBundle.setTexImages(objectGroup.getTexImages());
-			colladaBundle.setUnsupportedTexImageIds(objectGroup.getUnsupportedTexImageIds());
-			colladaBundle.setPlacemark(objectGroup.createPlacemarkForColladaModel());
-			colladaBundle.setGmlId(objectGroup.getGmlId());
-			colladaBundle.setId(objectGroup.getId());
-
-			kmlExporterManager.print(colladaBundle,
-					objectGroup.getId(),					
-					objectGroup.getBalloonSettings().isBalloonContentInSeparateFile());
+			return;
+		}
+
+		try {
+			TextureAtlasService.processImages(objectGroup, colladaOptions);
+			print(objectGroup, objectGroup.generateColladaTree());
 		}
 		catch (Exception e) {
 			e.printStackTrace();
 		}
 	}
 
+	private void printCompletedObjectGroups(boolean waitForCompletion) {
+		while (!pendingObjectGroups.isEmpty()) {
+			PendingObjectGroup pending = pendingObjectGroups.peek();
+			if (!waitForCompletion && !pending.collada.isDone())
+				break;
+
+			pendingObjectGroups.poll();
+
+			try {
+				print(pending.objectGroup, pending.collada.get());
+			} catch (InterruptedException e) {
+				// export has been aborted
+				for (PendingObjectGroup remaining : pendingObjectGroups)
+					remaining.collada.cancel(false);
+
+				pendingObjectGroups.clear();
+				break;
+			} catch (ExecutionException e) {
+				e.getCause().printStackTrace();
+			} catch (Exception e) {
+				e.printStackTrace();
+			}
+		}
+	}
+
+	private void print(KmlGenericObject objectGroup, COLLADA collada) throws Exception {
+		// placemarks and unsupported texture images require the database connection
+		// of this worker and are therefore not created by the texture atlas service
+		ColladaBundle colladaBundle = new ColladaBundle();
+		colladaBundle.setCollada(collada);
+		colladaBundle.setTexImages(objectGroup.getTexImages());
+		colladaBundle.setUnsupportedTexImageIds(objectGroup.getUnsupportedTexImageIds());
+		colladaBundle.setPlacemark(objectGroup.createPlacemarkForColladaModel());
+		colladaBundle.setGmlId(objectGroup.getGmlId());
+		colladaBundle.setId(objectGroup.getId());
+
+		kmlExporterManager.print(colladaBundle,
+				objectGroup.getId(),					
+				objectGroup.getBalloonSettings().isBalloonContentInSeparateFile());
+	}
+
+	private void prefetchBalloonContents(List<KmlSplittingResult> workBlock) {
+		EnumMap<CityGMLClass, List<Long>> ids = new EnumMap<CityGMLClass, List<Long>>(CityGMLClass.class);
+		for (KmlSplittingResult work : workBlock) {
+			List<Long> featureIds = ids.get(work.getCityObjectType());
+			if (featureIds == null) {
+				featureIds = new ArrayList<Long>();
+				ids.put(work.getCityObjectType(), featureIds);
+			}
+
+			featureIds.add(work.getId());
+		}
+
+		for (CityGMLClass featureClass : ids.keySet()) {
+			BalloonTemplateHandler handler = getBalloonTemplateHandler(featureClass);
+			if (handler != null)
+				handler.prefetch(ids.get(featureClass));
+		}
+	}
+
 	private BalloonTemplateHandler getBalloonTemplateHandler(CityGMLClass cityObjectType) {
 		BalloonTemplateHandler currentBalloonTemplateHandler = balloonTemplateHandler.get(cityObjectType);
 
 		if (currentBalloonTemplateHandler == null) {
 			Balloon balloonSettings = getBalloonSettings(cityObjectType);
-			if (balloonSettings != null &&	balloonSettings.isIncludeDescription() &&
-					balloonSettings.getBalloonContentMode() != BalloonContentMode.GEN_ATTRIB) {
-				String balloonTemplateFilename = balloonSettings.getBalloonContentTemplateFile();
-				if (balloonTemplateFilename != null && balloonTemplateFilename.length() > 0) {
-					currentBalloonTemplateHandler = databaseAdapter.getBalloonTemplateHandler(new File(balloonTemplateFilename));
+			if (balloonSettings != null &&	balloonSettings.isIncludeDescription()) {
+				if (balloonSettings.getBalloonContentMode() != BalloonContentMode.GEN_ATTRIB) {
+					String balloonTemplateFilename = balloonSettings.getBalloonContentTemplateFile();
+					if (balloonTemplateFilename != null && balloonTemplateFilename.length() > 0) {
+						currentBalloonTemplateHandler = databaseAdapter.getBalloonTemplateHandler(new File(balloonTemplateFilename));
+						balloonTemplateHandler.put(cityObjectType, currentBalloonTemplateHandler);
+					}
+				} else {
+					// templates are read from the generic attributes of each object, but the
+					// handler is shared so that its prepared statements are reused
+					currentBalloonTemplateHandler = databaseAdapter.getBalloonTemplateHandler((String)null);
 					balloonTemplateHandler.put(cityObjectType, currentBalloonTemplateHandler);
 				}
 			}
@@ -629,4 +731,14 @@ public class KmlExportWorker extends Worker<KmlSplittingResult> {
 		return balloonSettings;
 	}
 
+	private static final class PendingObjectGroup {
+		private final KmlGenericObject objectGroup;
+		private final Future<COLLADA> collada;
+
+		private PendingObjectGroup(KmlGenericObject objectGroup, Future<COLLADA> collada) {
+			this.objectGroup = objectGroup;
+			this.collada = collada;
+		}
+	}
+
 }
@@ -51,28 +51,34 @@ public class KmlExportWorkerFactory implements WorkerFactory<KmlSplittingResult>
 	private final JAXBContext jaxbColladaContext;
 	private final DatabaseConnectionPool dbConnectionPool;
 	private final WorkerPool<SAXEventBuffer> ioWriterPool;
+	private final TextureAtlasService textureAtlasService;
 	private final ExportTracker tracker;
 	private final ObjectFactory kmlFactory;
 	private final Config config;
 	private final EventDispatcher eventDispatcher;
+	private final int poolSize;
 
 	public KmlExportWorkerFactory(
 			JAXBContext jaxbKmlContext,
 			JAXBContext jaxbColladaContext,
 			DatabaseConnectionPool dbConnectionPool,
 			WorkerPool<SAXEventBuffer> ioWriterPool,
+			TextureAtlasService textureAtlasService,
 			ExportTracker tracker,
 			ObjectFactory kmlFactory,
 			Config config,
-			EventDispatcher eventDispatcher) {
+			EventDispatcher eventDispatcher,
+			int poolSize) {
 		this.jaxbKmlContext = jaxbKmlContext;
 		this.jaxbColladaContext = jaxbColladaContext;
 		this.dbConnectionPool = dbConnectionPool;
 		this.ioWriterPool = ioWriterPool;
+		this.textureAtlasService = textureAtlasService;
 		this.tracker = tracker;
 		this.kmlFactory = kmlFactory;
 		this.config = config;
 		this.eventDispatcher = eventDispatcher;
+		this.poolSize = poolSize;
 	}
 
 	@Override
@@ -85,10 +91,12 @@ public class KmlExportWorkerFactory implements WorkerFactory<KmlSplittingResult>
 					jaxbColladaContext,
 					dbConnectionPool,
 					ioWriterPool,
+					textureAtlasService,
 					tracker,
 					kmlFactory,
 					config,
-					eventDispatcher);
+					eventDispatcher,
+					poolSize);
 		} catch (SQLException e) {
 			LOG.error("Failed to create export worker: " + e.getMessage());
 		}
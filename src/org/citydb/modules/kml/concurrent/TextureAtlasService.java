@@ -0,0 +1,252 @@
+/*
+ * 3D City Database - The Open Source CityGML Database
+ * http://www.3dcitydb.org/
+ * 
+ * Copyright 2013 - 2016
+ * Chair of Geoinformatics
+ * Technical University of Munich, Germany
+ * https://www.gis.bgu.tum.de/
+ * 
+ * The 3D City Database is jointly developed with the following
+ * cooperation partners:
+ * 
+ * virtualcitySYSTEMS GmbH, Berlin <http://www.virtualcitysystems.de/>
+ * M.O.S.S. Computer Grafik Systeme GmbH, Taufkirchen <http://www.moss.de/>
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *     
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.citydb.modules.kml.concurrent;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.citydb.config.project.kmlExporter.ColladaOptions;
+import org.citydb.modules.kml.database.KmlGenericObject;
+import org.citydb.textureAtlas.model.TextureImage;
+import org.collada._2005._11.colladaschema.COLLADA;
+
+/**
+ * Crops, packs and scales the texture images of COLLADA object groups and
+ * generates their COLLADA trees on a shared thread pool, so that the export
+ * workers can continue to query the database in the meantime.
+ * 
+ * The number of decoded texture pixels held by queued and running jobs is
+ * limited by a pixel budget. Submitting a group blocks until enough of the
+ * budget has been released by completed jobs. A group exceeding the budget
+ * on its own is admitted once no other job is in flight.
+ */
+public class TextureAtlasService {
+	private final ThreadPoolExecutor executor;
+	private final long pixelBudget;
+
+	private final ReentrantLock budgetLock = new ReentrantLock();
+	private final Condition budgetReleased = budgetLock.newCondition();
+	private long pixelsInUse;
+	private long peakPixelsInUse;
+
+	private final AtomicLong objectGroupCounter = new AtomicLong();
+	private final AtomicLong imageCounter = new AtomicLong();
+	private final AtomicLong pixelCounter = new AtomicLong();
+	private final AtomicLong processingTime = new AtomicLong();
+	private final AtomicLong waitingTime = new AtomicLong();
+
+	public TextureAtlasService(int nrOfThreads, long pixelBudget) {
+		this.pixelBudget = Math.max(1, pixelBudget);
+
+		executor = new ThreadPoolExecutor(nrOfThreads, nrOfThreads, 
+				60, TimeUnit.SECONDS, 
+				new LinkedBlockingQueue<Runnable>(), 
+				new DaemonThreadFactory());
+
+		// idle threads must not outlive an aborted export
+		executor.allowCoreThreadTimeOut(true);
+	}
+
+	public TextureAtlasService() {
+		this(Math.max(1, Runtime.getRuntime().availableProcessors() / 2), getDefaultPixelBudget());
+	}
+
+	public static long getDefaultPixelBudget() {
+		// a quarter of the heap at four bytes per decoded pixel
+		return Runtime.getRuntime().maxMemory() / 4 / 4;
+	}
+
+	public static boolean requiresImageProcessing(ColladaOptions colladaOptions) {
+		return colladaOptions.isCropImages() 
+				|| colladaOptions.isGenerateTextureAtlases() 
+				|| colladaOptions.isScaleImages();
+	}
+
+	public static void processImages(KmlGenericObject objectGroup, ColladaOptions colladaOptions) throws SQLException, IOException {
+		double imageScaleFactor = 1;
+
+		if (colladaOptions.isCropImages()) {
+			objectGroup.cropImages();
+		}
+
+		if (colladaOptions.isGenerateTextureAtlases()) {
+			if (colladaOptions.isScaleImages()) {
+				imageScaleFactor = colladaOptions.getImageScaleFactor();
+			}
+			objectGroup.createTextureAtlas(colladaOptions.getPackingAlgorithm(),
+					imageScaleFactor,
+					colladaOptions.isTextureAtlasPots());
+		}
+		else if (colladaOptions.isScaleImages()) {
+			imageScaleFactor = colladaOptions.getImageScaleFactor();
+			if (imageScaleFactor < 1) {
+				objectGroup.resizeAllImagesByFactor(imageScaleFactor);
+			}
+		}
+	}
+
+	public Future<COLLADA> submit(final KmlGenericObject objectGroup) throws InterruptedException {
+		final ColladaOptions colladaOptions = objectGroup.getColladaOptions();
+		final int nrOfImages = objectGroup.getTexImages().size();
+
+		long requiredPixels = 0;
+		for (TextureImage texImage : objectGroup.getTexImages().values())
+			requiredPixels += (long)texImage.getWidth() * texImage.getHeight();
+
+		final long pixels = requiredPixels;
+		final long acquiredPixels = acquire(pixels);
+
+		try {
+			return executor.submit(new Callable<COLLADA>() {
+				@Override
+				public COLLADA call() throws Exception {
+					long start = System.nanoTime();
+
+					try {
+						processImages(objectGroup, colladaOptions);
+						return objectGroup.generateColladaTree();
+					} finally {
+						processingTime.addAndGet(System.nanoTime() - start);
+						objectGroupCounter.incrementAndGet();
+						imageCounter.addAndGet(nrOfImages);
+						pixelCounter.addAndGet(pixels);
+						release(acquiredPixels);
+					}
+				}
+			});
+		} catch (RejectedExecutionException e) {
+			release(acquiredPixels);
+			throw e;
+		}
+	}
+
+	private long acquire(long pixels) throws InterruptedException {
+		// a single group exceeding the budget is processed alone
+		long acquiredPixels = Math.min(pixels, pixelBudget);
+
+		final ReentrantLock lock = this.budgetLock;
+		lock.lockInterruptibly();
+		try {
+			if (pixelsInUse > 0 && pixelsInUse + acquiredPixels > pixelBudget) {
+				long start = System.nanoTime();
+				while (pixelsInUse > 0 && pixelsInUse + acquiredPixels > pixelBudget)
+					budgetReleased.await();
+
+				waitingTime.addAndGet(System.nanoTime() - start);
+			}
+
+			pixelsInUse += acquiredPixels;
+			if (pixelsInUse > peakPixelsInUse)
+				peakPixelsInUse = pixelsInUse;
+
+			return acquiredPixels;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	private void release(long pixels) {
+		final ReentrantLock lock = this.budgetLock;
+		lock.lock();
+		try {
+			pixelsInUse -= pixels;
+			budgetReleased.signalAll();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	public void shutdown() {
+		executor.shutdown();
+	}
+
+	public void shutdownNow() {
+		executor.shutdownNow();
+	}
+
+	public int getNumberOfThreads() {
+		return executor.getMaximumPoolSize();
+	}
+
+	public long getPixelBudget() {
+		return pixelBudget;
+	}
+
+	public long getObjectGroupCounter() {
+		return objectGroupCounter.get();
+	}
+
+	public long getImageCounter() {
+		return imageCounter.get();
+	}
+
+	public long getPixelCounter() {
+		return pixelCounter.get();
+	}
+
+	public long getPeakPixelsInUse() {
+		final ReentrantLock lock = this.budgetLock;
+		lock.lock();
+		try {
+			return peakPixelsInUse;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	public long getProcessingTime() {
+		return TimeUnit.NANOSECONDS.toMillis(processingTime.get());
+	}
+
+	public long getWaitingTime() {
+		return TimeUnit.NANOSECONDS.toMillis(waitingTime.get());
+	}
+
+	private static final class DaemonThreadFactory implements ThreadFactory {
+		private final AtomicInteger threadNumber = new AtomicInteger(1);
+
+		@Override
+		public Thread newThread(Runnable r) {
+			Thread thread = new Thread(r, "texture_atlas_" + threadNumber.getAndIncrement());
+			thread.setDaemon(true);
+			return thread;
+		}
+	}
+
+}
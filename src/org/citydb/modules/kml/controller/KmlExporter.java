@@ -28,20 +28,25 @@
 package org.citydb.modules.kml.controller;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStreamWriter;
 import java.nio.charset.Charset;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.zip.ZipEntry;
-import java.util.zip.ZipOutputStream;
 
 import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBElement;
@@ -70,6 +75,7 @@ import org.citydb.config.project.kmlExporter.BalloonContentMode;
 import org.citydb.config.project.kmlExporter.DisplayForm;
 import org.citydb.config.project.kmlExporter.PointAndCurve;
 import org.citydb.config.project.kmlExporter.PointDisplayMode;
+import org.citydb.config.project.resources.ThreadPoolConfig;
 import org.citydb.database.DatabaseConnectionPool;
 import org.citydb.log.Logger;
 import org.citydb.modules.common.concurrent.IOWriterWorkerFactory;
@@ -83,6 +89,7 @@ import org.citydb.modules.common.event.StatusDialogTitle;
 import org.citydb.modules.common.filter.ExportFilter;
 import org.citydb.modules.common.filter.FilterMode;
 import org.citydb.modules.kml.concurrent.KmlExportWorkerFactory;
+import org.citydb.modules.kml.concurrent.TextureAtlasService;
 import org.citydb.modules.kml.database.Bridge;
 import org.citydb.modules.kml.database.Building;
 import org.citydb.modules.kml.database.CityFurniture;
@@ -99,6 +106,7 @@ import org.citydb.modules.kml.database.WaterBody;
 import org.citydb.modules.kml.datatype.TypeAttributeValueEnum;
 import org.citydb.modules.kml.util.CityObject4JSON;
 import org.citydb.modules.kml.util.ExportTracker;
+import org.citydb.modules.kml.util.KmzArchive;
 import org.citydb.util.Util;
 import org.citygml4j.model.citygml.CityGMLClass;
 import org.citygml4j.util.xml.SAXEventBuffer;
@@ -141,23 +149,33 @@ public class KmlExporter implements EventHandler {
 	private final EventDispatcher eventDispatcher;
 
 	private ObjectFactory kmlFactory; 
-	private WorkerPool<KmlSplittingResult> kmlWorkerPool;
-	private SingleWorkerPool<SAXEventBuffer> ioWriterPool;
-	private KmlSplitter kmlSplitter;
+	private TextureAtlasService textureAtlasService;
+	private final Set<KmlSplitter> activeSplitters = Collections.newSetFromMap(new ConcurrentHashMap<KmlSplitter, Boolean>());
+	private final Set<WorkerPool<KmlSplittingResult>> activeWorkerPools = Collections.newSetFromMap(new ConcurrentHashMap<WorkerPool<KmlSplittingResult>, Boolean>());
+	private final Object tileReferenceLock = new Object();
 
 	private volatile boolean shouldRun = true;
 	private AtomicBoolean isInterrupted = new AtomicBoolean(false);
 
 	private final String ENCODING = "UTF-8";
 	private final Charset CHARSET = Charset.forName(ENCODING);
-	private final String TEMP_FOLDER = "__temp";
-	private File lastTempFolder = null;
 	private GeometryObject globeWGS84BboxGeometry;
 	private BoundingBox globeWGS84Bbox; 
 	private int rows = 1;
 	private int columns = 1;
+	private int minThreadsPerTile;
+	private int maxThreadsPerTile;
+	private int remainingTiles;
+
+	private boolean isBBoxActive;
+	private Tiling tiling;
+	private String path;
+	private String fileName;
+	private String fileExtension;
+	private SAXWriter masterFileWriter;
+	private FileOutputStream jsonFileWriter;
+	private boolean jsonHasContent;
 
-	private EnumMap<CityGMLClass, Long> featureCounterMap = new EnumMap<CityGMLClass, Long>(CityGMLClass.class);
 	private EnumMap<CityGMLClass, Long> totalFeatureCounterMap = new EnumMap<CityGMLClass, Long>(CityGMLClass.class);
 	private long geometryCounter;
 
@@ -180,6 +198,9 @@ public class KmlExporter implements EventHandler {
 	}
 
 	public boolean doProcess() throws KmlExportException {
+		// discard counter updates left over from a previous operation
+		eventDispatcher.resetCounters();
+
 		// adding listener
 		eventDispatcher.addEventHandler(EventType.FEATURE_COUNTER, this);
 		eventDispatcher.addEventHandler(EventType.GEOMETRY_COUNTER, this);
@@ -238,21 +259,11 @@ public class KmlExporter implements EventHandler {
 		if (!balloonCheck) 
 			return false;	
 
-		// check collada2gltf tool
-		if (config.getProject().getKmlExporter().isCreateGltfModel()) {
-			File file = new File(config.getProject().getKmlExporter().getPathOfGltfConverter());
-
-			if (!file.exists())
-				throw new KmlExportException("Failed to find the COLLADA2glTF tool at the provided path " + file.getAbsolutePath() + ".");
-			else if (!file.canExecute())
-				throw new KmlExportException("Failed to execute the COLLADA2glTF tool at " + file.getAbsolutePath() + ".");
-		}
-
-		boolean isBBoxActive = config.getProject().getKmlExporter().getFilter().getComplexFilter().getTiledBoundingBox().getActive().booleanValue();
-		Tiling tiling = config.getProject().getKmlExporter().getFilter().getComplexFilter().getTiledBoundingBox().getTiling();
+		isBBoxActive = config.getProject().getKmlExporter().getFilter().getComplexFilter().getTiledBoundingBox().getActive().booleanValue();
+		tiling = config.getProject().getKmlExporter().getFilter().getComplexFilter().getTiledBoundingBox().getTiling();
 
 		// calculate and display number of tiles to be exported
-		int remainingTiles = 1;
+		remainingTiles = 1;
 		if (isBBoxActive) {
 			try {
 				remainingTiles = calculateRowsColumns();
@@ -277,22 +288,10 @@ public class KmlExporter implements EventHandler {
 			}, 2, 4326);
 		}
 
-		// create a saxWriter instance 
-		// define indent for xml output and namespace mappings
-		SAXWriter saxWriter = new SAXWriter();
-		saxWriter.setIndentString("  ");
-		saxWriter.setHeaderComment("Written by " + this.getClass().getPackage().getImplementationTitle() + ", version \"" +
-				this.getClass().getPackage().getImplementationVersion() + '"', 
-				this.getClass().getPackage().getImplementationVendor());
-		saxWriter.setDefaultNamespace("http://www.opengis.net/kml/2.2"); // default namespace
-		saxWriter.setPrefix("gx", "http://www.google.com/kml/ext/2.2");
-		saxWriter.setPrefix("atom", "http://www.w3.org/2005/Atom");
-		saxWriter.setPrefix("xal", "urn:oasis:names:tc:ciq:xsdschema:xAL:2.0");
-
 		// set export filename and path
-		String path = config.getInternal().getExportFileName().trim();
-		String fileExtension = config.getProject().getKmlExporter().isExportAsKmz() ? ".kmz" : ".kml";
-		String fileName = null;
+		path = config.getInternal().getExportFileName().trim();
+		fileExtension = config.getProject().getKmlExporter().isExportAsKmz() ? ".kmz" : ".kml";
+		fileName = null;
 
 		if (path.lastIndexOf(File.separator) == -1) {
 			fileName = path.lastIndexOf(".") == -1 ? path : path.substring(0, path.lastIndexOf("."));			
@@ -303,7 +302,7 @@ public class KmlExporter implements EventHandler {
 		}
 
 		// start writing KML master file if required
-		SAXWriter masterFileWriter = null;
+		masterFileWriter = null;
 		if (isBBoxActive) {
 			try {
 				masterFileWriter = writeMasterFileHeader(fileName, path);
@@ -313,8 +312,8 @@ public class KmlExporter implements EventHandler {
 		}
 
 		// start writing cityobject JSON file if required
-		FileOutputStream jsonFileWriter = null;
-		boolean jsonHasContent = false;
+		jsonFileWriter = null;
+		jsonHasContent = false;
 		if (config.getProject().getKmlExporter().isWriteJSONFile() && isBBoxActive) {
 			try {
 				File jsonFile = new File(path + File.separator + fileName + ".json");
@@ -330,298 +329,79 @@ public class KmlExporter implements EventHandler {
 
 		long start = System.currentTimeMillis();
 
-		// iterate over tiles
-		for (int i = 0; shouldRun && i < rows; i++) {
-			for (int j = 0; shouldRun && j < columns; j++) {
-
-				// track exported objects
-				ExportTracker tracker = new ExportTracker();
-
-				// set active tile and get tile extent in WGS84
-				GeometryObject wgs84Tile = null;
-				if (isBBoxActive && tiling.getMode() != TilingMode.NO_TILING) {
-					exportFilter.getBoundingBoxFilter().setActiveTile(i, j);
-					BoundingBox wgs84Bbox = exportFilter.getBoundingBoxFilter().getFilterState();
-					wgs84Tile = GeometryObject.createPolygon(new double[]{
-							wgs84Bbox.getLowerCorner().getX(), wgs84Bbox.getLowerCorner().getY(),
-							wgs84Bbox.getUpperCorner().getX(), wgs84Bbox.getLowerCorner().getY(),
-							wgs84Bbox.getUpperCorner().getX(), wgs84Bbox.getUpperCorner().getY(),
-							wgs84Bbox.getLowerCorner().getX(), wgs84Bbox.getUpperCorner().getY(),
-							wgs84Bbox.getLowerCorner().getX(), wgs84Bbox.getLowerCorner().getY(),
-					}, 2, 4326);
-				}
-
-				// iterate over display forms
-				for (DisplayForm displayForm : config.getProject().getKmlExporter().getBuildingDisplayForms()) {
-					if (!displayForm.isActive()) 
-						continue;
+		// texture images of COLLADA object groups are processed by a shared service
+		textureAtlasService = new TextureAtlasService();
 
-					if (lastTempFolder != null && lastTempFolder.exists()) 
-						deleteFolder(lastTempFolder); // just in case
-
-					File file = null;
-					ZipOutputStream zipOut = null;
-					String currentWorkingDirectoryPath = null;
-					try {
-						if (isBBoxActive && tiling.getMode() != TilingMode.NO_TILING) {
-							File tilesRootDirectory = new File(path, "Tiles");
-							tilesRootDirectory.mkdir();
-							File rowTilesDirectory = new File(tilesRootDirectory.getPath(),  String.valueOf(i));
-							rowTilesDirectory.mkdir();
-							File columnTilesDirectory = new File(rowTilesDirectory.getPath(),  String.valueOf(j));
-							columnTilesDirectory.mkdir();
-							file = new File(columnTilesDirectory.getPath() + File.separator + fileName + "_Tile_" + i + "_" + j + "_" + displayForm.getName() + fileExtension);
-							currentWorkingDirectoryPath = columnTilesDirectory.getPath();
-						} else {
-							file = new File(path + File.separator + fileName + "_" + displayForm.getName() + fileExtension);
-							currentWorkingDirectoryPath = path;
-						}
-						tracker.setCurrentWorkingDirectoryPath(currentWorkingDirectoryPath);
-
-						eventDispatcher.triggerEvent(new StatusDialogMessage(Language.I18N.getString("kmlExport.dialog.writingToFile"), this));
-						eventDispatcher.triggerEvent(new StatusDialogTitle(file.getName(), this));
-						eventDispatcher.triggerEvent(new CounterEvent(CounterType.REMAINING_TILES, --remainingTiles, this));
-						
-						// open file for writing
-						try {
-							OutputStreamWriter fileWriter = null;
-							if (config.getProject().getKmlExporter().isExportAsKmz()) {
-								zipOut = new ZipOutputStream(new FileOutputStream(file));
-								ZipEntry zipEntry = new ZipEntry("doc.kml");
-								zipOut.putNextEntry(zipEntry);
-								fileWriter = new OutputStreamWriter(zipOut, CHARSET);
-							} else
-								fileWriter = new OutputStreamWriter(new FileOutputStream(file), CHARSET);
-
-							// set output for SAXWriter
-							saxWriter.setOutput(fileWriter);	
-						} catch (IOException e) {
-							throw new KmlExportException("Failed to open file '" + file.getName() + "' for writing.", e);
-						}
+		// export tiles concurrently. the database workers of all tiles
+		// share the thread budget of the configured thread pool
+		int concurrentTiles = Math.max(1, Math.min(rows * columns, config.getProject().getKmlExporter().getConcurrentTiles()));
+		ThreadPoolConfig threadPool = config.getProject().getKmlExporter().getResources().getThreadPool().getDefaultPool();
+		minThreadsPerTile = Math.max(1, threadPool.getMinThreads() / concurrentTiles);
+		maxThreadsPerTile = Math.max(minThreadsPerTile, threadPool.getMaxThreads() / concurrentTiles);
 
-						// create worker pools
-						// here we have an open issue: queue sizes are fix...
-						ioWriterPool = new SingleWorkerPool<SAXEventBuffer>(
-								"kml_writer_pool",
-								new IOWriterWorkerFactory(saxWriter, eventDispatcher),
-								100,
-								true);
-
-						kmlWorkerPool = new WorkerPool<KmlSplittingResult>(
-								"db_exporter_pool",
-								config.getProject().getKmlExporter().getResources().getThreadPool().getDefaultPool().getMinThreads(),
-								config.getProject().getKmlExporter().getResources().getThreadPool().getDefaultPool().getMaxThreads(),
-								PoolSizeAdaptationStrategy.AGGRESSIVE,
-								new KmlExportWorkerFactory(
-										jaxbKmlContext,
-										jaxbColladaContext,
-										dbPool,
-										ioWriterPool,
-										tracker,
-										kmlFactory,
-										config,
-										eventDispatcher),
-								300,
-								false);
-
-						// prestart pool workers
-						ioWriterPool.prestartCoreWorkers();
-						kmlWorkerPool.prestartCoreWorkers();
-
-						// fail if we could not start a single import worker
-						if (kmlWorkerPool.getPoolSize() == 0)
-							throw new KmlExportException("Failed to start database export worker pool. Check the database connection pool settings.");
-
-						// create file header writer
-						SAXFragmentWriter fragmentWriter = new SAXFragmentWriter(kmlFactory.createDocument(null).getName(), saxWriter);
-
-						// ok, preparations done. inform user...
-						LOG.info("Exporting to file: " + file.getAbsolutePath());
-
-						// create kml root element
-						KmlType kmlType = kmlFactory.createKmlType();
-						JAXBElement<KmlType> kml = kmlFactory.createKml(kmlType);
-
-						DocumentType document = kmlFactory.createDocumentType();
-						if (isBBoxActive &&	tiling.getMode() != TilingMode.NO_TILING)
-							document.setName(fileName + "_Tile_" + i + "_" + j + "_" + displayForm.getName());
-						else 
-							document.setName(fileName + "_" + displayForm.getName());
-
-						document.setOpen(false);
-						kmlType.setAbstractFeatureGroup(kmlFactory.createDocument(document));
-
-						// write file header
-						Marshaller marshaller = null;
-						try {
-							marshaller = jaxbKmlContext.createMarshaller();
-							fragmentWriter.setWriteMode(WriteMode.HEAD);
-							marshaller.marshal(kml, fragmentWriter);
-
-							if (isBBoxActive 
-									&&	tiling.getMode() != TilingMode.NO_TILING 
-									&& config.getProject().getKmlExporter().getFilter().isSetComplexFilter() 
-									&& config.getProject().getKmlExporter().isShowTileBorders())
-								addBorder(wgs84Tile, null, saxWriter);
-							
-						} catch (JAXBException e) {
-							throw new KmlExportException("Failed to write output file.", e);
-						}
+		if (concurrentTiles > 1)
+			LOG.info("Exporting " + concurrentTiles + " tiles concurrently.");
 
-						// get database splitter and start query
-						try {
-							kmlSplitter = new KmlSplitter(
-									dbPool,
-									kmlWorkerPool,
-									exportFilter,
-									displayForm,
-									config);
+		ExecutorService tileExecutor = Executors.newFixedThreadPool(concurrentTiles);
+		List<Future<Void>> tiles = new ArrayList<Future<Void>>(rows * columns);
+		KmlExportException tileException = null;
 
+		try {
+			for (int i = 0; i < rows; i++) {
+				for (int j = 0; j < columns; j++) {
+					final int row = i;
+					final int column = j;
+
+					tiles.add(tileExecutor.submit(new Callable<Void>() {
+						@Override
+						public Void call() throws KmlExportException {
 							if (shouldRun)
-								kmlSplitter.startQuery();
-						} catch (SQLException e) {
-							throw new KmlExportException("Failed to query the database.", e);
-						}
+								exportTile(row, column);
 
-						// shutdown worker pools
-						try {
-							kmlWorkerPool.shutdownAndWait();
-							ioWriterPool.shutdownAndWait();
-						} catch (InterruptedException e) {
-							throw new KmlExportException("Failed to shutdown worker pools.", e);
+							return null;
 						}
-
-						try {
-							// add styles
-							if (!featureCounterMap.isEmpty() &&
-									(!config.getProject().getKmlExporter().isOneFilePerObject() ||
-											config.getProject().getKmlExporter().getFilter().isSetSimpleFilter())) {
-								for (CityGMLClass type : featureCounterMap.keySet()) {
-									if (featureCounterMap.get(type) > 0)
-										addStyle(displayForm, type, saxWriter);
-								}
-							}
-						} catch (JAXBException e) {
-							throw new KmlExportException("Failed to write styles.", e);
-						}
-
-						// write footer element
-						try {
-							fragmentWriter.setWriteMode(WriteMode.TAIL);
-							marshaller.marshal(kml, fragmentWriter);
-						} catch (JAXBException e) {
-							throw new KmlExportException("Failed to write output file.", e);
-						}
-						
-						try {
-							if (!featureCounterMap.isEmpty()) {
-								saxWriter.flush();
-								if (config.getProject().getKmlExporter().isExportAsKmz()) {
-									zipOut.closeEntry();
-
-									List<File> filesToZip = new ArrayList<File>();
-									File tempFolder = new File(currentWorkingDirectoryPath, TEMP_FOLDER);
-									lastTempFolder = tempFolder;
-									int indexOfZipFilePath = tempFolder.getCanonicalPath().length() + 1;
-
-									if (tempFolder.exists()) { // !config.getProject().getKmlExporter().isOneFilePerObject()
-										LOG.info("Zipping to kmz archive from temporary folder...");
-										getAllFiles(tempFolder, filesToZip);
-										for (File fileToZip : filesToZip) {
-											if (!fileToZip.isDirectory()) {
-												FileInputStream inputStream = new FileInputStream(fileToZip);
-												String zipEntryName = fileToZip.getCanonicalPath().substring(indexOfZipFilePath);
-												zipEntryName = zipEntryName.replace(File.separator, "/"); // MUST
-												ZipEntry zipEntry = new ZipEntry(zipEntryName);
-												zipOut.putNextEntry(zipEntry);
-
-												byte[] bytes = new byte[64*1024]; // 64K should be enough for most
-												int length;
-												while ((length = inputStream.read(bytes)) >= 0) {
-													zipOut.write(bytes, 0, length);
-												}
-												inputStream.close();
-												zipOut.closeEntry();
-											}
-										}
-										LOG.info("Removing temporary folder...");
-										deleteFolder(tempFolder);
-									}
-									zipOut.close();
-								}
-							}
-						} catch (Exception e) {
-							throw new KmlExportException("Failed to write output file.", e);
-						}
-						
-						// flush sax writer and close file
-						try {
-							saxWriter.flush();
-							saxWriter.getOutputWriter().close();
-						} catch (Exception e) {
-							throw new KmlExportException("Failed to close output file.", e);
-						}
-
-						// delete empty tile file if requested
-						if (isBBoxActive && featureCounterMap.isEmpty() && !config.getProject().getKmlExporter().isExportEmptyTiles()) {
-							LOG.debug("Tile_" + exportFilter.getBoundingBoxFilter().getTileRow()
-									+ "_" + exportFilter.getBoundingBoxFilter().getTileColumn() + " is empty. Deleting file " + file.getName() + ".");
-							file.delete();
-						}
-
-						eventDispatcher.triggerEvent(new StatusDialogMessage(Language.I18N.getString("export.dialog.finish.msg"), this));
-					} finally {
-						// clean up
-						if (ioWriterPool != null && !ioWriterPool.isTerminated())
-							ioWriterPool.shutdownNow();
-
-						if (kmlWorkerPool != null && !kmlWorkerPool.isTerminated())
-							kmlWorkerPool.shutdownNow();
-
-						try {
-							eventDispatcher.flushEvents();
-						} catch (InterruptedException e) {
-							//
-						}
-					}
+					}));
 				}
+			}
 
-				// create reference to tile file in master file
-				if (masterFileWriter != null && !featureCounterMap.isEmpty()) {
-					try {
-						writeMasterFileTileReference(fileName, i, j, wgs84Tile, masterFileWriter);
-					} catch (JAXBException e) {
-						if (jsonFileWriter != null) try { jsonFileWriter.close(); } catch (IOException ioe) { }
-						throw new KmlExportException("Failed to write tile reference to master file.", e);
+			for (Future<Void> tile : tiles) {
+				try {
+					tile.get();
+				} catch (ExecutionException e) {
+					if (tileException == null) {
+						Throwable cause = e.getCause();
+						tileException = cause instanceof KmlExportException ? 
+								(KmlExportException)cause : new KmlExportException("Failed to export tile.", cause);
+
+						// stop all other tiles
+						shouldRun = false;
+						shutdownTiles();
 					}
-				}
-
-				// fill cityobject JSON file after tile has been processed
-				if (jsonFileWriter != null && !featureCounterMap.isEmpty()) {
-					try {
-						Iterator<CityObject4JSON> iter = tracker.values().iterator();
-						if (iter.hasNext()) {
-							if (jsonHasContent)
-								jsonFileWriter.write(",\n".getBytes(CHARSET));
-							else
-								jsonHasContent = true;
-						}
+				} catch (InterruptedException e) {
+					if (tileException == null)
+						tileException = new KmlExportException("Failed to wait for tiles to be exported.", e);
 
-						while (iter.hasNext()) {
-							jsonFileWriter.write(iter.next().toString().getBytes(CHARSET));
-							if (iter.hasNext())
-								jsonFileWriter.write(",\n".getBytes(CHARSET));
-						}
-					} catch (IOException e) {
-						if (jsonFileWriter != null) try { jsonFileWriter.close(); } catch (IOException ioe) { }
-						throw new KmlExportException("Failed to write JSON file.", e);
-					}
+					shouldRun = false;
+					shutdownTiles();
+					break;
 				}
+			}
+		} finally {
+			tileExecutor.shutdownNow();
+			textureAtlasService.shutdown();
 
-				featureCounterMap.clear();
+			try {
+				eventDispatcher.flushEvents();
+			} catch (InterruptedException e) {
+				//
 			}
 		}
 
+		if (tileException != null) {
+			if (jsonFileWriter != null) try { jsonFileWriter.close(); } catch (IOException ioe) { }
+			throw tileException;
+		}
+
 		// complete KML master file
 		if (masterFileWriter != null) {
 			try {
@@ -664,8 +444,16 @@ public class KmlExporter implements EventHandler {
 
 		LOG.info("Processed geometry objects: " + geometryCounter);
 
-		if (lastTempFolder != null && lastTempFolder.exists()) 
-			deleteFolder(lastTempFolder); // just in case
+		if (textureAtlasService.getObjectGroupCounter() > 0) {
+			LOG.info("Processed texture images: " + textureAtlasService.getImageCounter() + 
+					" in " + textureAtlasService.getObjectGroupCounter() + " object groups (" + 
+					textureAtlasService.getPixelCounter() / 1000000 + " megapixels)");
+			LOG.info("Texture processing time: " + Util.formatElapsedTime(textureAtlasService.getProcessingTime()) + 
+					" on " + textureAtlasService.getNumberOfThreads() + " threads, waiting for memory: " + 
+					Util.formatElapsedTime(textureAtlasService.getWaitingTime()));
+			LOG.info("Peak texture memory: " + textureAtlasService.getPeakPixelsInUse() * 4 / 1048576 + 
+					" MB (limit " + textureAtlasService.getPixelBudget() * 4 / 1048576 + " MB)");
+		}
 
 		if (shouldRun)
 			LOG.info("Total export time: " + Util.formatElapsedTime(System.currentTimeMillis() - start) + ".");
@@ -673,6 +461,317 @@ public class KmlExporter implements EventHandler {
 		return shouldRun;
 	}
 
+	private void exportTile(int i, int j) throws KmlExportException {
+		// track exported objects
+		ExportTracker tracker = new ExportTracker();
+		EnumMap<CityGMLClass, Long> featureCounterMap = tracker.getFeatureCounter();
+
+		// every tile uses its own filter and writer
+		ExportFilter exportFilter = new ExportFilter(config, FilterMode.KML_EXPORT);
+		SAXWriter saxWriter = createSAXWriter();
+
+		// set active tile and get tile extent in WGS84
+		GeometryObject wgs84Tile = null;
+		if (isBBoxActive && tiling.getMode() != TilingMode.NO_TILING) {
+			exportFilter.getBoundingBoxFilter().setActiveTile(i, j);
+			BoundingBox wgs84Bbox = exportFilter.getBoundingBoxFilter().getFilterState();
+			wgs84Tile = GeometryObject.createPolygon(new double[]{
+					wgs84Bbox.getLowerCorner().getX(), wgs84Bbox.getLowerCorner().getY(),
+					wgs84Bbox.getUpperCorner().getX(), wgs84Bbox.getLowerCorner().getY(),
+					wgs84Bbox.getUpperCorner().getX(), wgs84Bbox.getUpperCorner().getY(),
+					wgs84Bbox.getLowerCorner().getX(), wgs84Bbox.getUpperCorner().getY(),
+					wgs84Bbox.getLowerCorner().getX(), wgs84Bbox.getLowerCorner().getY(),
+			}, 2, 4326);
+		}
+
+		// iterate over display forms
+		for (DisplayForm displayForm : config.getProject().getKmlExporter().getBuildingDisplayForms()) {
+			if (!displayForm.isActive()) 
+				continue;
+
+			File file = null;
+			File docFile = null;
+			KmzArchive kmzArchive = null;
+			SingleWorkerPool<SAXEventBuffer> ioWriterPool = null;
+			WorkerPool<KmlSplittingResult> kmlWorkerPool = null;
+			KmlSplitter kmlSplitter = null;
+			String currentWorkingDirectoryPath = null;
+			try {
+				if (isBBoxActive && tiling.getMode() != TilingMode.NO_TILING) {
+					File tilesRootDirectory = new File(path, "Tiles");
+					tilesRootDirectory.mkdir();
+					File rowTilesDirectory = new File(tilesRootDirectory.getPath(),  String.valueOf(i));
+					rowTilesDirectory.mkdir();
+					File columnTilesDirectory = new File(rowTilesDirectory.getPath(),  String.valueOf(j));
+					columnTilesDirectory.mkdir();
+					file = new File(columnTilesDirectory.getPath() + File.separator + fileName + "_Tile_" + i + "_" + j + "_" + displayForm.getName() + fileExtension);
+					currentWorkingDirectoryPath = columnTilesDirectory.getPath();
+				} else {
+					file = new File(path + File.separator + fileName + "_" + displayForm.getName() + fileExtension);
+					currentWorkingDirectoryPath = path;
+				}
+				tracker.setCurrentWorkingDirectoryPath(currentWorkingDirectoryPath);
+
+				eventDispatcher.triggerEvent(new StatusDialogMessage(Language.I18N.getString("kmlExport.dialog.writingToFile"), this));
+				eventDispatcher.triggerEvent(new StatusDialogTitle(file.getName(), this));
+				updateRemainingTiles();
+				
+				// open file for writing
+				try {
+					OutputStreamWriter fileWriter = null;
+					if (config.getProject().getKmlExporter().isExportAsKmz()) {
+						// models, images and balloons are streamed into the archive while
+						// the tile is exported. doc.kml is added as soon as it is complete
+						kmzArchive = new KmzArchive(file);
+						tracker.setKmzArchive(kmzArchive);
+						docFile = new File(currentWorkingDirectoryPath, file.getName() + ".doc.kml");
+						fileWriter = new OutputStreamWriter(new FileOutputStream(docFile), CHARSET);
+					} else
+						fileWriter = new OutputStreamWriter(new FileOutputStream(file), CHARSET);
+
+					// set output for SAXWriter
+					saxWriter.setOutput(fileWriter);	
+				} catch (IOException e) {
+					throw new KmlExportException("Failed to open file '" + file.getName() + "' for writing.", e);
+				}
+
+				// create worker pools
+				// here we have an open issue: queue sizes are fix...
+				ioWriterPool = new SingleWorkerPool<SAXEventBuffer>(
+						"kml_writer_pool",
+						new IOWriterWorkerFactory(saxWriter, eventDispatcher),
+						100,
+						true);
+
+				kmlWorkerPool = new WorkerPool<KmlSplittingResult>(
+						"db_exporter_pool",
+						minThreadsPerTile,
+						maxThreadsPerTile,
+						PoolSizeAdaptationStrategy.AGGRESSIVE,
+						new KmlExportWorkerFactory(
+								jaxbKmlContext,
+								jaxbColladaContext,
+								dbPool,
+								ioWriterPool,
+								textureAtlasService,
+								tracker,
+								kmlFactory,
+								config,
+								eventDispatcher,
+								maxThreadsPerTile),
+						300,
+						false);
+
+				activeWorkerPools.add(kmlWorkerPool);
+
+				// prestart pool workers
+				ioWriterPool.prestartCoreWorkers();
+				kmlWorkerPool.prestartCoreWorkers();
+
+				// fail if we could not start a single import worker
+				if (kmlWorkerPool.getPoolSize() == 0)
+					throw new KmlExportException("Failed to start database export worker pool. Check the database connection pool settings.");
+
+				// create file header writer
+				SAXFragmentWriter fragmentWriter = new SAXFragmentWriter(kmlFactory.createDocument(null).getName(), saxWriter);
+
+				// ok, preparations done. inform user...
+				LOG.info("Exporting to file: " + file.getAbsolutePath());
+
+				// create kml root element
+				KmlType kmlType = kmlFactory.createKmlType();
+				JAXBElement<KmlType> kml = kmlFactory.createKml(kmlType);
+
+				DocumentType document = kmlFactory.createDocumentType();
+				if (isBBoxActive &&	tiling.getMode() != TilingMode.NO_TILING)
+					document.setName(fileName + "_Tile_" + i + "_" + j + "_" + displayForm.getName());
+				else 
+					document.setName(fileName + "_" + displayForm.getName());
+
+				document.setOpen(false);
+				kmlType.setAbstractFeatureGroup(kmlFactory.createDocument(document));
+
+				// write file header
+				Marshaller marshaller = null;
+				try {
+					marshaller = jaxbKmlContext.createMarshaller();
+					fragmentWriter.setWriteMode(WriteMode.HEAD);
+					marshaller.marshal(kml, fragmentWriter);
+
+					if (isBBoxActive 
+							&&	tiling.getMode() != TilingMode.NO_TILING 
+							&& config.getProject().getKmlExporter().getFilter().isSetComplexFilter() 
+							&& config.getProject().getKmlExporter().isShowTileBorders())
+						addBorder(wgs84Tile, null, saxWriter);
+					
+				} catch (JAXBException e) {
+					throw new KmlExportException("Failed to write output file.", e);
+				}
+
+				// get database splitter and start query
+				try {
+					kmlSplitter = new KmlSplitter(
+							dbPool,
+							kmlWorkerPool,
+							exportFilter,
+							displayForm,
+							config);
+
+					activeSplitters.add(kmlSplitter);
+					if (shouldRun)
+						kmlSplitter.startQuery();
+				} catch (SQLException e) {
+					throw new KmlExportException("Failed to query the database.", e);
+				}
+
+				// shutdown worker pools
+				try {
+					kmlWorkerPool.shutdownAndWait();
+					ioWriterPool.shutdownAndWait();
+				} catch (InterruptedException e) {
+					throw new KmlExportException("Failed to shutdown worker pools.", e);
+				}
+
+				featureCounterMap = tracker.getFeatureCounter();
+
+				try {
+					// add styles
+					if (!featureCounterMap.isEmpty() &&
+							(!config.getProject().getKmlExporter().isOneFilePerObject() ||
+									config.getProject().getKmlExporter().getFilter().isSetSimpleFilter())) {
+						for (CityGMLClass type : featureCounterMap.keySet()) {
+							if (featureCounterMap.get(type) > 0)
+								addStyle(displayForm, type, saxWriter);
+						}
+					}
+				} catch (JAXBException e) {
+					throw new KmlExportException("Failed to write styles.", e);
+				}
+
+				// write footer element
+				try {
+					fragmentWriter.setWriteMode(WriteMode.TAIL);
+					marshaller.marshal(kml, fragmentWriter);
+				} catch (JAXBException e) {
+					throw new KmlExportException("Failed to write output file.", e);
+				}
+				
+				// flush sax writer and close file
+				try {
+					saxWriter.flush();
+					saxWriter.getOutputWriter().close();
+				} catch (Exception e) {
+					throw new KmlExportException("Failed to close output file.", e);
+				}
+
+				if (kmzArchive != null) {
+					try {
+						kmzArchive.putEntry("doc.kml", docFile);
+						kmzArchive.close();
+					} catch (IOException e) {
+						throw new KmlExportException("Failed to write output file.", e);
+					}
+				}
+
+				// delete empty tile file if requested
+				if (isBBoxActive && featureCounterMap.isEmpty() && !config.getProject().getKmlExporter().isExportEmptyTiles()) {
+					LOG.debug("Tile_" + exportFilter.getBoundingBoxFilter().getTileRow()
+							+ "_" + exportFilter.getBoundingBoxFilter().getTileColumn() + " is empty. Deleting file " + file.getName() + ".");
+					file.delete();
+				}
+
+				eventDispatcher.triggerEvent(new StatusDialogMessage(Language.I18N.getString("export.dialog.finish.msg"), this));
+			} finally {
+				// clean up
+				if (kmzArchive != null) {
+					try { kmzArchive.close(); } catch (IOException e) { }
+					tracker.setKmzArchive(null);
+				}
+
+				if (docFile != null)
+					docFile.delete();
+
+				if (kmlSplitter != null)
+					activeSplitters.remove(kmlSplitter);
+
+				if (kmlWorkerPool != null)
+					activeWorkerPools.remove(kmlWorkerPool);
+
+				if (ioWriterPool != null && !ioWriterPool.isTerminated())
+					ioWriterPool.shutdownNow();
+
+				if (kmlWorkerPool != null && !kmlWorkerPool.isTerminated())
+					kmlWorkerPool.shutdownNow();
+			}
+		}
+
+		// tile references are written in the order in which tiles complete
+		synchronized (tileReferenceLock) {
+			// create reference to tile file in master file
+			if (masterFileWriter != null && !featureCounterMap.isEmpty()) {
+				try {
+					writeMasterFileTileReference(fileName, i, j, wgs84Tile, masterFileWriter);
+				} catch (JAXBException e) {
+					if (jsonFileWriter != null) try { jsonFileWriter.close(); } catch (IOException ioe) { }
+					throw new KmlExportException("Failed to write tile reference to master file.", e);
+				}
+			}
+
+			// fill cityobject JSON file after tile has been processed
+			if (jsonFileWriter != null && !featureCounterMap.isEmpty()) {
+				try {
+					Iterator<CityObject4JSON> iter = tracker.values().iterator();
+					if (iter.hasNext()) {
+						if (jsonHasContent)
+							jsonFileWriter.write(",\n".getBytes(CHARSET));
+						else
+							jsonHasContent = true;
+					}
+
+					while (iter.hasNext()) {
+						jsonFileWriter.write(iter.next().toString().getBytes(CHARSET));
+						if (iter.hasNext())
+							jsonFileWriter.write(",\n".getBytes(CHARSET));
+					}
+				} catch (IOException e) {
+					if (jsonFileWriter != null) try { jsonFileWriter.close(); } catch (IOException ioe) { }
+					throw new KmlExportException("Failed to write JSON file.", e);
+				}
+			}
+		}
+	}
+
+	private SAXWriter createSAXWriter() {
+		// create a saxWriter instance 
+		// define indent for xml output and namespace mappings
+		SAXWriter saxWriter = new SAXWriter();
+		saxWriter.setIndentString("  ");
+		saxWriter.setHeaderComment("Written by " + this.getClass().getPackage().getImplementationTitle() + ", version \"" +
+				this.getClass().getPackage().getImplementationVersion() + '"', 
+				this.getClass().getPackage().getImplementationVendor());
+		saxWriter.setDefaultNamespace("http://www.opengis.net/kml/2.2"); // default namespace
+		saxWriter.setPrefix("gx", "http://www.google.com/kml/ext/2.2");
+		saxWriter.setPrefix("atom", "http://www.w3.org/2005/Atom");
+		saxWriter.setPrefix("xal", "urn:oasis:names:tc:ciq:xsdschema:xAL:2.0");
+
+		return saxWriter;
+	}
+
+	private void updateRemainingTiles() {
+		// keep the order of counter events in line with the counter
+		synchronized (tileReferenceLock) {
+			eventDispatcher.triggerEvent(new CounterEvent(CounterType.REMAINING_TILES, --remainingTiles, this));
+		}
+	}
+
+	private void shutdownTiles() {
+		for (KmlSplitter kmlSplitter : activeSplitters)
+			kmlSplitter.shutdown();
+
+		for (WorkerPool<KmlSplittingResult> kmlWorkerPool : activeWorkerPools)
+			kmlWorkerPool.drainWorkQueue();
+	}
+
 	private int calculateRowsColumns() throws SQLException {
 		TiledBoundingBox bbox = config.getProject().getKmlExporter().getFilter().getComplexFilter().getTiledBoundingBox();
 		double autoTileSideLength = config.getProject().getKmlExporter().getAutoTileSideLength();
@@ -1531,44 +1630,14 @@ public class KmlExporter implements EventHandler {
 		return success;
 	}
 
-	private static void getAllFiles(File startFolder, List<File> fileList) {
-		File[] files = startFolder.listFiles();
-		for (File file : files) {
-			fileList.add(file);
-			if (file.isDirectory())
-				getAllFiles(file, fileList);
-		}
-	}
-
-	private static void deleteFolder(File folder) {
-		if (folder == null) return;
-		File[] files = folder.listFiles();
-		if (files != null) {
-			for (File f: files) {
-				if (f.isDirectory())
-					deleteFolder(f);
-				else
-					f.delete();
-			}
-		}
-		folder.delete();
-	}
-
 	@Override
 	public void handleEvent(Event e) throws Exception {
 		if (e.getEventType() == EventType.FEATURE_COUNTER) {
 			HashMap<CityGMLClass, Long> counterMap = ((FeatureCounterEvent)e).getCounter();
 
 			for (CityGMLClass type : counterMap.keySet()) {
-				Long counter = featureCounterMap.get(type);
 				Long update = counterMap.get(type);
-
-				if (counter == null)
-					featureCounterMap.put(type, update);
-				else
-					featureCounterMap.put(type, counter + update);
-
-				counter = totalFeatureCounterMap.get(type);
+				Long counter = totalFeatureCounterMap.get(type);
 				if (counter == null)
 					totalFeatureCounterMap.put(type, update);
 				else
@@ -1604,13 +1673,7 @@ public class KmlExporter implements EventHandler {
 
 				LOG.info("Waiting for objects being currently processed to end...");
 
-				if (kmlSplitter != null)
-					kmlSplitter.shutdown();
-
-				if (kmlWorkerPool != null)
-					kmlWorkerPool.drainWorkQueue();
-
-				if (lastTempFolder != null && lastTempFolder.exists()) deleteFolder(lastTempFolder); // just in case
+				shutdownTiles();
 			}
 		}
 	}
@@ -35,7 +35,6 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.StringTokenizer;
 
 import javax.vecmath.Point3d;
 import javax.xml.bind.JAXBException;
@@ -51,7 +50,6 @@ import org.citydb.config.project.kmlExporter.KmlExporter;
 import org.citydb.database.adapter.AbstractDatabaseAdapter;
 import org.citydb.database.adapter.BlobExportAdapter;
 import org.citydb.log.Logger;
-import org.citydb.modules.common.event.CounterEvent;
 import org.citydb.modules.common.event.CounterType;
 import org.citydb.modules.common.event.GeometryCounterEvent;
 import org.citydb.textureAtlas.model.TextureImage;
@@ -540,7 +538,7 @@ public class CityFurniture extends KmlGenericObject{
 						eventDispatcher.triggerEvent(new GeometryCounterEvent(null, this));
 
 						String texImageUri = null;
-						StringTokenizer texCoordsTokenized = null;
+						double[] texCoordinates = null;
 
 						if (selectedTheme.equals(KmlExporter.THEME_NONE))
 							addX3dMaterial(surfaceId, x3dSurfaceMaterial);
@@ -556,22 +554,10 @@ public class CityFurniture extends KmlGenericObject{
 							else {
 								texImageUri = rs2.getString("tex_image_uri");
 
-								StringBuilder sb =  new StringBuilder();
-								Object texCoordsObject = rs2.getObject("texture_coordinates"); 
-								if (texCoordsObject != null){
-									GeometryObject texCoordsGeometryObject = geometryConverterAdapter.getGeometry(texCoordsObject);
-									for (int i = 0; i < texCoordsGeometryObject.getNumElements(); i++) {
-										double[] coordinates = texCoordsGeometryObject.getCoordinates(i);
-										for (double coordinate : coordinates){
-											sb.append(String.valueOf(coordinate));
-											sb.append(" ");
-										}									
-									}									
-								}
-								String texCoords = sb.toString();
+								double[] texCoords = getTexCoordinates(rs2.getObject("texture_coordinates"));
 
 								if (texImageUri != null && texImageUri.trim().length() != 0
-										&&  texCoords != null && texCoords.trim().length() != 0) {
+										&& texCoords != null) {
 
 									int fileSeparatorIndex = Math.max(texImageUri.lastIndexOf("\\"), texImageUri.lastIndexOf("/")); 
 									texImageUri = "_" + texImageUri.substring(fileSeparatorIndex + 1); 
@@ -598,13 +584,12 @@ public class CityFurniture extends KmlGenericObject{
 
 										texImageCounter++;
 										if (texImageCounter > 20) {
-											eventDispatcher.triggerEvent(new CounterEvent(CounterType.TEXTURE_IMAGE, texImageCounter, this));
+											eventDispatcher.updateCounter(CounterType.TEXTURE_IMAGE, texImageCounter);
 											texImageCounter = 0;
 										}
 									}
 
-									texCoords = texCoords.replaceAll(";", " "); // substitute of ; for internal ring
-									texCoordsTokenized = new StringTokenizer(texCoords, " ");
+									texCoordinates = texCoords;
 								}
 								else {
 									X3DMaterial x3dMaterial = new X3DMaterial();
@@ -620,10 +605,9 @@ public class CityFurniture extends KmlGenericObject{
 						}
 
 						GeometryObject surface = applyTransformationMatrix(geometryConverterAdapter.getPolygon(buildingGeometryObj));
-						List<VertexInfo> vertexInfos = new ArrayList<VertexInfo>();
-
 						int ringCount = surface.getNumElements();
-						int[] vertexCount = new int[ringCount];
+						SurfaceInfo surfaceInfo = new SurfaceInfo(ringCount);
+						int texCoordsIndex = 0;
 
 						for (int i = 0; i < surface.getNumElements(); i++) {
 							double[] ordinatesArray = surface.getCoordinates(i);
@@ -634,31 +618,28 @@ public class CityFurniture extends KmlGenericObject{
 								// calculate origin and list of lowest points
 								updateOrigins(ordinatesArray[j], ordinatesArray[j + 1], ordinatesArray[j + 2]);
 
-								// get or create node in vertex info tree
-								VertexInfo vertexInfo = setVertexInfoForXYZ(surfaceId,
-										ordinatesArray[j],
+								// get or create vertex in the vertex buffer
+								int vertexIndex = addVertex(ordinatesArray[j],
 										ordinatesArray[j+1],
 										ordinatesArray[j+2]);
 
-								if (texCoordsTokenized != null && texCoordsTokenized.hasMoreTokens()) {
-									double s = Double.parseDouble(texCoordsTokenized.nextToken());
-									double t = Double.parseDouble(texCoordsTokenized.nextToken());
-									vertexInfo.addTexCoords(surfaceId, new TexCoords(s, t));
-								}
+								if (texCoordinates != null && texCoordsIndex + 1 < texCoordinates.length) {
+									surfaceInfo.addVertex(vertexIndex, texCoordinates[texCoordsIndex], texCoordinates[texCoordsIndex + 1]);
+									texCoordsIndex += 2;
+								} else
+									surfaceInfo.addVertex(vertexIndex);
 
-								vertexInfos.add(vertexInfo);
 								vertices++;
 							}
 
-							vertexCount[i] = vertices;
+							surfaceInfo.setVertexCount(i, vertices);
 
-							if (texCoordsTokenized != null && texCoordsTokenized.hasMoreTokens()) {
-								texCoordsTokenized.nextToken(); // geometryInfo ignores last point in a polygon
-								texCoordsTokenized.nextToken(); // keep texture coordinates in sync
-							}
+							// geometryInfo ignores last point in a polygon,
+							// so keep texture coordinates in sync
+							texCoordsIndex += 2;
 						}
 
-						addSurfaceInfo(surfaceId, new SurfaceInfo(ringCount, vertexCount, vertexInfos));
+						addSurfaceInfo(surfaceId, surfaceInfo);
 					}
 				}
 				catch (SQLException sqlEx) {
@@ -674,7 +655,7 @@ public class CityFurniture extends KmlGenericObject{
 		}
 
 		// count rest images
-		eventDispatcher.triggerEvent(new CounterEvent(CounterType.TEXTURE_IMAGE, texImageCounter, this));
+		eventDispatcher.updateCounter(CounterType.TEXTURE_IMAGE, texImageCounter);
 	}
 
 	protected List<PlacemarkType> createPlacemarksForHighlighting(KmlSplittingResult work) throws SQLException {
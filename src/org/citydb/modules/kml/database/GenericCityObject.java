@@ -36,7 +36,6 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.StringTokenizer;
 
 import javax.vecmath.Point3d;
 import javax.xml.bind.JAXBException;
@@ -57,7 +56,6 @@ import org.citydb.config.project.kmlExporter.PointDisplayMode;
 import org.citydb.database.adapter.AbstractDatabaseAdapter;
 import org.citydb.database.adapter.BlobExportAdapter;
 import org.citydb.log.Logger;
-import org.citydb.modules.common.event.CounterEvent;
 import org.citydb.modules.common.event.CounterType;
 import org.citydb.modules.common.event.GeometryCounterEvent;
 import org.citydb.textureAtlas.model.TextureImage;
@@ -588,7 +586,7 @@ public class GenericCityObject extends KmlGenericObject{
 						eventDispatcher.triggerEvent(new GeometryCounterEvent(null, this));
 
 						String texImageUri = null;
-						StringTokenizer texCoordsTokenized = null;
+						double[] texCoordinates = null;
 
 						if (selectedTheme.equals(KmlExporter.THEME_NONE))
 							addX3dMaterial(surfaceId, x3dSurfaceMaterial);
@@ -604,22 +602,10 @@ public class GenericCityObject extends KmlGenericObject{
 							else {
 								texImageUri = rs2.getString("tex_image_uri");
 
-								StringBuilder sb =  new StringBuilder();
-								Object texCoordsObject = rs2.getObject("texture_coordinates"); 
-								if (texCoordsObject != null){
-									GeometryObject texCoordsGeometryObject = geometryConverterAdapter.getGeometry(texCoordsObject);
-									for (int i = 0; i < texCoordsGeometryObject.getNumElements(); i++) {
-										double[] coordinates = texCoordsGeometryObject.getCoordinates(i);
-										for (double coordinate : coordinates){
-											sb.append(String.valueOf(coordinate));
-											sb.append(" ");
-										}									
-									}									
-								}
-								String texCoords = sb.toString();
+								double[] texCoords = getTexCoordinates(rs2.getObject("texture_coordinates"));
 
 								if (texImageUri != null && texImageUri.trim().length() != 0
-										&&  texCoords != null && texCoords.trim().length() != 0) {
+										&& texCoords != null) {
 
 									int fileSeparatorIndex = Math.max(texImageUri.lastIndexOf("\\"), texImageUri.lastIndexOf("/")); 
 									texImageUri = "_" + texImageUri.substring(fileSeparatorIndex + 1); 
@@ -646,13 +632,12 @@ public class GenericCityObject extends KmlGenericObject{
 
 										texImageCounter++;
 										if (texImageCounter > 20) {
-											eventDispatcher.triggerEvent(new CounterEvent(CounterType.TEXTURE_IMAGE, texImageCounter, this));
+											eventDispatcher.updateCounter(CounterType.TEXTURE_IMAGE, texImageCounter);
 											texImageCounter = 0;
 										}
 									}
 
-									texCoords = texCoords.replaceAll(";", " "); // substitute of ; for internal ring
-									texCoordsTokenized = new StringTokenizer(texCoords, " ");
+									texCoordinates = texCoords;
 								}
 								else {
 									X3DMaterial x3dMaterial = new X3DMaterial();
@@ -668,10 +653,9 @@ public class GenericCityObject extends KmlGenericObject{
 						}
 
 						GeometryObject surface = applyTransformationMatrix(geometryConverterAdapter.getPolygon(buildingGeometryObj));
-						List<VertexInfo> vertexInfos = new ArrayList<VertexInfo>();
-
 						int ringCount = surface.getNumElements();
-						int[] vertexCount = new int[ringCount];
+						SurfaceInfo surfaceInfo = new SurfaceInfo(ringCount);
+						int texCoordsIndex = 0;
 
 						for (int i = 0; i < surface.getNumElements(); i++) {
 							double[] ordinatesArray = surface.getCoordinates(i);
@@ -682,31 +666,28 @@ public class GenericCityObject extends KmlGenericObject{
 								// calculate origin and list of lowest points
 								updateOrigins(ordinatesArray[j], ordinatesArray[j + 1], ordinatesArray[j + 2]);
 
-								// get or create node in vertex info tree
-								VertexInfo vertexInfo = setVertexInfoForXYZ(surfaceId,
-										ordinatesArray[j],
+								// get or create vertex in the vertex buffer
+								int vertexIndex = addVertex(ordinatesArray[j],
 										ordinatesArray[j+1],
 										ordinatesArray[j+2]);
 
-								if (texCoordsTokenized != null && texCoordsTokenized.hasMoreTokens()) {
-									double s = Double.parseDouble(texCoordsTokenized.nextToken());
-									double t = Double.parseDouble(texCoordsTokenized.nextToken());
-									vertexInfo.addTexCoords(surfaceId, new TexCoords(s, t));
-								}
+								if (texCoordinates != null && texCoordsIndex + 1 < texCoordinates.length) {
+									surfaceInfo.addVertex(vertexIndex, texCoordinates[texCoordsIndex], texCoordinates[texCoordsIndex + 1]);
+									texCoordsIndex += 2;
+								} else
+									surfaceInfo.addVertex(vertexIndex);
 
-								vertexInfos.add(vertexInfo);
 								vertices++;
 							}
 
-							vertexCount[i] = vertices;
+							surfaceInfo.setVertexCount(i, vertices);
 
-							if (texCoordsTokenized != null && texCoordsTokenized.hasMoreTokens()) {
-								texCoordsTokenized.nextToken(); // geometryInfo ignores last point in a polygon
-								texCoordsTokenized.nextToken(); // keep texture coordinates in sync
-							}
+							// geometryInfo ignores last point in a polygon,
+							// so keep texture coordinates in sync
+							texCoordsIndex += 2;
 						}
 
-						addSurfaceInfo(surfaceId, new SurfaceInfo(ringCount, vertexCount, vertexInfos));
+						addSurfaceInfo(surfaceId, surfaceInfo);
 					}
 				}
 				catch (SQLException sqlEx) {
@@ -722,7 +703,7 @@ public class GenericCityObject extends KmlGenericObject{
 		}
 
 		// count rest images
-		eventDispatcher.triggerEvent(new CounterEvent(CounterType.TEXTURE_IMAGE, texImageCounter, this));
+		eventDispatcher.updateCounter(CounterType.TEXTURE_IMAGE, texImageCounter);
 	}
 
 	protected List<PlacemarkType> createPlacemarksForHighlighting(KmlSplittingResult work) throws SQLException {
@@ -1142,10 +1123,16 @@ public class GenericCityObject extends KmlGenericObject{
 				if (pacSettings.getPointBalloon() != null && pacSettings.getPointBalloon().isIncludeDescription() &&
 						pacSettings.getPointBalloon().getBalloonContentMode() != BalloonContentMode.GEN_ATTRIB) {
 					String balloonTemplateFilename = pacSettings.getPointBalloon().getBalloonContentTemplateFile();
+					BalloonTemplateHandler pointBalloonTemplateHandler = null;
 					if (balloonTemplateFilename != null && balloonTemplateFilename.length() > 0) {
-						setBalloonTemplateHandler(databaseAdapter.getBalloonTemplateHandler(new File(balloonTemplateFilename)));
+						pointBalloonTemplateHandler = databaseAdapter.getBalloonTemplateHandler(new File(balloonTemplateFilename));
+						setBalloonTemplateHandler(pointBalloonTemplateHandler);
 					}
 					addBalloonContents(placemark, work.getId());
+
+					// the handler only lives for this placemark, so release its statements
+					if (pointBalloonTemplateHandler != null)
+						pointBalloonTemplateHandler.close();
 				}
 
 			}
@@ -1169,11 +1156,17 @@ public class GenericCityObject extends KmlGenericObject{
 				if (pacSettings.getCurveBalloon() != null && pacSettings.getCurveBalloon().isIncludeDescription() &&
 						pacSettings.getCurveBalloon().getBalloonContentMode() != BalloonContentMode.GEN_ATTRIB) {
 					String balloonTemplateFilename = pacSettings.getCurveBalloon().getBalloonContentTemplateFile();
+					BalloonTemplateHandler curveBalloonTemplateHandler = null;
 					if (balloonTemplateFilename != null && balloonTemplateFilename.length() > 0) {
-						setBalloonTemplateHandler(databaseAdapter.getBalloonTemplateHandler(new File(balloonTemplateFilename)));
+						curveBalloonTemplateHandler = databaseAdapter.getBalloonTemplateHandler(new File(balloonTemplateFilename));
+						setBalloonTemplateHandler(curveBalloonTemplateHandler);
 					}
 					// this is the reason for the isPoint dirty hack
 					addBalloonContents(placemark, work.getId());
+
+					// the handler only lives for this placemark, so release its statements
+					if (curveBalloonTemplateHandler != null)
+						curveBalloonTemplateHandler.close();
 				}
 				switch (pacSettings.getCurveAltitudeMode()) {
 				case ABSOLUTE:
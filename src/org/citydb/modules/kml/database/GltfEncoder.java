@@ -0,0 +1,978 @@
+/*
+ * 3D City Database - The Open Source CityGML Database
+ * http://www.3dcitydb.org/
+ * 
+ * Copyright 2013 - 2016
+ * Chair of Geoinformatics
+ * Technical University of Munich, Germany
+ * https://www.gis.bgu.tum.de/
+ * 
+ * The 3D City Database is jointly developed with the following
+ * cooperation partners:
+ * 
+ * virtualcitySYSTEMS GmbH, Berlin <http://www.virtualcitysystems.de/>
+ * M.O.S.S. Computer Grafik Systeme GmbH, Taufkirchen <http://www.moss.de/>
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *     
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.citydb.modules.kml.database;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.imageio.ImageIO;
+import javax.xml.bind.DatatypeConverter;
+import javax.xml.bind.JAXBElement;
+
+import org.collada._2005._11.colladaschema.Asset;
+import org.collada._2005._11.colladaschema.COLLADA;
+import org.collada._2005._11.colladaschema.CommonColorOrTextureType;
+import org.collada._2005._11.colladaschema.CommonFloatOrParamType;
+import org.collada._2005._11.colladaschema.CommonNewparamType;
+import org.collada._2005._11.colladaschema.CommonTransparentType;
+import org.collada._2005._11.colladaschema.Effect;
+import org.collada._2005._11.colladaschema.Extra;
+import org.collada._2005._11.colladaschema.FxSurfaceInitFromCommon;
+import org.collada._2005._11.colladaschema.Geometry;
+import org.collada._2005._11.colladaschema.Image;
+import org.collada._2005._11.colladaschema.InputLocal;
+import org.collada._2005._11.colladaschema.InputLocalOffset;
+import org.collada._2005._11.colladaschema.InstanceGeometry;
+import org.collada._2005._11.colladaschema.InstanceMaterial;
+import org.collada._2005._11.colladaschema.LibraryEffects;
+import org.collada._2005._11.colladaschema.LibraryGeometries;
+import org.collada._2005._11.colladaschema.LibraryImages;
+import org.collada._2005._11.colladaschema.LibraryMaterials;
+import org.collada._2005._11.colladaschema.LibraryVisualScenes;
+import org.collada._2005._11.colladaschema.Material;
+import org.collada._2005._11.colladaschema.Mesh;
+import org.collada._2005._11.colladaschema.Node;
+import org.collada._2005._11.colladaschema.ProfileCOMMON;
+import org.collada._2005._11.colladaschema.Source;
+import org.collada._2005._11.colladaschema.Technique;
+import org.collada._2005._11.colladaschema.Triangles;
+import org.collada._2005._11.colladaschema.UpAxisType;
+import org.collada._2005._11.colladaschema.VisualScene;
+import org.w3c.dom.Element;
+
+/**
+ * Encodes the COLLADA tree of a model as glTF 2.0 asset, either as .gltf file
+ * with an embedded binary buffer or as binary .glb file.
+ *
+ * The encoder only understands the subset of COLLADA that is produced by
+ * {@link KmlGenericObject#generateColladaTree()}: triangle meshes whose
+ * materials are given by common profile effects. Each COLLADA vertex tuple
+ * of position, normal and texture coordinates is turned into a single glTF
+ * vertex. Z-up models are rotated into the Y-up system of glTF.
+ *
+ * With quantization enabled, vertex attributes are stored as normalized
+ * integers according to the KHR_mesh_quantization extension. Positions are
+ * scaled to the bounding box of the mesh, which is undone by the transformation
+ * of the mesh node.
+ */
+public class GltfEncoder {
+	private static final Charset CHARSET = Charset.forName("UTF-8");
+	private static final int GLB_MAGIC = 0x46546C67;
+	private static final int GLB_CHUNK_JSON = 0x4E4F534A;
+	private static final int GLB_CHUNK_BIN = 0x004E4942;
+
+	private static final int ARRAY_BUFFER = 34962;
+	private static final int ELEMENT_ARRAY_BUFFER = 34963;
+	private static final int BYTE = 5120;
+	private static final int SHORT = 5122;
+	private static final int UNSIGNED_SHORT = 5123;
+	private static final int UNSIGNED_INT = 5125;
+	private static final int FLOAT = 5126;
+
+	private final boolean binary;
+	private final boolean quantize;
+
+	public GltfEncoder(boolean binary, boolean quantize) {
+		this.binary = binary;
+		this.quantize = quantize;
+	}
+
+	public String getFileExtension() {
+		return binary ? ".glb" : ".gltf";
+	}
+
+	/**
+	 * Encodes the COLLADA tree as glTF asset.
+	 *
+	 * @param images image contents to be embedded into the asset, keyed by the
+	 * file name used in the COLLADA tree. Images that are not contained are
+	 * referenced by their file name. If null, all images are referenced.
+	 */
+	public byte[] encode(COLLADA collada, Map<String, byte[]> images) throws IOException {
+		Encoding encoding = new Encoding(collada, images);
+		return encoding.encode();
+	}
+
+	private final class Encoding {
+		private final Map<String, byte[]> embeddedImages;
+		private final Map<String, Image> imagesById = new HashMap<String, Image>();
+		private final Map<String, Material> materialsById = new HashMap<String, Material>();
+		private final Map<String, Effect> effectsById = new HashMap<String, Effect>();
+		private final Map<String, Geometry> geometriesById = new HashMap<String, Geometry>();
+		private final List<VisualScene> visualScenes = new ArrayList<VisualScene>();
+
+		private final Map<String, Integer> materialIndexes = new HashMap<String, Integer>();
+		private final Map<String, Integer> textureIndexes = new HashMap<String, Integer>();
+		private final StringBuilder meshes = new StringBuilder();
+		private final StringBuilder nodes = new StringBuilder();
+		private final StringBuilder materials = new StringBuilder();
+		private final StringBuilder textures = new StringBuilder();
+		private final StringBuilder imageList = new StringBuilder();
+		private final StringBuilder accessors = new StringBuilder();
+		private final StringBuilder bufferViews = new StringBuilder();
+		private final BinaryBuffer buffer = new BinaryBuffer();
+
+		private String generator;
+		private double unitScale = 1;
+		private boolean zUp;
+		private int meshCount;
+		private int materialCount;
+		private int textureCount;
+		private int imageCount;
+		private int accessorCount;
+		private int bufferViewCount;
+		private int bufferViewOffset;
+
+		private Encoding(COLLADA collada, Map<String, byte[]> embeddedImages) {
+			this.embeddedImages = embeddedImages;
+
+			Asset asset = collada.getAsset();
+			if (asset != null) {
+				if (asset.getUnit() != null && asset.getUnit().getMeter() > 0)
+					unitScale = asset.getUnit().getMeter();
+
+				zUp = asset.getUpAxis() == UpAxisType.Z_UP;
+				if (!asset.getContributor().isEmpty())
+					generator = asset.getContributor().get(0).getAuthoringTool();
+			}
+
+			for (Object library : collada.getLibraryAnimationsOrLibraryAnimationClipsOrLibraryCameras()) {
+				if (library instanceof LibraryImages) {
+					for (Image image : ((LibraryImages)library).getImage())
+						imagesById.put(image.getId(), image);
+				} else if (library instanceof LibraryMaterials) {
+					for (Material material : ((LibraryMaterials)library).getMaterial())
+						materialsById.put(material.getId(), material);
+				} else if (library instanceof LibraryEffects) {
+					for (Effect effect : ((LibraryEffects)library).getEffect())
+						effectsById.put(effect.getId(), effect);
+				} else if (library instanceof LibraryGeometries) {
+					for (Geometry geometry : ((LibraryGeometries)library).getGeometry())
+						geometriesById.put(geometry.getId(), geometry);
+				} else if (library instanceof LibraryVisualScenes)
+					visualScenes.addAll(((LibraryVisualScenes)library).getVisualScene());
+			}
+		}
+
+		private byte[] encode() throws IOException {
+			String sceneName = null;
+			for (VisualScene visualScene : visualScenes) {
+				if (sceneName == null)
+					sceneName = visualScene.getId();
+
+				for (Node node : visualScene.getNode())
+					encodeNode(node);
+			}
+
+			if (meshCount == 0)
+				throw new IOException("The COLLADA model does not contain any triangle mesh.");
+
+			StringBuilder json = new StringBuilder();
+			json.append("{\"asset\":{\"version\":\"2.0\"");
+			if (generator != null)
+				json.append(",\"generator\":").append(quote(generator));
+			json.append('}');
+
+			if (quantize)
+				json.append(",\"extensionsUsed\":[\"KHR_mesh_quantization\"],\"extensionsRequired\":[\"KHR_mesh_quantization\"]");
+
+			json.append(",\"scene\":0,\"scenes\":[{");
+			if (sceneName != null)
+				json.append("\"name\":").append(quote(sceneName)).append(',');
+			json.append("\"nodes\":[");
+			for (int i = 0; i < meshCount; i++) {
+				if (i > 0)
+					json.append(',');
+				json.append(i);
+			}
+			json.append("]}]");
+
+			json.append(",\"nodes\":[").append(nodes).append(']');
+			json.append(",\"meshes\":[").append(meshes).append(']');
+			if (materialCount > 0)
+				json.append(",\"materials\":[").append(materials).append(']');
+			if (textureCount > 0) {
+				json.append(",\"textures\":[").append(textures).append(']');
+				json.append(",\"samplers\":[{\"wrapS\":10497,\"wrapT\":10497}]");
+				json.append(",\"images\":[").append(imageList).append(']');
+			}
+			json.append(",\"accessors\":[").append(accessors).append(']');
+			json.append(",\"bufferViews\":[").append(bufferViews).append(']');
+
+			json.append(",\"buffers\":[{\"byteLength\":").append(buffer.size());
+			if (!binary)
+				json.append(",\"uri\":\"data:application/octet-stream;base64,").append(DatatypeConverter.printBase64Binary(buffer.toByteArray())).append('"');
+			json.append("}]}");
+
+			byte[] content = json.toString().getBytes(CHARSET);
+			return binary ? toGlb(content, buffer.toByteArray()) : content;
+		}
+
+		private void encodeNode(Node node) throws IOException {
+			for (InstanceGeometry instanceGeometry : node.getInstanceGeometry()) {
+				Geometry geometry = geometriesById.get(getId(instanceGeometry.getUrl()));
+				if (geometry == null || geometry.getMesh() == null)
+					continue;
+
+				Map<String, String> materialBindings = new HashMap<String, String>();
+				if (instanceGeometry.getBindMaterial() != null && instanceGeometry.getBindMaterial().getTechniqueCommon() != null) {
+					for (InstanceMaterial instanceMaterial : instanceGeometry.getBindMaterial().getTechniqueCommon().getInstanceMaterial())
+						materialBindings.put(instanceMaterial.getSymbol(), getId(instanceMaterial.getTarget()));
+				}
+
+				encodeMesh(geometry, materialBindings);
+			}
+
+			for (Node child : node.getNode())
+				encodeNode(child);
+		}
+
+		private void encodeMesh(Geometry geometry, Map<String, String> materialBindings) throws IOException {
+			Mesh mesh = geometry.getMesh();
+			Map<String, Source> sources = new HashMap<String, Source>();
+			for (Source source : mesh.getSource())
+				sources.put(source.getId(), source);
+
+			SourceData positionSource = null;
+			if (mesh.getVertices() != null) {
+				for (InputLocal input : mesh.getVertices().getInput()) {
+					if ("POSITION".equals(input.getSemantic()))
+						positionSource = SourceData.of(sources.get(getId(input.getSource())));
+				}
+			}
+
+			if (positionSource == null)
+				return;
+
+			MeshData meshData = new MeshData();
+			for (Object primitive : mesh.getLinesOrLinestripsOrPolygons()) {
+				if (!(primitive instanceof Triangles))
+					continue;
+
+				Triangles triangles = (Triangles)primitive;
+				SourceData normalSource = null;
+				SourceData texCoordsSource = null;
+				int vertexOffset = -1, normalOffset = -1, texCoordsOffset = -1;
+				int stride = 0;
+
+				for (InputLocalOffset input : triangles.getInput()) {
+					int offset = input.getOffset().intValue();
+					stride = Math.max(stride, offset + 1);
+
+					if ("VERTEX".equals(input.getSemantic()))
+						vertexOffset = offset;
+					else if ("NORMAL".equals(input.getSemantic())) {
+						normalSource = SourceData.of(sources.get(getId(input.getSource())));
+						normalOffset = normalSource != null ? offset : -1;
+					} else if ("TEXCOORD".equals(input.getSemantic()) && texCoordsSource == null) {
+						texCoordsSource = SourceData.of(sources.get(getId(input.getSource())));
+						texCoordsOffset = texCoordsSource != null ? offset : -1;
+					}
+				}
+
+				if (vertexOffset == -1 || triangles.getP().isEmpty())
+					continue;
+
+				List<BigInteger> p = triangles.getP();
+				PrimitiveData primitiveData = new PrimitiveData(p.size() / stride);
+				primitiveData.material = materialBindings.get(triangles.getMaterial());
+				primitiveData.hasNormals = normalSource != null;
+				primitiveData.hasTexCoords = texCoordsSource != null;
+
+				for (int i = 0; i + stride <= p.size(); i += stride) {
+					int position = p.get(i + vertexOffset).intValue();
+					int normal = normalOffset != -1 ? p.get(i + normalOffset).intValue() : -1;
+					int texCoords = texCoordsOffset != -1 ? p.get(i + texCoordsOffset).intValue() : -1;
+					if (position < 0 || position >= positionSource.count)
+						throw new IOException("Invalid vertex index " + position + " in geometry '" + geometry.getId() + "'.");
+
+					primitiveData.add(meshData.getVertex(positionSource, position, normalSource, normal, texCoordsSource, texCoords));
+				}
+
+				meshData.primitives.add(primitiveData);
+			}
+
+			if (meshData.vertexCount == 0)
+				return;
+
+			writeMesh(geometry.getId(), meshData);
+		}
+
+		private void writeMesh(String name, MeshData meshData) throws IOException {
+			int vertexCount = meshData.vertexCount;
+			float[] positions = meshData.positions;
+
+			// bounding box of the mesh
+			float[] min = new float[]{Float.MAX_VALUE, Float.MAX_VALUE, Float.MAX_VALUE};
+			float[] max = new float[]{-Float.MAX_VALUE, -Float.MAX_VALUE, -Float.MAX_VALUE};
+			for (int i = 0; i < vertexCount * 3; i++) {
+				min[i % 3] = Math.min(min[i % 3], positions[i]);
+				max[i % 3] = Math.max(max[i % 3], positions[i]);
+			}
+
+			// node
+			if (meshCount > 0)
+				nodes.append(',');
+			nodes.append("{\"name\":").append(quote(name)).append(",\"mesh\":").append(meshCount);
+
+			// positions
+			int positionAccessor;
+			if (quantize) {
+				float[] center = new float[3];
+				float extent = 0;
+				for (int i = 0; i < 3; i++) {
+					center[i] = (min[i] + max[i]) / 2;
+					extent = Math.max(extent, (max[i] - min[i]) / 2);
+				}
+
+				if (extent == 0)
+					extent = 1;
+
+				// a uniform scale keeps the normals of the mesh intact
+				nodes.append(",\"translation\":[").append(center[0]).append(',').append(center[1]).append(',').append(center[2]).append(']');
+				nodes.append(",\"scale\":[").append(extent).append(',').append(extent).append(',').append(extent).append(']');
+
+				int[] qMin = new int[3];
+				int[] qMax = new int[3];
+				int bufferView = beginBufferView();
+				for (int i = 0; i < vertexCount; i++) {
+					for (int j = 0; j < 3; j++) {
+						int value = quantize((positions[i * 3 + j] - center[j]) / extent, 32767);
+						buffer.putShort(value);
+						if (i == 0 || value < qMin[j]) qMin[j] = value;
+						if (i == 0 || value > qMax[j]) qMax[j] = value;
+					}
+					buffer.putShort(0); // padding
+				}
+
+				endBufferView(bufferView, 8, ARRAY_BUFFER);
+				positionAccessor = addAccessor(bufferView, SHORT, true, vertexCount, "VEC3",
+						"[" + qMin[0] + "," + qMin[1] + "," + qMin[2] + "]", "[" + qMax[0] + "," + qMax[1] + "," + qMax[2] + "]");
+			} else {
+				int bufferView = beginBufferView();
+				for (int i = 0; i < vertexCount * 3; i++)
+					buffer.putFloat(positions[i]);
+
+				endBufferView(bufferView, 0, ARRAY_BUFFER);
+				positionAccessor = addAccessor(bufferView, FLOAT, false, vertexCount, "VEC3",
+						"[" + min[0] + "," + min[1] + "," + min[2] + "]", "[" + max[0] + "," + max[1] + "," + max[2] + "]");
+			}
+
+			nodes.append('}');
+
+			// normals
+			int normalAccessor = -1;
+			if (meshData.hasNormals) {
+				int bufferView = beginBufferView();
+				if (quantize) {
+					for (int i = 0; i < vertexCount; i++) {
+						buffer.putByte(quantize(meshData.normals[i * 3], 127));
+						buffer.putByte(quantize(meshData.normals[i * 3 + 1], 127));
+						buffer.putByte(quantize(meshData.normals[i * 3 + 2], 127));
+						buffer.putByte(0); // padding
+					}
+
+					endBufferView(bufferView, 4, ARRAY_BUFFER);
+					normalAccessor = addAccessor(bufferView, BYTE, true, vertexCount, "VEC3", null, null);
+				} else {
+					for (int i = 0; i < vertexCount * 3; i++)
+						buffer.putFloat(meshData.normals[i]);
+
+					endBufferView(bufferView, 0, ARRAY_BUFFER);
+					normalAccessor = addAccessor(bufferView, FLOAT, false, vertexCount, "VEC3", null, null);
+				}
+			}
+
+			// texture coordinates
+			int texCoordsAccessor = -1;
+			if (meshData.hasTexCoords) {
+				int bufferView = beginBufferView();
+
+				// wrapping textures use coordinates outside of [0, 1]
+				boolean normalized = quantize;
+				for (int i = 0; normalized && i < vertexCount * 2; i++)
+					normalized = meshData.texCoords[i] >= 0 && meshData.texCoords[i] <= 1;
+
+				if (normalized) {
+					for (int i = 0; i < vertexCount * 2; i++)
+						buffer.putShort(quantize(meshData.texCoords[i], 65535));
+
+					endBufferView(bufferView, 0, ARRAY_BUFFER);
+					texCoordsAccessor = addAccessor(bufferView, UNSIGNED_SHORT, true, vertexCount, "VEC2", null, null);
+				} else {
+					for (int i = 0; i < vertexCount * 2; i++)
+						buffer.putFloat(meshData.texCoords[i]);
+
+					endBufferView(bufferView, 0, ARRAY_BUFFER);
+					texCoordsAccessor = addAccessor(bufferView, FLOAT, false, vertexCount, "VEC2", null, null);
+				}
+			}
+
+			// indexes of all primitives share a single buffer view
+			int indexBufferView = beginBufferView();
+			int[] indexAccessors = new int[meshData.primitives.size()];
+			boolean shortIndexes = vertexCount < 65535;
+			for (int i = 0; i < indexAccessors.length; i++) {
+				PrimitiveData primitive = meshData.primitives.get(i);
+				int byteOffset = buffer.size() - bufferViewOffset;
+				for (int j = 0; j < primitive.count; j++) {
+					if (shortIndexes)
+						buffer.putShort(primitive.indexes[j]);
+					else
+						buffer.putInt(primitive.indexes[j]);
+				}
+
+				buffer.align();
+				indexAccessors[i] = addAccessor(indexBufferView, byteOffset, shortIndexes ? UNSIGNED_SHORT : UNSIGNED_INT, false, primitive.count, "SCALAR", null, null);
+			}
+
+			endBufferView(indexBufferView, 0, ELEMENT_ARRAY_BUFFER);
+
+			// mesh
+			if (meshCount > 0)
+				meshes.append(',');
+			meshes.append("{\"name\":").append(quote(name)).append(",\"primitives\":[");
+			for (int i = 0; i < indexAccessors.length; i++) {
+				PrimitiveData primitive = meshData.primitives.get(i);
+				int material = getMaterial(primitive.material);
+
+				if (i > 0)
+					meshes.append(',');
+				meshes.append("{\"attributes\":{\"POSITION\":").append(positionAccessor);
+				if (primitive.hasNormals)
+					meshes.append(",\"NORMAL\":").append(normalAccessor);
+				if (primitive.hasTexCoords)
+					meshes.append(",\"TEXCOORD_0\":").append(texCoordsAccessor);
+				meshes.append("},\"indices\":").append(indexAccessors[i]);
+				if (material != -1)
+					meshes.append(",\"material\":").append(material);
+				meshes.append('}');
+			}
+
+			meshes.append("]}");
+			meshCount++;
+		}
+
+		private int getMaterial(String materialId) throws IOException {
+			if (materialId == null)
+				return -1;
+
+			Integer index = materialIndexes.get(materialId);
+			if (index != null)
+				return index;
+
+			Material material = materialsById.get(materialId);
+			if (material == null || material.getInstanceEffect() == null)
+				return -1;
+
+			Effect effect = effectsById.get(getId(material.getInstanceEffect().getUrl()));
+			ProfileCOMMON profile = null;
+			if (effect != null) {
+				for (JAXBElement<?> element : effect.getFxProfileAbstract()) {
+					if (element.getValue() instanceof ProfileCOMMON) {
+						profile = (ProfileCOMMON)element.getValue();
+						break;
+					}
+				}
+			}
+
+			if (profile == null || profile.getTechnique() == null)
+				return -1;
+
+			ProfileCOMMON.Technique technique = profile.getTechnique();
+			CommonColorOrTextureType emission = null, diffuse = null;
+			CommonTransparentType transparent = null;
+			CommonFloatOrParamType transparency = null;
+
+			if (technique.getLambert() != null) {
+				emission = technique.getLambert().getEmission();
+				diffuse = technique.getLambert().getDiffuse();
+				transparent = technique.getLambert().getTransparent();
+				transparency = technique.getLambert().getTransparency();
+			} else if (technique.getPhong() != null) {
+				emission = technique.getPhong().getEmission();
+				diffuse = technique.getPhong().getDiffuse();
+				transparent = technique.getPhong().getTransparent();
+				transparency = technique.getPhong().getTransparency();
+			} else if (technique.getBlinn() != null) {
+				emission = technique.getBlinn().getEmission();
+				diffuse = technique.getBlinn().getDiffuse();
+				transparent = technique.getBlinn().getTransparent();
+				transparency = technique.getBlinn().getTransparency();
+			}
+
+			double[] baseColor = new double[]{1, 1, 1, 1};
+			int texture = -1;
+			if (diffuse != null) {
+				if (diffuse.getColor() != null)
+					copyColor(diffuse.getColor().getValue(), baseColor);
+				else if (diffuse.getTexture() != null)
+					texture = getTexture(findImage(profile, diffuse.getTexture().getTexture()));
+			}
+
+			if (transparent != null && transparency != null && transparency.getFloat() != null)
+				baseColor[3] *= transparency.getFloat().getValue();
+
+			double[] emissive = new double[]{0, 0, 0, 1};
+			if (emission != null && emission.getColor() != null)
+				copyColor(emission.getColor().getValue(), emissive);
+
+			if (materialCount > 0)
+				materials.append(',');
+			materials.append("{\"name\":").append(quote(materialId)).append(",\"pbrMetallicRoughness\":{");
+			materials.append("\"baseColorFactor\":[").append(baseColor[0]).append(',').append(baseColor[1]).append(',').append(baseColor[2]).append(',').append(baseColor[3]).append(']');
+			if (texture != -1)
+				materials.append(",\"baseColorTexture\":{\"index\":").append(texture).append('}');
+			materials.append(",\"metallicFactor\":0.0,\"roughnessFactor\":1.0}");
+			if (emissive[0] > 0 || emissive[1] > 0 || emissive[2] > 0)
+				materials.append(",\"emissiveFactor\":[").append(emissive[0]).append(',').append(emissive[1]).append(',').append(emissive[2]).append(']');
+			if (baseColor[3] < 1)
+				materials.append(",\"alphaMode\":\"BLEND\"");
+			if (isDoubleSided(profile))
+				materials.append(",\"doubleSided\":true");
+			materials.append('}');
+
+			index = materialCount++;
+			materialIndexes.put(materialId, index);
+			return index;
+		}
+
+		private Image findImage(ProfileCOMMON profile, String sid) {
+			// texture -> sampler -> surface -> image
+			CommonNewparamType sampler = findNewparam(profile, sid);
+			if (sampler != null && sampler.getSampler2D() != null) {
+				CommonNewparamType surface = findNewparam(profile, sampler.getSampler2D().getSource());
+				if (surface != null && surface.getSurface() != null) {
+					for (FxSurfaceInitFromCommon initFrom : surface.getSurface().getInitFrom()) {
+						Object value = initFrom.getValue();
+						if (value instanceof Image)
+							return (Image)value;
+						else if (value instanceof String)
+							return imagesById.get(value);
+					}
+				}
+			}
+
+			// some writers directly reference the image
+			return imagesById.get(sid);
+		}
+
+		private CommonNewparamType findNewparam(ProfileCOMMON profile, String sid) {
+			if (sid == null)
+				return null;
+
+			List<Object> newparams = new ArrayList<Object>(profile.getImageOrNewparam());
+			newparams.addAll(profile.getTechnique().getImageOrNewparam());
+			for (Object newparam : newparams) {
+				if (newparam instanceof CommonNewparamType && sid.equals(((CommonNewparamType)newparam).getSid()))
+					return (CommonNewparamType)newparam;
+			}
+
+			return null;
+		}
+
+		private boolean isDoubleSided(ProfileCOMMON profile) {
+			for (Extra extra : profile.getExtra()) {
+				for (Technique technique : extra.getTechnique()) {
+					for (Object any : technique.getAny()) {
+						if (any instanceof Element
+								&& "double_sided".equals(((Element)any).getLocalName())
+								&& "1".equals(((Element)any).getTextContent().trim()))
+							return true;
+					}
+				}
+			}
+
+			return false;
+		}
+
+		private int getTexture(Image image) throws IOException {
+			if (image == null || image.getInitFrom() == null)
+				return -1;
+
+			String fileName = image.getInitFrom();
+			Integer index = textureIndexes.get(fileName);
+			if (index != null)
+				return index;
+
+			String mimeType = getMimeType(fileName);
+			byte[] content = embeddedImages != null ? embeddedImages.get(fileName) : null;
+
+			if (content != null && mimeType == null) {
+				// glTF only supports PNG and JPEG images
+				content = toPng(content);
+				mimeType = content != null ? "image/png" : null;
+			}
+
+			if (mimeType == null)
+				return -1;
+
+			if (imageCount > 0)
+				imageList.append(',');
+
+			if (content == null)
+				imageList.append("{\"uri\":").append(quote(fileName.replace('\\', '/'))).append('}');
+			else if (binary) {
+				int bufferView = beginBufferView();
+				buffer.put(content);
+				endBufferView(bufferView, 0, 0);
+				imageList.append("{\"bufferView\":").append(bufferView).append(",\"mimeType\":\"").append(mimeType).append("\"}");
+			} else
+				imageList.append("{\"uri\":\"data:").append(mimeType).append(";base64,").append(DatatypeConverter.printBase64Binary(content)).append("\"}");
+
+			if (textureCount > 0)
+				textures.append(',');
+			textures.append("{\"sampler\":0,\"source\":").append(imageCount++).append('}');
+
+			index = textureCount++;
+			textureIndexes.put(fileName, index);
+			return index;
+		}
+
+		private int beginBufferView() {
+			buffer.align();
+			bufferViewOffset = buffer.size();
+			return bufferViewCount;
+		}
+
+		private void endBufferView(int bufferView, int byteStride, int target) {
+			if (bufferViewCount > 0)
+				bufferViews.append(',');
+			bufferViews.append("{\"buffer\":0,\"byteOffset\":").append(bufferViewOffset).append(",\"byteLength\":").append(buffer.size() - bufferViewOffset);
+			if (byteStride > 0)
+				bufferViews.append(",\"byteStride\":").append(byteStride);
+			if (target > 0)
+				bufferViews.append(",\"target\":").append(target);
+			bufferViews.append('}');
+			bufferViewCount++;
+		}
+
+		private int addAccessor(int bufferView, int componentType, boolean normalized, int count, String type, String min, String max) {
+			return addAccessor(bufferView, 0, componentType, normalized, count, type, min, max);
+		}
+
+		private int addAccessor(int bufferView, int byteOffset, int componentType, boolean normalized, int count, String type, String min, String max) {
+			if (accessorCount > 0)
+				accessors.append(',');
+			accessors.append("{\"bufferView\":").append(bufferView);
+			if (byteOffset > 0)
+				accessors.append(",\"byteOffset\":").append(byteOffset);
+			accessors.append(",\"componentType\":").append(componentType);
+			if (normalized)
+				accessors.append(",\"normalized\":true");
+			accessors.append(",\"count\":").append(count).append(",\"type\":\"").append(type).append('"');
+			if (min != null && max != null)
+				accessors.append(",\"min\":").append(min).append(",\"max\":").append(max);
+			accessors.append('}');
+			return accessorCount++;
+		}
+
+		private final class MeshData {
+			private final Map<VertexKey, Integer> vertices = new HashMap<VertexKey, Integer>();
+			private final List<PrimitiveData> primitives = new ArrayList<PrimitiveData>();
+			private float[] positions = new float[3 * 64];
+			private float[] normals = new float[3 * 64];
+			private float[] texCoords = new float[2 * 64];
+			private int vertexCount;
+			private boolean hasNormals;
+			private boolean hasTexCoords;
+
+			private int getVertex(SourceData positionSource, int position, SourceData normalSource, int normal, SourceData texCoordsSource, int texCoord) {
+				if (normalSource == null || normal < 0 || normal >= normalSource.count)
+					normal = -1;
+				if (texCoordsSource == null || texCoord < 0 || texCoord >= texCoordsSource.count)
+					texCoord = -1;
+
+				VertexKey key = new VertexKey(position, normal, texCoord);
+				Integer index = vertices.get(key);
+				if (index != null)
+					return index;
+
+				if (vertexCount * 3 == positions.length) {
+					positions = Arrays.copyOf(positions, positions.length * 2);
+					normals = Arrays.copyOf(normals, normals.length * 2);
+					texCoords = Arrays.copyOf(texCoords, texCoords.length * 2);
+				}
+
+				setVector(positions, vertexCount, positionSource, position, unitScale);
+
+				if (normal != -1) {
+					setVector(normals, vertexCount, normalSource, normal, 1);
+					hasNormals = true;
+				} else
+					normals[vertexCount * 3 + 1] = 1; // keep a valid unit vector
+
+				if (texCoord != -1) {
+					texCoords[vertexCount * 2] = (float)texCoordsSource.get(texCoord, 0);
+					texCoords[vertexCount * 2 + 1] = 1 - (float)texCoordsSource.get(texCoord, 1); // glTF uses a top-left origin
+					hasTexCoords = true;
+				}
+
+				vertices.put(key, vertexCount);
+				return vertexCount++;
+			}
+
+			private void setVector(float[] target, int index, SourceData source, int sourceIndex, double scale) {
+				double x = source.get(sourceIndex, 0) * scale;
+				double y = source.get(sourceIndex, 1) * scale;
+				double z = source.get(sourceIndex, 2) * scale;
+
+				target[index * 3] = (float)x;
+				if (zUp) {
+					target[index * 3 + 1] = (float)z;
+					target[index * 3 + 2] = (float)-y;
+				} else {
+					target[index * 3 + 1] = (float)y;
+					target[index * 3 + 2] = (float)z;
+				}
+			}
+		}
+	}
+
+	private static final class PrimitiveData {
+		private int[] indexes;
+		private int count;
+		private String material;
+		private boolean hasNormals;
+		private boolean hasTexCoords;
+
+		private PrimitiveData(int capacity) {
+			indexes = new int[Math.max(capacity, 3)];
+		}
+
+		private void add(int index) {
+			if (count == indexes.length)
+				indexes = Arrays.copyOf(indexes, count * 2);
+
+			indexes[count++] = index;
+		}
+	}
+
+	private static final class SourceData {
+		private final double[] values;
+		private final int offset;
+		private final int stride;
+		private final int count;
+
+		private SourceData(double[] values, int offset, int stride) {
+			this.values = values;
+			this.offset = offset;
+			this.stride = stride;
+			count = stride > 0 ? Math.max(values.length - offset, 0) / stride : 0;
+		}
+
+		private static SourceData of(Source source) {
+			if (source == null || source.getFloatArray() == null)
+				return null;
+
+			List<Double> list = source.getFloatArray().getValue();
+			double[] values = new double[list.size()];
+			for (int i = 0; i < values.length; i++)
+				values[i] = list.get(i);
+
+			int offset = 0, stride = 1;
+			if (source.getTechniqueCommon() != null && source.getTechniqueCommon().getAccessor() != null) {
+				if (source.getTechniqueCommon().getAccessor().getOffset() != null)
+					offset = source.getTechniqueCommon().getAccessor().getOffset().intValue();
+				if (source.getTechniqueCommon().getAccessor().getStride() != null)
+					stride = source.getTechniqueCommon().getAccessor().getStride().intValue();
+			}
+
+			return new SourceData(values, offset, stride);
+		}
+
+		private double get(int index, int component) {
+			return component < stride ? values[offset + index * stride + component] : 0;
+		}
+	}
+
+	private static final class VertexKey {
+		private final int position;
+		private final int normal;
+		private final int texCoords;
+
+		private VertexKey(int position, int normal, int texCoords) {
+			this.position = position;
+			this.normal = normal;
+			this.texCoords = texCoords;
+		}
+
+		@Override
+		public int hashCode() {
+			return (position * 31 + normal) * 31 + texCoords;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof VertexKey))
+				return false;
+
+			VertexKey other = (VertexKey)obj;
+			return position == other.position && normal == other.normal && texCoords == other.texCoords;
+		}
+	}
+
+	private static final class BinaryBuffer {
+		private ByteBuffer buffer = ByteBuffer.allocate(4096).order(ByteOrder.LITTLE_ENDIAN);
+
+		private void ensureCapacity(int bytes) {
+			if (buffer.remaining() < bytes) {
+				ByteBuffer tmp = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + bytes)).order(ByteOrder.LITTLE_ENDIAN);
+				buffer.flip();
+				tmp.put(buffer);
+				buffer = tmp;
+			}
+		}
+
+		private void putByte(int value) {
+			ensureCapacity(1);
+			buffer.put((byte)value);
+		}
+
+		private void putShort(int value) {
+			ensureCapacity(2);
+			buffer.putShort((short)value);
+		}
+
+		private void putInt(int value) {
+			ensureCapacity(4);
+			buffer.putInt(value);
+		}
+
+		private void putFloat(float value) {
+			ensureCapacity(4);
+			buffer.putFloat(value);
+		}
+
+		private void put(byte[] content) {
+			ensureCapacity(content.length);
+			buffer.put(content);
+		}
+
+		private void align() {
+			while (buffer.position() % 4 != 0)
+				putByte(0);
+		}
+
+		private int size() {
+			return buffer.position();
+		}
+
+		private byte[] toByteArray() {
+			return Arrays.copyOf(buffer.array(), buffer.position());
+		}
+	}
+
+	private static byte[] toGlb(byte[] json, byte[] bin) {
+		int jsonLength = (json.length + 3) & ~3;
+		int binLength = (bin.length + 3) & ~3;
+		int length = 12 + 8 + jsonLength + (binLength > 0 ? 8 + binLength : 0);
+
+		ByteBuffer glb = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+		glb.putInt(GLB_MAGIC).putInt(2).putInt(length);
+
+		glb.putInt(jsonLength).putInt(GLB_CHUNK_JSON).put(json);
+		for (int i = json.length; i < jsonLength; i++)
+			glb.put((byte)' ');
+
+		if (binLength > 0) {
+			glb.putInt(binLength).putInt(GLB_CHUNK_BIN).put(bin);
+			for (int i = bin.length; i < binLength; i++)
+				glb.put((byte)0);
+		}
+
+		return glb.array();
+	}
+
+	private static byte[] toPng(byte[] content) throws IOException {
+		BufferedImage image = ImageIO.read(new ByteArrayInputStream(content));
+		if (image == null)
+			return null;
+
+		ByteArrayOutputStream png = new ByteArrayOutputStream();
+		ImageIO.write(image, "png", png);
+		return png.toByteArray();
+	}
+
+	private static String getMimeType(String fileName) {
+		String extension = fileName.substring(fileName.lastIndexOf('.') + 1).toLowerCase();
+		if (extension.equals("png"))
+			return "image/png";
+		else if (extension.equals("jpg") || extension.equals("jpeg"))
+			return "image/jpeg";
+		else
+			return null;
+	}
+
+	private static int quantize(float value, int range) {
+		return Math.round(Math.max(Math.min(value, 1), range == 65535 ? 0 : -1) * range);
+	}
+
+	private static String getId(String url) {
+		return url != null && url.startsWith("#") ? url.substring(1) : url;
+	}
+
+	private static String quote(String value) {
+		StringBuilder quoted = new StringBuilder(value.length() + 2).append('"');
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			switch (c) {
+			case '"':
+				quoted.append("\\\"");
+				break;
+			case '\\':
+				quoted.append("\\\\");
+				break;
+			default:
+				if (c < 0x20)
+					quoted.append(String.format("\\u%04x", (int)c));
+				else
+					quoted.append(c);
+			}
+		}
+
+		return quoted.append('"').toString();
+	}
+
+	private static void copyColor(List<Double> values, double[] color) {
+		for (int i = 0; i < values.size() && i < color.length; i++)
+			color[i] = values.get(i);
+	}
+
+}
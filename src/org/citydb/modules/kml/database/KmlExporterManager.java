@@ -28,6 +28,7 @@
 package org.citydb.modules.kml.database;
 
 import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
@@ -39,6 +40,7 @@ import java.sql.SQLException;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map.Entry;
 import java.util.Set;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
@@ -55,10 +57,11 @@ import org.citydb.config.project.kmlExporter.DisplayForm;
 import org.citydb.database.adapter.BlobExportAdapter;
 import org.citydb.log.Logger;
 import org.citydb.modules.common.balloon.BalloonTemplateHandlerImpl;
-import org.citydb.modules.common.event.CounterEvent;
 import org.citydb.modules.common.event.CounterType;
 import org.citydb.modules.kml.util.CityObject4JSON;
 import org.citydb.modules.kml.util.ExportTracker;
+import org.citydb.modules.kml.util.KmzArchive;
+import org.citydb.textureAtlas.model.TextureImage;
 import org.citygml4j.model.citygml.CityGMLClass;
 import org.citygml4j.util.xml.SAXEventBuffer;
 
@@ -82,6 +85,7 @@ public class KmlExporterManager {
 	private final BlobExportAdapter textureExportAdapter;
 	private final EventDispatcher eventDispatcher;
 	private final Config config;
+	private final GltfEncoder gltfEncoder;
 	
 	private boolean isBBoxActive;
 	private String mainFilename;
@@ -89,7 +93,6 @@ public class KmlExporterManager {
 	
 	private final String ENCODING = "UTF-8";
 	private final Charset CHARSET = Charset.forName(ENCODING);
-	private final String TEMP_FOLDER = "__temp";
 
 	public KmlExporterManager(JAXBContext jaxbKmlContext,
 							  JAXBContext jaxbColladaContext,
@@ -108,6 +111,9 @@ public class KmlExporterManager {
 		this.eventDispatcher = eventDispatcher;
 		this.config = config;
 
+		gltfEncoder = new GltfEncoder(config.getProject().getKmlExporter().isExportGltfBinary(),
+				config.getProject().getKmlExporter().isQuantizeGltfVertices());
+
 		isBBoxActive = config.getProject().getKmlExporter().getFilter().getComplexFilter().getTiledBoundingBox().getActive().booleanValue();
 		mainFilename = config.getInternal().getExportFileName().trim();
 		if (mainFilename.lastIndexOf(File.separator) != -1) {
@@ -136,7 +142,7 @@ public class KmlExporterManager {
 			featureCounterMap.put(work.getCityObjectType(), counter + 1);		
 		
 		tracker.put(work.getId(), work.getJson());
-		eventDispatcher.triggerEvent(new CounterEvent(CounterType.TOPLEVEL_FEATURE, 1, this));
+		eventDispatcher.updateCounter(CounterType.TOPLEVEL_FEATURE, 1);
 	}
 	
 	public HashMap<CityGMLClass, Long> getFeatureCounter() {
@@ -191,26 +197,24 @@ public class KmlExporterManager {
 
         					// --------------- create subfolder ---------------
         					
-							if (config.getProject().getKmlExporter().isExportAsKmz()) {
-								if (!isBBoxActive || !config.getProject().getKmlExporter().isOneFilePerObject()) {
-        							// export temporarily as kml, it will be later added to kmz if needed
-    								directory = new File(path, TEMP_FOLDER);
-    								if (!directory.exists()) {
-    									Logger.getInstance().info("Creating temporary folder...");
-    									directory.mkdir();
-    								}
-    							}
-							}
-							else { // export as kml
-								if (config.getProject().getKmlExporter().isOneFilePerObject()) {
-									directory = new File(path, String.valueOf(work.getId()));
-		        					if (!directory.exists()) {
-		        						directory.mkdir();
-		        					}
-    							}
+							if (!config.getProject().getKmlExporter().isExportAsKmz()
+									&& config.getProject().getKmlExporter().isOneFilePerObject()) {
+								directory = new File(path, String.valueOf(work.getId()));
+	        					if (!directory.exists()) {
+	        						directory.mkdir();
+	        					}
     						}
 
-    						if (!isBBoxActive || !config.getProject().getKmlExporter().isOneFilePerObject() || !config.getProject().getKmlExporter().isExportAsKmz()) {
+						if (getKmzArchive() != null) {
+							try {
+								getKmzArchive().putEntry(BalloonTemplateHandlerImpl.balloonDirectoryName + "/" + work.getGmlId() + '-' + work.getId() + ".html",
+										placemarkDescription.getBytes(CHARSET));
+							}
+							catch (IOException ioe) {
+								ioe.printStackTrace();
+							}
+						}
+    						else if (!isBBoxActive || !config.getProject().getKmlExporter().isOneFilePerObject() || !config.getProject().getKmlExporter().isExportAsKmz()) {
 	       						try {
 	       							File balloonsDirectory = new File(directory, BalloonTemplateHandlerImpl.balloonDirectoryName);
 	       							if (!balloonsDirectory.exists()) {
@@ -485,6 +489,24 @@ public class KmlExporterManager {
 
 		// so much for the placemark, now model, images and balloon...
 
+		// the glTF model is encoded from the COLLADA tree in memory
+		byte[] gltfModel = null;
+		HashMap<String, byte[]> embeddedImages = null;
+		if (config.getProject().getKmlExporter().isCreateGltfModel()) {
+			if (config.getProject().getKmlExporter().isEmbedTexturesInGltfFiles())
+				embeddedImages = getImageContents(colladaBundle);
+
+			try {
+				gltfModel = gltfEncoder.encode(colladaBundle.getCollada(), embeddedImages);
+			} catch (IOException e) {
+				Logger.getInstance().debug("Unexpected errors occured while creating the glTF model for city object '" + colladaBundle.getGmlId() + "': " + e.getMessage());
+			}
+		}
+
+		boolean writeColladaModel = gltfModel == null || !config.getProject().getKmlExporter().isNotCreateColladaFiles();
+		boolean writeTexImages = writeColladaModel || embeddedImages == null;
+		String gltfModelFilename = colladaBundle.getGmlId() + gltfEncoder.getFileExtension();
+
 		if (config.getProject().getKmlExporter().isExportAsKmz() &&	isBBoxActive
 				&& config.getProject().getKmlExporter().isOneFilePerObject()) {
 			
@@ -495,18 +517,32 @@ public class KmlExporterManager {
 	        colladaBundle.setCollada(null); // free heap space
 
 	        // ----------------- model saving -----------------
-	        ZipEntry zipEntry = new ZipEntry(colladaBundle.getId() + "/" + colladaBundle.getGmlId() + ".dae");
-	        zipOut.putNextEntry(zipEntry);
-	        zipOut.write(colladaBundle.getColladaAsString().getBytes(CHARSET));
-	        zipOut.closeEntry();
+	        ZipEntry zipEntry = null;
+	        if (writeColladaModel) {
+	        	zipEntry = new ZipEntry(colladaBundle.getId() + "/" + colladaBundle.getGmlId() + ".dae");
+	        	zipOut.putNextEntry(zipEntry);
+	        	zipOut.write(colladaBundle.getColladaAsString().getBytes(CHARSET));
+	        	zipOut.closeEntry();
+	        }
+
+	        if (gltfModel != null) {
+	        	zipEntry = new ZipEntry(colladaBundle.getId() + "/" + gltfModelFilename);
+	        	zipOut.putNextEntry(zipEntry);
+	        	zipOut.write(gltfModel);
+	        	zipOut.closeEntry();
+	        }
 
 	        // ----------------- image saving -----------------
-	        if (colladaBundle.getUnsupportedTexImageIds() != null) {
+	        if (colladaBundle.getUnsupportedTexImageIds() != null && writeTexImages) {
 	        	Set<String> keySet = colladaBundle.getUnsupportedTexImageIds().keySet();
 	        	Iterator<String> iterator = keySet.iterator();
 	        	while (iterator.hasNext()) {
 	        		String imageFilename = iterator.next();
-	        		byte[] ordImageBytes = textureExportAdapter.getInByteArray(colladaBundle.getUnsupportedTexImageIds().get(imageFilename), imageFilename);
+	        		byte[] ordImageBytes = embeddedImages != null ? embeddedImages.get(imageFilename) :
+	        			textureExportAdapter.getInByteArray(colladaBundle.getUnsupportedTexImageIds().get(imageFilename), imageFilename);
+	        		if (ordImageBytes == null)
+	        			continue;
+
 	        		zipEntry = imageFilename.startsWith("..") ?
 	        				   new ZipEntry(imageFilename.substring(3)): // skip .. and File.separator
 	        					   new ZipEntry(colladaBundle.getId() + "/" + imageFilename);
@@ -516,7 +552,7 @@ public class KmlExporterManager {
 	        	}
 	        }
 
-	        if (colladaBundle.getTexImages() != null) {
+	        if (colladaBundle.getTexImages() != null && writeTexImages) {
 	        	Set<String> keySet = colladaBundle.getTexImages().keySet();
 	        	Iterator<String> iterator = keySet.iterator();
 	        	while (iterator.hasNext()) {
@@ -543,18 +579,63 @@ public class KmlExporterManager {
 
 			zipOut.close();
 		}
-		else {			
-			if (config.getProject().getKmlExporter().isExportAsKmz()) {
-				
-				// export temporarily as kml, it will be later added to kmz if needed
-				File tempFolder = new File(path, TEMP_FOLDER);
-				if (!tempFolder.exists()) {
-					Logger.getInstance().info("Creating temporary folder...");
-					tempFolder.mkdir();
+		else if (getKmzArchive() != null) {
+			// write model, images and balloon directly to the kmz archive
+			KmzArchive kmzArchive = getKmzArchive();
+			String modelDirectory = colladaBundle.getId() + "/";
+
+			// ----------------- model saving -----------------
+			if (writeColladaModel) {
+				ByteArrayOutputStream model = new ByteArrayOutputStream();
+				colladaMarshaller.marshal(colladaBundle.getCollada(), model);
+				kmzArchive.putEntry(modelDirectory + colladaBundle.getGmlId() + ".dae", model.toByteArray());
+			}
+
+			colladaBundle.setCollada(null); // free heap space
+
+			if (gltfModel != null)
+				kmzArchive.putEntry(modelDirectory + gltfModelFilename, gltfModel);
+
+			// ----------------- image saving -----------------
+			if (colladaBundle.getUnsupportedTexImageIds() != null && writeTexImages) {
+				for (String imageFilename : colladaBundle.getUnsupportedTexImageIds().keySet()) {
+					String entryName = imageFilename.startsWith("..") ?
+							imageFilename.substring(3) : // skip .. and File.separator
+								modelDirectory + imageFilename;
+
+					if (!kmzArchive.containsEntry(entryName)) {
+						byte[] ordImageBytes = embeddedImages != null ? embeddedImages.get(imageFilename) :
+							textureExportAdapter.getInByteArray(colladaBundle.getUnsupportedTexImageIds().get(imageFilename), imageFilename);
+						if (ordImageBytes != null)
+							kmzArchive.putEntry(entryName, ordImageBytes);
+					}
 				}
-				path = path + File.separator + TEMP_FOLDER;
 			}
 
+			if (colladaBundle.getTexImages() != null && writeTexImages) {
+				for (String imageFilename : colladaBundle.getTexImages().keySet()) {
+					String entryName = imageFilename.startsWith("..") ?
+							imageFilename.substring(3) : // skip .. and File.separator
+								modelDirectory + imageFilename;
+
+					if (!kmzArchive.containsEntry(entryName)) { // avoid overwriting
+						BufferedImage texImage = colladaBundle.getTexImages().get(imageFilename).getBufferedImage();
+						String imageType = imageFilename.substring(imageFilename.lastIndexOf('.') + 1);
+
+						ByteArrayOutputStream image = new ByteArrayOutputStream();
+						ImageIO.write(texImage, imageType, image);
+						kmzArchive.putEntry(entryName, image.toByteArray());
+					}
+				}
+			}
+
+			// ----------------- balloon saving -----------------
+			if (colladaBundle.getExternalBalloonFileContent() != null) {
+				kmzArchive.putEntry(modelDirectory + BalloonTemplateHandlerImpl.balloonDirectoryName + "/" + colladaBundle.getGmlId() + '-' + colladaBundle.getId() + ".html",
+						colladaBundle.getExternalBalloonFileContent().getBytes(CHARSET));
+			}
+		}
+		else {
 			// --------------- create subfolder ---------------
 			File buildingDirectory = new File(path, String.valueOf(colladaBundle.getId()));
 			if (!buildingDirectory.exists()) {
@@ -562,29 +643,42 @@ public class KmlExporterManager {
 			}
 
 			// ----------------- model saving -----------------
-			File colladaModelFile = new File(buildingDirectory, colladaBundle.getGmlId() + ".dae");
-			File gltfModelFile = new File(buildingDirectory, colladaBundle.getGmlId() + ".gltf");
-			FileOutputStream fos = new FileOutputStream(colladaModelFile);
-	        colladaMarshaller.marshal(colladaBundle.getCollada(), fos);
-	        fos.close();
-	        
-	        // ----------------- create glTF without embedded textures-----------------
-			if (config.getProject().getKmlExporter().isCreateGltfModel() && !config.getProject().getKmlExporter().isEmbedTexturesInGltfFiles()) {
-				convertColladaToglTF(colladaBundle, buildingDirectory, colladaModelFile, gltfModelFile);
-			}	        
-	        
+			if (writeColladaModel) {
+				File colladaModelFile = new File(buildingDirectory, colladaBundle.getGmlId() + ".dae");
+				FileOutputStream fos = new FileOutputStream(colladaModelFile);
+				colladaMarshaller.marshal(colladaBundle.getCollada(), fos);
+				fos.close();
+			}
+
+			colladaBundle.setCollada(null); // free heap space
+
+			if (gltfModel != null) {
+				FileOutputStream fos = new FileOutputStream(new File(buildingDirectory, gltfModelFilename));
+				fos.write(gltfModel);
+				fos.close();
+			}
+
 			// ----------------- image saving -----------------
-			if (colladaBundle.getUnsupportedTexImageIds() != null) {
+			if (colladaBundle.getUnsupportedTexImageIds() != null && writeTexImages) {
 				Set<String> keySet = colladaBundle.getUnsupportedTexImageIds().keySet();
 				Iterator<String> iterator = keySet.iterator();
 				while (iterator.hasNext()) {
 					String imageFilename = iterator.next();
 					String fileName = buildingDirectory + File.separator + imageFilename;
-					textureExportAdapter.getInFile(colladaBundle.getUnsupportedTexImageIds().get(imageFilename), imageFilename, fileName);					
+					if (embeddedImages != null) {
+						byte[] ordImageBytes = embeddedImages.get(imageFilename);
+						if (ordImageBytes != null) {
+							FileOutputStream fos = new FileOutputStream(fileName);
+							fos.write(ordImageBytes);
+							fos.close();
+						}
+					}
+					else
+						textureExportAdapter.getInFile(colladaBundle.getUnsupportedTexImageIds().get(imageFilename), imageFilename, fileName);					
 				}
 			}
 
-			if (colladaBundle.getTexImages() != null) {
+			if (colladaBundle.getTexImages() != null && writeTexImages) {
 				Set<String> keySet = colladaBundle.getTexImages().keySet();
 				Iterator<String> iterator = keySet.iterator();
 				while (iterator.hasNext()) {
@@ -597,22 +691,7 @@ public class KmlExporterManager {
 						ImageIO.write(texImage, imageType, imageFile);					
 				}
 			}
-	
-			// ----------------- create glTF with embedded textures-----------------
-			if (config.getProject().getKmlExporter().isCreateGltfModel() && config.getProject().getKmlExporter().isEmbedTexturesInGltfFiles()) {
-				convertColladaToglTF(colladaBundle, buildingDirectory, colladaModelFile, gltfModelFile);
-				if (config.getProject().getKmlExporter().isNotCreateColladaFiles() && gltfModelFile.exists()) {
-					Set<String> keySet = colladaBundle.getTexImages().keySet();
-					Iterator<String> iterator = keySet.iterator();
-					while (iterator.hasNext()) {
-						String imageFilename = iterator.next();
-						File imageFile = new File(buildingDirectory, imageFilename);
-						if (imageFile.exists()) 
-							imageFile.delete();					
-					}
-				}
-			}			
-			
+
 			// ----------------- balloon saving -----------------
 			if (colladaBundle.getExternalBalloonFileContent() != null) {
 				try {
@@ -632,24 +711,34 @@ public class KmlExporterManager {
 		}
 	}
 	
-	private void convertColladaToglTF(ColladaBundle colladaBundle, File buildingDirectory, File colladaModelFile, File gltfModelFile) {
-		String collada2gltfPath = config.getProject().getKmlExporter().getPathOfGltfConverter();
-		File collada2gltfFile = new File(collada2gltfPath);
-		if (collada2gltfFile.exists()) {
-			ProcessBuilder pb = new ProcessBuilder(collada2gltfFile.getAbsolutePath(), "-f", colladaBundle.getGmlId() + ".dae", "-e", "true");
-			pb.directory(buildingDirectory);
-			try {
-				Process process = pb.start();
-				process.waitFor();
-			} catch (IOException|InterruptedException e) {
-				Logger.getInstance().debug("Unexpected errors occured while converting collada to glTF for city object '" + colladaBundle.getGmlId() + "' with output path: '" + gltfModelFile.getAbsolutePath() + "'");
+	private KmzArchive getKmzArchive() {
+		// objects exported to separate files are not part of the kmz archive of the tile
+		if (isBBoxActive && config.getProject().getKmlExporter().isOneFilePerObject())
+			return null;
+
+		return tracker.getKmzArchive();
+	}
+
+	private HashMap<String, byte[]> getImageContents(ColladaBundle colladaBundle) throws IOException, SQLException {
+		HashMap<String, byte[]> images = new HashMap<String, byte[]>();
+
+		if (colladaBundle.getUnsupportedTexImageIds() != null) {
+			for (Entry<String, Long> entry : colladaBundle.getUnsupportedTexImageIds().entrySet()) {
+				byte[] ordImageBytes = textureExportAdapter.getInByteArray(entry.getValue(), entry.getKey());
+				if (ordImageBytes != null)
+					images.put(entry.getKey(), ordImageBytes);
 			}
-			finally {
-				if (config.getProject().getKmlExporter().isNotCreateColladaFiles() && gltfModelFile.exists()) {
-					colladaModelFile.delete();
-				}
+		}
+
+		if (colladaBundle.getTexImages() != null) {
+			for (Entry<String, TextureImage> entry : colladaBundle.getTexImages().entrySet()) {
+				String imageType = entry.getKey().substring(entry.getKey().lastIndexOf('.') + 1);
+				ByteArrayOutputStream image = new ByteArrayOutputStream();
+				ImageIO.write(entry.getValue().getBufferedImage(), imageType, image);
+				images.put(entry.getKey(), image.toByteArray());
 			}
-		}		
+		}
+
+		return images;
 	}
 }
-
@@ -49,7 +49,6 @@ import java.util.Set;
 import java.util.StringTokenizer;
 
 import javax.vecmath.Point3d;
-import javax.vecmath.Vector3f;
 import javax.xml.datatype.DatatypeConfigurationException;
 import javax.xml.datatype.DatatypeConstants;
 import javax.xml.datatype.DatatypeFactory;
@@ -76,7 +75,6 @@ import org.citydb.config.project.kmlExporter.KmlExporter;
 import org.citydb.database.adapter.AbstractDatabaseAdapter;
 import org.citydb.database.adapter.BlobExportAdapter;
 import org.citydb.log.Logger;
-import org.citydb.modules.common.event.CounterEvent;
 import org.citydb.modules.common.event.CounterType;
 import org.citydb.modules.common.event.GeometryCounterEvent;
 import org.citydb.modules.kml.datatype.TypeAttributeValueEnum;
@@ -130,9 +128,6 @@ import org.collada._2005._11.colladaschema.VisualScene;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 
-import com.sun.j3d.utils.geometry.GeometryInfo;
-import com.sun.j3d.utils.geometry.NormalGenerator;
-
 import net.opengis.kml._2.AltitudeModeEnumType;
 import net.opengis.kml._2.BoundaryType;
 import net.opengis.kml._2.LinearRingType;
@@ -165,9 +160,7 @@ public abstract class KmlGenericObject {
 
 	private long id;
 	private String gmlId;
-	private BigInteger vertexIdCounter = new BigInteger("-1");
-	protected VertexInfo firstVertexInfo = null;
-	private VertexInfo lastVertexInfo = null;
+	private VertexBuffer vertexBuffer = new VertexBuffer();
 
 	// origin of the relative coordinates for the object
 	private List<Point3d> origins = new ArrayList<Point3d>();
@@ -429,7 +422,7 @@ public abstract class KmlGenericObject {
 		
 		geometry.setMesh(mesh);
 		libraryGeometries.getGeometry().add(geometry);
-		BigInteger texCoordsCounter = BigInteger.ZERO;
+		HashMap<TexCoords, Integer> texCoordsIndexes = new HashMap<TexCoords, Integer>();
 
 		// --------------------------- visual scenes ---------------------------
 		VisualScene visualScene = colladaFactory.createVisualScene();
@@ -453,6 +446,7 @@ public abstract class KmlGenericObject {
 		Set<Long> keySet = surfaceInfos.keySet();
 		Iterator<Long> iterator = keySet.iterator();
 		int normalIndexOffset = 0;
+		PolygonTriangulator triangulator = new PolygonTriangulator();
 		
 		while (iterator.hasNext()) {
 			Long surfaceId = iterator.next();
@@ -666,115 +660,67 @@ public abstract class KmlGenericObject {
 
 			// --------------------------- geometry (variable part) ---------------------------
 			SurfaceInfo surfaceInfo = surfaceInfos.get(surfaceId);						
-			List<VertexInfo> vertexInfos = surfaceInfo.getVertexInfos();
-			double[] ordinatesArray = new double[vertexInfos.size() * 3];
+			double[] ordinatesArray = new double[surfaceInfo.getNumVertices() * 3];
 
 			int count = 0;
-			for (VertexInfo vertexInfo : vertexInfos) {
-				ordinatesArray[count++] = vertexInfo.getX() - origin.x;
-				ordinatesArray[count++] = vertexInfo.getY() - origin.y;
-				ordinatesArray[count++] = vertexInfo.getZ() - origin.z;
+			for (int i = 0; i < surfaceInfo.getNumVertices(); i++) {
+				int vertexIndex = surfaceInfo.getVertexIndex(i);
+				ordinatesArray[count++] = vertexBuffer.getX(vertexIndex) - origin.x;
+				ordinatesArray[count++] = vertexBuffer.getY(vertexIndex) - origin.y;
+				ordinatesArray[count++] = vertexBuffer.getZ(vertexIndex) - origin.z;
 			}
 
-			GeometryInfo ginfo = new GeometryInfo(GeometryInfo.POLYGON_ARRAY);
-			ginfo.setCoordinates(ordinatesArray);
-			ginfo.setContourCounts(surfaceInfo.getRingCountAsArray());
-			ginfo.setStripCounts(surfaceInfo.getVertexCount());
-			int outerRingCount = ginfo.getStripCounts()[0];
-
 			// triangulate the surface geometry
-			ginfo.convertToIndexedTriangles();
-
-			// generate normals
-			NormalGenerator ng = new NormalGenerator();
-			ng.generateNormals(ginfo);
-			
-			int[] indexes = ginfo.getCoordinateIndices();
-			int[] normalIndexes = ginfo.getNormalIndices();			
-			Vector3f[] normals = ginfo.getNormals();
-			
-			// fix a reversed orientation of the triangulated surface 
-			byte[] edges = {0, 1, 1, 2, 2, 0};			
-			boolean hasFound = false;
-			boolean reverse = false;
-
-			for (int i = 0; !hasFound && i < indexes.length; i += 3) {				
-				// skip degenerated triangles
-				if (indexes[i] == indexes[i + 1] || indexes[i + 1] == indexes[i + 2] || indexes[i] == indexes[i + 2])
-					continue;
-
-				// find the first edge on the exterior ring
-				for (int j = 0; j < edges.length; j += 2) {
-					int first = i + edges[j];
-					int second = i + edges[j + 1]; 
-
-					if (indexes[first] < outerRingCount && indexes[second] < outerRingCount && Math.abs(indexes[first] - indexes[second]) == 1) {
-						// ok, we found it. now check the order of the vertex indices
-						hasFound = true;						
-						if (indexes[first] > indexes[second])
-							reverse = true;
-
-						break;
-					}
-				}
-			}
-
-			// reverse indexes and normals
-			if (reverse) {
-				ginfo.reverse();
-				for (int i = 0; i < normals.length; i++)
-					normals[i].negate();
-			}
+			int nrOfIndexes = triangulator.triangulate(ordinatesArray, surfaceInfo.getVertexCount());
+			int[] indexes = triangulator.getIndexes();
+			if (nrOfIndexes == 0)
+				continue;
 
 			// use vertex indices of the triangulation to populate
 			// the vertex arrays in the collada file
-			for (int i = 0; i < indexes.length; i++) {				
-				VertexInfo vertexInfo = vertexInfos.get(indexes[i]);
-				triangles.getP().add(vertexInfo.getVertexId());
+			for (int i = 0; i < nrOfIndexes; i++) {				
+				int vertexIndex = surfaceInfo.getVertexIndex(indexes[i]);
+				triangles.getP().add(BigInteger.valueOf(vertexIndex));
 				
 				if (getColladaOptions().isGenerateSurfaceNormals())
-					triangles.getP().add(BigInteger.valueOf(normalIndexes[i] + normalIndexOffset));
+					triangles.getP().add(BigInteger.valueOf(normalIndexOffset));
 				
 				if (surfaceTextured) {
-					TexCoords texCoords = vertexInfo.getTexCoords(surfaceId);
-					if (texCoords != null) {
+					if (surfaceInfo.hasTexCoords(indexes[i])) {
 						// trying to save some texture points
-						int indexOfT = texCoordsValues.indexOf(texCoords.getT()); 
-						if (indexOfT > 0 && indexOfT%2 == 1 && // avoid coincidences
-								texCoordsValues.get(indexOfT - 1).equals(texCoords.getS())) {
-							triangles.getP().add(new BigInteger(String.valueOf((indexOfT - 1)/2)));
-						}
-						else {
+						TexCoords texCoords = new TexCoords(surfaceInfo.getS(indexes[i]), surfaceInfo.getT(indexes[i]));
+						Integer texCoordsIndex = texCoordsIndexes.get(texCoords);
+						if (texCoordsIndex == null) {
+							texCoordsIndex = texCoordsIndexes.size();
+							texCoordsIndexes.put(texCoords, texCoordsIndex);
 							texCoordsValues.add(texCoords.getS());
 							texCoordsValues.add(texCoords.getT());
-							triangles.getP().add(texCoordsCounter);
-							texCoordsCounter = texCoordsCounter.add(BigInteger.ONE);
 						}
+
+						triangles.getP().add(BigInteger.valueOf(texCoordsIndex));
 					}
 					else { // should never happen
-						triangles.getP().add(texCoordsCounter); // wrong data is better than triangles out of sync
+						triangles.getP().add(BigInteger.valueOf(texCoordsIndexes.size())); // wrong data is better than triangles out of sync
 						Logger.getInstance().log(LogLevel.DEBUG, 
-								"texCoords not found for (" + vertexInfo.getX() + ", " + vertexInfo.getY() + ", "
-										+ vertexInfo.getZ() + "). TOLERANCE = " + TOLERANCE);
+								"texCoords not found for (" + vertexBuffer.getX(vertexIndex) + ", " + vertexBuffer.getY(vertexIndex) + ", "
+										+ vertexBuffer.getZ(vertexIndex) + "). TOLERANCE = " + TOLERANCE);
 					}
 				}
 			}
 			
-			for (Vector3f normal : normals) {
-				normalValues.add(reducePrecisionForXorY((double) normal.x));
-				normalValues.add(reducePrecisionForXorY((double) normal.y));
-				normalValues.add(reducePrecisionForXorY((double) normal.z));
-				normalIndexOffset++;
-			}
+			// all triangles of the planar surface share a flat normal
+			double[] normal = triangulator.getNormal();
+			normalValues.add(reducePrecisionForXorY(normal[0]));
+			normalValues.add(reducePrecisionForXorY(normal[1]));
+			normalValues.add(reducePrecisionForXorY(normal[2]));
+			normalIndexOffset++;
 		}
 
-		VertexInfo vertexInfoIterator = firstVertexInfo;
-		while (vertexInfoIterator != null) {
-			positionValues.add(reducePrecisionForXorY((vertexInfoIterator.getX() - origin.x)));
-			positionValues.add(reducePrecisionForXorY((vertexInfoIterator.getY() - origin.y)));
-			positionValues.add(reducePrecisionForZ((vertexInfoIterator.getZ() - origin.z)));
-			vertexInfoIterator = vertexInfoIterator.getNextVertexInfo();
-		} 
+		for (int i = 0; i < vertexBuffer.size(); i++) {
+			positionValues.add(reducePrecisionForXorY((vertexBuffer.getX(i) - origin.x)));
+			positionValues.add(reducePrecisionForXorY((vertexBuffer.getY(i) - origin.y)));
+			positionValues.add(reducePrecisionForZ((vertexBuffer.getZ(i) - origin.z)));
+		}
 
 		positionArray.setCount(new BigInteger(String.valueOf(positionValues.size()))); // gotta love BigInteger!
 		normalArray.setCount(new BigInteger(String.valueOf(normalValues.size()))); // gotta love BigInteger!
@@ -911,22 +857,23 @@ public abstract class KmlGenericObject {
 		return surfaceDataId;
 	}
 
-	protected VertexInfo setVertexInfoForXYZ(long surfaceId, double x, double y, double z){
-		vertexIdCounter = vertexIdCounter.add(BigInteger.ONE);
-		VertexInfo vertexInfo = new VertexInfo(vertexIdCounter, x, y, z);
-		NodeZ nodeToInsert = new NodeZ(z, new NodeY(y, new NodeX(x, vertexInfo)));
+	protected int addVertex(double x, double y, double z) {
+		int vertexIndex = vertexBuffer.size();
+		NodeZ nodeToInsert = new NodeZ(z, new NodeY(y, new NodeX(x, vertexIndex)));
 		if (coordinateTree == null) {
 			coordinateTree =  nodeToInsert;
-			firstVertexInfo = vertexInfo;
-			lastVertexInfo = vertexInfo;
 		}
 		else {
 			Node node = insertNode(coordinateTree, nodeToInsert);
-			if (node.value instanceof VertexInfo)
-				vertexInfo = (VertexInfo)node.value;
+			if (node.value instanceof Integer)
+				vertexIndex = (Integer)node.value;
 		}
 
-		return vertexInfo;
+		// the vertex is not yet contained in the buffer
+		if (vertexIndex == vertexBuffer.size())
+			vertexBuffer.add(x, y, z);
+
+		return vertexIndex;
 	}
 
 	private Node insertNode(Node currentBasis, Node nodeToInsert) {
@@ -934,7 +881,6 @@ public abstract class KmlGenericObject {
 		if (compareKeysResult > 0) {
 			if (currentBasis.rightArc == null){
 				currentBasis.setRightArc(nodeToInsert);
-				linkCurrentVertexInfoToLastVertexInfo(nodeToInsert);
 				return nodeToInsert;
 			}
 			else {
@@ -944,7 +890,6 @@ public abstract class KmlGenericObject {
 		else if (compareKeysResult < 0) {
 			if (currentBasis.leftArc == null){
 				currentBasis.setLeftArc(nodeToInsert);
-				linkCurrentVertexInfoToLastVertexInfo(nodeToInsert);
 				return nodeToInsert;
 			}
 			else {
@@ -957,13 +902,9 @@ public abstract class KmlGenericObject {
 	}
 
 	private Node replaceOrAddValue(Node currentBasis, Node nodeToInsert) {
-		if (nodeToInsert.value instanceof VertexInfo) {
-			VertexInfo vertexInfoToInsert = (VertexInfo)nodeToInsert.value;
-			if (currentBasis.value == null) { // no vertexInfo yet for this point
+		if (nodeToInsert.value instanceof Integer) {
+			if (currentBasis.value == null) // no vertex yet for this point
 				currentBasis.value = nodeToInsert.value;
-				linkCurrentVertexInfoToLastVertexInfo(vertexInfoToInsert);
-			} else
-				vertexIdCounter = vertexIdCounter.subtract(BigInteger.ONE);
 
 			return currentBasis;
 		}
@@ -972,18 +913,6 @@ public abstract class KmlGenericObject {
 		}
 	}
 
-	private void linkCurrentVertexInfoToLastVertexInfo (Node node) {
-		while (!(node.value instanceof VertexInfo)) {
-			node = (Node)node.value;
-		}
-		linkCurrentVertexInfoToLastVertexInfo((VertexInfo)node.value);
-	}
-
-	private void linkCurrentVertexInfoToLastVertexInfo (VertexInfo currentVertexInfo) {
-		lastVertexInfo.setNextVertexInfo(currentVertexInfo);
-		lastVertexInfo = currentVertexInfo;
-	}
-
 	private int compareKeys (double key1, double key2, double tolerance){
 		int result = 0;
 		if (Math.abs(key1 - key2) > tolerance) {
@@ -994,31 +923,13 @@ public abstract class KmlGenericObject {
 
 	public void appendObject (KmlGenericObject objectToAppend) {
 
-		VertexInfo vertexInfoIterator = objectToAppend.firstVertexInfo;
-		while (vertexInfoIterator != null) {
-			if (vertexInfoIterator.getAllTexCoords() == null) {
-				VertexInfo tmp = this.setVertexInfoForXYZ(-1, // dummy
-						vertexInfoIterator.getX(),
-						vertexInfoIterator.getY(),
-						vertexInfoIterator.getZ());
-				vertexInfoIterator.setVertexId(tmp.getVertexId());
-			}
-			else {
-				Set<Long> keySet = vertexInfoIterator.getAllTexCoords().keySet();
-				Iterator<Long> iterator = keySet.iterator();				
-				
-				while (iterator.hasNext()) {
-					Long surfaceId = iterator.next();
-					VertexInfo tmp = this.setVertexInfoForXYZ(surfaceId,
-							vertexInfoIterator.getX(),
-							vertexInfoIterator.getY(),
-							vertexInfoIterator.getZ());
-					vertexInfoIterator.setVertexId(tmp.getVertexId());
-					tmp.addTexCoords(surfaceId, vertexInfoIterator.getTexCoords(surfaceId));
-				}
-			}
-			vertexInfoIterator = vertexInfoIterator.getNextVertexInfo();
-		} 
+		// copy the vertices into our own vertex buffer
+		int[] vertexIndexes = new int[objectToAppend.vertexBuffer.size()];
+		for (int i = 0; i < vertexIndexes.length; i++) {
+			vertexIndexes[i] = this.addVertex(objectToAppend.vertexBuffer.getX(i),
+					objectToAppend.vertexBuffer.getY(i),
+					objectToAppend.vertexBuffer.getZ(i));
+		}
 
 		Set<Long> keySet = objectToAppend.surfaceInfos.keySet();
 		Iterator<Long> iterator = keySet.iterator();
@@ -1029,7 +940,9 @@ public abstract class KmlGenericObject {
 			this.addTexImageUri(surfaceId, imageUri);
 			this.addTexImage(imageUri, objectToAppend.getTexImage(imageUri));
 			this.addUnsupportedTexImageId(imageUri, objectToAppend.getUnsupportedTexImageId(imageUri));
-			this.surfaceInfos.put(surfaceId, objectToAppend.surfaceInfos.get(surfaceId));
+			SurfaceInfo surfaceInfo = objectToAppend.surfaceInfos.get(surfaceId);
+			surfaceInfo.updateVertexIndexes(vertexIndexes);
+			this.surfaceInfos.put(surfaceId, surfaceInfo);
 		}
 
 		// adapt id accordingly
@@ -1074,15 +987,16 @@ public abstract class KmlGenericObject {
 			Long sgId = (Long) sgIdIterator.next();		
 			
 			// step 1: calculate maximal and minimal texture coordinates
-			VertexInfo vertexInfoIterator = firstVertexInfo;			
+			SurfaceInfo surfaceInfo = surfaceInfos.get(sgId);
+			int numVertices = surfaceInfo != null ? surfaceInfo.getNumVertices() : 0;
 			double maxS = 0;
 			double minS = Double.MAX_VALUE;
 			double maxT = 0;
 			double minT = Double.MAX_VALUE;			
-			while (vertexInfoIterator != null) {
-				if (vertexInfoIterator.getAllTexCoords() != null && vertexInfoIterator.getAllTexCoords().containsKey(sgId)) {
-					double s = vertexInfoIterator.getTexCoords(sgId).getS();
-					double t = vertexInfoIterator.getTexCoords(sgId).getT();
+			for (int i = 0; i < numVertices; i++) {
+				if (surfaceInfo.hasTexCoords(i)) {
+					double s = surfaceInfo.getS(i);
+					double t = surfaceInfo.getT(i);
 					if (s > maxS) {
 						maxS = s;
 					}
@@ -1096,7 +1010,6 @@ public abstract class KmlGenericObject {
 						minT = t;
 					}
 				}
-				vertexInfoIterator = vertexInfoIterator.getNextVertexInfo();
 			}
 			
 			// step 2: crop images
@@ -1130,17 +1043,14 @@ public abstract class KmlGenericObject {
 			}
 			
 			// step 3: update the vertex coordinates according to the cropped images
-			vertexInfoIterator = firstVertexInfo;			
-			while (vertexInfoIterator != null) {
-				if (vertexInfoIterator.getAllTexCoords() != null && vertexInfoIterator.getAllTexCoords().containsKey(sgId)) {
-					double s = vertexInfoIterator.getTexCoords(sgId).getS();
-					double t = vertexInfoIterator.getTexCoords(sgId).getT();					
+			for (int i = 0; i < numVertices; i++) {
+				if (surfaceInfo.hasTexCoords(i)) {
+					double s = surfaceInfo.getS(i);
+					double t = surfaceInfo.getT(i);					
 					double newS = (s * imageWidth - startX) / croppedImageWidth;
 					double newT = (t * imageHeight - (imageHeight - endY)) / croppedImageHeight;
-					vertexInfoIterator.getTexCoords(sgId).setS(newS);
-					vertexInfoIterator.getTexCoords(sgId).setT(newT);
+					surfaceInfo.setTexCoords(i, newS, newT);
 				}
-				vertexInfoIterator = vertexInfoIterator.getNextVertexInfo();
 			}
 		} 
 		
@@ -1172,20 +1082,23 @@ public abstract class KmlGenericObject {
 		Iterator<Object> sgIdIterator = sgIdSet.iterator();
 		while (sgIdIterator.hasNext()) {
 			Long sgId = (Long) sgIdIterator.next();
-			VertexInfo vertexInfoIterator = firstVertexInfo;
-			while (vertexInfoIterator != null) {
-				if (vertexInfoIterator.getAllTexCoords() != null &&
-						vertexInfoIterator.getAllTexCoords().containsKey(sgId)) {
-					double s = vertexInfoIterator.getTexCoords(sgId).getS();
-					double t = vertexInfoIterator.getTexCoords(sgId).getT();
-					String tiInfoCoordsForSgId = tiInfoCoords.get(sgId);
-					tiInfoCoordsForSgId = (tiInfoCoordsForSgId == null) ?
-							"" :
-								tiInfoCoordsForSgId + " ";	
-					tiInfoCoords.put(sgId, tiInfoCoordsForSgId + String.valueOf(s) + " " + String.valueOf(t));
+			SurfaceInfo surfaceInfo = surfaceInfos.get(sgId);
+			if (surfaceInfo == null || !surfaceInfo.hasTexCoords())
+				continue;
+
+			// the texture atlas API expects the coordinates as string
+			StringBuilder tiInfoCoordsForSgId = new StringBuilder();
+			for (int i = 0; i < surfaceInfo.getNumVertices(); i++) {
+				if (surfaceInfo.hasTexCoords(i)) {
+					if (tiInfoCoordsForSgId.length() > 0)
+						tiInfoCoordsForSgId.append(' ');
+
+					tiInfoCoordsForSgId.append(surfaceInfo.getS(i)).append(' ').append(surfaceInfo.getT(i));
 				}
-				vertexInfoIterator = vertexInfoIterator.getNextVertexInfo();
 			}
+
+			if (tiInfoCoordsForSgId.length() > 0)
+				tiInfoCoords.put(sgId, tiInfoCoordsForSgId.toString());
 		} 
 
 		tiInfo.setTexCoordinates(tiInfoCoords);
@@ -1199,16 +1112,17 @@ public abstract class KmlGenericObject {
 		sgIdIterator = sgIdSet.iterator();
 		while (sgIdIterator.hasNext()) {
 			Long sgId = (Long) sgIdIterator.next();
-			StringTokenizer texCoordsTokenized = new StringTokenizer(tiInfoCoords.get(sgId), " ");
-			VertexInfo vertexInfoIterator = firstVertexInfo;
-			while (texCoordsTokenized.hasMoreElements() &&
-					vertexInfoIterator != null) {
-				if (vertexInfoIterator.getAllTexCoords() != null && 
-						vertexInfoIterator.getAllTexCoords().containsKey(sgId)) {
-					vertexInfoIterator.getTexCoords(sgId).setS(Double.parseDouble(texCoordsTokenized.nextToken()));
-					vertexInfoIterator.getTexCoords(sgId).setT(Double.parseDouble(texCoordsTokenized.nextToken()));
+			String tiInfoCoordsForSgId = tiInfoCoords.get(sgId);
+			if (tiInfoCoordsForSgId == null)
+				continue;
+
+			SurfaceInfo surfaceInfo = surfaceInfos.get(sgId);
+			String[] texCoords = tiInfoCoordsForSgId.split(" ");
+			for (int i = 0, j = 0; i < surfaceInfo.getNumVertices() && j + 1 < texCoords.length; i++) {
+				if (surfaceInfo.hasTexCoords(i)) {
+					surfaceInfo.setTexCoords(i, Double.parseDouble(texCoords[j]), Double.parseDouble(texCoords[j + 1]));
+					j += 2;
 				}
-				vertexInfoIterator = vertexInfoIterator.getNextVertexInfo();
 			}
 		} 
 	}	
@@ -1684,6 +1598,29 @@ public abstract class KmlGenericObject {
 		return x3dMaterial;
 	}
 
+	protected double[] getTexCoordinates(Object texCoordsObject) throws SQLException {
+		if (texCoordsObject == null)
+			return null;
+
+		GeometryObject texCoordsGeometryObject = geometryConverterAdapter.getGeometry(texCoordsObject);
+		int size = 0;
+		for (int i = 0; i < texCoordsGeometryObject.getNumElements(); i++)
+			size += texCoordsGeometryObject.getCoordinates(i).length;
+
+		if (size == 0)
+			return null;
+
+		// texture coordinates of all rings in a single array
+		double[] texCoordinates = new double[size];
+		for (int i = 0, offset = 0; i < texCoordsGeometryObject.getNumElements(); i++) {
+			double[] coordinates = texCoordsGeometryObject.getCoordinates(i);
+			System.arraycopy(coordinates, 0, texCoordinates, offset, coordinates.length);
+			offset += coordinates.length;
+		}
+
+		return texCoordinates;
+	}
+
 	protected void fillGenericObjectForCollada(ResultSet rs, boolean generateTextureAtlas) throws SQLException {
 
 		String selectedTheme = config.getProject().getKmlExporter().getAppearanceTheme();
@@ -1755,7 +1692,7 @@ public abstract class KmlGenericObject {
 						eventDispatcher.triggerEvent(new GeometryCounterEvent(null, this));
 
 						String texImageUri = null;
-						StringTokenizer texCoordsTokenized = null;
+						double[] texCoordinates = null;
 						
 						if (selectedTheme.equals(KmlExporter.THEME_NONE)) {
 							if (surfaceTypeID != 0){
@@ -1790,22 +1727,10 @@ public abstract class KmlGenericObject {
 								texImageUri = rs2.getString("tex_image_uri");
 								boolean hasTexture = false;
 
-								StringBuilder sb =  new StringBuilder();
-								Object texCoordsObject = rs2.getObject("texture_coordinates"); 
-								if (texCoordsObject != null){
-									GeometryObject texCoordsGeometryObject = geometryConverterAdapter.getGeometry(texCoordsObject);
-									for (int i = 0; i < texCoordsGeometryObject.getNumElements(); i++) {
-										double[] coordinates = texCoordsGeometryObject.getCoordinates(i);
-										for (double coordinate : coordinates){
-											sb.append(String.valueOf(coordinate));
-											sb.append(" ");
-										}									
-									}									
-								}
-								String texCoords = sb.toString();
+								double[] texCoords = getTexCoordinates(rs2.getObject("texture_coordinates"));
 
 								if (texImageUri != null && texImageUri.trim().length() != 0
-										&&  texCoords != null && texCoords.trim().length() != 0) {
+										&& texCoords != null) {
 									int fileSeparatorIndex = Math.max(texImageUri.lastIndexOf("\\"), texImageUri.lastIndexOf("/")); 
 									texImageUri = "_" + texImageUri.substring(fileSeparatorIndex + 1); // for example: _tex4712047.jpeg
 									texImageUri = texImageUri.replaceAll(" ", "_"); //replace spaces with underscores
@@ -1827,7 +1752,7 @@ public abstract class KmlGenericObject {
 
 												texImageCounter++;
 												if (texImageCounter > 20) {
-													eventDispatcher.triggerEvent(new CounterEvent(CounterType.TEXTURE_IMAGE, texImageCounter, this));
+													eventDispatcher.updateCounter(CounterType.TEXTURE_IMAGE, texImageCounter);
 													texImageCounter = 0;
 												}
 											} catch (IOException ioe) {
@@ -1840,7 +1765,7 @@ public abstract class KmlGenericObject {
 								
 								if (hasTexture) {
 									addTexImageUri(surfaceId, texImageUri);
-									texCoordsTokenized = new StringTokenizer(texCoords.trim(), " ");
+									texCoordinates = texCoords;
 								} else {
 									X3DMaterial x3dMaterial = new X3DMaterial();
 									fillX3dMaterialValues(x3dMaterial, rs2);
@@ -1855,10 +1780,9 @@ public abstract class KmlGenericObject {
 						}
 
 						GeometryObject surface = geometryConverterAdapter.getPolygon(buildingGeometryObj);
-						List<VertexInfo> vertexInfos = new ArrayList<VertexInfo>();
-
 						int ringCount = surface.getNumElements();
-						int[] vertexCount = new int[ringCount];
+						SurfaceInfo surfaceInfo = new SurfaceInfo(ringCount);
+						int texCoordsIndex = 0;
 
 						for (int i = 0; i < surface.getNumElements(); i++) {
 							double[] ordinatesArray = surface.getCoordinates(i);
@@ -1869,31 +1793,28 @@ public abstract class KmlGenericObject {
 								// calculate origin and list of lowest points
 								updateOrigins(ordinatesArray[j], ordinatesArray[j + 1], ordinatesArray[j + 2]);
 
-								// get or create node in vertex info tree
-								VertexInfo vertexInfo = setVertexInfoForXYZ(surfaceId,
-										ordinatesArray[j],
+								// get or create vertex in the vertex buffer
+								int vertexIndex = addVertex(ordinatesArray[j],
 										ordinatesArray[j+1],
 										ordinatesArray[j+2]);
 
-								if (texCoordsTokenized != null && texCoordsTokenized.hasMoreTokens()) {
-									double s = Double.parseDouble(texCoordsTokenized.nextToken());
-									double t = Double.parseDouble(texCoordsTokenized.nextToken());
-									vertexInfo.addTexCoords(surfaceId, new TexCoords(s, t));
-								}
+								if (texCoordinates != null && texCoordsIndex + 1 < texCoordinates.length) {
+									surfaceInfo.addVertex(vertexIndex, texCoordinates[texCoordsIndex], texCoordinates[texCoordsIndex + 1]);
+									texCoordsIndex += 2;
+								} else
+									surfaceInfo.addVertex(vertexIndex);
 
-								vertexInfos.add(vertexInfo);
 								vertices++;
 							}
 
-							vertexCount[i] = vertices;
+							surfaceInfo.setVertexCount(i, vertices);
 
-							if (texCoordsTokenized != null && texCoordsTokenized.hasMoreTokens()) {
-								texCoordsTokenized.nextToken(); // geometryInfo ignores last point in a polygon
-								texCoordsTokenized.nextToken(); // keep texture coordinates in sync
-							}
+							// geometryInfo ignores last point in a polygon,
+							// so keep texture coordinates in sync
+							texCoordsIndex += 2;
 						}
 
-						addSurfaceInfo(surfaceId, new SurfaceInfo(ringCount, vertexCount, vertexInfos));
+						addSurfaceInfo(surfaceId, surfaceInfo);
 					}
 				}
 				catch (SQLException sqlEx) {
@@ -1909,7 +1830,7 @@ public abstract class KmlGenericObject {
 		}
 
 		// count rest images
-		eventDispatcher.triggerEvent(new CounterEvent(CounterType.TEXTURE_IMAGE, texImageCounter, this));
+		eventDispatcher.updateCounter(CounterType.TEXTURE_IMAGE, texImageCounter);
 	}
 
 	public PlacemarkType createPlacemarkForColladaModel() throws SQLException {
@@ -2160,7 +2081,6 @@ public abstract class KmlGenericObject {
 				}
 			case FILE :
 				if (getBalloonTemplateHandler() != null) {
-					getBalloonTemplateHandler().getBalloonContent(id, currentLod, connection);
 					placemark.setDescription(getBalloonTemplateHandler().getBalloonContent(id, currentLod, connection));
 				}
 				break;
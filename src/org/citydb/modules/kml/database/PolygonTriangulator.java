@@ -0,0 +1,560 @@
+/*
+ * 3D City Database - The Open Source CityGML Database
+ * http://www.3dcitydb.org/
+ * 
+ * Copyright 2013 - 2016
+ * Chair of Geoinformatics
+ * Technical University of Munich, Germany
+ * https://www.gis.bgu.tum.de/
+ * 
+ * The 3D City Database is jointly developed with the following
+ * cooperation partners:
+ * 
+ * virtualcitySYSTEMS GmbH, Berlin <http://www.virtualcitysystems.de/>
+ * M.O.S.S. Computer Grafik Systeme GmbH, Taufkirchen <http://www.moss.de/>
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *     
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.citydb.modules.kml.database;
+
+/**
+ * Ear clipping triangulation of planar polygons with holes based on the
+ * earcut algorithm. The polygon is projected onto the coordinate plane
+ * that is most parallel to it. The resulting triangles follow the 
+ * orientation of the exterior ring, whose normal vector is provided as 
+ * flat normal of all triangles.
+ * 
+ * The linked list of polygon nodes is kept in primitive arrays, so that
+ * an instance can be reused for many polygons without allocating memory.
+ */
+public class PolygonTriangulator {
+	private double[] x;
+	private double[] y;
+	private int[] vertex;
+	private int[] prev;
+	private int[] next;
+	private int nodeCount;
+
+	private int[] indexes;
+	private int indexCount;
+	private int[] holes;
+	private final double[] normal = new double[3];
+
+	public PolygonTriangulator() {
+		this(64);
+	}
+
+	public PolygonTriangulator(int initialCapacity) {
+		int capacity = Math.max(initialCapacity, 4);
+		x = new double[capacity];
+		y = new double[capacity];
+		vertex = new int[capacity];
+		prev = new int[capacity];
+		next = new int[capacity];
+		indexes = new int[capacity * 3];
+		holes = new int[4];
+	}
+
+	/**
+	 * Triangulates a polygon given by its vertex coordinates as x, y, z triples. 
+	 * The first ring is the exterior ring, the following rings are holes.
+	 * 
+	 * @return the number of vertex indexes of the triangulation, which is 
+	 * zero for degenerated polygons.
+	 */
+	public int triangulate(double[] coordinates, int[] ringSizes) {
+		nodeCount = 0;
+		indexCount = 0;
+
+		if (ringSizes.length == 0 || ringSizes[0] < 3 || !computeNormal(coordinates, ringSizes[0]))
+			return 0;
+
+		// project onto the plane most parallel to the polygon, keeping 
+		// the exterior ring counter-clockwise in the projection
+		int uAxis, vAxis;
+		double nx = Math.abs(normal[0]), ny = Math.abs(normal[1]), nz = Math.abs(normal[2]);
+		if (nz >= nx && nz >= ny) {
+			uAxis = normal[2] > 0 ? 0 : 1;
+			vAxis = normal[2] > 0 ? 1 : 0;
+		} else if (nx >= ny) {
+			uAxis = normal[0] > 0 ? 1 : 2;
+			vAxis = normal[0] > 0 ? 2 : 1;
+		} else {
+			uAxis = normal[1] > 0 ? 2 : 0;
+			vAxis = normal[1] > 0 ? 0 : 2;
+		}
+
+		int outerNode = linkedList(coordinates, 0, ringSizes[0], uAxis, vAxis, true);
+		if (outerNode == -1 || next[outerNode] == prev[outerNode])
+			return 0;
+
+		if (ringSizes.length > 1)
+			outerNode = eliminateHoles(coordinates, ringSizes, uAxis, vAxis, outerNode);
+
+		earcutLinked(outerNode, 0);
+		return indexCount;
+	}
+
+	public int[] getIndexes() {
+		return indexes;
+	}
+
+	public int getIndexCount() {
+		return indexCount;
+	}
+
+	public double[] getNormal() {
+		return normal;
+	}
+
+	private boolean computeNormal(double[] coordinates, int size) {
+		// Newell's method
+		double nx = 0, ny = 0, nz = 0;
+		for (int i = 0, j = size - 1; i < size; j = i++) {
+			double xi = coordinates[i * 3], yi = coordinates[i * 3 + 1], zi = coordinates[i * 3 + 2];
+			double xj = coordinates[j * 3], yj = coordinates[j * 3 + 1], zj = coordinates[j * 3 + 2];
+			nx += (yj - yi) * (zj + zi);
+			ny += (zj - zi) * (xj + xi);
+			nz += (xj - xi) * (yj + yi);
+		}
+
+		double length = Math.sqrt(nx * nx + ny * ny + nz * nz);
+		if (length == 0 || Double.isNaN(length))
+			return false;
+
+		normal[0] = nx / length;
+		normal[1] = ny / length;
+		normal[2] = nz / length;
+		return true;
+	}
+
+	private int linkedList(double[] coordinates, int start, int end, int uAxis, int vAxis, boolean counterClockwise) {
+		double signedArea = 0;
+		for (int i = start, j = end - 1; i < end; j = i++)
+			signedArea += (coordinates[j * 3 + uAxis] - coordinates[i * 3 + uAxis]) * (coordinates[i * 3 + vAxis] + coordinates[j * 3 + vAxis]);
+
+		int last = -1;
+		if (counterClockwise == (signedArea > 0)) {
+			for (int i = start; i < end; i++)
+				last = insertNode(i, coordinates[i * 3 + uAxis], coordinates[i * 3 + vAxis], last);
+		} else {
+			for (int i = end - 1; i >= start; i--)
+				last = insertNode(i, coordinates[i * 3 + uAxis], coordinates[i * 3 + vAxis], last);
+		}
+
+		// remove closing point of the ring
+		if (last != -1 && equals(last, next[last])) {
+			removeNode(last);
+			last = next[last];
+		}
+
+		return last;
+	}
+
+	private int filterPoints(int start, int end) {
+		if (start == -1)
+			return start;
+
+		if (end == -1)
+			end = start;
+
+		int p = start;
+		boolean again;
+		do {
+			again = false;
+
+			if (equals(p, next[p]) || area(prev[p], p, next[p]) == 0) {
+				removeNode(p);
+				p = end = prev[p];
+				if (p == next[p])
+					break;
+
+				again = true;
+			} else
+				p = next[p];
+		} while (again || p != end);
+
+		return end;
+	}
+
+	private void earcutLinked(int ear, int pass) {
+		if (ear == -1)
+			return;
+
+		int stop = ear;
+		while (prev[ear] != next[ear]) {
+			int prevNode = prev[ear];
+			int nextNode = next[ear];
+
+			if (isEar(ear)) {
+				addTriangle(vertex[prevNode], vertex[ear], vertex[nextNode]);
+				removeNode(ear);
+
+				// skipping the next vertex leads to less sliver triangles
+				ear = next[nextNode];
+				stop = next[nextNode];
+				continue;
+			}
+
+			ear = nextNode;
+
+			if (ear == stop) {
+				// no ears found, try to fix the polygon
+				if (pass == 0)
+					earcutLinked(filterPoints(ear, -1), 1);
+				else if (pass == 1)
+					earcutLinked(cureLocalIntersections(filterPoints(ear, -1)), 2);
+				else if (pass == 2)
+					splitEarcut(ear);
+
+				break;
+			}
+		}
+	}
+
+	private boolean isEar(int ear) {
+		int a = prev[ear], b = ear, c = next[ear];
+		if (area(a, b, c) >= 0)
+			return false; // reflex
+
+		// make sure no other vertex lies inside the ear
+		int p = next[c];
+		while (p != a) {
+			if (pointInTriangle(x[a], y[a], x[b], y[b], x[c], y[c], x[p], y[p]) && area(prev[p], p, next[p]) >= 0)
+				return false;
+
+			p = next[p];
+		}
+
+		return true;
+	}
+
+	private int cureLocalIntersections(int start) {
+		int p = start;
+		do {
+			int a = prev[p], b = next[next[p]];
+
+			if (!equals(a, b) && intersects(a, p, next[p], b) && locallyInside(a, b) && locallyInside(b, a)) {
+				addTriangle(vertex[a], vertex[p], vertex[b]);
+
+				// remove the two nodes involved
+				removeNode(p);
+				removeNode(next[p]);
+				p = start = b;
+			}
+
+			p = next[p];
+		} while (p != start);
+
+		return filterPoints(p, -1);
+	}
+
+	private void splitEarcut(int start) {
+		// look for a valid diagonal that divides the polygon into two
+		int a = start;
+		do {
+			int b = next[next[a]];
+			while (b != prev[a]) {
+				if (vertex[a] != vertex[b] && isValidDiagonal(a, b)) {
+					int c = splitPolygon(a, b);
+
+					a = filterPoints(a, next[a]);
+					c = filterPoints(c, next[c]);
+
+					earcutLinked(a, 0);
+					earcutLinked(c, 0);
+					return;
+				}
+
+				b = next[b];
+			}
+
+			a = next[a];
+		} while (a != start);
+	}
+
+	private int eliminateHoles(double[] coordinates, int[] ringSizes, int uAxis, int vAxis, int outerNode) {
+		if (holes.length < ringSizes.length)
+			holes = new int[ringSizes.length];
+
+		int holeCount = 0;
+		for (int i = 1, start = ringSizes[0]; i < ringSizes.length; start += ringSizes[i++]) {
+			if (ringSizes[i] < 3)
+				continue;
+
+			int list = linkedList(coordinates, start, start + ringSizes[i], uAxis, vAxis, false);
+			if (list != -1 && next[list] != list)
+				holes[holeCount++] = getLeftmost(list);
+		}
+
+		// process holes from left to right
+		for (int i = 1; i < holeCount; i++) {
+			int hole = holes[i];
+			int j = i - 1;
+			while (j >= 0 && x[holes[j]] > x[hole]) {
+				holes[j + 1] = holes[j];
+				j--;
+			}
+
+			holes[j + 1] = hole;
+		}
+
+		for (int i = 0; i < holeCount; i++)
+			outerNode = eliminateHole(holes[i], outerNode);
+
+		return outerNode;
+	}
+
+	private int eliminateHole(int hole, int outerNode) {
+		int bridge = findHoleBridge(hole, outerNode);
+		if (bridge == -1)
+			return outerNode;
+
+		int bridgeReverse = splitPolygon(bridge, hole);
+		filterPoints(bridgeReverse, next[bridgeReverse]);
+		return filterPoints(bridge, next[bridge]);
+	}
+
+	private int findHoleBridge(int hole, int outerNode) {
+		double hx = x[hole], hy = y[hole];
+		double qx = Double.NEGATIVE_INFINITY;
+		int m = -1;
+
+		// find a segment intersected by a ray from the hole's leftmost point to the left;
+		// segment's endpoint with lesser x will be potential connection point
+		int p = outerNode;
+		do {
+			int n = next[p];
+			if (hy <= y[p] && hy >= y[n] && y[n] != y[p]) {
+				double intersection = x[p] + (hy - y[p]) * (x[n] - x[p]) / (y[n] - y[p]);
+				if (intersection <= hx && intersection > qx) {
+					qx = intersection;
+					m = x[p] < x[n] ? p : n;
+					if (intersection == hx)
+						return m; // hole touches outer segment
+				}
+			}
+
+			p = n;
+		} while (p != outerNode);
+
+		if (m == -1)
+			return -1;
+
+		// look for points inside the triangle of hole point, segment intersection and endpoint;
+		// if there are no points found, we have a valid connection;
+		// otherwise choose the point of the minimum angle with the ray as connection point
+		int stop = m;
+		double mx = x[m], my = y[m];
+		double tanMin = Double.POSITIVE_INFINITY;
+
+		p = m;
+		do {
+			if (hx >= x[p] && x[p] >= mx && hx != x[p] && 
+					pointInTriangle(hy < my ? hx : qx, hy, mx, my, hy < my ? qx : hx, hy, x[p], y[p])) {
+				double tan = Math.abs(hy - y[p]) / (hx - x[p]);
+
+				if (locallyInside(p, hole) && 
+						(tan < tanMin || (tan == tanMin && (x[p] > x[m] || (x[p] == x[m] && sectorContainsSector(m, p)))))) {
+					m = p;
+					tanMin = tan;
+				}
+			}
+
+			p = next[p];
+		} while (p != stop);
+
+		return m;
+	}
+
+	private boolean sectorContainsSector(int m, int p) {
+		return area(prev[m], m, prev[p]) < 0 && area(next[p], m, next[m]) < 0;
+	}
+
+	private int getLeftmost(int start) {
+		int p = start, leftmost = start;
+		do {
+			if (x[p] < x[leftmost] || (x[p] == x[leftmost] && y[p] < y[leftmost]))
+				leftmost = p;
+
+			p = next[p];
+		} while (p != start);
+
+		return leftmost;
+	}
+
+	private boolean isValidDiagonal(int a, int b) {
+		return vertex[next[a]] != vertex[b] && vertex[prev[a]] != vertex[b] && !intersectsPolygon(a, b) &&
+				((locallyInside(a, b) && locallyInside(b, a) && middleInside(a, b) && 
+						(area(prev[a], a, prev[b]) != 0 || area(a, prev[b], b) != 0)) ||
+						(equals(a, b) && area(prev[a], a, next[a]) > 0 && area(prev[b], b, next[b]) > 0));
+	}
+
+	private boolean intersectsPolygon(int a, int b) {
+		int p = a;
+		do {
+			int n = next[p];
+			if (vertex[p] != vertex[a] && vertex[n] != vertex[a] && vertex[p] != vertex[b] && vertex[n] != vertex[b] && 
+					intersects(p, n, a, b))
+				return true;
+
+			p = n;
+		} while (p != a);
+
+		return false;
+	}
+
+	private boolean locallyInside(int a, int b) {
+		return area(prev[a], a, next[a]) < 0 ?
+				area(a, b, next[a]) >= 0 && area(a, prev[a], b) >= 0 :
+					area(a, b, prev[a]) < 0 || area(a, next[a], b) < 0;
+	}
+
+	private boolean middleInside(int a, int b) {
+		int p = a;
+		boolean inside = false;
+		double px = (x[a] + x[b]) / 2, py = (y[a] + y[b]) / 2;
+		do {
+			int n = next[p];
+			if (((y[p] > py) != (y[n] > py)) && y[n] != y[p] && 
+					(px < (x[n] - x[p]) * (py - y[p]) / (y[n] - y[p]) + x[p]))
+				inside = !inside;
+
+			p = n;
+		} while (p != a);
+
+		return inside;
+	}
+
+	private boolean intersects(int p1, int q1, int p2, int q2) {
+		int o1 = sign(area(p1, q1, p2));
+		int o2 = sign(area(p1, q1, q2));
+		int o3 = sign(area(p2, q2, p1));
+		int o4 = sign(area(p2, q2, q1));
+
+		if (o1 != o2 && o3 != o4)
+			return true;
+
+		// collinear cases
+		return (o1 == 0 && onSegment(p1, p2, q1)) ||
+				(o2 == 0 && onSegment(p1, q2, q1)) ||
+				(o3 == 0 && onSegment(p2, p1, q2)) ||
+				(o4 == 0 && onSegment(p2, q1, q2));
+	}
+
+	private boolean onSegment(int p, int q, int r) {
+		return x[q] <= Math.max(x[p], x[r]) && x[q] >= Math.min(x[p], x[r]) && 
+				y[q] <= Math.max(y[p], y[r]) && y[q] >= Math.min(y[p], y[r]);
+	}
+
+	private int sign(double value) {
+		return value > 0 ? 1 : value < 0 ? -1 : 0;
+	}
+
+	private double area(int p, int q, int r) {
+		return (y[q] - y[p]) * (x[r] - x[q]) - (x[q] - x[p]) * (y[r] - y[q]);
+	}
+
+	private boolean equals(int p1, int p2) {
+		return x[p1] == x[p2] && y[p1] == y[p2];
+	}
+
+	private boolean pointInTriangle(double ax, double ay, double bx, double by, double cx, double cy, double px, double py) {
+		return (cx - px) * (ay - py) >= (ax - px) * (cy - py) &&
+				(ax - px) * (by - py) >= (bx - px) * (ay - py) &&
+				(bx - px) * (cy - py) >= (cx - px) * (by - py);
+	}
+
+	private int splitPolygon(int a, int b) {
+		// link two polygon vertices with a bridge; if the vertices belong to the same ring, 
+		// the polygon is split into two; if one belongs to the outer ring and another to a hole, 
+		// the hole is merged into a single ring
+		int a2 = newNode(vertex[a], x[a], y[a]);
+		int b2 = newNode(vertex[b], x[b], y[b]);
+		int an = next[a];
+		int bp = prev[b];
+
+		next[a] = b;
+		prev[b] = a;
+
+		next[a2] = an;
+		prev[an] = a2;
+
+		next[b2] = a2;
+		prev[a2] = b2;
+
+		next[bp] = b2;
+		prev[b2] = bp;
+
+		return b2;
+	}
+
+	private int insertNode(int index, double u, double v, int last) {
+		int p = newNode(index, u, v);
+
+		if (last == -1) {
+			prev[p] = p;
+			next[p] = p;
+		} else {
+			next[p] = next[last];
+			prev[p] = last;
+			prev[next[last]] = p;
+			next[last] = p;
+		}
+
+		return p;
+	}
+
+	private int newNode(int index, double u, double v) {
+		if (nodeCount == x.length) {
+			int capacity = x.length * 2;
+			x = copyOf(x, capacity);
+			y = copyOf(y, capacity);
+			vertex = copyOf(vertex, capacity);
+			prev = copyOf(prev, capacity);
+			next = copyOf(next, capacity);
+		}
+
+		x[nodeCount] = u;
+		y[nodeCount] = v;
+		vertex[nodeCount] = index;
+		return nodeCount++;
+	}
+
+	private void removeNode(int p) {
+		next[prev[p]] = next[p];
+		prev[next[p]] = prev[p];
+	}
+
+	private void addTriangle(int a, int b, int c) {
+		if (indexCount + 3 > indexes.length)
+			indexes = copyOf(indexes, indexes.length * 2);
+
+		indexes[indexCount++] = a;
+		indexes[indexCount++] = b;
+		indexes[indexCount++] = c;
+	}
+
+	private double[] copyOf(double[] array, int length) {
+		double[] tmp = new double[length];
+		System.arraycopy(array, 0, tmp, 0, array.length);
+		return tmp;
+	}
+
+	private int[] copyOf(int[] array, int length) {
+		int[] tmp = new int[length];
+		System.arraycopy(array, 0, tmp, 0, array.length);
+		return tmp;
+	}
+
+}
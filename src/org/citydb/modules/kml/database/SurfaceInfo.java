@@ -27,17 +27,17 @@
  */
 package org.citydb.modules.kml.database;
 
-import java.util.List;
-
 public class SurfaceInfo {
 	private final int ringCount;
 	private final int[] vertexCount;
-	private final List<VertexInfo> vertexInfos;
+	private int[] vertexIndexes;
+	private double[] texCoords;
+	private int size;
 
-	public SurfaceInfo(int ringCount, int[] vertexCount, List<VertexInfo> vertexInfos) {
+	public SurfaceInfo(int ringCount) {
 		this.ringCount = ringCount;
-		this.vertexCount = vertexCount;
-		this.vertexInfos = vertexInfos;
+		vertexCount = new int[ringCount];
+		vertexIndexes = new int[16];
 	}
 
 	public int getRingCount() {
@@ -53,7 +53,80 @@ public class SurfaceInfo {
 		return vertexCount;
 	}
 
-	public List<VertexInfo> getVertexInfos() {
-		return vertexInfos;
-	}	
+	public void setVertexCount(int ring, int vertices) {
+		vertexCount[ring] = vertices;
+	}
+
+	public void addVertex(int vertexIndex) {
+		ensureCapacity(size + 1);
+		if (texCoords != null) {
+			texCoords[size * 2] = Double.NaN;
+			texCoords[size * 2 + 1] = Double.NaN;
+		}
+
+		vertexIndexes[size++] = vertexIndex;
+	}
+
+	public void addVertex(int vertexIndex, double s, double t) {
+		ensureCapacity(size + 1);
+		if (texCoords == null) {
+			texCoords = new double[vertexIndexes.length * 2];
+			for (int i = 0; i < size * 2; i++)
+				texCoords[i] = Double.NaN;
+		}
+
+		texCoords[size * 2] = s;
+		texCoords[size * 2 + 1] = t;
+		vertexIndexes[size++] = vertexIndex;
+	}
+
+	public int getNumVertices() {
+		return size;
+	}
+
+	public int getVertexIndex(int i) {
+		return vertexIndexes[i];
+	}
+
+	public boolean hasTexCoords() {
+		return texCoords != null;
+	}
+
+	public boolean hasTexCoords(int i) {
+		return texCoords != null && !Double.isNaN(texCoords[i * 2]);
+	}
+
+	public double getS(int i) {
+		return texCoords[i * 2];
+	}
+
+	public double getT(int i) {
+		return texCoords[i * 2 + 1];
+	}
+
+	public void setTexCoords(int i, double s, double t) {
+		texCoords[i * 2] = s;
+		texCoords[i * 2 + 1] = t;
+	}
+
+	public void updateVertexIndexes(int[] vertexIndexMap) {
+		for (int i = 0; i < size; i++)
+			vertexIndexes[i] = vertexIndexMap[vertexIndexes[i]];
+	}
+
+	private void ensureCapacity(int capacity) {
+		if (capacity > vertexIndexes.length) {
+			int newCapacity = Math.max(capacity, vertexIndexes.length * 2);
+
+			int[] tmp = new int[newCapacity];
+			System.arraycopy(vertexIndexes, 0, tmp, 0, size);
+			vertexIndexes = tmp;
+
+			if (texCoords != null) {
+				double[] tmpTexCoords = new double[newCapacity * 2];
+				System.arraycopy(texCoords, 0, tmpTexCoords, 0, size * 2);
+				texCoords = tmpTexCoords;
+			}
+		}
+	}
 }
@@ -51,4 +51,22 @@ public class TexCoords {
 	protected double getT() {
 		return t;
 	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+
+		if (!(obj instanceof TexCoords))
+			return false;
+
+		TexCoords other = (TexCoords)obj;
+		return Double.compare(s, other.s) == 0 && Double.compare(t, other.t) == 0;
+	}
+
+	@Override
+	public int hashCode() {
+		long bits = Double.doubleToLongBits(s) * 31 + Double.doubleToLongBits(t);
+		return (int)(bits ^ (bits >>> 32));
+	}
 }
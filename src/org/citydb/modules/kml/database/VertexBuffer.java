@@ -0,0 +1,72 @@
+/*
+ * 3D City Database - The Open Source CityGML Database
+ * http://www.3dcitydb.org/
+ * 
+ * Copyright 2013 - 2016
+ * Chair of Geoinformatics
+ * Technical University of Munich, Germany
+ * https://www.gis.bgu.tum.de/
+ * 
+ * The 3D City Database is jointly developed with the following
+ * cooperation partners:
+ * 
+ * virtualcitySYSTEMS GmbH, Berlin <http://www.virtualcitysystems.de/>
+ * M.O.S.S. Computer Grafik Systeme GmbH, Taufkirchen <http://www.moss.de/>
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *     
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.citydb.modules.kml.database;
+
+public class VertexBuffer {
+	private double[] coordinates;
+	private int size;
+
+	public VertexBuffer() {
+		this(256);
+	}
+
+	public VertexBuffer(int initialCapacity) {
+		coordinates = new double[Math.max(initialCapacity, 1) * 3];
+	}
+
+	public int add(double x, double y, double z) {
+		if ((size + 1) * 3 > coordinates.length) {
+			double[] tmp = new double[coordinates.length * 2];
+			System.arraycopy(coordinates, 0, tmp, 0, size * 3);
+			coordinates = tmp;
+		}
+
+		coordinates[size * 3] = x;
+		coordinates[size * 3 + 1] = y;
+		coordinates[size * 3 + 2] = z;
+
+		return size++;
+	}
+
+	public double getX(int index) {
+		return coordinates[index * 3];
+	}
+
+	public double getY(int index) {
+		return coordinates[index * 3 + 1];
+	}
+
+	public double getZ(int index) {
+		return coordinates[index * 3 + 2];
+	}
+
+	public int size() {
+		return size;
+	}
+
+}
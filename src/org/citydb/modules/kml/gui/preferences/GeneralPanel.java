@@ -31,14 +31,11 @@ import java.awt.GridBagConstraints;
 import java.awt.GridBagLayout;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
-import java.io.File;
 import java.text.DecimalFormat;
 import java.text.ParseException;
 
-import javax.swing.JButton;
 import javax.swing.JCheckBox;
 import javax.swing.JComboBox;
-import javax.swing.JFileChooser;
 import javax.swing.JFormattedTextField;
 import javax.swing.JLabel;
 import javax.swing.JOptionPane;
@@ -83,10 +80,10 @@ public class GeneralPanel extends AbstractPreferencesComponent {
 	private JTextField callbackNameJSONPText = new JTextField();
 	
 	private JCheckBox createGltfCheckbox = new JCheckBox();
-	private JTextField gltfConverterBrowseText = new JTextField("");
-	private JButton gltfConverterBrowseButton = new JButton("");
 	private JCheckBox notCreateColladaCheckbox = new JCheckBox();
 	private JCheckBox embedTexturesInGltfCheckbox = new JCheckBox();
+	private JCheckBox exportGltfBinaryCheckbox = new JCheckBox();
+	private JCheckBox quantizeGltfVerticesCheckbox = new JCheckBox();
 	
 	public GeneralPanel(Config config) {
 		super(config);
@@ -138,9 +135,10 @@ public class GeneralPanel extends AbstractPreferencesComponent {
 		if (!callbackNameJSONPText.getText().trim().equals(kmlExporter.getCallbackNameJSONP())) return true;
 
 		if (createGltfCheckbox.isSelected() != kmlExporter.isCreateGltfModel()) return true;
-		if (!gltfConverterBrowseText.getText().equals(kmlExporter.getPathOfGltfConverter())) return true;
 		if (notCreateColladaCheckbox.isSelected() != kmlExporter.isNotCreateColladaFiles()) return true;
 		if (embedTexturesInGltfCheckbox.isSelected() != kmlExporter.isEmbedTexturesInGltfFiles()) return true;
+		if (exportGltfBinaryCheckbox.isSelected() != kmlExporter.isExportGltfBinary()) return true;
+		if (quantizeGltfVerticesCheckbox.isSelected() != kmlExporter.isQuantizeGltfVertices()) return true;
 		
 		return false;
 	}
@@ -165,12 +163,13 @@ public class GeneralPanel extends AbstractPreferencesComponent {
 		createGltfCheckbox.setIconTextGap(10);
 		notCreateColladaCheckbox.setIconTextGap(10);
 		embedTexturesInGltfCheckbox.setIconTextGap(10);
-		gltfConverterBrowseText.setPreferredSize(gltfConverterBrowseText.getSize());
-		collada2gltfConverterPanel.add(createGltfCheckbox, GuiUtil.setConstraints(0,0,0.0,1.0,GridBagConstraints.BOTH,0,BORDER_THICKNESS,0,BORDER_THICKNESS));
-		collada2gltfConverterPanel.add(gltfConverterBrowseText, GuiUtil.setConstraints(0,1,1.0,1.0,GridBagConstraints.BOTH,0,BORDER_THICKNESS*6,0,BORDER_THICKNESS));
-		collada2gltfConverterPanel.add(gltfConverterBrowseButton, GuiUtil.setConstraints(1,1,0.0,1.0,GridBagConstraints.BOTH,0,BORDER_THICKNESS,0,BORDER_THICKNESS));
-		collada2gltfConverterPanel.add(notCreateColladaCheckbox, GuiUtil.setConstraints(0,2,1.0,1.0,GridBagConstraints.BOTH,BORDER_THICKNESS,BORDER_THICKNESS*5,0,BORDER_THICKNESS));
-		collada2gltfConverterPanel.add(embedTexturesInGltfCheckbox, GuiUtil.setConstraints(0,3,1.0,1.0,GridBagConstraints.BOTH,0,BORDER_THICKNESS*5,0,BORDER_THICKNESS));
+		exportGltfBinaryCheckbox.setIconTextGap(10);
+		quantizeGltfVerticesCheckbox.setIconTextGap(10);
+		collada2gltfConverterPanel.add(createGltfCheckbox, GuiUtil.setConstraints(0,0,1.0,1.0,GridBagConstraints.BOTH,0,BORDER_THICKNESS,0,BORDER_THICKNESS));
+		collada2gltfConverterPanel.add(notCreateColladaCheckbox, GuiUtil.setConstraints(0,1,1.0,1.0,GridBagConstraints.BOTH,BORDER_THICKNESS,BORDER_THICKNESS*5,0,BORDER_THICKNESS));
+		collada2gltfConverterPanel.add(embedTexturesInGltfCheckbox, GuiUtil.setConstraints(0,2,1.0,1.0,GridBagConstraints.BOTH,0,BORDER_THICKNESS*5,0,BORDER_THICKNESS));
+		collada2gltfConverterPanel.add(exportGltfBinaryCheckbox, GuiUtil.setConstraints(0,3,1.0,1.0,GridBagConstraints.BOTH,0,BORDER_THICKNESS*5,0,BORDER_THICKNESS));
+		collada2gltfConverterPanel.add(quantizeGltfVerticesCheckbox, GuiUtil.setConstraints(0,4,1.0,1.0,GridBagConstraints.BOTH,0,BORDER_THICKNESS*5,0,BORDER_THICKNESS));
 		
 		JPanel generalPanel = new JPanel();
 		add(generalPanel, GuiUtil.setConstraints(0,1,1.0,0.0,GridBagConstraints.BOTH,BORDER_THICKNESS,0,BORDER_THICKNESS,0));
@@ -225,10 +224,10 @@ public class GeneralPanel extends AbstractPreferencesComponent {
 		GridBagConstraints sl = GuiUtil.setConstraints(2,8,0.0,1.0,GridBagConstraints.NONE,BORDER_THICKNESS,BORDER_THICKNESS,0,BORDER_THICKNESS);
 		sl.anchor = GridBagConstraints.WEST;
 		generalPanel.add(sLabel, sl);
-
+
 		generalPanel.add(writeJSONCheckbox, GuiUtil.setConstraints(0,9,0.0,1.0,GridBagConstraints.BOTH,BORDER_THICKNESS,BORDER_THICKNESS,0,0));
 		generalPanel.add(writeJSONPCheckbox, GuiUtil.setConstraints(0,10,0.0,1.0,GridBagConstraints.EAST,GridBagConstraints.NONE,0,0,0,1));
-		generalPanel.add(callbackNameJSONPLabel, GuiUtil.setConstraints(0,11,0.0,1.0,GridBagConstraints.EAST,GridBagConstraints.NONE,BORDER_THICKNESS,BORDER_THICKNESS,0,BORDER_THICKNESS));
+		generalPanel.add(callbackNameJSONPLabel, GuiUtil.setConstraints(0,11,0.0,1.0,GridBagConstraints.EAST,GridBagConstraints.NONE,BORDER_THICKNESS,BORDER_THICKNESS,0,BORDER_THICKNESS));
 		generalPanel.add(callbackNameJSONPText, GuiUtil.setConstraints(1,12,1.0,0.0,GridBagConstraints.HORIZONTAL,BORDER_THICKNESS,BORDER_THICKNESS,0,BORDER_THICKNESS));
 
 		PopupMenuDecorator.getInstance().decorate(autoTileSideLengthText, visibleFromText, viewRefreshTimeText, callbackNameJSONPText);
@@ -308,12 +307,6 @@ public class GeneralPanel extends AbstractPreferencesComponent {
 				setEnabledComponents();
 			}
 		});
-		
-		gltfConverterBrowseButton.addActionListener(new ActionListener() {
-			public void actionPerformed(ActionEvent e) {
-				browseGltfConverterFile(Language.I18N.getString("pref.kmlexport.dialog.gltf.title"));
-			}
-		});
 	}
 
 	@Override
@@ -332,9 +325,10 @@ public class GeneralPanel extends AbstractPreferencesComponent {
 		writeJSONPCheckbox.setText(Language.I18N.getString("pref.kmlexport.label.writeJSONPFile"));
 		callbackNameJSONPLabel.setText(Language.I18N.getString("pref.kmlexport.label.callbackNameJSONP"));
 		createGltfCheckbox.setText(Language.I18N.getString("pref.kmlexport.label.createGlTF"));
-		gltfConverterBrowseButton.setText(Language.I18N.getString("common.button.browse"));
 		notCreateColladaCheckbox.setText(Language.I18N.getString("pref.kmlexport.label.notCreateColladaFiles"));
 		embedTexturesInGltfCheckbox.setText(Language.I18N.getString("pref.kmlexport.label.embedTexturesInGltfFiles"));
+		exportGltfBinaryCheckbox.setText(Language.I18N.getString("pref.kmlexport.label.exportGltfBinary"));
+		quantizeGltfVerticesCheckbox.setText(Language.I18N.getString("pref.kmlexport.label.quantizeGltfVertices"));
 	}
 
 	@Override
@@ -354,9 +348,10 @@ public class GeneralPanel extends AbstractPreferencesComponent {
 		writeJSONPCheckbox.setSelected(kmlExporter.isWriteJSONPFile());
 		callbackNameJSONPText.setText(kmlExporter.getCallbackNameJSONP());
 		createGltfCheckbox.setSelected(kmlExporter.isCreateGltfModel());
-		gltfConverterBrowseText.setText(kmlExporter.getPathOfGltfConverter());
 		notCreateColladaCheckbox.setSelected(kmlExporter.isNotCreateColladaFiles());
 		embedTexturesInGltfCheckbox.setSelected(kmlExporter.isEmbedTexturesInGltfFiles());
+		exportGltfBinaryCheckbox.setSelected(kmlExporter.isExportGltfBinary());
+		quantizeGltfVerticesCheckbox.setSelected(kmlExporter.isQuantizeGltfVertices());
 		
 		setEnabledComponents();
 	}
@@ -395,9 +390,10 @@ public class GeneralPanel extends AbstractPreferencesComponent {
 		kmlExporter.setWriteJSONPFile(writeJSONPCheckbox.isSelected());
 		kmlExporter.setCallbackNameJSONP(callbackNameJSONPText.getText().trim());
 		kmlExporter.setCreateGltfModel(createGltfCheckbox.isSelected());
-		kmlExporter.setPathOfGltfConverter(gltfConverterBrowseText.getText());
 		kmlExporter.setNotCreateColladaFiles(notCreateColladaCheckbox.isSelected());
 		kmlExporter.setEmbedTexturesInGltfFiles(embedTexturesInGltfCheckbox.isSelected());
+		kmlExporter.setExportGltfBinary(exportGltfBinaryCheckbox.isSelected());
+		kmlExporter.setQuantizeGltfVertices(quantizeGltfVerticesCheckbox.isSelected());
 	}
 
 	private void setEnabledComponents() {
@@ -416,27 +412,10 @@ public class GeneralPanel extends AbstractPreferencesComponent {
 		callbackNameJSONPLabel.setEnabled(writeJSONPCheckbox.isEnabled() && writeJSONPCheckbox.isSelected());
 		callbackNameJSONPText.setEnabled(writeJSONPCheckbox.isEnabled() && writeJSONPCheckbox.isSelected());
 		
-		gltfConverterBrowseText.setEnabled(createGltfCheckbox.isSelected());
-		gltfConverterBrowseButton.setEnabled(createGltfCheckbox.isSelected());			
 		notCreateColladaCheckbox.setEnabled(createGltfCheckbox.isSelected());
 		embedTexturesInGltfCheckbox.setEnabled(createGltfCheckbox.isSelected());
-	}
-	
-	private void browseGltfConverterFile(String title) {
-		JFileChooser chooser = new JFileChooser();
-		chooser.setDialogTitle(title);
-		chooser.setFileSelectionMode(JFileChooser.FILES_ONLY);
-		
-		if (!gltfConverterBrowseText.getText().trim().isEmpty())
-			chooser.setCurrentDirectory(new File(gltfConverterBrowseText.getText()));
-		else
-			chooser.setCurrentDirectory(new File("contribs" + File.separator + "collada2gltf"));
-		
-		int result = chooser.showOpenDialog(getTopLevelAncestor());
-		if (result == JFileChooser.CANCEL_OPTION) 
-			return;
-
-		gltfConverterBrowseText.setText(chooser.getSelectedFile().toString());
+		exportGltfBinaryCheckbox.setEnabled(createGltfCheckbox.isSelected());
+		quantizeGltfVerticesCheckbox.setEnabled(createGltfCheckbox.isSelected());
 	}
 
 	@Override
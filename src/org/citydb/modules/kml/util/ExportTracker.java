@@ -28,15 +28,22 @@
 package org.citydb.modules.kml.util;
 
 import java.util.Collection;
+import java.util.EnumMap;
+import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
+import org.citygml4j.model.citygml.CityGMLClass;
+
 public class ExportTracker {
 	
 	private final ConcurrentHashMap<Long, CityObject4JSON> map;
+	private final EnumMap<CityGMLClass, Long> featureCounterMap;
 	private String currentWorkingDirectoryPath;
+	private KmzArchive kmzArchive;
 	
 	public ExportTracker() {
 		map = new ConcurrentHashMap<Long, CityObject4JSON>();
+		featureCounterMap = new EnumMap<CityGMLClass, Long>(CityGMLClass.class);
 	}
 	
 	public void put(long id, CityObject4JSON json) {
@@ -55,6 +62,21 @@ public class ExportTracker {
 		return map.values();
 	}
 
+	public void updateFeatureCounter(Map<CityGMLClass, Long> counter) {
+		synchronized (featureCounterMap) {
+			for (Map.Entry<CityGMLClass, Long> entry : counter.entrySet()) {
+				Long value = featureCounterMap.get(entry.getKey());
+				featureCounterMap.put(entry.getKey(), value != null ? value + entry.getValue() : entry.getValue());
+			}
+		}
+	}
+
+	public EnumMap<CityGMLClass, Long> getFeatureCounter() {
+		synchronized (featureCounterMap) {
+			return new EnumMap<CityGMLClass, Long>(featureCounterMap);
+		}
+	}
+
 	public String getCurrentWorkingDirectoryPath() {
 		return currentWorkingDirectoryPath;
 	}
@@ -62,5 +84,13 @@ public class ExportTracker {
 	public void setCurrentWorkingDirectoryPath(String currentWorkingDirectoryPath) {
 		this.currentWorkingDirectoryPath = currentWorkingDirectoryPath;
 	}
+
+	public KmzArchive getKmzArchive() {
+		return kmzArchive;
+	}
+
+	public void setKmzArchive(KmzArchive kmzArchive) {
+		this.kmzArchive = kmzArchive;
+	}
 	
 }
@@ -0,0 +1,133 @@
+/*
+ * 3D City Database - The Open Source CityGML Database
+ * http://www.3dcitydb.org/
+ * 
+ * Copyright 2013 - 2016
+ * Chair of Geoinformatics
+ * Technical University of Munich, Germany
+ * https://www.gis.bgu.tum.de/
+ * 
+ * The 3D City Database is jointly developed with the following
+ * cooperation partners:
+ * 
+ * virtualcitySYSTEMS GmbH, Berlin <http://www.virtualcitysystems.de/>
+ * M.O.S.S. Computer Grafik Systeme GmbH, Taufkirchen <http://www.moss.de/>
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *     
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.citydb.modules.kml.util;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Thread-safe sink for the entries of a KMZ file. Entries are written to
+ * the archive in the order in which they are put. Images in compressed
+ * formats are stored without further compression. Entries whose name 
+ * already exists in the archive are skipped.
+ */
+public class KmzArchive {
+	private final ZipOutputStream zipOut;
+	private final Set<String> entryNames = new HashSet<String>();
+	private final byte[] buffer = new byte[64 * 1024];
+	private boolean isClosed;
+
+	public KmzArchive(File file) throws IOException {
+		zipOut = new ZipOutputStream(new FileOutputStream(file));
+	}
+
+	public synchronized boolean containsEntry(String name) {
+		return entryNames.contains(name);
+	}
+
+	public synchronized boolean putEntry(String name, byte[] content) throws IOException {
+		if (!entryNames.add(name))
+			return false;
+
+		ZipEntry zipEntry = new ZipEntry(name);
+		if (isCompressed(name)) {
+			CRC32 crc = new CRC32();
+			crc.update(content);
+			zipEntry.setMethod(ZipEntry.STORED);
+			zipEntry.setSize(content.length);
+			zipEntry.setCompressedSize(content.length);
+			zipEntry.setCrc(crc.getValue());
+		}
+
+		zipOut.putNextEntry(zipEntry);
+		zipOut.write(content);
+		zipOut.closeEntry();
+		return true;
+	}
+
+	public synchronized boolean putEntry(String name, File file) throws IOException {
+		if (!entryNames.add(name))
+			return false;
+
+		ZipEntry zipEntry = new ZipEntry(name);
+		if (isCompressed(name)) {
+			CRC32 crc = new CRC32();
+			InputStream inputStream = new FileInputStream(file);
+			try {
+				int length;
+				while ((length = inputStream.read(buffer)) >= 0)
+					crc.update(buffer, 0, length);
+			} finally {
+				inputStream.close();
+			}
+
+			zipEntry.setMethod(ZipEntry.STORED);
+			zipEntry.setSize(file.length());
+			zipEntry.setCompressedSize(file.length());
+			zipEntry.setCrc(crc.getValue());
+		}
+
+		zipOut.putNextEntry(zipEntry);
+		InputStream inputStream = new FileInputStream(file);
+		try {
+			int length;
+			while ((length = inputStream.read(buffer)) >= 0)
+				zipOut.write(buffer, 0, length);
+		} finally {
+			inputStream.close();
+		}
+
+		zipOut.closeEntry();
+		return true;
+	}
+
+	public synchronized void close() throws IOException {
+		if (!isClosed) {
+			isClosed = true;
+			zipOut.close();
+		}
+	}
+
+	private boolean isCompressed(String name) {
+		String lowerCaseName = name.toLowerCase(Locale.ROOT);
+		return lowerCaseName.endsWith(".jpg") 
+				|| lowerCaseName.endsWith(".jpeg") 
+				|| lowerCaseName.endsWith(".png")
+				|| lowerCaseName.endsWith(".gif");
+	}
+
+}